@@ -0,0 +1,728 @@
+/**
+ * This class is a reduced ordered binary decision diagrams (BDD) package.
+ * The nodes are stored in integer arrays and identified by their index: 0 is the false terminal
+ * and 1 is the true terminal. The variables are ordered by their index, the variable 0 is the root.
+ * A unique table guarantees that each function has a single node, so two functions are equal
+ * if and only if they have the same index. The results of the operations are stored in a direct-mapped cache.
+ *
+ * The nodes are reclaimed by a mark and sweep garbage collector: the roots are the nodes with a positive
+ * reference count (see the ref and deref methods) and the operands of the current operation.
+ * The collection is executed only at the beginning of an operation, so the intermediate results are safe.
+ * A node kept between two operations must be referenced.
+ */
+
+package it.unimib.disco.bimib.Bdd;
+
+//System imports
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.HashMap;
+
+public class BddManager {
+
+	//Terminal nodes
+	public static final int FALSE = 0;
+	public static final int TRUE = 1;
+
+	private static final int INITIAL_NODES = 1 << 14;
+	//Ratio of free nodes under which the garbage is collected
+	private static final double COLLECT_RATIO = 0.1;
+	//Ratio of free nodes under which the node table grows after a collection
+	private static final double GROW_RATIO = 0.3;
+
+	//Operation codes of the cache
+	private static final int AND = 0;
+	private static final int OR = 1;
+	private static final int XOR = 2;
+	private static final int DIFF = 3;
+	private static final int NOT = 4;
+	private static final int ITE = 5;
+	private static final int EXISTS = 6;
+	private static final int COMPOSE = 7;
+
+	private int variables;
+	//Node table: variable, low child (variable false) and high child (variable true) of each node.
+	//The free nodes have variable -1 and are chained by their low child.
+	private int[] vars;
+	private int[] lows;
+	private int[] highs;
+	private int[] refs;
+	//Unique table: the first node of each bucket and the following node of each chain
+	private int[] buckets;
+	private int[] nexts;
+	private int freeList;
+	private int freeNodes;
+	//Operation cache
+	private int[] cacheOps;
+	private int[] cacheFirst;
+	private int[] cacheSecond;
+	private int[] cacheThird;
+	private int[] cacheResults;
+	//Functions substituted by the current compose operation, and its generation in the cache
+	private int[] substitution;
+	private int composeGeneration;
+	//Variables cube of the current exists operation
+	private boolean[] quantified;
+	private int existsGeneration;
+
+	/**
+	 * Generic constructor
+	 * @param variables: the number of the variables
+	 */
+	public BddManager(int variables){
+		if(variables <= 0)
+			throw new IllegalArgumentException("The number of variables must be greater than 0");
+		this.variables = variables;
+		this.vars = new int[0];
+		this.lows = new int[0];
+		this.highs = new int[0];
+		this.refs = new int[0];
+		this.freeList = -1;
+		this.freeNodes = 0;
+		this.resize(INITIAL_NODES);
+		//The terminals are never reclaimed
+		for(int terminal = FALSE; terminal <= TRUE; terminal++){
+			this.freeList = this.lows[terminal];
+			this.freeNodes--;
+			this.vars[terminal] = variables;
+			this.lows[terminal] = terminal;
+			this.highs[terminal] = terminal;
+		}
+		this.composeGeneration = 0;
+		this.existsGeneration = 0;
+	}
+
+	/**
+	 * This method returns the number of the variables
+	 * @return the number of the variables
+	 */
+	public int getVariablesNumber(){
+		return this.variables;
+	}
+
+	/**
+	 * This method returns the number of the allocated nodes, including the unreachable ones not yet reclaimed
+	 * @return the number of the allocated nodes
+	 */
+	public int getAllocatedNodes(){
+		return this.vars.length - this.freeNodes;
+	}
+
+	/**
+	 * This method increments the reference count of a node, so it survives the garbage collections
+	 * @param node: the node
+	 * @return the node
+	 */
+	public int ref(int node){
+		if(node > TRUE)
+			this.refs[node]++;
+		return node;
+	}
+
+	/**
+	 * This method decrements the reference count of a node
+	 * @param node: the node
+	 */
+	public void deref(int node){
+		if(node > TRUE && this.refs[node] > 0)
+			this.refs[node]--;
+	}
+
+	/**
+	 * This method returns the function of a variable
+	 * @param variable: the variable
+	 * @return the node of the variable
+	 */
+	public int ithVar(int variable){
+		this.checkVariable(variable);
+		this.prepare(FALSE, FALSE, FALSE);
+		return this.makeNode(variable, FALSE, TRUE);
+	}
+
+	/**
+	 * This method returns the negated function of a variable
+	 * @param variable: the variable
+	 * @return the node of the negated variable
+	 */
+	public int nithVar(int variable){
+		this.checkVariable(variable);
+		this.prepare(FALSE, FALSE, FALSE);
+		return this.makeNode(variable, TRUE, FALSE);
+	}
+
+	/**
+	 * This method returns the function that is true only for the given assignment
+	 * @param values: the value of each variable
+	 * @return the node of the minterm
+	 */
+	public int minterm(boolean[] values){
+		if(values.length != this.variables)
+			throw new IllegalArgumentException("The assignment must have a value for each variable");
+		this.prepare(FALSE, FALSE, FALSE);
+		int node = TRUE;
+		for(int variable = this.variables - 1; variable >= 0; variable--)
+			node = values[variable] ? this.makeNode(variable, FALSE, node) : this.makeNode(variable, node, FALSE);
+		return node;
+	}
+
+	/**
+	 * This method returns the conjunction of two functions
+	 * @param first: the first function
+	 * @param second: the second function
+	 * @return first and second
+	 */
+	public int and(int first, int second){
+		this.prepare(first, second, FALSE);
+		return this.apply(AND, first, second);
+	}
+
+	/**
+	 * This method returns the disjunction of two functions
+	 * @param first: the first function
+	 * @param second: the second function
+	 * @return first or second
+	 */
+	public int or(int first, int second){
+		this.prepare(first, second, FALSE);
+		return this.apply(OR, first, second);
+	}
+
+	/**
+	 * This method returns the exclusive disjunction of two functions
+	 * @param first: the first function
+	 * @param second: the second function
+	 * @return first xor second
+	 */
+	public int xor(int first, int second){
+		this.prepare(first, second, FALSE);
+		return this.apply(XOR, first, second);
+	}
+
+	/**
+	 * This method returns the difference of two functions
+	 * @param first: the first function
+	 * @param second: the second function
+	 * @return first and not second
+	 */
+	public int diff(int first, int second){
+		this.prepare(first, second, FALSE);
+		return this.apply(DIFF, first, second);
+	}
+
+	/**
+	 * This method returns the negation of a function
+	 * @param node: the function
+	 * @return not node
+	 */
+	public int not(int node){
+		this.prepare(node, FALSE, FALSE);
+		return this.negate(node);
+	}
+
+	/**
+	 * This method returns the if-then-else of three functions
+	 * @param condition: the condition function
+	 * @param then: the function selected when the condition is true
+	 * @param otherwise: the function selected when the condition is false
+	 * @return (condition and then) or (not condition and otherwise)
+	 */
+	public int ite(int condition, int then, int otherwise){
+		this.prepare(condition, then, otherwise);
+		return this.ite3(condition, then, otherwise);
+	}
+
+	/**
+	 * This method returns the existential quantification of a function over the given variables
+	 * @param node: the function
+	 * @param variables: true for each quantified variable
+	 * @return the quantified function
+	 */
+	public int exists(int node, boolean[] variables){
+		if(variables.length != this.variables)
+			throw new IllegalArgumentException("The quantified variables must have a value for each variable");
+		this.prepare(node, FALSE, FALSE);
+		this.quantified = variables;
+		this.existsGeneration++;
+		int result = this.exists(node);
+		this.quantified = null;
+		return result;
+	}
+
+	/**
+	 * This method replaces at the same time each variable i of a function with the function i of the given array.
+	 * If the functions are the next state functions of a synchronous network, the result is the pre-image
+	 * of the given set of states: the states whose following state is in the set.
+	 * The substituted functions are not collected during the operation.
+	 * @param node: the function
+	 * @param functions: the function of each variable
+	 * @return the composed function
+	 */
+	public int compose(int node, int[] functions){
+		if(functions.length != this.variables)
+			throw new IllegalArgumentException("The composition must have a function for each variable");
+		this.substitution = functions;
+		this.prepare(node, FALSE, FALSE);
+		this.composeGeneration++;
+		int result = this.compose(node);
+		this.substitution = null;
+		return result;
+	}
+
+	/**
+	 * This method returns the number of the assignments of all the variables that satisfy a function
+	 * @param node: the function
+	 * @return the number of the satisfying assignments
+	 */
+	public BigInteger satCount(int node){
+		//The variables above the root don't affect the function
+		return this.satCount(node, new HashMap<Integer, BigInteger>()).shiftLeft(this.vars[node]);
+	}
+
+	/**
+	 * This method returns an assignment that satisfies a function.
+	 * The variables that don't affect the function are false.
+	 * @param node: the function, different from false
+	 * @return the value of each variable
+	 */
+	public boolean[] satOne(int node){
+		if(node == FALSE)
+			throw new IllegalArgumentException("The false function has no satisfying assignments");
+		boolean[] values = new boolean[this.variables];
+		while(node != TRUE){
+			if(this.lows[node] != FALSE)
+				node = this.lows[node];
+			else{
+				values[this.vars[node]] = true;
+				node = this.highs[node];
+			}
+		}
+		return values;
+	}
+
+	/**
+	 * This method returns the number of the nodes of a function, including the terminals
+	 * @param node: the function
+	 * @return the number of the nodes
+	 */
+	public int nodeCount(int node){
+		boolean[] visited = new boolean[this.vars.length];
+		return this.nodeCount(node, visited);
+	}
+
+	/**
+	 * This method counts the nodes reachable from a node
+	 * @param node: the node
+	 * @param visited: the visited nodes
+	 * @return the number of the new visited nodes
+	 */
+	private int nodeCount(int node, boolean[] visited){
+		if(visited[node])
+			return 0;
+		visited[node] = true;
+		if(node <= TRUE)
+			return 1;
+		return 1 + this.nodeCount(this.lows[node], visited) + this.nodeCount(this.highs[node], visited);
+	}
+
+	/**
+	 * This method counts the satisfying assignments of the variables from the node variable to the last one
+	 * @param node: the node
+	 * @param counts: the counts of the visited nodes
+	 * @return the number of the satisfying assignments
+	 */
+	private BigInteger satCount(int node, HashMap<Integer, BigInteger> counts){
+		if(node == FALSE)
+			return BigInteger.ZERO;
+		if(node == TRUE)
+			return BigInteger.ONE;
+		BigInteger count = counts.get(node);
+		if(count != null)
+			return count;
+		int variable = this.vars[node];
+		BigInteger low = this.satCount(this.lows[node], counts).shiftLeft(this.vars[this.lows[node]] - variable - 1);
+		BigInteger high = this.satCount(this.highs[node], counts).shiftLeft(this.vars[this.highs[node]] - variable - 1);
+		count = low.add(high);
+		counts.put(node, count);
+		return count;
+	}
+
+	/**
+	 * This method checks the variable index
+	 * @param variable: the variable
+	 */
+	private void checkVariable(int variable){
+		if(variable < 0 || variable >= this.variables)
+			throw new IllegalArgumentException("Not existing variable: " + variable);
+	}
+
+	/**
+	 * This method is called at the beginning of each operation.
+	 * The garbage is collected if there are few free nodes, keeping the operands.
+	 * @param first: the first operand
+	 * @param second: the second operand
+	 * @param third: the third operand
+	 */
+	private void prepare(int first, int second, int third){
+		if(this.freeNodes >= COLLECT_RATIO * this.vars.length)
+			return;
+		this.collect(new int[]{first, second, third});
+		if(this.freeNodes < GROW_RATIO * this.vars.length)
+			this.resize(2 * this.vars.length);
+	}
+
+	/**
+	 * This method reclaims the nodes that are not reachable from the referenced nodes,
+	 * from the given roots and from the substituted functions of the compose operation.
+	 * The operation cache is cleared, since the reclaimed nodes can be reused.
+	 * @param roots: other nodes to be kept
+	 */
+	private void collect(int[] roots){
+		boolean[] marks = new boolean[this.vars.length];
+		marks[FALSE] = true;
+		marks[TRUE] = true;
+		for(int node = TRUE + 1; node < this.vars.length; node++){
+			if(this.refs[node] > 0)
+				this.mark(node, marks);
+		}
+		for(int root : roots)
+			this.mark(root, marks);
+		if(this.substitution != null){
+			for(int function : this.substitution)
+				this.mark(function, marks);
+		}
+
+		//Sweeps the unmarked nodes and rebuilds the unique table
+		Arrays.fill(this.buckets, -1);
+		this.freeList = -1;
+		this.freeNodes = 0;
+		for(int node = this.vars.length - 1; node > TRUE; node--){
+			if(marks[node] && this.vars[node] >= 0){
+				this.insert(node);
+			}else{
+				this.vars[node] = -1;
+				this.refs[node] = 0;
+				this.lows[node] = this.freeList;
+				this.freeList = node;
+				this.freeNodes++;
+			}
+		}
+		Arrays.fill(this.cacheOps, -1);
+	}
+
+	/**
+	 * This method marks the nodes reachable from a node
+	 * @param node: the node
+	 * @param marks: the marked nodes
+	 */
+	private void mark(int node, boolean[] marks){
+		while(!marks[node]){
+			marks[node] = true;
+			this.mark(this.lows[node], marks);
+			node = this.highs[node];
+		}
+	}
+
+	/**
+	 * This method resizes the node table, the unique table and the operation cache.
+	 * The new nodes are added to the free list.
+	 * @param capacity: the new number of nodes
+	 */
+	private void resize(int capacity){
+		int oldCapacity = this.vars.length;
+		this.vars = Arrays.copyOf(this.vars, capacity);
+		this.lows = Arrays.copyOf(this.lows, capacity);
+		this.highs = Arrays.copyOf(this.highs, capacity);
+		this.refs = Arrays.copyOf(this.refs, capacity);
+		this.nexts = new int[capacity];
+		for(int node = capacity - 1; node >= oldCapacity; node--){
+			this.vars[node] = -1;
+			this.lows[node] = this.freeList;
+			this.freeList = node;
+			this.freeNodes++;
+		}
+
+		//Rebuilds the unique table
+		this.buckets = new int[capacity];
+		Arrays.fill(this.buckets, -1);
+		for(int node = TRUE + 1; node < oldCapacity; node++){
+			if(this.vars[node] >= 0)
+				this.insert(node);
+		}
+
+		//The cache has a slot for each node
+		this.cacheOps = new int[capacity];
+		this.cacheFirst = new int[capacity];
+		this.cacheSecond = new int[capacity];
+		this.cacheThird = new int[capacity];
+		this.cacheResults = new int[capacity];
+		Arrays.fill(this.cacheOps, -1);
+	}
+
+	/**
+	 * This method returns the bucket of a node in the unique table
+	 * @param variable: the node variable
+	 * @param low: the low child
+	 * @param high: the high child
+	 * @return the bucket
+	 */
+	private int bucket(int variable, int low, int high){
+		long hash = ((long) variable * 0x9E3779B97F4A7C15L) ^ ((long) low * 0xC2B2AE3D27D4EB4FL) ^ ((long) high * 0x165667B19E3779F9L);
+		hash ^= hash >>> 29;
+		return (int) (hash & (this.buckets.length - 1));
+	}
+
+	/**
+	 * This method inserts a node in the unique table
+	 * @param node: the node
+	 */
+	private void insert(int node){
+		int bucket = this.bucket(this.vars[node], this.lows[node], this.highs[node]);
+		this.nexts[node] = this.buckets[bucket];
+		this.buckets[bucket] = node;
+	}
+
+	/**
+	 * This method returns the node with the given variable and children, creating it if it doesn't exist.
+	 * The node table grows if there are no free nodes.
+	 * @param variable: the node variable
+	 * @param low: the low child
+	 * @param high: the high child
+	 * @return the node
+	 */
+	private int makeNode(int variable, int low, int high){
+		if(low == high)
+			return low;
+		int bucket = this.bucket(variable, low, high);
+		for(int node = this.buckets[bucket]; node != -1; node = this.nexts[node]){
+			if(this.vars[node] == variable && this.lows[node] == low && this.highs[node] == high)
+				return node;
+		}
+		if(this.freeList == -1){
+			this.resize(2 * this.vars.length);
+			bucket = this.bucket(variable, low, high);
+		}
+		int node = this.freeList;
+		this.freeList = this.lows[node];
+		this.freeNodes--;
+		this.vars[node] = variable;
+		this.lows[node] = low;
+		this.highs[node] = high;
+		this.refs[node] = 0;
+		this.nexts[node] = this.buckets[bucket];
+		this.buckets[bucket] = node;
+		return node;
+	}
+
+	/**
+	 * This method returns the cache slot of an operation
+	 * @param operation: the operation code
+	 * @param first: the first operand
+	 * @param second: the second operand
+	 * @param third: the third operand
+	 * @return the cache slot
+	 */
+	private int slot(int operation, int first, int second, int third){
+		long hash = (((long) operation * 0x9E3779B97F4A7C15L + first) * 0xC2B2AE3D27D4EB4FL + second) * 0x165667B19E3779F9L + third;
+		hash ^= hash >>> 31;
+		return (int) (hash & (this.cacheOps.length - 1));
+	}
+
+	/**
+	 * This method returns the cached result of an operation
+	 * @param slot: the cache slot
+	 * @param operation: the operation code
+	 * @param first: the first operand
+	 * @param second: the second operand
+	 * @param third: the third operand
+	 * @return the result, -1 if it is not cached
+	 */
+	private int lookup(int slot, int operation, int first, int second, int third){
+		if(this.cacheOps[slot] == operation && this.cacheFirst[slot] == first &&
+				this.cacheSecond[slot] == second && this.cacheThird[slot] == third)
+			return this.cacheResults[slot];
+		return -1;
+	}
+
+	/**
+	 * This method stores the result of an operation in the cache.
+	 * The slot is computed again, since the cache can be resized during the operation.
+	 * @param operation: the operation code
+	 * @param first: the first operand
+	 * @param second: the second operand
+	 * @param third: the third operand
+	 * @param result: the result
+	 * @return the result
+	 */
+	private int store(int operation, int first, int second, int third, int result){
+		int slot = this.slot(operation, first, second, third);
+		this.cacheOps[slot] = operation;
+		this.cacheFirst[slot] = first;
+		this.cacheSecond[slot] = second;
+		this.cacheThird[slot] = third;
+		this.cacheResults[slot] = result;
+		return result;
+	}
+
+	/**
+	 * This method applies a binary operation to two functions
+	 * @param operation: AND, OR, XOR or DIFF
+	 * @param first: the first function
+	 * @param second: the second function
+	 * @return the result
+	 */
+	private int apply(int operation, int first, int second){
+		//Terminal cases
+		switch(operation){
+		case AND:
+			if(first == FALSE || second == FALSE)
+				return FALSE;
+			if(first == TRUE || first == second)
+				return second;
+			if(second == TRUE)
+				return first;
+			break;
+		case OR:
+			if(first == TRUE || second == TRUE)
+				return TRUE;
+			if(first == FALSE || first == second)
+				return second;
+			if(second == FALSE)
+				return first;
+			break;
+		case XOR:
+			if(first == second)
+				return FALSE;
+			if(first == FALSE)
+				return second;
+			if(second == FALSE)
+				return first;
+			if(first == TRUE)
+				return this.negate(second);
+			if(second == TRUE)
+				return this.negate(first);
+			break;
+		default:
+			if(first == FALSE || second == TRUE || first == second)
+				return FALSE;
+			if(second == FALSE)
+				return first;
+			if(first == TRUE)
+				return this.negate(second);
+		}
+		//The commutative operations are cached with ordered operands
+		if(operation != DIFF && first > second){
+			int swap = first;
+			first = second;
+			second = swap;
+		}
+		int cached = this.lookup(this.slot(operation, first, second, 0), operation, first, second, 0);
+		if(cached >= 0)
+			return cached;
+
+		int variable = Math.min(this.vars[first], this.vars[second]);
+		int firstLow = this.vars[first] == variable ? this.lows[first] : first;
+		int firstHigh = this.vars[first] == variable ? this.highs[first] : first;
+		int secondLow = this.vars[second] == variable ? this.lows[second] : second;
+		int secondHigh = this.vars[second] == variable ? this.highs[second] : second;
+		int low = this.apply(operation, firstLow, secondLow);
+		int high = this.apply(operation, firstHigh, secondHigh);
+		return this.store(operation, first, second, 0, this.makeNode(variable, low, high));
+	}
+
+	/**
+	 * This method returns the negation of a function
+	 * @param node: the function
+	 * @return not node
+	 */
+	private int negate(int node){
+		if(node <= TRUE)
+			return TRUE - node;
+		int cached = this.lookup(this.slot(NOT, node, 0, 0), NOT, node, 0, 0);
+		if(cached >= 0)
+			return cached;
+		int low = this.negate(this.lows[node]);
+		int high = this.negate(this.highs[node]);
+		return this.store(NOT, node, 0, 0, this.makeNode(this.vars[node], low, high));
+	}
+
+	/**
+	 * This method returns the if-then-else of three functions
+	 * @param condition: the condition function
+	 * @param then: the function selected when the condition is true
+	 * @param otherwise: the function selected when the condition is false
+	 * @return the result
+	 */
+	private int ite3(int condition, int then, int otherwise){
+		//Terminal cases
+		if(condition == TRUE || then == otherwise)
+			return then;
+		if(condition == FALSE)
+			return otherwise;
+		if(then == TRUE && otherwise == FALSE)
+			return condition;
+		if(then == FALSE && otherwise == TRUE)
+			return this.negate(condition);
+		if(otherwise == FALSE)
+			return this.apply(AND, condition, then);
+		if(then == TRUE)
+			return this.apply(OR, condition, otherwise);
+
+		int cached = this.lookup(this.slot(ITE, condition, then, otherwise), ITE, condition, then, otherwise);
+		if(cached >= 0)
+			return cached;
+
+		int variable = Math.min(this.vars[condition], Math.min(this.vars[then], this.vars[otherwise]));
+		int low = this.ite3(this.cofactor(condition, variable, false), this.cofactor(then, variable, false),
+				this.cofactor(otherwise, variable, false));
+		int high = this.ite3(this.cofactor(condition, variable, true), this.cofactor(then, variable, true),
+				this.cofactor(otherwise, variable, true));
+		return this.store(ITE, condition, then, otherwise, this.makeNode(variable, low, high));
+	}
+
+	/**
+	 * This method returns the cofactor of a function with respect to a variable not below its root
+	 * @param node: the function
+	 * @param variable: the variable
+	 * @param value: the variable value
+	 * @return the cofactor
+	 */
+	private int cofactor(int node, int variable, boolean value){
+		if(this.vars[node] != variable)
+			return node;
+		return value ? this.highs[node] : this.lows[node];
+	}
+
+	/**
+	 * This method returns the existential quantification of a function over the current quantified variables
+	 * @param node: the function
+	 * @return the quantified function
+	 */
+	private int exists(int node){
+		if(node <= TRUE)
+			return node;
+		int cached = this.lookup(this.slot(EXISTS, node, this.existsGeneration, 0), EXISTS, node, this.existsGeneration, 0);
+		if(cached >= 0)
+			return cached;
+		int low = this.exists(this.lows[node]);
+		int high = this.exists(this.highs[node]);
+		int result = this.quantified[this.vars[node]] ? this.apply(OR, low, high) : this.makeNode(this.vars[node], low, high);
+		return this.store(EXISTS, node, this.existsGeneration, 0, result);
+	}
+
+	/**
+	 * This method replaces each variable of a function with the corresponding substituted function
+	 * @param node: the function
+	 * @return the composed function
+	 */
+	private int compose(int node){
+		if(node <= TRUE)
+			return node;
+		int cached = this.lookup(this.slot(COMPOSE, node, this.composeGeneration, 0), COMPOSE, node, this.composeGeneration, 0);
+		if(cached >= 0)
+			return cached;
+		int low = this.compose(this.lows[node]);
+		int high = this.compose(this.highs[node]);
+		return this.store(COMPOSE, node, this.composeGeneration, 0, this.ite3(this.substitution[this.vars[node]], high, low));
+	}
+
+}
@@ -0,0 +1,87 @@
+package it.unimib.disco.bimib.Bdd;
+
+import static org.junit.Assert.*;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class BddManagerTest {
+
+	public BddManagerTest() {
+	}
+
+	@Test
+	public void testUniqueTable() {
+		BddManager manager = new BddManager(3);
+		int a = manager.ref(manager.ithVar(0));
+		int b = manager.ref(manager.ithVar(1));
+		int c = manager.ref(manager.ithVar(2));
+
+		//The equal functions have the same node
+		assertEquals(manager.ithVar(0), a);
+		assertEquals(manager.and(a, b), manager.and(b, a));
+		assertEquals(manager.not(manager.and(a, b)), manager.or(manager.not(a), manager.not(b)));
+		assertEquals(manager.nithVar(2), manager.not(c));
+		assertEquals(manager.ite(a, b, c), manager.or(manager.and(a, b), manager.and(manager.not(a), c)));
+		assertEquals(BddManager.FALSE, manager.xor(b, b));
+		assertEquals(BddManager.TRUE, manager.or(c, manager.not(c)));
+		assertEquals(manager.and(a, manager.not(b)), manager.diff(a, b));
+		assertEquals(manager.or(b, c), manager.exists(manager.or(manager.and(a, b), c), new boolean[]{true, false, false}));
+	}
+
+	@Test
+	public void testSatCount() {
+		BddManager manager = new BddManager(3);
+		int a = manager.ref(manager.ithVar(0));
+		int b = manager.ref(manager.ithVar(1));
+		int c = manager.ref(manager.ithVar(2));
+		assertEquals(BigInteger.valueOf(8), manager.satCount(BddManager.TRUE));
+		assertEquals(BigInteger.ZERO, manager.satCount(BddManager.FALSE));
+		assertEquals(BigInteger.valueOf(4), manager.satCount(a));
+		assertEquals(BigInteger.valueOf(4), manager.satCount(c));
+		assertEquals(BigInteger.valueOf(2), manager.satCount(manager.and(a, b)));
+		assertEquals(BigInteger.valueOf(4), manager.satCount(manager.xor(a, c)));
+		assertEquals(BigInteger.valueOf(7), manager.satCount(manager.or(manager.or(a, b), c)));
+		assertEquals(BigInteger.ONE, manager.satCount(manager.minterm(new boolean[]{true, false, true})));
+
+		//The found assignment satisfies the function
+		int function = manager.and(manager.not(a), c);
+		assertArrayEquals(new boolean[]{false, false, true}, manager.satOne(function));
+	}
+
+	@Test
+	public void testCollectionKeepsReferencedNodes() {
+		int variables = 16;
+		BddManager manager = new BddManager(variables);
+		//Parity of all the variables
+		int parity = BddManager.FALSE;
+		for(int variable = 0; variable < variables; variable++){
+			int next = manager.ref(manager.xor(parity, manager.ithVar(variable)));
+			manager.deref(parity);
+			parity = next;
+		}
+		assertEquals(BigInteger.ONE.shiftLeft(variables - 1), manager.satCount(parity));
+		int nodes = manager.nodeCount(parity);
+
+		//Many unreferenced minterms force the garbage collections
+		Random random = new Random(1);
+		boolean[] values = new boolean[variables];
+		for(int i = 0; i < 20000; i++){
+			for(int variable = 0; variable < variables; variable++)
+				values[variable] = random.nextBoolean();
+			manager.minterm(values);
+		}
+		assertTrue(manager.getAllocatedNodes() < 20000 * variables);
+
+		//The referenced function is not changed and it is still unique
+		assertEquals(nodes, manager.nodeCount(parity));
+		assertEquals(BigInteger.ONE.shiftLeft(variables - 1), manager.satCount(parity));
+		int again = BddManager.FALSE;
+		for(int variable = variables - 1; variable >= 0; variable--)
+			again = manager.xor(manager.ithVar(variable), again);
+		assertEquals(parity, again);
+	}
+
+}
@@ -18,12 +18,16 @@ import java.util.HashMap;
 
 //GRNSim imports
 import it.unimib.disco.bimib.Exceptions.*;
+import it.unimib.disco.bimib.Utility.BitState;
 
 public class AndOrFunction extends BooleanFunction {
 
 	//Function type onlyAnd -> andFunction == TRUE 
 	//              onlyOr  -> andFunction == FALSE
 	private boolean andFunction;
+	//Mask of the input nodes over the words of a BitState, created at the first evaluation.
+	//The mask is filled before being published, since the function can be shared by several threads
+	private volatile long[] inputsMask;
 
 
 	/**
@@ -93,6 +97,46 @@ public class AndOrFunction extends BooleanFunction {
 		return output;
 	}
 
+	@Override
+	/**
+	 * This method evaluates the function on the given network state
+	 * testing the input nodes mask against the state words.
+	 * @param state: The whole network state
+	 * @return Returns the function value
+	 */
+	public boolean eval(BitState state) throws ParamDefinitionException{
+		//Mutation in action flow
+		if(super.getMutationInAction())
+			return super.getKnockIn();
+		//A function without inputs is always false
+		if(super.inputs.size() == 0)
+			return false;
+
+		long[] words = state.getWords();
+		//Creates the inputs mask
+		long[] mask = this.inputsMask;
+		if(mask == null || mask.length != words.length){
+			mask = new long[words.length];
+			for(int input : super.inputs)
+				mask[input >>> 6] |= 1L << input;
+			this.inputsMask = mask;
+		}
+
+		if(this.andFunction){
+			//And function: all the inputs must be active
+			for(int w = 0; w < words.length; w++)
+				if((words[w] & mask[w]) != mask[w])
+					return false;
+			return true;
+		}else{
+			//Or function: at least one input must be active
+			for(int w = 0; w < words.length; w++)
+				if((words[w] & mask[w]) != 0)
+					return true;
+			return false;
+		}
+	}
+
 	/**
 	 * This method returns the function xml representation.
 	 * @return: the xml function representation
@@ -126,6 +170,7 @@ public class AndOrFunction extends BooleanFunction {
 	 */
 	public void addLink(int inputLink) throws ParamDefinitionException{
 		super.inputs.add(inputLink);
+		this.inputsMask = null;
 	}
 
 	/**
@@ -140,6 +185,14 @@ public class AndOrFunction extends BooleanFunction {
 		return newAndOr;	
 	}
 
+	/**
+	 * This method returns the function type
+	 * @return true for AND functions, false for OR functions
+	 */
+	public boolean isAndFunction(){
+		return this.andFunction;
+	}
+
 	/**
 	 * This method returns the type of the function as a String
 	 * @return Function type
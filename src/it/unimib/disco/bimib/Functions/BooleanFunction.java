@@ -15,6 +15,7 @@ package it.unimib.disco.bimib.Functions;
 import java.util.ArrayList;
 //GRNSim imports
 import it.unimib.disco.bimib.Exceptions.*;
+import it.unimib.disco.bimib.Utility.BitState;
 
 
 public abstract class BooleanFunction implements Function {
@@ -80,6 +81,14 @@ public abstract class BooleanFunction implements Function {
 	 */
 	public abstract Boolean eval(Object[] inputs) throws InputTypeException, ParamDefinitionException;
 
+	@Override
+	/**
+	 * This method evaluates the function on the given network state.
+	 * @param state: The whole network state
+	 * @return Returns the function value
+	 */
+	public abstract boolean eval(BitState state) throws ParamDefinitionException;
+
 	/**
 	 * This method returns the number of input for calculate the function of a node
 	 * @return the number of input
@@ -156,6 +165,31 @@ public abstract class BooleanFunction implements Function {
 		return preparedInput;
 	}
 
+	/**
+	 * This method prepare the input as required by the function and
+	 * returns it as a String.
+	 * @param inputNodes: The nodes read by the function, in the table order
+	 * @param state: The entire network state
+	 * @return the function table key
+	 */
+	protected String prepareFunctionInput(int[] inputNodes, BitState state){
+		char[] preparedInput = new char[inputNodes.length];
+		for(int i = 0; i < inputNodes.length; i++)
+			preparedInput[i] = state.get(inputNodes[i]) ? '1' : '0';
+		return new String(preparedInput);
+	}
+
+	/**
+	 * This method returns the inputs as an int array
+	 * @return the inputs array
+	 */
+	protected int[] getInputsArray(){
+		int[] inputsArray = new int[this.inputs.size()];
+		for(int i = 0; i < inputsArray.length; i++)
+			inputsArray[i] = this.inputs.get(i);
+		return inputsArray;
+	}
+
 	/**
 	 * This method returns the input ad a string
 	 * @return the input as a string
@@ -1,5 +1,7 @@
 /**
  * This class is the representation of a canalized function with random outputs.
+ * The function output depends only on the canalizing inputs (usefullInputs): the function table is keyed
+ * on their values, so a completely defined function has an entry for each combination of them.
  * 
  * @author Andrea Paroni (a.paroni@campus.unimib.it)
  * @author Giorgia Previtali (g.previtali6@campus.unimib.it)
@@ -17,12 +19,17 @@ import java.util.HashMap;
 
 //GRNSim imports
 import it.unimib.disco.bimib.Exceptions.*;
+import it.unimib.disco.bimib.Utility.BitState;
 import it.unimib.disco.bimib.Utility.UtilityRandom;
 
 public class CanalizedFunction extends BooleanFunction {
 
 	private int[] usefullInputs;
 	private HashMap <String, Boolean> functionTable;
+	//Compiled function table, created at the first evaluation on a BitState.
+	//The function can be shared by several threads: the table is compiled before being published,
+	//and the lazily defined entries are stored holding the function lock
+	private volatile TruthTable compiledTable;
 	private double bias;
 
 	/**
@@ -54,6 +61,8 @@ public class CanalizedFunction extends BooleanFunction {
 				//Populates the function table
 				this.functionTable.put(binaryInputs, UtilityRandom.randomBooleanChoice(bias));	
 			}
+			//The function is evaluated on the canalizing inputs only
+			this.definesCanalizingEntries();
 		}
 	}
 
@@ -87,6 +96,53 @@ public class CanalizedFunction extends BooleanFunction {
 			functionTable.put(inputs[i], outputs[i]);
 		}
 
+		//A function created completely defined has all the entries of its inputs
+		if(this.hasAllEntries(inputNodes.size()))
+			this.definesCanalizingEntries();
+
+	}
+
+	/**
+	 * This method checks if the function table has an entry for each combination of the given number of inputs
+	 * @param length: the number of inputs
+	 * @return true if all the entries with the given length are defined
+	 */
+	private boolean hasAllEntries(int length){
+		if(length > TruthTable.MAX_INPUTS)
+			return false;
+		for(int i = 0; i < (1 << length); i++){
+			if(!this.functionTable.containsKey(this.toKey(i, length)))
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * This method defines the output of each combination of the canalizing inputs that is not already defined,
+	 * so the function doesn't choose its outputs during the simulation.
+	 */
+	private void definesCanalizingEntries(){
+		if(this.usefullInputs.length > TruthTable.MAX_INPUTS)
+			return;
+		for(int i = 0; i < (1 << this.usefullInputs.length); i++){
+			String key = this.toKey(i, this.usefullInputs.length);
+			if(!this.functionTable.containsKey(key))
+				this.functionTable.put(key, UtilityRandom.randomBooleanChoice(bias));
+		}
+		this.compiledTable = null;
+	}
+
+	/**
+	 * This method returns the function table key of a combination of the inputs
+	 * @param index: the combination, the first input is the most significant bit
+	 * @param length: the number of inputs
+	 * @return the binary string key
+	 */
+	private String toKey(int index, int length){
+		char[] key = new char[length];
+		for(int i = 0; i < length; i++)
+			key[i] = ((index >>> (length - 1 - i)) & 1) == 1 ? '1' : '0';
+		return new String(key);
 	}
 
 	/**
@@ -124,20 +180,73 @@ public class CanalizedFunction extends BooleanFunction {
 		for(int i = 0; i < this.usefullInputs.length; i++){
 			inputValue += (input[this.usefullInputs[i]].equals(Boolean.TRUE) ? "1" : "0");
 		}
-		//Checks if the input is already in the table 
-		if(! this.functionTable.containsKey(inputValue)){
-			//Stores the new input and the corresponding Boolean result
-			this.functionTable.put(inputValue, UtilityRandom.randomBooleanChoice(bias));
+		synchronized(this){
+			//Checks if the input is already in the table 
+			if(! this.functionTable.containsKey(inputValue)){
+				//Stores the new input and the corresponding Boolean result
+				this.functionTable.put(inputValue, UtilityRandom.randomBooleanChoice(bias));
+				//The compiled table must be created again
+				this.compiledTable = null;
+			}
+			//Returns the function value
+			return this.functionTable.get(inputValue);
+		}
+	}
+
+	@Override
+	/**
+	 * This method evaluates the function on the given network state
+	 * using the compiled function table over the canalizing inputs.
+	 * @param state: The whole network state
+	 * @return Returns the function value
+	 */
+	public boolean eval(BitState state) throws ParamDefinitionException{
+		//Mutation in action flow
+		if(super.getMutationInAction())
+			return super.getKnockIn();
+
+		//Functions with too many inputs are evaluated on the function table
+		if(this.usefullInputs.length > TruthTable.MAX_INPUTS){
+			String inputValue = super.prepareFunctionInput(this.usefullInputs, state);
+			synchronized(this){
+				if(! this.functionTable.containsKey(inputValue))
+					this.functionTable.put(inputValue, UtilityRandom.randomBooleanChoice(bias));
+				return this.functionTable.get(inputValue);
+			}
+		}
+
+		TruthTable table = this.getTruthTable();
+		//A completely defined table is not modified anymore, so it is read without locking
+		if(table.isCompletelyDefined())
+			return table.getOutput(table.index(state.getWords()));
+		return this.definesEntry(state);
+	}
+
+	/**
+	 * This method returns the output of the entry selected by the state, which is defined if it isn't yet.
+	 * The entries are defined by a thread at a time, since the function can be shared by several threads.
+	 * @param state: The whole network state
+	 * @return Returns the function value
+	 */
+	private synchronized boolean definesEntry(BitState state){
+		TruthTable table = this.getTruthTable();
+		int index = table.index(state.getWords());
+		//Checks if the input is already in the table
+		if(!table.isDefined(index)){
+			//Stores the new input and the corresponding Boolean result in both the tables
+			boolean output = UtilityRandom.randomBooleanChoice(bias);
+			this.functionTable.put(table.toKey(index), output);
+			table.setOutput(index, output);
 		}
 		//Returns the function value
-		return this.functionTable.get(inputValue);
+		return table.getOutput(index);
 	}
 
 	/**
 	 * This method returns the function xml representation.
 	 * @return: the xml function representation
 	 */
-	public String toGRNML(){
+	public synchronized String toGRNML(){
 		String xmlFunction = "\t\t\t<function type = \"canalizing\" input_number = \""+ super.inputs.size() + "\">\n";
 		//Function inputs
 		for(int input : super.inputs)
@@ -161,6 +270,26 @@ public class CanalizedFunction extends BooleanFunction {
 		return xmlFunction;
 	}
 	
+	/**
+	 * This method returns the compiled function table.
+	 * @return the compiled function table, null if the function has too many inputs
+	 */
+	public TruthTable getTruthTable(){
+		if(this.usefullInputs.length > TruthTable.MAX_INPUTS)
+			return null;
+		TruthTable table = this.compiledTable;
+		if(table == null){
+			synchronized(this){
+				table = this.compiledTable;
+				if(table == null){
+					table = TruthTable.compile(this.usefullInputs, this.functionTable);
+					this.compiledTable = table;
+				}
+			}
+		}
+		return table;
+	}
+
 	/**
 	 * This method return the bias of the function
 	 * @return bias
@@ -182,6 +311,7 @@ public class CanalizedFunction extends BooleanFunction {
 			throw new ParamDefinitionException("The inputLink must be greater than 0");
 		super.inputs.add(inputLink);
 		this.functionTable.clear();
+		this.compiledTable = null;
 		if(UtilityRandom.randomBooleanChoice(epsilon)){
 			this.usefullInputs = Arrays.copyOf(this.usefullInputs, this.usefullInputs.length + 1);
 			this.usefullInputs[this.usefullInputs.length - 1] = inputLink;
@@ -201,6 +331,7 @@ public class CanalizedFunction extends BooleanFunction {
 			throw new ParamDefinitionException("The inputLink must be greater than 0");
 		super.inputs.add(inputLink);
 		this.functionTable.clear();
+		this.compiledTable = null;
 	}
 
 	/**
@@ -215,7 +346,7 @@ public class CanalizedFunction extends BooleanFunction {
 	 * This method copies the function.
 	 * @return a copy of the function.
 	 */
-	public Function copy() throws ParamDefinitionException{
+	public synchronized Function copy() throws ParamDefinitionException{
 		ArrayList<Integer> newInputs = new ArrayList<Integer>();
 		for(Integer i : super.inputs)
 			newInputs.add(i);
@@ -252,7 +383,7 @@ public class CanalizedFunction extends BooleanFunction {
 	/**
 	 * This method return the function table as a string, string hash map
 	 */
-	public HashMap<String, String> getTable() {
+	public synchronized HashMap<String, String> getTable() {
 		HashMap<String, String> funcTable = new HashMap<String, String>();
 		for(String inputs : this.functionTable.keySet())
 			funcTable.put(inputs, this.functionTable.get(inputs) == Boolean.TRUE ? "1" : "0");
@@ -0,0 +1,51 @@
+package it.unimib.disco.bimib.Functions;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+import it.unimib.disco.bimib.Exceptions.ParamDefinitionException;
+import it.unimib.disco.bimib.Utility.BitState;
+
+public class CanalizedFunctionTest {
+
+	public CanalizedFunctionTest() {
+	}
+
+	@Test
+	public void testCompletelyDefinedTable() throws Exception {
+		ArrayList<Integer> inputs = new ArrayList<Integer>();
+		for(int node = 0; node < 4; node++)
+			inputs.add(node);
+		//The canalizing inputs are a random subset of the inputs
+		for(int i = 0; i < 50; i++){
+			CanalizedFunction function = new CanalizedFunction(inputs, true);
+			TruthTable table = function.getTruthTable();
+			assertTrue(table.isCompletelyDefined());
+			assertEquals(function.getUsefullInputs().length, table.getInputs().length);
+			//The compiled table agrees with the function table
+			for(long index = 0; index < 16; index++){
+				BitState state = BitState.fromIndex(index, 4);
+				assertEquals(function.eval(state.toBooleanArray()), function.eval(state));
+			}
+		}
+	}
+
+	@Test
+	public void testReadFunction() throws ParamDefinitionException {
+		ArrayList<Integer> inputs = new ArrayList<Integer>();
+		inputs.add(0);
+		inputs.add(1);
+		//A function written with the entries of all its inputs
+		CanalizedFunction function = new CanalizedFunction(0.5, new int[]{1}, new String[]{"00", "01", "10", "11"},
+				new Boolean[]{false, true, true, false}, inputs);
+		assertTrue(function.getTruthTable().isCompletelyDefined());
+
+		//A lazily defined function is not completed
+		function = new CanalizedFunction(0.5, new int[]{1}, new String[]{"00"}, new Boolean[]{false}, inputs);
+		assertFalse(function.getTruthTable().isCompletelyDefined());
+	}
+
+}
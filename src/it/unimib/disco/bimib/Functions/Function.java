@@ -17,6 +17,7 @@ import java.util.HashMap;
 
 // GRNSim imports
 import it.unimib.disco.bimib.Exceptions.*;
+import it.unimib.disco.bimib.Utility.BitState;
 
 public interface Function {
 
@@ -31,6 +32,15 @@ public interface Function {
 	 */
 	public Object eval(Object inputs[]) throws InputTypeException, ParamDefinitionException;
 
+	/**
+	 * This method evaluates the function on the given network state.
+	 * The function reads its inputs directly from the state.
+	 * @param state: The whole network state
+	 * @return Returns the function value
+	 * @throws ParamDefinitionException 
+	 */
+	public boolean eval(BitState state) throws ParamDefinitionException;
+
 	/**
 	 * This method returns the function xml representation.
 	 * @return: the xml function representation
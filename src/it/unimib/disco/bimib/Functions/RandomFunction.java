@@ -16,6 +16,7 @@ import java.util.HashMap;
 
 //GRNSim imports
 import it.unimib.disco.bimib.Exceptions.*;
+import it.unimib.disco.bimib.Utility.BitState;
 import it.unimib.disco.bimib.Utility.UtilityRandom;
 
 public class RandomFunction extends BooleanFunction {
@@ -26,6 +27,10 @@ public class RandomFunction extends BooleanFunction {
 	 * The function output is stored in the input position of the array.
 	 */
 	private HashMap<String, Boolean> functionTable;
+	//Compiled function table, created at the first evaluation on a BitState.
+	//The function can be shared by several threads: the table is compiled before being published,
+	//and the lazily defined entries are stored holding the function lock
+	private volatile TruthTable compiledTable;
 
 	private double bias;
 
@@ -111,20 +116,73 @@ public class RandomFunction extends BooleanFunction {
 
 		String inputValue = super.prepareFunctionInput((Boolean[]) input);
 
-		//Checks if the input is already in the table 
-		if(! this.functionTable.containsKey(inputValue)){
-			//Stores the new input and the corresponding Boolean result
-			this.functionTable.put(inputValue, UtilityRandom.randomBooleanChoice(bias));
+		synchronized(this){
+			//Checks if the input is already in the table 
+			if(! this.functionTable.containsKey(inputValue)){
+				//Stores the new input and the corresponding Boolean result
+				this.functionTable.put(inputValue, UtilityRandom.randomBooleanChoice(bias));
+				//The compiled table must be created again
+				this.compiledTable = null;
+			}
+			//Returns the function value
+			return this.functionTable.get(inputValue);
+		}
+	}
+
+	@Override
+	/**
+	 * This method evaluates the function on the given network state
+	 * using the compiled function table.
+	 * @param state: The whole network state
+	 * @return Returns the function value
+	 */
+	public boolean eval(BitState state) throws ParamDefinitionException{
+		//Mutation in action flow
+		if(super.getMutationInAction())
+			return super.getKnockIn();
+
+		//Functions with too many inputs are evaluated on the function table
+		if(super.inputs.size() > TruthTable.MAX_INPUTS){
+			String inputValue = super.prepareFunctionInput(super.getInputsArray(), state);
+			synchronized(this){
+				if(! this.functionTable.containsKey(inputValue))
+					this.functionTable.put(inputValue, UtilityRandom.randomBooleanChoice(bias));
+				return this.functionTable.get(inputValue);
+			}
+		}
+
+		TruthTable table = this.getTruthTable();
+		//A completely defined table is not modified anymore, so it is read without locking
+		if(table.isCompletelyDefined())
+			return table.getOutput(table.index(state.getWords()));
+		return this.definesEntry(state);
+	}
+
+	/**
+	 * This method returns the output of the entry selected by the state, which is defined if it isn't yet.
+	 * The entries are defined by a thread at a time, since the function can be shared by several threads.
+	 * @param state: The whole network state
+	 * @return Returns the function value
+	 */
+	private synchronized boolean definesEntry(BitState state){
+		TruthTable table = this.getTruthTable();
+		int index = table.index(state.getWords());
+		//Checks if the input is already in the table
+		if(!table.isDefined(index)){
+			//Stores the new input and the corresponding Boolean result in both the tables
+			boolean output = UtilityRandom.randomBooleanChoice(bias);
+			this.functionTable.put(table.toKey(index), output);
+			table.setOutput(index, output);
 		}
 		//Returns the function value
-		return this.functionTable.get(inputValue);
+		return table.getOutput(index);
 	}
 
 	/**
 	 * This method returns the function xml representation.
 	 * @return: the xml function representation
 	 */
-	public String toGRNML(){
+	public synchronized String toGRNML(){
 		String xmlFunction = "\t\t\t<function type = \"random\" input_number = \""+ super.inputs.size() + "\">\n";
 
 		xmlFunction += "\t\t\t\t<bias> " + bias + " </bias>\n";
@@ -141,6 +199,26 @@ public class RandomFunction extends BooleanFunction {
 		return xmlFunction;
 	}
 
+	/**
+	 * This method returns the compiled function table.
+	 * @return the compiled function table, null if the function has too many inputs
+	 */
+	public TruthTable getTruthTable(){
+		if(super.inputs.size() > TruthTable.MAX_INPUTS)
+			return null;
+		TruthTable table = this.compiledTable;
+		if(table == null){
+			synchronized(this){
+				table = this.compiledTable;
+				if(table == null){
+					table = TruthTable.compile(super.getInputsArray(), this.functionTable);
+					this.compiledTable = table;
+				}
+			}
+		}
+		return table;
+	}
+
 	/**
 	 * This method return the bias of the function
 	 * @return bias
@@ -160,13 +238,14 @@ public class RandomFunction extends BooleanFunction {
 			throw new ParamDefinitionException("The inputLink must be greater than 0");
 		super.inputs.add(inputLink);
 		this.functionTable.clear();
+		this.compiledTable = null;
 	}
 
 	/**
 	 * This method copies the function.
 	 * @return a copy of the function.
 	 */
-	public Function copy() throws ParamDefinitionException{
+	public synchronized Function copy() throws ParamDefinitionException{
 		ArrayList<Integer> newInputs = new ArrayList<Integer>();
 		for(Integer i : super.inputs)
 			newInputs.add(i);
@@ -191,7 +270,7 @@ public class RandomFunction extends BooleanFunction {
 	/**
 	 * This method return the function table as a string, string hash map
 	 */
-	public HashMap<String, String> getTable() {
+	public synchronized HashMap<String, String> getTable() {
 		HashMap<String, String> funcTable = new HashMap<String, String>();
 		for(String inputs : this.functionTable.keySet())
 			funcTable.put(inputs, this.functionTable.get(inputs) == Boolean.TRUE ? "1" : "0");
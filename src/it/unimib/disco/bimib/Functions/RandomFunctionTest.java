@@ -0,0 +1,62 @@
+package it.unimib.disco.bimib.Functions;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import org.junit.Test;
+
+import it.unimib.disco.bimib.Utility.BitState;
+
+public class RandomFunctionTest {
+
+	public RandomFunctionTest() {
+	}
+
+	@Test
+	public void testSharedLazyFunction() throws Exception {
+		ArrayList<Integer> inputs = new ArrayList<Integer>();
+		for(int node = 0; node < 12; node++)
+			inputs.add(node);
+		final RandomFunction function = new RandomFunction(inputs, 0.5, false);
+
+		//Several threads define the entries of the same function, in different orders
+		final boolean[][] outputs = new boolean[8][1 << 12];
+		final Exception[] errors = new Exception[outputs.length];
+		Thread[] threads = new Thread[outputs.length];
+		for(int t = 0; t < threads.length; t++){
+			final int thread = t;
+			threads[t] = new Thread(new Runnable(){
+				public void run(){
+					try{
+						for(int i = 0; i < (1 << 12); i++){
+							int index = (i * (2 * thread + 1)) & ((1 << 12) - 1);
+							outputs[thread][index] = function.eval(BitState.fromIndex(index, 12));
+						}
+					}catch(Exception e){
+						errors[thread] = e;
+					}
+				}
+			});
+			threads[t].start();
+		}
+		for(Thread thread : threads)
+			thread.join();
+
+		//Each entry is defined once, so all the threads read the same outputs
+		for(int t = 0; t < threads.length; t++){
+			assertNull(errors[t]);
+			assertArrayEquals(outputs[0], outputs[t]);
+		}
+		TruthTable table = function.getTruthTable();
+		assertTrue(table.isCompletelyDefined());
+		HashMap<String, String> functionTable = function.getTable();
+		assertEquals(1 << 12, functionTable.size());
+		for(int index = 0; index < (1 << 12); index++){
+			assertEquals(outputs[0][index], table.getOutput(table.index(BitState.fromIndex(index, 12).getWords())));
+			assertEquals(function.eval(BitState.fromIndex(index, 12).toBooleanArray()), outputs[0][index]);
+		}
+	}
+
+}
@@ -0,0 +1,160 @@
+/**
+ * This class is the compiled representation of a function table.
+ * The table is indexed by the input values read as a binary number where
+ * the first input is the most significant bit, as done by the string keys
+ * of the function tables. The outputs are packed in an array of long words.
+ * The entries which are not defined yet (lazily defined functions) are marked
+ * in a second bit array. The entries of a shared table must be defined by a thread at a time:
+ * the defined entries are counted after writing each entry, so a thread which finds
+ * the table completely defined reads all the outputs without locking.
+ */
+
+package it.unimib.disco.bimib.Functions;
+
+//System imports
+import java.util.HashMap;
+
+public class TruthTable {
+
+	//Maximum number of inputs of a compiled table (2^20 entries)
+	public static final int MAX_INPUTS = 20;
+
+	private int[] inputs;
+	private long[] outputs;
+	private long[] defined;
+	private volatile int definedEntries;
+
+	/**
+	 * Generic constructor. All the entries are undefined.
+	 * @param inputs: the input nodes of the function
+	 */
+	public TruthTable(int[] inputs){
+		if(inputs == null)
+			throw new NullPointerException("The inputs must be not null");
+		if(inputs.length > MAX_INPUTS)
+			throw new IllegalArgumentException("A truth table can not have more than " + MAX_INPUTS + " inputs");
+		this.inputs = inputs;
+		int words = Math.max(1, (1 << inputs.length) >>> 6);
+		this.outputs = new long[words];
+		this.defined = new long[words];
+		this.definedEntries = 0;
+	}
+
+	/**
+	 * This method compiles a function table.
+	 * Only the keys with one binary digit for each input are considered.
+	 * @param inputs: the input nodes of the function
+	 * @param table: the function table
+	 * @return the compiled table
+	 */
+	public static TruthTable compile(int[] inputs, HashMap<String, Boolean> table){
+		TruthTable compiled = new TruthTable(inputs);
+		for(String key : table.keySet()){
+			int index = TruthTable.fromKey(key, inputs.length);
+			if(index >= 0)
+				compiled.setOutput(index, table.get(key));
+		}
+		return compiled;
+	}
+
+	/**
+	 * This method converts a function table key in the corresponding entry index
+	 * @param key: the binary string key
+	 * @param length: the number of inputs
+	 * @return the entry index, -1 if the key is not valid
+	 */
+	private static int fromKey(String key, int length){
+		if(key.length() != length)
+			return -1;
+		int index = 0;
+		for(int i = 0; i < length; i++){
+			char digit = key.charAt(i);
+			if(digit != '0' && digit != '1')
+				return -1;
+			index = (index << 1) | (digit == '1' ? 1 : 0);
+		}
+		return index;
+	}
+
+	/**
+	 * This method returns the function table key of the given entry
+	 * @param index: the entry index
+	 * @return the binary string key
+	 */
+	public String toKey(int index){
+		char[] key = new char[this.inputs.length];
+		for(int i = 0; i < this.inputs.length; i++)
+			key[i] = ((index >>> (this.inputs.length - 1 - i)) & 1) == 1 ? '1' : '0';
+		return new String(key);
+	}
+
+	/**
+	 * This method returns the entry index selected by the given state
+	 * @param state: the words of the bit-packed network state
+	 * @return the entry index
+	 */
+	public int index(long[] state){
+		int index = 0;
+		for(int node : this.inputs)
+			index = (index << 1) | (int)((state[node >>> 6] >>> node) & 1L);
+		return index;
+	}
+
+	/**
+	 * This method returns true if the entry is defined
+	 * @param index: the entry index
+	 * @return true if the entry is defined
+	 */
+	public boolean isDefined(int index){
+		return ((this.defined[index >>> 6] >>> index) & 1L) == 1L;
+	}
+
+	/**
+	 * This method returns true if all the entries are defined
+	 * @return true if the table is completely defined
+	 */
+	public boolean isCompletelyDefined(){
+		return this.definedEntries == (1 << this.inputs.length);
+	}
+
+	/**
+	 * This method returns the output of the entry
+	 * @param index: the entry index
+	 * @return the entry output
+	 */
+	public boolean getOutput(int index){
+		return ((this.outputs[index >>> 6] >>> index) & 1L) == 1L;
+	}
+
+	/**
+	 * This method defines the output of the entry
+	 * @param index: the entry index
+	 * @param value: the entry output
+	 */
+	public void setOutput(int index, boolean value){
+		if(value)
+			this.outputs[index >>> 6] |= 1L << index;
+		else
+			this.outputs[index >>> 6] &= ~(1L << index);
+		if(!this.isDefined(index)){
+			this.defined[index >>> 6] |= 1L << index;
+			this.definedEntries++;
+		}
+	}
+
+	/**
+	 * This method returns the input nodes of the table
+	 * @return the input nodes
+	 */
+	public int[] getInputs(){
+		return this.inputs;
+	}
+
+	/**
+	 * This method returns the packed outputs of the table
+	 * @return the outputs words
+	 */
+	public long[] getOutputs(){
+		return this.outputs;
+	}
+}
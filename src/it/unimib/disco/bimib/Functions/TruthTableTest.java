@@ -0,0 +1,70 @@
+package it.unimib.disco.bimib.Functions;
+
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+
+import org.junit.Test;
+
+public class TruthTableTest {
+
+	public TruthTableTest() {
+	}
+
+	@Test
+	public void testEntryIndexOrder() {
+		//Exclusive or of the nodes 3 and 5
+		HashMap<String, Boolean> functionTable = new HashMap<String, Boolean>();
+		functionTable.put("00", false);
+		functionTable.put("01", true);
+		functionTable.put("10", true);
+		functionTable.put("11", false);
+		TruthTable table = TruthTable.compile(new int[]{3, 5}, functionTable);
+		assertTrue(table.isCompletelyDefined());
+
+		//The first input is the most significant bit of the entry index
+		long[] state = new long[]{1L << 3};
+		assertEquals(2, table.index(state));
+		assertEquals("10", table.toKey(2));
+		assertTrue(table.getOutput(table.index(state)));
+		state[0] |= 1L << 5;
+		assertEquals(3, table.index(state));
+		assertFalse(table.getOutput(table.index(state)));
+		for(int index = 0; index < 4; index++)
+			assertEquals(functionTable.get(table.toKey(index)), table.getOutput(index));
+	}
+
+	@Test
+	public void testInputsOverWords() {
+		TruthTable table = new TruthTable(new int[]{70, 1});
+		long[] state = new long[2];
+		state[1] = 1L << 6;
+		assertEquals(2, table.index(state));
+		state[0] = 2L;
+		assertEquals(3, table.index(state));
+	}
+
+	@Test
+	public void testLazyEntries() {
+		//Only the valid keys are compiled
+		HashMap<String, Boolean> functionTable = new HashMap<String, Boolean>();
+		functionTable.put("101", true);
+		functionTable.put("1x0", true);
+		functionTable.put("11", true);
+		TruthTable table = TruthTable.compile(new int[]{0, 1, 2}, functionTable);
+		for(int index = 0; index < 8; index++)
+			assertEquals(index == 5, table.isDefined(index));
+		assertFalse(table.isCompletelyDefined());
+
+		//An entry defined twice is counted once
+		table.setOutput(5, false);
+		assertFalse(table.getOutput(5));
+		for(int index = 0; index < 7; index++)
+			table.setOutput(index, index % 2 == 0);
+		assertFalse(table.isCompletelyDefined());
+		table.setOutput(7, true);
+		assertTrue(table.isCompletelyDefined());
+		assertEquals(0xD5L, table.getOutputs()[0]);
+	}
+
+}
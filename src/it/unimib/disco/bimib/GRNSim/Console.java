@@ -10,6 +10,7 @@ package it.unimib.disco.bimib.GRNSim;
 //GRNSim imports
 import it.unimib.disco.bimib.Exceptions.*;
 import it.unimib.disco.bimib.IO.Input;
+import it.unimib.disco.bimib.Sampling.SamplingManager;
 import it.unimib.disco.bimib.Threads.*;
 import it.unimib.disco.bimib.Utility.ConsoleConstants;
 import it.unimib.disco.bimib.Utility.SimulationFeaturesConstants;
@@ -27,7 +28,7 @@ public class Console {
 	public static void main(String[] args) {
 		
 		Properties inputArgs, taskFeatures, simulationFeatures;
-		int threads = 1, requiredNetworks;
+		int threads = 1, executors, requiredNetworks;
 		String taskToPerform, outputFolder, originalGRNMLPath, treeFile;
 		ArrayList<Thread> activeThreads = new ArrayList<Thread>();
 		Task task = null;
@@ -76,6 +77,7 @@ public class Console {
 				throw new MissingFeaturesException(TaskFeaturesConstants.THREADS + " key must be specified in the task features file.");
 			//Gets the number of thread to use in the simulation
 			threads = Integer.valueOf(taskFeatures.getProperty(TaskFeaturesConstants.THREADS));
+			executors = threads;
 		
 			//Gets the task to perform
 			if(!taskFeatures.containsKey(TaskFeaturesConstants.TASK_TO_PERFORM))
@@ -92,6 +94,9 @@ public class Console {
 				throw new MissingFeaturesException("The " + SimulationFeaturesConstants.MATCHING_NETWORKS + " key must be specified in the simulation features file.");
 			requiredNetworks = Integer.parseInt(simulationFeatures.getProperty(SimulationFeaturesConstants.MATCHING_NETWORKS));
 			
+			//Checks the features that require completely defined functions
+			SamplingManager.validatesFeatures(simulationFeatures);
+			
 			if(!taskFeatures.containsKey(TaskFeaturesConstants.STORE_STATES_ATTRACTORS_FILE) ||
 					taskFeatures.getProperty(TaskFeaturesConstants.STORE_STATES_ATTRACTORS_FILE).equals(TaskFeaturesConstants.YES))
 				statesAttractorsFileStoring = true;
@@ -119,6 +124,17 @@ public class Console {
 				originalGRNMLPath = taskFeatures.getProperty(TaskFeaturesConstants.ORIGINAL_NETWORK_FILE);
 				matchingOutputs = new HashMap<String, String>();
 				task = new OpenAndSimulationTask(simulationFeatures, matchingOutputs, outputFolder, originalGRNMLPath, statesAttractorsFileStoring); 
+			//Knockout screening (opens a given network and evaluates its mutants)
+			}else if(taskToPerform.equals(TaskFeaturesConstants.KNOCKOUT_SCREENING)){
+				//Gets the original network grnml file name.
+				if(!taskFeatures.containsKey(TaskFeaturesConstants.ORIGINAL_NETWORK_FILE))
+					throw new MissingFeaturesException(TaskFeaturesConstants.ORIGINAL_NETWORK_FILE + " key must be specified in the task features file."); 
+				originalGRNMLPath = taskFeatures.getProperty(TaskFeaturesConstants.ORIGINAL_NETWORK_FILE);
+				matchingOutputs = new HashMap<String, String>();
+				task = new KnockoutScreeningTask(simulationFeatures, matchingOutputs, outputFolder, originalGRNMLPath, threads); 
+				//The network is screened once: the threads evaluate the mutants
+				requiredNetworks = 1;
+				executors = 1;
 			//Creates and tries to match with the given tree
 			}else if(taskToPerform.equals(TaskFeaturesConstants.CREATE_AND_MATCH)){
 				if(!taskFeatures.containsKey(TaskFeaturesConstants.TREE_FILE))
@@ -148,14 +164,14 @@ public class Console {
 			
 			//Starts the execution threads
 			scheduler = new TaskScheduler(task, requiredNetworks);
-			//Launches 'threads' executor threads
-			for(int thread = 0; thread < threads; thread ++){
+			//Launches 'executors' executor threads
+			for(int thread = 0; thread < executors; thread ++){
 				activeThreads.add(new TasksExecutor(scheduler, "Executor " + (thread + 1)));
 				activeThreads.get(thread).start();
 			}
 			
 			//Main thread waits for sub threads conclusion
-			for(int thread = 0; thread < threads; thread ++){
+			for(int thread = 0; thread < executors; thread ++){
 				try{
 					activeThreads.get(thread).join();
 				}catch(InterruptedException e){
@@ -173,7 +189,7 @@ public class Console {
 				System.out.println(ex.getMessage());
 		}finally{
 			//Closes all the tasks
-			for(int thread = 0; thread < threads; thread ++){
+			for(int thread = 0; thread < activeThreads.size(); thread ++){
 				activeThreads.get(thread).interrupt();
 			}
 			
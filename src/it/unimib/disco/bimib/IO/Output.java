@@ -35,9 +35,14 @@ import java.io.PrintWriter;
 //GRNSim imports
 import it.unimib.disco.bimib.Atms.Atm;
 import it.unimib.disco.bimib.Exceptions.*;
+import it.unimib.disco.bimib.Mutations.MutantLandscape;
 import it.unimib.disco.bimib.Networks.*;
 import it.unimib.disco.bimib.Sampling.AttractorsFinder;
 import it.unimib.disco.bimib.Sampling.BruteForceSampling;
+import it.unimib.disco.bimib.Sampling.ModularSampling;
+import it.unimib.disco.bimib.Sampling.PartialSampling;
+import it.unimib.disco.bimib.Sampling.ReducedSampling;
+import it.unimib.disco.bimib.Sampling.SymbolicSampling;
 import it.unimib.disco.bimib.Utility.OutputConstants;
 import it.unimib.disco.bimib.Utility.SimulationFeaturesConstants;
 /*import Statistics.DynamicPerturbation;
@@ -322,6 +327,29 @@ public class Output {
 		printer.print(results.get(OutputConstants.NOT_FOUND_ATTRACTORS));
 		printer.flush();	
 
+		//Writes the optional fields as key=value couples, so that they can be recognized
+		//Writes the maximum number of stored states, only if the sampling was memory-bounded
+		if(results.containsKey(OutputConstants.MAX_STORED_STATES)){
+			printer.print("," + OutputConstants.MAX_STORED_STATES + "=" + results.get(OutputConstants.MAX_STORED_STATES));
+			printer.flush();
+		}
+
+		//Writes the number of evaluated initial conditions and the missing mass, only if the sampling was adaptive
+		if(results.containsKey(OutputConstants.USED_INITIAL_CONDITIONS)){
+			printer.print("," + OutputConstants.USED_INITIAL_CONDITIONS + "=" + results.get(OutputConstants.USED_INITIAL_CONDITIONS));
+			printer.flush();
+		}
+		if(results.containsKey(OutputConstants.MISSING_MASS)){
+			printer.print("," + OutputConstants.MISSING_MASS + "=" + results.get(OutputConstants.MISSING_MASS));
+			printer.flush();
+		}
+
+		//Writes the number of the frozen nodes, only if the frozen core was found
+		if(results.containsKey(OutputConstants.FROZEN_CORE)){
+			printer.print("," + OutputConstants.FROZEN_CORE + "=" + results.get(OutputConstants.FROZEN_CORE));
+			printer.flush();
+		}
+
 		printer.close();
 		writer.close();
 	}
@@ -377,6 +405,19 @@ public class Output {
 		//Attractor finder type.
 		if(finder instanceof BruteForceSampling)
 			printer.println(SimulationFeaturesConstants.BRUTE_FORCE);
+		else if(finder instanceof SymbolicSampling)
+			//Only the states of the attractors are written
+			printer.println(SimulationFeaturesConstants.SYMBOLIC_SAMPLING);
+		else if(finder instanceof ModularSampling)
+			//Only the states of the attractors are written
+			printer.println(SimulationFeaturesConstants.MODULAR_SAMPLING);
+		else if(finder instanceof ReducedSampling)
+			//Only the states of the attractors are written
+			printer.println(SimulationFeaturesConstants.NETWORK_REDUCTION);
+		else if(finder instanceof PartialSampling && ((PartialSampling) finder).getMaxStoredStates() > 0)
+			//The memory-bounded sampling doesn't contain all the visited states
+			printer.println(SimulationFeaturesConstants.PARTIAL_SAMPLING + "," + SimulationFeaturesConstants.MAX_STORED_STATES 
+					+ "=" + ((PartialSampling) finder).getMaxStoredStates());
 		else
 			printer.println(SimulationFeaturesConstants.PARTIAL_SAMPLING);
 		printer.flush();
@@ -469,6 +510,59 @@ public class Output {
 		writer.close();
 	}
 
+	/**
+	 * This method creates the screening file and writes its header.
+	 * The rows are written by the saveScreeningRow method as the mutants are evaluated, so the returned
+	 * printer must be closed at the end of the screening.
+	 * @param fileName: The name of the file
+	 * @return the printer of the file
+	 * @throws IOException
+	 */
+	public static PrintWriter createScreeningFile(String fileName) throws IOException{
+		//Checks the param values
+		if(fileName == null)
+			throw new NullPointerException("The file name must not be null for the screening file");
+
+		//Defines the writer stream
+		PrintWriter printer = new PrintWriter(new FileWriter(fileName));
+
+		//Header
+		printer.println("Mutated genes,Mutations,Attractors,Average attractor length,Preserved attractors,Lost attractors,New attractors,Not found attractors");
+		printer.flush();
+		return printer;
+	}
+
+	/**
+	 * This method writes the landscape of a mutant in the screening file.
+	 * The mutated genes and their mutations are separated by '+', the wild type network has no mutated genes.
+	 * The counts that are not known (see the MutantLandscape class) are left empty.
+	 * @param printer: The printer of the screening file (see the createScreeningFile method)
+	 * @param genesNames: The names of the genes
+	 * @param landscape: The landscape of the mutant
+	 */
+	public static void saveScreeningRow(PrintWriter printer, ArrayList<String> genesNames, MutantLandscape landscape){
+		//Checks the param values
+		if(printer == null || genesNames == null || landscape == null)
+			throw new NullPointerException("The printer, the genes names and the landscape must be not null for the screening file");
+
+		String genes = "", mutations = "";
+		for(int i = 0; i < landscape.getNodes().length; i++){
+			genes = genes + (i > 0 ? "+" : "") + genesNames.get(landscape.getNodes()[i]);
+			mutations = mutations + (i > 0 ? "+" : "") + (landscape.getKnockIns()[i] ? 
+					SimulationFeaturesConstants.KNOCK_IN_SCREENING : SimulationFeaturesConstants.KNOCK_OUT_SCREENING);
+		}
+		if(landscape.getNodes().length == 0)
+			genes = "wild-type";
+
+		//The unknown counts are left empty
+		boolean known = landscape.getAttractorsNumber() != MutantLandscape.UNKNOWN;
+		printer.println(genes + "," + mutations + "," + (known ? landscape.getAttractorsNumber() : "") + "," 
+				+ (known ? landscape.getAverageLength() : "") + "," + (known ? landscape.getPreservedAttractors() : "") + "," 
+				+ landscape.getLostAttractors() + "," + (known ? landscape.getNewAttractors() : "") + "," 
+				+ (landscape.isNotFound() ? SimulationFeaturesConstants.YES : SimulationFeaturesConstants.NO));
+		printer.flush();
+	}
+
 	/**
 	 * This method saves the attractors lengths in a CSV file. 
 	 * @param fileName: the file name
@@ -17,6 +17,7 @@ import it.unimib.disco.bimib.Atms.Atm;
 import it.unimib.disco.bimib.Networks.GraphManager;
 import it.unimib.disco.bimib.Sampling.AttractorsFinder;
 import it.unimib.disco.bimib.Exceptions.*;
+import it.unimib.disco.bimib.Utility.BitState;
 import it.unimib.disco.bimib.Utility.SimulationFeaturesConstants;
 import it.unimib.disco.bimib.Utility.UtilityRandom;
 
@@ -210,6 +211,9 @@ public class BinaryMutation implements Mutation {
 		int times, knockInDuration, knockOutDuration;
 		ArrayList<Integer> perturbSubset;
 		Boolean[] mutatedValues;
+		//Checks the state type. In this implementation it must be a BitState
+		if(!(state instanceof BitState))
+			throw new ParamDefinitionException("The state must be a BitState value");
 		if(this.mutationType.equals(SimulationFeaturesConstants.FLIP_MUTATIONS)){
 			//Generates the duration of the perturb
 			times = UtilityRandom.randomUniform(this.minPerturbDuration, this.maxPerturbDuration);
@@ -303,30 +307,19 @@ public class BinaryMutation implements Mutation {
 	 */
 	private Object doFlip(Object initialState, ArrayList<Integer> perturbSubset, int times) throws ParamDefinitionException, NotExistingNodeException, InputTypeException{
 
-		String stringState = (String)initialState;
-		Boolean[] state =  new Boolean[stringState.length()];
-		Boolean[] newState;
-
-		//Converts the string state in a boolean array
-		for(int j = 0; j < state.length; j++){
-			state[j] = stringState.charAt(j) == '1' ? Boolean.TRUE : Boolean.FALSE;
-		}
+		//The initial state must not be modified: it is copied
+		BitState state = ((BitState) initialState).copy();
 
 		//Performs the flips for times time steps
 		for(int i = 0; i < times; i++){
 			//Performs the flips
 			for(Integer node : perturbSubset){
-				state[node] = state[node] ? Boolean.FALSE : Boolean.TRUE;
+				state.flip(node);
 			}
 			//Obtains the new state from the network
-			newState = this.graphManager.getNewState(state);
-			state = newState;
+			this.graphManager.step(state, state);
 		}
-		//Converts the Boolean array in a binary string
-		stringState = "";
-		for(int j = 0; j < state.length; j++)
-			stringState = stringState + (state[j] ? "1" : "0");
-		return stringState;
+		return state;
 	}
 
 	/**
@@ -342,30 +335,19 @@ public class BinaryMutation implements Mutation {
 	 */
 	private Object doRandomMutations(Object initialState, ArrayList<Integer> nodesToPerturb, Boolean[] newValues, int times) throws ParamDefinitionException, NotExistingNodeException, InputTypeException{
 
-		String stringState = (String)initialState;
-		Boolean[] state =  new Boolean[stringState.length()];
-		Boolean[] newState;
-
-		//Converts the string state in a boolean array
-		for(int j = 0; j < state.length; j++){
-			state[j] = stringState.charAt(j) == '1' ? Boolean.TRUE : Boolean.FALSE;
-		}
+		//The initial state must not be modified: it is copied
+		BitState state = ((BitState) initialState).copy();
 
 		//Performs the flips for times time steps
 		for(int i = 0; i < times; i++){
 			//Performs the flips
 			for(int j = 0; j < nodesToPerturb.size(); j++){
-				state[nodesToPerturb.get(j)] = newValues[j];
+				state.set(nodesToPerturb.get(j), newValues[j]);
 			}
 			//Obtains the new state from the network
-			newState = this.graphManager.getNewState(state);
-			state = newState;
+			this.graphManager.step(state, state);
 		}
-		//Converts the Boolean array in a binary string
-		stringState = "";
-		for(int j = 0; j < state.length; j++)
-			stringState = stringState + (state[j] ? "1" : "0");
-		return stringState;
+		return state;
 	}
 
 	/**
@@ -382,39 +364,28 @@ public class BinaryMutation implements Mutation {
 	 */
 	private Object doStaticMutations(Object initialState, ArrayList<Integer> knockInNodes, ArrayList<Integer> knockOutNodes, int knockInTimes, int knockOutTimes) throws ParamDefinitionException, NotExistingNodeException, InputTypeException{
 
-		String stringState = (String)initialState;
-		Boolean[] state =  new Boolean[stringState.length()];
-		Boolean[] newState;
-
-		//Converts the string state in a boolean array
-		for(int j = 0; j < state.length; j++){
-			state[j] = stringState.charAt(j) == '1' ? Boolean.TRUE : Boolean.FALSE;
-		}
+		//The initial state must not be modified: it is copied
+		BitState state = ((BitState) initialState).copy();
 
 		//Performs the flips for times time steps
 		for(int t = 0; t < Math.max(knockInTimes, knockOutTimes); t++){
 			//Performs the knock-in (if possible)
 			if(t < knockInTimes){
 				for(Integer node : knockInNodes){
-					state[node] = Boolean.TRUE;
+					state.set(node, true);
 				}
 			}
 			//Performs the knock-out (if possible)
 			if(t < knockOutTimes){
 				for(Integer node : knockOutNodes){
-					state[node] = Boolean.FALSE;
+					state.set(node, false);
 				}
 			}
 			//Obtains the new state from the network
-			newState = this.graphManager.getNewState(state);
-			state = newState;
+			this.graphManager.step(state, state);
 		}
 
-		//Converts the Boolean array in a binary string
-		stringState = "";
-		for(int j = 0; j < state.length; j++)
-			stringState = stringState + (state[j] ? "1" : "0");
-		return stringState;
+		return state;
 	}
 
 	@Override
@@ -0,0 +1,122 @@
+/**
+ * This class is the summary of the attractors landscape of a mutant, compared with the one of the wild type network.
+ * The attractors are compared by their canonical cycles, so an attractor of the wild type is preserved
+ * if the same cycle is an attractor of the mutant.
+ */
+
+package it.unimib.disco.bimib.Mutations;
+
+public class MutantLandscape {
+
+	//The value of the counts that are not known, when the mutant can not be sampled
+	public static final int UNKNOWN = -1;
+
+	//The mutated nodes and their fixed values
+	private int[] nodes;
+	private boolean[] knockIns;
+	//The attractors of the mutant
+	private int attractorsNumber;
+	private double averageLength;
+	//The comparison with the wild type attractors
+	private int preservedAttractors;
+	private int lostAttractors;
+	private int newAttractors;
+	private boolean notFound;
+
+	/**
+	 * Generic constructor. The landscapes are created by the mutants screening.
+	 * @param nodes: the mutated nodes
+	 * @param knockIns: the fixed value of each mutated node
+	 * @param attractorsNumber: the number of the attractors of the mutant
+	 * @param averageLength: the average length of the attractors of the mutant
+	 * @param preservedAttractors: the number of the wild type attractors that are attractors of the mutant
+	 * @param lostAttractors: the number of the wild type attractors that are not attractors of the mutant
+	 * @param newAttractors: the number of the attractors of the mutant that are not wild type attractors
+	 * @param notFound: true if some attractors of the mutant have not been found within the cutoff
+	 * (the counts are the ones of the found attractors, or UNKNOWN if no attractor is known)
+	 */
+	MutantLandscape(int[] nodes, boolean[] knockIns, int attractorsNumber, double averageLength,
+			int preservedAttractors, int lostAttractors, int newAttractors, boolean notFound){
+		this.nodes = nodes;
+		this.knockIns = knockIns;
+		this.attractorsNumber = attractorsNumber;
+		this.averageLength = averageLength;
+		this.preservedAttractors = preservedAttractors;
+		this.lostAttractors = lostAttractors;
+		this.newAttractors = newAttractors;
+		this.notFound = notFound;
+	}
+
+	/**
+	 * This method returns the mutated nodes, empty for the wild type
+	 * @return the mutated nodes
+	 */
+	public int[] getNodes(){
+		return this.nodes;
+	}
+
+	/**
+	 * This method returns the fixed values of the mutated nodes
+	 * @return true for each knocked-in node, false for each knocked-out node
+	 */
+	public boolean[] getKnockIns(){
+		return this.knockIns;
+	}
+
+	/**
+	 * This method returns the number of the attractors of the mutant
+	 * @return the number of the attractors, UNKNOWN if the mutant has not been sampled
+	 */
+	public int getAttractorsNumber(){
+		return this.attractorsNumber;
+	}
+
+	/**
+	 * This method returns the average length of the attractors of the mutant
+	 * @return the average attractor length, UNKNOWN if the mutant has not been sampled
+	 */
+	public double getAverageLength(){
+		return this.averageLength;
+	}
+
+	/**
+	 * This method returns the number of the wild type attractors that are attractors of the mutant too
+	 * @return the number of the preserved attractors, UNKNOWN if the mutant has not been sampled
+	 */
+	public int getPreservedAttractors(){
+		return this.preservedAttractors;
+	}
+
+	/**
+	 * This method returns the number of the wild type attractors that are not attractors of the mutant
+	 * @return the number of the lost attractors
+	 */
+	public int getLostAttractors(){
+		return this.lostAttractors;
+	}
+
+	/**
+	 * This method returns the number of the attractors of the mutant that are not wild type attractors
+	 * @return the number of the new attractors, UNKNOWN if the mutant has not been sampled
+	 */
+	public int getNewAttractors(){
+		return this.newAttractors;
+	}
+
+	/**
+	 * This method returns true if some trajectories of the mutant have not reached an attractor within the cutoff
+	 * @return true if some attractors have not been found
+	 */
+	public boolean isNotFound(){
+		return this.notFound;
+	}
+
+	/**
+	 * This method returns true if the mutations change the attractors of the network
+	 * @return true if some attractors are lost or new
+	 */
+	public boolean changesLandscape(){
+		return this.lostAttractors > 0 || this.newAttractors > 0 || this.notFound;
+	}
+
+}
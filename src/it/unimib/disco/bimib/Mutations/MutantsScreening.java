@@ -0,0 +1,287 @@
+/**
+ * This class evaluates the perpetual mutants of a sampled network and compares their attractors with the wild type ones.
+ * Each mutant is a copy-on-write view of the network (see the createMutant method of the graph manager), so the
+ * network is neither read nor copied again. When the wild type network is sampled by the partial sampling, the
+ * attractors of a mutant are found from the sampled states (see the rewiredCopy method of the partial sampling):
+ * the states that are not affected by the mutations keep their results. With the other sampling methods each
+ * mutant is sampled again.
+ * The mutants are evaluated in parallel if the network can be bit-sliced: the lazily defined functions choose
+ * their outputs during the evaluation, so they can not be shared by different threads.
+ */
+
+package it.unimib.disco.bimib.Mutations;
+
+//System imports
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+//GRNSim imports
+import it.unimib.disco.bimib.Exceptions.*;
+import it.unimib.disco.bimib.Networks.GraphManager;
+import it.unimib.disco.bimib.Sampling.AttractorsFinder;
+import it.unimib.disco.bimib.Sampling.PartialSampling;
+import it.unimib.disco.bimib.Sampling.SamplingManager;
+
+public class MutantsScreening {
+
+	//The number of the mutants evaluated ahead of the notified one, for each thread
+	private static final int MUTANTS_PER_THREAD = 4;
+
+	private GraphManager graph;
+	private AttractorsFinder wildType;
+	private Properties simulationFeatures;
+	private int threads;
+	//The wild type attractors, compared by their canonical cycles
+	private HashSet<Object> wildTypeAttractors;
+
+	/**
+	 * Generic constructor
+	 * @param graph: the graph manager of the wild type network, it must not be modified during the screening
+	 * @param wildType: the attractor finder of the wild type network
+	 * @param simulationFeatures: the simulation features, used in order to sample the mutants
+	 * when the wild type network is not sampled by the partial sampling
+	 * @param threads: the number of the mutants evaluated at the same time
+	 * @throws ParamDefinitionException
+	 */
+	public MutantsScreening(GraphManager graph, AttractorsFinder wildType, Properties simulationFeatures, int threads) throws ParamDefinitionException{
+		if(graph == null || wildType == null || simulationFeatures == null)
+			throw new NullPointerException("The network, its attractor finder and the simulation features must be not null");
+		if(threads <= 0)
+			throw new ParamDefinitionException("The number of threads must be greater than 0");
+		this.graph = graph;
+		this.wildType = wildType;
+		this.simulationFeatures = simulationFeatures;
+		//The bit-sliced network is created before it is shared by the mutants
+		this.threads = graph.getBitSlicedNetwork() != null ? threads : 1;
+		this.wildTypeAttractors = new HashSet<Object>();
+		for(Object attractor : wildType.getAttractors())
+			this.wildTypeAttractors.add(attractor);
+	}
+
+	/**
+	 * This method returns the landscape of the wild type network
+	 * @return the wild type landscape, without mutated nodes
+	 * @throws ParamDefinitionException
+	 * @throws NotExistingNodeException
+	 * @throws InputTypeException
+	 */
+	public MutantLandscape getWildTypeLandscape() throws ParamDefinitionException, NotExistingNodeException, InputTypeException{
+		return this.compares(new int[0], new boolean[0], this.wildType);
+	}
+
+	/**
+	 * This method evaluates a mutant of the network. It can be called by different threads at the same time.
+	 * If some attractors of the mutant are not found, the landscape compares the found ones. When the mutant
+	 * is sampled again and the sampling fails, all the wild type attractors are lost and the other counts are unknown.
+	 * @param nodes: the mutated nodes
+	 * @param knockIns: the fixed value of each mutated node
+	 * @return the landscape of the mutant
+	 * @throws ParamDefinitionException
+	 * @throws NotExistingNodeException
+	 * @throws InputTypeException
+	 */
+	public MutantLandscape evaluates(int[] nodes, boolean[] knockIns) throws ParamDefinitionException, NotExistingNodeException, InputTypeException{
+		GraphManager mutant = this.graph.createMutant(nodes, knockIns);
+		AttractorsFinder finder;
+		if(this.wildType instanceof PartialSampling)
+			finder = ((PartialSampling) this.wildType).rewiredCopy(mutant);
+		else{
+			try{
+				finder = new SamplingManager(this.simulationFeatures, mutant).getAttractorFinder();
+			}catch(AttractorNotFoundException e){
+				return new MutantLandscape(nodes, knockIns, MutantLandscape.UNKNOWN, MutantLandscape.UNKNOWN, MutantLandscape.UNKNOWN,
+						this.wildTypeAttractors.size(), MutantLandscape.UNKNOWN, true);
+			}
+		}
+		return this.compares(nodes, knockIns, finder);
+	}
+
+	/**
+	 * This method compares the attractors of a mutant with the wild type ones
+	 * @param nodes: the mutated nodes
+	 * @param knockIns: the fixed value of each mutated node
+	 * @param finder: the attractor finder of the mutant
+	 * @return the landscape of the mutant
+	 * @throws ParamDefinitionException
+	 * @throws NotExistingNodeException
+	 * @throws InputTypeException
+	 */
+	private MutantLandscape compares(int[] nodes, boolean[] knockIns, AttractorsFinder finder) throws ParamDefinitionException, NotExistingNodeException, InputTypeException{
+		Object[] attractors = finder.getAttractors();
+		double length = 0;
+		int preserved = 0;
+		for(Object attractor : attractors){
+			length = length + finder.getAttractorLength(attractor);
+			if(this.wildTypeAttractors.contains(attractor))
+				preserved++;
+		}
+		return new MutantLandscape(nodes, knockIns, attractors.length, attractors.length == 0 ? 0 : length / attractors.length,
+				preserved, this.wildTypeAttractors.size() - preserved, attractors.length - preserved, finder.getAttractorsNotFound() > 0);
+	}
+
+	/**
+	 * This method evaluates all the single mutants of the network
+	 * @param values: the fixed values of the mutated nodes (false for the knock-out, true for the knock-in)
+	 * @param listener: the listener notified for each mutant, null if not required
+	 * @return the landscapes of the mutants, in order of node and value
+	 * @throws ParamDefinitionException
+	 * @throws NotExistingNodeException
+	 * @throws InputTypeException
+	 * @throws IOException
+	 */
+	public ArrayList<MutantLandscape> screensSingleMutants(boolean[] values, ScreeningListener listener) throws ParamDefinitionException, NotExistingNodeException, InputTypeException, IOException{
+		ArrayList<int[]> mutatedNodes = new ArrayList<int[]>();
+		ArrayList<boolean[]> knockIns = new ArrayList<boolean[]>();
+		for(int node = 0; node < this.graph.getNodesNumber(); node++){
+			for(boolean value : values){
+				mutatedNodes.add(new int[]{node});
+				knockIns.add(new boolean[]{value});
+			}
+		}
+		return this.screens(mutatedNodes, knockIns, listener);
+	}
+
+	/**
+	 * This method evaluates the double mutants of the network.
+	 * If the single mutants are given, only the couples of single mutations that change the landscape are evaluated.
+	 * @param values: the fixed values of the mutated nodes (false for the knock-out, true for the knock-in)
+	 * @param singleMutants: the landscapes of the single mutants, null in order to evaluate all the double mutants
+	 * @param listener: the listener notified for each mutant, null if not required
+	 * @return the landscapes of the mutants
+	 * @throws ParamDefinitionException
+	 * @throws NotExistingNodeException
+	 * @throws InputTypeException
+	 * @throws IOException
+	 */
+	public ArrayList<MutantLandscape> screensDoubleMutants(boolean[] values, ArrayList<MutantLandscape> singleMutants, ScreeningListener listener) throws ParamDefinitionException, NotExistingNodeException, InputTypeException, IOException{
+		//The single mutations that are combined
+		ArrayList<Integer> nodes = new ArrayList<Integer>();
+		ArrayList<Boolean> nodesValues = new ArrayList<Boolean>();
+		if(singleMutants == null){
+			for(int node = 0; node < this.graph.getNodesNumber(); node++){
+				for(boolean value : values){
+					nodes.add(node);
+					nodesValues.add(value);
+				}
+			}
+		}else{
+			for(MutantLandscape landscape : singleMutants){
+				if(landscape.getNodes().length == 1 && landscape.changesLandscape()){
+					nodes.add(landscape.getNodes()[0]);
+					nodesValues.add(landscape.getKnockIns()[0]);
+				}
+			}
+		}
+
+		ArrayList<int[]> mutatedNodes = new ArrayList<int[]>();
+		ArrayList<boolean[]> knockIns = new ArrayList<boolean[]>();
+		for(int i = 0; i < nodes.size(); i++){
+			for(int j = i + 1; j < nodes.size(); j++){
+				if(nodes.get(i).intValue() == nodes.get(j).intValue())
+					continue;
+				mutatedNodes.add(new int[]{nodes.get(i), nodes.get(j)});
+				knockIns.add(new boolean[]{nodesValues.get(i), nodesValues.get(j)});
+			}
+		}
+		return this.screens(mutatedNodes, knockIns, listener);
+	}
+
+	/**
+	 * This method evaluates the given mutants with the screening threads.
+	 * The listener is notified in the order of the mutants, as soon as each of them is evaluated.
+	 * @param mutatedNodes: the mutated nodes of each mutant
+	 * @param knockIns: the fixed values of the mutated nodes of each mutant
+	 * @param listener: the listener notified for each mutant, null if not required
+	 * @return the landscapes of the mutants, in the same order
+	 * @throws ParamDefinitionException
+	 * @throws NotExistingNodeException
+	 * @throws InputTypeException
+	 * @throws IOException
+	 */
+	public ArrayList<MutantLandscape> screens(ArrayList<int[]> mutatedNodes, ArrayList<boolean[]> knockIns, ScreeningListener listener) throws ParamDefinitionException, NotExistingNodeException, InputTypeException, IOException{
+		if(mutatedNodes.size() != knockIns.size())
+			throw new ParamDefinitionException("Each mutant must have the values of its mutated nodes");
+		ArrayList<MutantLandscape> landscapes = new ArrayList<MutantLandscape>(mutatedNodes.size());
+
+		//Evaluates the mutants in this thread
+		if(this.threads == 1){
+			for(int mutant = 0; mutant < mutatedNodes.size(); mutant++)
+				this.notifies(this.evaluates(mutatedNodes.get(mutant), knockIns.get(mutant)), landscapes, listener);
+			return landscapes;
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(this.threads);
+		try{
+			//The evaluated mutants are a bounded window ahead of the notified one
+			LinkedList<Future<MutantLandscape>> window = new LinkedList<Future<MutantLandscape>>();
+			int nextMutant = 0;
+			while(nextMutant < mutatedNodes.size() || !window.isEmpty()){
+				while(nextMutant < mutatedNodes.size() && window.size() < this.threads * MUTANTS_PER_THREAD){
+					final int[] nodes = mutatedNodes.get(nextMutant);
+					final boolean[] values = knockIns.get(nextMutant);
+					window.add(executor.submit(new Callable<MutantLandscape>(){
+						@Override
+						public MutantLandscape call() throws Exception{
+							return MutantsScreening.this.evaluates(nodes, values);
+						}
+					}));
+					nextMutant++;
+				}
+				this.notifies(MutantsScreening.getLandscape(window.removeFirst()), landscapes, listener);
+			}
+		}finally{
+			executor.shutdownNow();
+		}
+		return landscapes;
+	}
+
+	/**
+	 * This method stores an evaluated mutant and notifies it to the listener
+	 * @param landscape: the landscape of the mutant
+	 * @param landscapes: the evaluated landscapes
+	 * @param listener: the listener, null if not required
+	 * @throws IOException
+	 */
+	private void notifies(MutantLandscape landscape, ArrayList<MutantLandscape> landscapes, ScreeningListener listener) throws IOException{
+		landscapes.add(landscape);
+		if(listener != null)
+			listener.mutantEvaluated(landscape);
+	}
+
+	/**
+	 * This method waits for the evaluation of a mutant and throws the exception of the evaluation, if any
+	 * @param future: the evaluation of the mutant
+	 * @return the landscape of the mutant
+	 * @throws ParamDefinitionException
+	 * @throws NotExistingNodeException
+	 * @throws InputTypeException
+	 */
+	private static MutantLandscape getLandscape(Future<MutantLandscape> future) throws ParamDefinitionException, NotExistingNodeException, InputTypeException{
+		try{
+			return future.get();
+		}catch(InterruptedException e){
+			Thread.currentThread().interrupt();
+			throw new ParamDefinitionException("The mutants screening has been interrupted");
+		}catch(ExecutionException e){
+			Throwable cause = e.getCause();
+			if(cause instanceof ParamDefinitionException)
+				throw (ParamDefinitionException) cause;
+			if(cause instanceof NotExistingNodeException)
+				throw (NotExistingNodeException) cause;
+			if(cause instanceof InputTypeException)
+				throw (InputTypeException) cause;
+			if(cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			throw new IllegalStateException(cause);
+		}
+	}
+
+}
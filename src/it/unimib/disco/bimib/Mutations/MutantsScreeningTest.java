@@ -0,0 +1,128 @@
+package it.unimib.disco.bimib.Mutations;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Properties;
+
+import org.junit.Test;
+
+import it.unimib.disco.bimib.Networks.GraphManager;
+import it.unimib.disco.bimib.Sampling.AttractorsFinder;
+import it.unimib.disco.bimib.Sampling.BruteForceSampling;
+import it.unimib.disco.bimib.Sampling.PartialSampling;
+import it.unimib.disco.bimib.Utility.SimulationFeaturesConstants;
+
+public class MutantsScreeningTest {
+
+	public MutantsScreeningTest() {
+	}
+
+	/**
+	 * This method creates a random network of completely defined random functions
+	 * @param nodes: the number of the nodes
+	 * @return the graph manager of the network
+	 * @throws Exception
+	 */
+	private static GraphManager createRandomNetwork(int nodes) throws Exception {
+		Properties features = new Properties();
+		features.setProperty("topology", "PartiallyRandom");
+		features.setProperty("nodes", String.valueOf(nodes));
+		features.setProperty("edges", String.valueOf(2 * nodes));
+		features.setProperty("fixed-inputs-number", "2");
+		features.setProperty("completely-defined-functions", "yes");
+		features.setProperty("function-type", "Boolean");
+		features.setProperty("random-type", "1");
+		features.setProperty("and-type", "0");
+		features.setProperty("or-type", "0");
+		features.setProperty("canalized-type", "0");
+		features.setProperty("bias-type", "0");
+		features.setProperty("bias-value", "0.5");
+		GraphManager manager = new GraphManager();
+		manager.createNetwork(features);
+		return manager;
+	}
+
+	/**
+	 * This method asserts that the landscape of a mutant is the one of its brute force sampling
+	 * @param landscape: the landscape of the mutant
+	 * @param graph: the wild type network
+	 * @param wildType: the wild type attractors
+	 * @throws Exception
+	 */
+	private static void assertBruteForceLandscape(MutantLandscape landscape, GraphManager graph, AttractorsFinder wildType) throws Exception {
+		BruteForceSampling mutant = new BruteForceSampling(graph.createMutant(landscape.getNodes(), landscape.getKnockIns()));
+		HashSet<Object> wildTypeAttractors = new HashSet<Object>(Arrays.asList(wildType.getAttractors()));
+		int preserved = 0;
+		double length = 0;
+		for(Object attractor : mutant.getAttractors()){
+			length += mutant.getAttractorLength(attractor);
+			if(wildTypeAttractors.contains(attractor))
+				preserved++;
+		}
+		assertEquals(mutant.getAttractorsNumber(), landscape.getAttractorsNumber());
+		assertEquals(preserved, landscape.getPreservedAttractors());
+		assertEquals(wildTypeAttractors.size() - preserved, landscape.getLostAttractors());
+		assertEquals(mutant.getAttractorsNumber() - preserved, landscape.getNewAttractors());
+		assertEquals(length / mutant.getAttractorsNumber(), landscape.getAverageLength(), 1e-9);
+		assertFalse(landscape.isNotFound());
+	}
+
+	@Test
+	public void testBruteForceScreening() throws Exception {
+		Properties features = new Properties();
+		features.setProperty(SimulationFeaturesConstants.SAMPLING_METHOD, SimulationFeaturesConstants.BRUTE_FORCE);
+		for(int n = 0; n < 3; n++){
+			GraphManager manager = createRandomNetwork(10);
+			BruteForceSampling wildType = new BruteForceSampling(manager);
+			MutantsScreening screening = new MutantsScreening(manager, wildType, features, 4);
+
+			//The single mutants, notified in order
+			final ArrayList<MutantLandscape> notified = new ArrayList<MutantLandscape>();
+			ArrayList<MutantLandscape> singleMutants = screening.screensSingleMutants(new boolean[]{false, true}, new ScreeningListener(){
+				public void mutantEvaluated(MutantLandscape landscape){
+					notified.add(landscape);
+				}
+			});
+			assertEquals(20, singleMutants.size());
+			assertEquals(singleMutants, notified);
+			for(int i = 0; i < singleMutants.size(); i++){
+				assertArrayEquals(new int[]{i / 2}, singleMutants.get(i).getNodes());
+				assertArrayEquals(new boolean[]{i % 2 == 1}, singleMutants.get(i).getKnockIns());
+				assertBruteForceLandscape(singleMutants.get(i), manager, wildType);
+			}
+
+			//The double mutants of the single mutations that change the landscape
+			ArrayList<MutantLandscape> doubleMutants = screening.screensDoubleMutants(new boolean[]{false, true}, singleMutants, null);
+			for(MutantLandscape landscape : doubleMutants){
+				assertEquals(2, landscape.getNodes().length);
+				assertBruteForceLandscape(landscape, manager, wildType);
+			}
+		}
+	}
+
+	@Test
+	public void testSampledScreening() throws Exception {
+		Properties features = new Properties();
+		for(int n = 0; n < 3; n++){
+			GraphManager manager = createRandomNetwork(10);
+			PartialSampling wildType = new PartialSampling(manager, 200, 5000);
+			MutantsScreening screening = new MutantsScreening(manager, wildType, features, 4);
+
+			//The mutants keep the states of the wild type sampling: their attractors are brute force attractors
+			for(MutantLandscape landscape : screening.screensSingleMutants(new boolean[]{false, true}, null)){
+				BruteForceSampling mutant = new BruteForceSampling(manager.createMutant(landscape.getNodes(), landscape.getKnockIns()));
+				assertTrue(landscape.getAttractorsNumber() <= mutant.getAttractorsNumber());
+				assertEquals(landscape.getAttractorsNumber(), landscape.getPreservedAttractors() + landscape.getNewAttractors());
+				assertEquals(wildType.getAttractorsNumber(), landscape.getPreservedAttractors() + landscape.getLostAttractors());
+				AttractorsFinder sampledMutant = wildType.rewiredCopy(manager.createMutant(landscape.getNodes(), landscape.getKnockIns()));
+				assertEquals(sampledMutant.getAttractorsNumber(), landscape.getAttractorsNumber());
+				for(Object attractor : sampledMutant.getAttractors())
+					assertNotEquals(-1, mutant.getAttractorId(attractor));
+			}
+		}
+	}
+
+}
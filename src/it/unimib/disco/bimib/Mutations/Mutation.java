@@ -22,7 +22,15 @@ public interface Mutation {
 	 */
 	public Atm getMutatedAtm();
 	
-	
+	/**
+	 * This method returns the state obtained mutating the given state.
+	 * The given state is not modified.
+	 * @param state: the network state to mutate
+	 * @return the mutated state
+	 * @throws ParamDefinitionException
+	 * @throws NotExistingNodeException
+	 * @throws InputTypeException
+	 */
 	public Object doMutation(Object state) throws ParamDefinitionException, NotExistingNodeException, InputTypeException;
 
 	/**
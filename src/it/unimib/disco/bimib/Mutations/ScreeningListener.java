@@ -0,0 +1,20 @@
+/**
+ * This interface defines the method notified by the mutants screening for each evaluated mutant.
+ * The mutants are notified in the screening order, by the thread that started the screening.
+ */
+
+package it.unimib.disco.bimib.Mutations;
+
+//System imports
+import java.io.IOException;
+
+public interface ScreeningListener {
+
+	/**
+	 * This method notifies that a mutant has been evaluated
+	 * @param landscape: the attractors landscape of the mutant
+	 * @throws IOException
+	 */
+	public void mutantEvaluated(MutantLandscape landscape) throws IOException;
+
+}
@@ -0,0 +1,383 @@
+/**
+ * This class evaluates a gene regulatory network on 64 network states at the same time.
+ * The states are bit-sliced: the word i contains the value of the node i in each
+ * of the 64 lanes, so every node function is evaluated once for all the lanes
+ * with bitwise operations.
+ * Only networks with completely defined functions can be bit-sliced: the lazily
+ * defined functions choose their outputs during the evaluation of each single state.
+ */
+
+package it.unimib.disco.bimib.Networks;
+
+//System imports
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+//GRNSim imports
+import it.unimib.disco.bimib.Exceptions.NotExistingNodeException;
+import it.unimib.disco.bimib.Functions.*;
+import it.unimib.disco.bimib.Utility.BitState;
+
+public class BitSlicedNetwork {
+
+	//Number of the states evaluated at the same time
+	public static final int LANES = 64;
+	//Maximum number of inputs of a bit-sliced table function
+	public static final int MAX_INPUTS = 10;
+
+	//Function types
+	public static final byte CONSTANT = 0;
+	public static final byte AND = 1;
+	public static final byte OR = 2;
+	public static final byte TABLE = 3;
+
+	private int nodes;
+	private byte[] types;
+	//Input nodes of each function
+	private int[][] inputs;
+	//Constant values (0 or all the lanes set) and table outputs of each function
+	private long[] constants;
+	private long[][] outputs;
+	//Scratch buffer used to reduce the tables
+	private long[] scratch;
+
+	/**
+	 * Private constructor. Use the create method.
+	 * @param nodes: the number of the nodes
+	 */
+	private BitSlicedNetwork(int nodes){
+		this.nodes = nodes;
+		this.types = new byte[nodes];
+		this.inputs = new int[nodes][];
+		this.constants = new long[nodes];
+		this.outputs = new long[nodes][];
+		this.scratch = new long[1 << MAX_INPUTS];
+	}
+
+	/**
+	 * This method creates the bit-sliced version of the given network.
+	 * @param network: the gene regulatory network
+	 * @return the bit-sliced network, null if the network can not be bit-sliced
+	 */
+	public static BitSlicedNetwork create(GeneRegulatoryNetwork network){
+		if(network == null)
+			throw new NullPointerException("The network must be not null");
+		BitSlicedNetwork sliced = new BitSlicedNetwork(network.getNodesNumber());
+		try{
+			for(int node = 0; node < sliced.nodes; node++){
+				Function function = network.getFunction(node);
+				if(function == null)
+					return null;
+				//Perpetually mutated functions are constant
+				if(function instanceof BooleanFunction && ((BooleanFunction) function).getMutationInAction()){
+					sliced.types[node] = CONSTANT;
+					sliced.constants[node] = ((BooleanFunction) function).getKnockIn() ? -1L : 0L;
+				}else if(function instanceof AndOrFunction){
+					int[] functionInputs = new int[function.getInputs().size()];
+					for(int i = 0; i < functionInputs.length; i++)
+						functionInputs[i] = function.getInputs().get(i);
+					//A function without inputs is always false
+					sliced.types[node] = functionInputs.length == 0 ? CONSTANT :
+						(((AndOrFunction) function).isAndFunction() ? AND : OR);
+					sliced.inputs[node] = functionInputs;
+				}else{
+					TruthTable table = NetworkCompiler.getDefinedTruthTable(function);
+					if(table == null || table.getInputs().length > MAX_INPUTS)
+						return null;
+					sliced.types[node] = TABLE;
+					sliced.inputs[node] = table.getInputs();
+					sliced.outputs[node] = table.getOutputs();
+				}
+			}
+		}catch(NotExistingNodeException e){
+			return null;
+		}
+		return sliced;
+	}
+
+	/**
+	 * This method returns a copy of the bit-sliced network that can be used by another thread.
+	 * The functions are shared, only the scratch buffer is allocated again.
+	 * @return the copy of the bit-sliced network
+	 */
+	public BitSlicedNetwork copy(){
+		BitSlicedNetwork copiedNetwork = new BitSlicedNetwork(this.nodes);
+		copiedNetwork.types = this.types;
+		copiedNetwork.inputs = this.inputs;
+		copiedNetwork.constants = this.constants;
+		copiedNetwork.outputs = this.outputs;
+		return copiedNetwork;
+	}
+
+	/**
+	 * This method returns a copy of the bit-sliced network with the given nodes perpetually mutated.
+	 * The functions of the other nodes are shared.
+	 * @param mutatedNodes: the mutated nodes
+	 * @param knockIns: the fixed value of each mutated node
+	 * @return the bit-sliced network of the mutant
+	 */
+	public BitSlicedNetwork createMutant(int[] mutatedNodes, boolean[] knockIns){
+		BitSlicedNetwork mutant = this.copy();
+		mutant.types = this.types.clone();
+		mutant.inputs = this.inputs.clone();
+		mutant.constants = this.constants.clone();
+		mutant.outputs = this.outputs.clone();
+		for(int i = 0; i < mutatedNodes.length; i++){
+			int node = mutatedNodes[i];
+			//The same function of a network created with the mutated node
+			mutant.types[node] = CONSTANT;
+			mutant.inputs[node] = null;
+			mutant.constants[node] = knockIns[i] ? -1L : 0L;
+			mutant.outputs[node] = null;
+		}
+		return mutant;
+	}
+
+	/**
+	 * This method returns the SHA-256 digest of the network functions: the type, the inputs,
+	 * the constant and the truth table outputs of each node.
+	 * Two bit-sliced networks with the same functions have the same digest.
+	 * @return the 32 bytes of the digest
+	 */
+	public byte[] digest(){
+		MessageDigest digest;
+		try{
+			digest = MessageDigest.getInstance("SHA-256");
+		}catch(NoSuchAlgorithmException e){
+			//Every Java platform supports SHA-256
+			throw new IllegalStateException(e.getMessage());
+		}
+		BitSlicedNetwork.update(digest, this.nodes);
+		for(int node = 0; node < this.nodes; node++){
+			BitSlicedNetwork.update(digest, this.types[node]);
+			BitSlicedNetwork.update(digest, this.constants[node]);
+			//The lengths separate the inputs and the outputs of the nodes
+			BitSlicedNetwork.update(digest, this.inputs[node] == null ? -1 : this.inputs[node].length);
+			if(this.inputs[node] != null){
+				for(int input : this.inputs[node])
+					BitSlicedNetwork.update(digest, input);
+			}
+			BitSlicedNetwork.update(digest, this.outputs[node] == null ? -1 : this.outputs[node].length);
+			if(this.outputs[node] != null){
+				for(long word : this.outputs[node])
+					BitSlicedNetwork.update(digest, word);
+			}
+		}
+		return digest.digest();
+	}
+
+	/**
+	 * This method adds the 8 bytes of a value to a digest
+	 * @param digest: the digest
+	 * @param value: the value
+	 */
+	private static void update(MessageDigest digest, long value){
+		for(int shift = 56; shift >= 0; shift -= 8)
+			digest.update((byte) (value >>> shift));
+	}
+
+	/**
+	 * This method returns the number of the nodes
+	 * @return the number of the nodes
+	 */
+	public int getNodesNumber(){
+		return this.nodes;
+	}
+
+	/**
+	 * This method returns the type of the function of a node: CONSTANT, AND, OR or TABLE
+	 * @param node: the node
+	 * @return the function type
+	 */
+	public byte getFunctionType(int node){
+		return this.types[node];
+	}
+
+	/**
+	 * This method returns the input nodes of the function of a node.
+	 * The first input is the most significant bit of the table entry index.
+	 * The returned array must not be modified.
+	 * @param node: the node
+	 * @return the input nodes, an empty array for a constant function
+	 */
+	public int[] getInputs(int node){
+		if(this.types[node] == CONSTANT || this.inputs[node] == null)
+			return new int[0];
+		return this.inputs[node];
+	}
+
+	/**
+	 * This method returns the value of a constant function
+	 * @param node: the node
+	 * @return the constant value
+	 */
+	public boolean getConstant(int node){
+		return this.constants[node] != 0L;
+	}
+
+	/**
+	 * This method returns an output of the table function of a node
+	 * @param node: the node
+	 * @param index: the entry index, as in the TruthTable class
+	 * @return the entry output
+	 */
+	public boolean getOutput(int node, int index){
+		return ((this.outputs[node][index >>> 6] >>> index) & 1L) == 1L;
+	}
+
+	/**
+	 * This method evaluates the function of a node on a single state
+	 * @param node: the node
+	 * @param state: the network state
+	 * @return the function value
+	 */
+	public boolean evaluates(int node, BitState state){
+		int[] functionInputs = this.getInputs(node);
+		switch(this.types[node]){
+		case AND:
+			for(int input : functionInputs){
+				if(!state.get(input))
+					return false;
+			}
+			return true;
+		case OR:
+			for(int input : functionInputs){
+				if(state.get(input))
+					return true;
+			}
+			return false;
+		case TABLE:
+			int entry = 0;
+			for(int input : functionInputs)
+				entry = (entry << 1) | (state.get(input) ? 1 : 0);
+			return this.getOutput(node, entry);
+		default:
+			return this.getConstant(node);
+		}
+	}
+
+	/**
+	 * This method checks if a node has the same function in another bit-sliced network
+	 * @param network: the other bit-sliced network, with the same nodes
+	 * @param node: the node
+	 * @return true if the functions are equal
+	 */
+	public boolean hasSameFunction(BitSlicedNetwork network, int node){
+		if(this.types[node] != network.types[node])
+			return false;
+		if(this.types[node] == CONSTANT)
+			return this.getConstant(node) == network.getConstant(node);
+		return Arrays.equals(this.inputs[node], network.inputs[node]) && Arrays.equals(this.outputs[node], network.outputs[node]);
+	}
+
+	/**
+	 * This method computes the following states of all the lanes.
+	 * @param in: the current bit-sliced states, one word for each node
+	 * @param out: the following bit-sliced states, one word for each node. They are overwritten.
+	 */
+	public void step(long[] in, long[] out){
+		for(int node = 0; node < this.nodes; node++){
+			int[] functionInputs = this.inputs[node];
+			long value;
+			switch(this.types[node]){
+			case AND:
+				value = -1L;
+				for(int input : functionInputs)
+					value &= in[input];
+				break;
+			case OR:
+				value = 0L;
+				for(int input : functionInputs)
+					value |= in[input];
+				break;
+			case TABLE:
+				value = this.evalTable(this.outputs[node], functionInputs, in);
+				break;
+			default:
+				value = this.constants[node];
+			}
+			out[node] = value;
+		}
+	}
+
+	/**
+	 * This method evaluates a table function on all the lanes.
+	 * The table is reduced as a multiplexer tree starting from the last input,
+	 * which is the least significant bit of the entry index.
+	 * @param outputs: the packed table outputs
+	 * @param functionInputs: the function inputs
+	 * @param in: the current bit-sliced states
+	 * @return the function output of each lane
+	 */
+	private long evalTable(long[] outputs, int[] functionInputs, long[] in){
+		int entries = 1 << functionInputs.length;
+		//Expands the table entries to words
+		for(int e = 0; e < entries; e++)
+			this.scratch[e] = -((outputs[e >>> 6] >>> e) & 1L);
+		//Selects the entries input by input
+		for(int i = functionInputs.length - 1; i >= 0; i--){
+			long selector = in[functionInputs[i]];
+			entries >>>= 1;
+			for(int e = 0; e < entries; e++){
+				long low = this.scratch[2 * e];
+				this.scratch[e] = low ^ (selector & (low ^ this.scratch[2 * e + 1]));
+			}
+		}
+		return this.scratch[0];
+	}
+
+	/**
+	 * This method sets the state of a lane
+	 * @param slices: the bit-sliced states
+	 * @param lane: the lane, between 0 and 63
+	 * @param state: the network state
+	 */
+	public static void setLane(long[] slices, int lane, BitState state){
+		long bit = 1L << lane;
+		for(int node = 0; node < state.length(); node++){
+			if(state.get(node))
+				slices[node] |= bit;
+			else
+				slices[node] &= ~bit;
+		}
+	}
+
+	/**
+	 * This method copies the states of the lanes in the given states.
+	 * The lanes with a null state are skipped.
+	 * @param slices: the bit-sliced states
+	 * @param states: the network states, one for each lane
+	 */
+	public static void getLanes(long[] slices, BitState[] states){
+		long[] block = new long[LANES];
+		for(int word = 0; word * LANES < slices.length; word++){
+			//Transposes the nodes of the word
+			int size = Math.min(LANES, slices.length - word * LANES);
+			System.arraycopy(slices, word * LANES, block, 0, size);
+			for(int i = size; i < LANES; i++)
+				block[i] = 0L;
+			BitSlicedNetwork.transpose(block);
+			for(int lane = 0; lane < states.length; lane++){
+				if(states[lane] != null)
+					states[lane].getWords()[word] = block[lane];
+			}
+		}
+	}
+
+	/**
+	 * This method transposes a 64x64 bit matrix: the bit j of the word i is
+	 * moved to the bit i of the word j.
+	 * @param block: the matrix, one word for each row
+	 */
+	static void transpose(long[] block){
+		long mask = 0x00000000FFFFFFFFL;
+		for(int j = 32; j != 0; j >>>= 1, mask ^= mask << j){
+			for(int k = 0; k < LANES; k = ((k | j) + 1) & ~j){
+				long t = ((block[k] >>> j) ^ block[k | j]) & mask;
+				block[k] ^= t << j;
+				block[k | j] ^= t;
+			}
+		}
+	}
+}
@@ -0,0 +1,114 @@
+package it.unimib.disco.bimib.Networks;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.Random;
+
+import org.junit.Test;
+
+import it.unimib.disco.bimib.Utility.BitState;
+
+public class BitSlicedNetworkTest {
+
+	public BitSlicedNetworkTest() {
+	}
+
+	@Test
+	public void testTranspose() {
+		Random random = new Random(1);
+		long[] block = new long[BitSlicedNetwork.LANES];
+		for(int i = 0; i < block.length; i++)
+			block[i] = random.nextLong();
+		long[] transposed = block.clone();
+		BitSlicedNetwork.transpose(transposed);
+
+		//The bit j of the word i is the bit i of the word j
+		for(int i = 0; i < block.length; i++)
+			for(int j = 0; j < block.length; j++)
+				assertEquals((block[i] >>> j) & 1L, (transposed[j] >>> i) & 1L);
+		BitSlicedNetwork.transpose(transposed);
+		assertArrayEquals(block, transposed);
+	}
+
+	@Test
+	public void testStep() throws Exception {
+		//A random network whose states use two words, with and, or and table functions
+		Properties features = new Properties();
+		features.setProperty("topology", "PartiallyRandom");
+		features.setProperty("nodes", "70");
+		features.setProperty("edges", "140");
+		features.setProperty("fixed-inputs-number", "2");
+		features.setProperty("completely-defined-functions", "yes");
+		features.setProperty("function-type", "Boolean");
+		features.setProperty("random-type", "0.6");
+		features.setProperty("and-type", "0.2");
+		features.setProperty("or-type", "0.2");
+		features.setProperty("canalized-type", "0");
+		features.setProperty("bias-type", "0");
+		features.setProperty("bias-value", "0.5");
+		GraphManager manager = new GraphManager();
+		manager.createNetwork(features);
+		GeneRegulatoryNetwork network = manager.getGraph();
+		BitSlicedNetwork sliced = BitSlicedNetwork.create(network);
+		assertNotNull(sliced);
+
+		//Each lane follows the network dynamics
+		Random random = new Random(1);
+		BitState[] states = new BitState[BitSlicedNetwork.LANES];
+		long[] in = new long[70];
+		for(int lane = 0; lane < states.length; lane++){
+			states[lane] = new BitState(70);
+			for(int node = 0; node < 70; node++)
+				states[lane].set(node, random.nextBoolean());
+			BitSlicedNetwork.setLane(in, lane, states[lane]);
+		}
+		long[] out = new long[70];
+		for(int step = 0; step < 5; step++){
+			sliced.step(in, out);
+			BitState[] nextStates = new BitState[BitSlicedNetwork.LANES];
+			for(int lane = 0; lane < nextStates.length; lane++)
+				nextStates[lane] = new BitState(70);
+			BitSlicedNetwork.getLanes(out, nextStates);
+			for(int lane = 0; lane < states.length; lane++){
+				BitState expected = new BitState(70);
+				network.step(states[lane], expected);
+				assertEquals(expected, nextStates[lane]);
+				for(int node = 0; node < 70; node++)
+					assertEquals(expected.get(node), sliced.evaluates(node, states[lane]));
+			}
+			states = nextStates;
+			long[] swap = in;
+			in = out;
+			out = swap;
+		}
+	}
+
+	@Test
+	public void testDigest() throws Exception {
+		Properties features = new Properties();
+		features.setProperty("topology", "PartiallyRandom");
+		features.setProperty("nodes", "20");
+		features.setProperty("edges", "40");
+		features.setProperty("fixed-inputs-number", "2");
+		features.setProperty("completely-defined-functions", "yes");
+		features.setProperty("function-type", "Boolean");
+		features.setProperty("random-type", "1");
+		features.setProperty("and-type", "0");
+		features.setProperty("or-type", "0");
+		features.setProperty("canalized-type", "0");
+		features.setProperty("bias-type", "0");
+		features.setProperty("bias-value", "0.5");
+		GraphManager manager = new GraphManager();
+		manager.createNetwork(features);
+		byte[] digest = BitSlicedNetwork.create(manager.getGraph()).digest();
+		assertEquals(32, digest.length);
+
+		//The same functions have the same digest, a mutated function changes it
+		assertArrayEquals(digest, BitSlicedNetwork.create(manager.getGraph()).digest());
+		BitSlicedNetwork mutant = BitSlicedNetwork.create(manager.getGraph()).createMutant(new int[]{5}, new boolean[]{true});
+		assertFalse(Arrays.equals(digest, mutant.digest()));
+	}
+
+}
@@ -0,0 +1,17 @@
+/**
+ * This interface is implemented by the classes generated by the NetworkCompiler.
+ * A compiled network computes the following network state in a single call.
+ */
+
+package it.unimib.disco.bimib.Networks;
+
+public interface CompiledNetwork {
+
+	/**
+	 * This method computes the following network state.
+	 * The states are bit-packed: the node i is the bit (i % 64) of the word (i / 64).
+	 * @param in: the words of the current state
+	 * @param out: the words of the following state. They are overwritten.
+	 */
+	public void step(long[] in, long[] out);
+}
@@ -0,0 +1,303 @@
+/**
+ * This class finds the frozen core of a network: the nodes that have the same value in every attractor.
+ * The constant functions (the perpetually mutated ones and the functions with constant outputs) are frozen,
+ * then the forced values are propagated through the canalizing inputs: an input is canalizing if one of its
+ * values determines the function output whatever the other inputs are. Each input of an AND (OR) function
+ * is canalizing with the value false (true). A canalized function depends only on its canalizing inputs
+ * (usefullInputs), so its table over them is read directly from the function; the canalizing inputs of the
+ * other table functions are found in their compiled tables. A function whose inputs are all frozen is frozen too.
+ * Only the defined entries of the canalized functions are used: the lazily defined entries are chosen during
+ * the simulation, so an input is canalizing only if all the entries with its value are defined. The other
+ * lazily defined functions are frozen only when they are perpetually mutated.
+ */
+
+package it.unimib.disco.bimib.Networks;
+
+//System imports
+import java.util.ArrayList;
+import java.util.LinkedList;
+
+//GRNSim imports
+import it.unimib.disco.bimib.Exceptions.NotExistingNodeException;
+import it.unimib.disco.bimib.Functions.*;
+import it.unimib.disco.bimib.Utility.BitState;
+
+public class FrozenCore {
+
+	private int nodes;
+	//The analyzed function of each node: null if it is not analyzed
+	private Function[] functions;
+	private TruthTable[] tables;
+	//The input nodes of each function, without repetitions
+	private int[][] inputs;
+	//The frozen nodes with their values
+	private boolean[] frozen;
+	private boolean[] values;
+
+	/**
+	 * Generic constructor. Use the getFrozenCore method of the graph manager.
+	 * @param network: the gene regulatory network
+	 * @throws NotExistingNodeException
+	 */
+	FrozenCore(GeneRegulatoryNetwork network) throws NotExistingNodeException{
+		if(network == null)
+			throw new NullPointerException("The network must be not null");
+		this.nodes = network.getNodesNumber();
+		this.functions = new Function[this.nodes];
+		this.tables = new TruthTable[this.nodes];
+		this.inputs = new int[this.nodes][];
+		this.frozen = new boolean[this.nodes];
+		this.values = new boolean[this.nodes];
+
+		LinkedList<Integer> frozenNodes = new LinkedList<Integer>();
+		for(int node = 0; node < this.nodes; node++){
+			Function function = network.getFunction(node);
+			this.inputs[node] = new int[0];
+			if(function == null)
+				continue;
+			//Perpetually mutated functions are constant
+			if(function instanceof BooleanFunction && ((BooleanFunction) function).getMutationInAction()){
+				this.freezes(node, ((BooleanFunction) function).getKnockIn(), frozenNodes);
+				continue;
+			}
+			if(function instanceof AndOrFunction){
+				this.functions[node] = function;
+				this.inputs[node] = FrozenCore.distinct(function.getInputs());
+			}else{
+				//The canalized functions are read on their canalizing inputs, even if they are lazily defined
+				if(function instanceof CanalizedFunction)
+					this.tables[node] = ((CanalizedFunction) function).getTruthTable();
+				else
+					this.tables[node] = NetworkCompiler.getDefinedTruthTable(function);
+				if(this.tables[node] == null)
+					continue;
+				this.functions[node] = function;
+				ArrayList<Integer> tableInputs = new ArrayList<Integer>();
+				for(int input : this.tables[node].getInputs())
+					tableInputs.add(input);
+				this.inputs[node] = FrozenCore.distinct(tableInputs);
+			}
+			//The functions without inputs or with a constant table are constant
+			if(this.inputs[node].length == 0){
+				if(this.isDefined(node))
+					this.freezes(node, this.evaluates(node), frozenNodes);
+			}
+			else if(this.tables[node] != null && FrozenCore.isConstant(this.tables[node]))
+				this.freezes(node, this.tables[node].getOutput(0), frozenNodes);
+		}
+
+		this.propagates(frozenNodes);
+	}
+
+	/**
+	 * This method returns the given nodes without repetitions
+	 * @param nodes: the nodes
+	 * @return the distinct nodes
+	 */
+	private static int[] distinct(ArrayList<Integer> nodes){
+		ArrayList<Integer> distinctNodes = new ArrayList<Integer>();
+		for(Integer node : nodes){
+			if(!distinctNodes.contains(node))
+				distinctNodes.add(node);
+		}
+		int[] array = new int[distinctNodes.size()];
+		for(int i = 0; i < array.length; i++)
+			array[i] = distinctNodes.get(i);
+		return array;
+	}
+
+	/**
+	 * This method checks if all the entries of a table are defined and have the same output
+	 * @param table: the table
+	 * @return true if the table is constant
+	 */
+	private static boolean isConstant(TruthTable table){
+		for(int entry = 0; entry < (1 << table.getInputs().length); entry++){
+			if(!table.isDefined(entry) || table.getOutput(entry) != table.getOutput(0))
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * This method freezes a node and adds it to the nodes to be propagated
+	 * @param node: the node
+	 * @param value: the frozen value
+	 * @param frozenNodes: the nodes to be propagated
+	 */
+	private void freezes(int node, boolean value, LinkedList<Integer> frozenNodes){
+		this.frozen[node] = true;
+		this.values[node] = value;
+		frozenNodes.add(node);
+	}
+
+	/**
+	 * This method propagates the frozen values to the regulated nodes, until no other node is frozen.
+	 * @param frozenNodes: the frozen nodes that are not propagated yet
+	 */
+	private void propagates(LinkedList<Integer> frozenNodes){
+		//The analyzed nodes regulated by each node, and the number of inputs of each node that are not propagated
+		ArrayList<ArrayList<Integer>> regulatedNodes = new ArrayList<ArrayList<Integer>>();
+		int[] freeInputs = new int[this.nodes];
+		for(int node = 0; node < this.nodes; node++)
+			regulatedNodes.add(new ArrayList<Integer>());
+		for(int node = 0; node < this.nodes; node++){
+			for(int input : this.inputs[node])
+				regulatedNodes.get(input).add(node);
+			freeInputs[node] = this.inputs[node].length;
+		}
+
+		while(!frozenNodes.isEmpty()){
+			int input = frozenNodes.removeFirst();
+			for(int node : regulatedNodes.get(input)){
+				if(this.frozen[node])
+					continue;
+				freeInputs[node]--;
+				if(freeInputs[node] == 0){
+					if(this.isDefined(node))
+						this.freezes(node, this.evaluates(node), frozenNodes);
+				}
+				else if(this.isCanalizing(node, input, this.values[input]))
+					this.freezes(node, this.getCanalizedOutput(node, input, this.values[input]), frozenNodes);
+			}
+		}
+	}
+
+	/**
+	 * This method checks if the function of a node whose inputs are all frozen is defined on the frozen values
+	 * @param node: the node
+	 * @return true if the function output is defined
+	 */
+	private boolean isDefined(int node){
+		if(this.tables[node] == null)
+			return true;
+		return this.tables[node].isDefined(this.getEntry(node));
+	}
+
+	/**
+	 * This method returns the table entry of a node whose inputs are all frozen
+	 * @param node: the node with a table function
+	 * @return the entry index
+	 */
+	private int getEntry(int node){
+		int entry = 0;
+		for(int input : this.tables[node].getInputs())
+			entry = (entry << 1) | (this.values[input] ? 1 : 0);
+		return entry;
+	}
+
+	/**
+	 * This method evaluates the function of a node whose inputs are all frozen
+	 * @param node: the node
+	 * @return the function value
+	 */
+	private boolean evaluates(int node){
+		if(this.functions[node] instanceof AndOrFunction){
+			boolean and = ((AndOrFunction) this.functions[node]).isAndFunction();
+			//A function without inputs is always false
+			if(this.inputs[node].length == 0)
+				return false;
+			for(int input : this.inputs[node]){
+				if(this.values[input] != and)
+					return !and;
+			}
+			return and;
+		}
+		return this.tables[node].getOutput(this.getEntry(node));
+	}
+
+	/**
+	 * This method checks if the value of an input determines the function output
+	 * @param node: the node
+	 * @param input: the input node
+	 * @param value: the input value
+	 * @return true if the input is canalizing with the given value
+	 */
+	private boolean isCanalizing(int node, int input, boolean value){
+		if(this.functions[node] instanceof AndOrFunction)
+			return value != ((AndOrFunction) this.functions[node]).isAndFunction();
+		int[] tableInputs = this.tables[node].getInputs();
+		boolean output = this.getCanalizedOutput(node, input, value);
+		for(int entry = 0; entry < (1 << tableInputs.length); entry++){
+			if(FrozenCore.hasValue(tableInputs, entry, input, value) && 
+					(!this.tables[node].isDefined(entry) || this.tables[node].getOutput(entry) != output))
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * This method returns the output of a function when a canalizing input has the given value
+	 * @param node: the node
+	 * @param input: the canalizing input
+	 * @param value: the input value
+	 * @return the function output
+	 */
+	private boolean getCanalizedOutput(int node, int input, boolean value){
+		if(this.functions[node] instanceof AndOrFunction)
+			return value;
+		int[] tableInputs = this.tables[node].getInputs();
+		for(int entry = 0; entry < (1 << tableInputs.length); entry++){
+			if(FrozenCore.hasValue(tableInputs, entry, input, value))
+				return this.tables[node].getOutput(entry);
+		}
+		return false;
+	}
+
+	/**
+	 * This method checks if an input node has the given value in a table entry
+	 * @param tableInputs: the table inputs, the first one is the most significant bit of the entry index
+	 * @param entry: the entry index
+	 * @param input: the input node
+	 * @param value: the value
+	 * @return true if every position of the input node has the given value
+	 */
+	private static boolean hasValue(int[] tableInputs, int entry, int input, boolean value){
+		for(int i = 0; i < tableInputs.length; i++){
+			if(tableInputs[i] == input && (((entry >>> (tableInputs.length - 1 - i)) & 1) == 1) != value)
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * This method returns true if the node is in the frozen core
+	 * @param node: the node
+	 * @return true if the node is frozen
+	 */
+	public boolean isFrozen(int node){
+		return this.frozen[node];
+	}
+
+	/**
+	 * This method returns the value of a frozen node
+	 * @param node: the frozen node
+	 * @return the frozen value
+	 */
+	public boolean getValue(int node){
+		return this.values[node];
+	}
+
+	/**
+	 * This method returns the number of the nodes in the frozen core
+	 * @return the number of the frozen nodes
+	 */
+	public int getFrozenNodesNumber(){
+		int frozenNodes = 0;
+		for(boolean isFrozen : this.frozen)
+			frozenNodes += isFrozen ? 1 : 0;
+		return frozenNodes;
+	}
+
+	/**
+	 * This method sets the frozen nodes of a state to their values
+	 * @param state: the network state, it is modified
+	 */
+	public void setFrozenValues(BitState state){
+		for(int node = 0; node < this.nodes; node++){
+			if(this.frozen[node])
+				state.set(node, this.values[node]);
+		}
+	}
+
+}
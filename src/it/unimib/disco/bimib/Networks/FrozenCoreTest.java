@@ -0,0 +1,73 @@
+package it.unimib.disco.bimib.Networks;
+
+import static org.junit.Assert.*;
+
+import java.util.Properties;
+
+import org.junit.Test;
+
+import it.unimib.disco.bimib.Utility.BitState;
+
+public class FrozenCoreTest {
+
+	public FrozenCoreTest() {
+	}
+
+	/**
+	 * This method creates a random network of canalized functions
+	 * @param nodes: the number of the nodes
+	 * @param completelyDefined: true for completely defined functions
+	 * @return the graph manager of the network
+	 * @throws Exception
+	 */
+	static GraphManager createCanalizedNetwork(int nodes, boolean completelyDefined) throws Exception {
+		Properties features = new Properties();
+		features.setProperty("topology", "PartiallyRandom");
+		features.setProperty("nodes", String.valueOf(nodes));
+		features.setProperty("edges", String.valueOf(2 * nodes));
+		features.setProperty("fixed-inputs-number", "2");
+		features.setProperty("completely-defined-functions", completelyDefined ? "yes" : "no");
+		features.setProperty("function-type", "Boolean");
+		features.setProperty("random-type", "0");
+		features.setProperty("and-type", "0");
+		features.setProperty("or-type", "0");
+		features.setProperty("canalized-type", "1");
+		features.setProperty("bias-type", "0");
+		features.setProperty("bias-value", "0.5");
+		GraphManager manager = new GraphManager();
+		manager.createNetwork(features);
+		return manager;
+	}
+
+	@Test
+	public void testCanalizedNetworks() throws Exception {
+		int nodes = 12, frozenNodes = 0;
+		for(int n = 0; n < 10; n++){
+			GraphManager manager = createCanalizedNetwork(nodes, true);
+			GeneRegulatoryNetwork network = manager.getGraph();
+			FrozenCore core = manager.getFrozenCore();
+			frozenNodes += core.getFrozenNodesNumber();
+
+			//The frozen nodes have their values after at most nodes steps from every state
+			BitState state = new BitState(nodes), next = new BitState(nodes);
+			for(long index = 0; index < (1L << nodes); index++){
+				state.setIndex(index);
+				for(int step = 0; step < nodes; step++){
+					network.step(state, next);
+					BitState swap = state;
+					state = next;
+					next = swap;
+				}
+				for(int node = 0; node < nodes; node++){
+					if(core.isFrozen(node))
+						assertEquals(core.getValue(node), state.get(node));
+				}
+			}
+
+			//The reduction removes the same frozen nodes
+			assertEquals(core.getFrozenNodesNumber(), manager.getFrozenReduction().getFrozenNodesNumber());
+		}
+		assertTrue(frozenNodes > 0);
+	}
+
+}
@@ -17,6 +17,7 @@ import java.util.List;
 //GRNSim imports
 import it.unimib.disco.bimib.Exceptions.*;
 import it.unimib.disco.bimib.Functions.Function;
+import it.unimib.disco.bimib.Utility.BitState;
 
 public interface GeneRegulatoryNetwork {
 
@@ -173,6 +174,26 @@ public interface GeneRegulatoryNetwork {
 	 */
 	public Object evalFunction(int node, Object[] inputs) throws NotExistingNodeException, InputTypeException, ParamDefinitionException;
 
+	/**
+	 * This method returns the function value for a specified node in the given network state.
+	 * @param node: The id of the node in which the function has to be calculated.
+	 * @param state: The whole network state
+	 * @return the function value
+	 * @throws NotExistingNodeException: The specified node doesn't exist.
+	 * @throws ParamDefinitionException 
+	 */
+	public boolean evalFunction(int node, BitState state) throws NotExistingNodeException, ParamDefinitionException;
+
+	/**
+	 * This method computes the following network state of a given state.
+	 * The two states must be different objects.
+	 * @param currentState: The current network state
+	 * @param newState: The state where the following network state is written
+	 * @throws NotExistingNodeException
+	 * @throws ParamDefinitionException
+	 */
+	public void step(BitState currentState, BitState newState) throws NotExistingNodeException, ParamDefinitionException;
+
 	/**
 	 * This method returns the network as a GRNML string set.
 	 * The GRNML format is the simulator inner exchange format.
@@ -206,6 +227,12 @@ public interface GeneRegulatoryNetwork {
 	 * @throws NotExistingNodeException 
 	 */
 	public void changeRandomlyEdgeSource(int node, int newNode) throws NotExistingNodeException;
+
+	/**
+	 * This method returns the network topology
+	 * @return the topology name
+	 */
+	public String getTopology();
 	
 }
 
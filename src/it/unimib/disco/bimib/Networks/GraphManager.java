@@ -24,6 +24,19 @@ public class GraphManager {
 
 	//Gene Regulatory Network object
 	private GeneRegulatoryNetwork geneRegulatoryNetwork;
+	//Network compilation
+	private boolean compilation;
+	private CompiledNetwork compiledNetwork;
+	private boolean compilationFailed;
+	//Bit-sliced network
+	private BitSlicedNetwork slicedNetwork;
+	private boolean slicingFailed;
+	//Reduced networks (without the frozen nodes and the leaves, or only without the frozen nodes) and frozen core
+	private NetworkReduction reduction;
+	private NetworkReduction frozenReduction;
+	private FrozenCore frozenCore;
+	//Scratch state used by the step method
+	private BitState scratchState;
 
 	/**
 	 * Default constructor
@@ -31,6 +44,126 @@ public class GraphManager {
 	public GraphManager(){
 		//Set to null the network
 		this.geneRegulatoryNetwork = null;
+		this.compilation = false;
+		this.invalidateCompiledNetworks();
+	}
+
+	/**
+	 * This method enables or disables the network compilation following the specified features.
+	 * If it is enabled, the following states are computed by a step function generated
+	 * and compiled for the current network.
+	 * @param simulationFeatures: the simulation features
+	 * @throws FeaturesException
+	 */
+	public void setCompilation(Properties simulationFeatures) throws FeaturesException{
+		String compilation = simulationFeatures.getProperty(SimulationFeaturesConstants.NETWORK_COMPILATION, SimulationFeaturesConstants.NO);
+		if(compilation.equals(SimulationFeaturesConstants.YES))
+			this.compilation = true;
+		else if(compilation.equals(SimulationFeaturesConstants.NO))
+			this.compilation = false;
+		else
+			throw new FeaturesException(SimulationFeaturesConstants.NETWORK_COMPILATION + " value must be " + 
+					SimulationFeaturesConstants.YES + " or " + SimulationFeaturesConstants.NO);
+		this.invalidateCompiledNetworks();
+	}
+
+	/**
+	 * This method converts the network in the graph representation specified in the features.
+	 * The dense representation uses an incidence matrix, the sparse one uses adjacency arrays
+	 * and is suggested for networks with a lot of nodes.
+	 * @param simulationFeatures: the simulation features
+	 * @throws FeaturesException
+	 * @throws ParamDefinitionException
+	 * @throws NotExistingNodeException
+	 */
+	public void setGraphRepresentation(Properties simulationFeatures) throws FeaturesException, ParamDefinitionException, NotExistingNodeException{
+		String representation = simulationFeatures.getProperty(SimulationFeaturesConstants.GRAPH_REPRESENTATION, 
+				SimulationFeaturesConstants.DENSE_REPRESENTATION);
+		if(representation.equals(SimulationFeaturesConstants.SPARSE_REPRESENTATION)){
+			if(!(this.geneRegulatoryNetwork instanceof SparseGraph))
+				this.geneRegulatoryNetwork = new SparseGraph(this.geneRegulatoryNetwork);
+		}else if(representation.equals(SimulationFeaturesConstants.DENSE_REPRESENTATION)){
+			if(this.geneRegulatoryNetwork instanceof SparseGraph){
+				String[] nodesName = this.geneRegulatoryNetwork.getNodesNames().toArray(new String[0]);
+				Function[] functions = new Function[nodesName.length];
+				for(int i = 0; i < functions.length; i++)
+					functions[i] = this.geneRegulatoryNetwork.getFunction(i);
+				this.createGraph(nodesName, this.geneRegulatoryNetwork.getEdges().toArray(new int[0][]), 
+						functions, this.geneRegulatoryNetwork.getTopology());
+			}
+		}else{
+			throw new FeaturesException(SimulationFeaturesConstants.GRAPH_REPRESENTATION + " value must be " + 
+					SimulationFeaturesConstants.DENSE_REPRESENTATION + " or " + SimulationFeaturesConstants.SPARSE_REPRESENTATION);
+		}
+		this.invalidateCompiledNetworks();
+	}
+
+	/**
+	 * This method discards the compiled and the bit-sliced networks. 
+	 * It must be called every time the network changes.
+	 */
+	private void invalidateCompiledNetworks(){
+		this.compiledNetwork = null;
+		this.compilationFailed = false;
+		this.slicedNetwork = null;
+		this.slicingFailed = false;
+		this.reduction = null;
+		this.frozenReduction = null;
+		this.frozenCore = null;
+	}
+
+	/**
+	 * This method returns the bit-sliced version of the network, 
+	 * used to compute the following states of 64 states at the same time.
+	 * @return the bit-sliced network, null if the network can not be bit-sliced
+	 */
+	public BitSlicedNetwork getBitSlicedNetwork(){
+		if(this.slicedNetwork == null && !this.slicingFailed){
+			this.slicedNetwork = BitSlicedNetwork.create(this.geneRegulatoryNetwork);
+			this.slicingFailed = this.slicedNetwork == null;
+		}
+		return this.slicedNetwork;
+	}
+
+	/**
+	 * This method returns the reduction of the network, without the frozen nodes and the leaves.
+	 * The reduced network uses the same compilation of this network.
+	 * @return the network reduction
+	 * @throws ParamDefinitionException The network functions can not be compiled in truth tables
+	 * @throws NotExistingNodeException
+	 */
+	public NetworkReduction getReduction() throws ParamDefinitionException, NotExistingNodeException{
+		if(this.reduction == null){
+			this.reduction = new NetworkReduction(this);
+			this.reduction.getReducedGraph().compilation = this.compilation;
+		}
+		return this.reduction;
+	}
+
+	/**
+	 * This method returns the reduction of the network without the frozen nodes: the leaves are kept.
+	 * The reduced network uses the same compilation of this network.
+	 * @return the network reduction
+	 * @throws ParamDefinitionException The network functions can not be compiled in truth tables
+	 * @throws NotExistingNodeException
+	 */
+	public NetworkReduction getFrozenReduction() throws ParamDefinitionException, NotExistingNodeException{
+		if(this.frozenReduction == null){
+			this.frozenReduction = new NetworkReduction(this, false);
+			this.frozenReduction.getReducedGraph().compilation = this.compilation;
+		}
+		return this.frozenReduction;
+	}
+
+	/**
+	 * This method returns the frozen core of the network, found by propagating the canalizing values.
+	 * @return the frozen core
+	 * @throws NotExistingNodeException
+	 */
+	public FrozenCore getFrozenCore() throws NotExistingNodeException{
+		if(this.frozenCore == null)
+			this.frozenCore = new FrozenCore(this.geneRegulatoryNetwork);
+		return this.frozenCore;
 	}
 
 	/**
@@ -286,7 +419,11 @@ public class GraphManager {
 
 		}else{
 			throw new ParamDefinitionException("Not supported function type");
-		}		
+		}
+		
+		//Sets the graph representation and the network compilation
+		this.setGraphRepresentation(simulationFeatures);
+		this.setCompilation(simulationFeatures);
 	}
 
 	/**
@@ -333,7 +470,7 @@ public class GraphManager {
 			this.geneRegulatoryNetwork = new PartiallyRandomGraph(nodesName, edges); //Da aggiungere il numero di input
 		//Adds the functions
 		this.geneRegulatoryNetwork.addFunctions(functions);
-
+		this.invalidateCompiledNetworks();
 	}
 	
 	/**
@@ -360,7 +497,7 @@ public class GraphManager {
 			this.geneRegulatoryNetwork = new SmallWorldGraph(nodesName, edges);
 		else if(graphTopology.equals(SimulationFeaturesConstants.PARTIALLY_RANDOM_TOPOLOGY))
 			this.geneRegulatoryNetwork = new PartiallyRandomGraph(nodesName, edges); //Da aggiungere il numero di input
-
+		this.invalidateCompiledNetworks();
 	}
 
 	/**
@@ -378,6 +515,10 @@ public class GraphManager {
 		double randomRate = 0, biasRate = 0, biasValue = 0, andRate = 0, orRate = 0, canalizedRate = 0;
 		ArrayList<Integer> undefinedFunctions = new ArrayList<Integer>();
 		
+		//A mutant is copied before changing its functions
+		if(this.geneRegulatoryNetwork instanceof MutatedNetwork)
+			this.geneRegulatoryNetwork = this.geneRegulatoryNetwork.copy();
+		this.invalidateCompiledNetworks();
 		//Adds the undefined nodes (if specified)
 		if(features.containsKey(SimulationFeaturesConstants.NODES)){
 			totalNodes = Integer.parseInt(features.get(SimulationFeaturesConstants.NODES).toString());
@@ -602,6 +743,61 @@ public class GraphManager {
 		return newState;
 	}
 
+	/**
+	 * This method returns the following network state of a given state.
+	 * For each node it evaluates the associated function.
+	 * @param currentState: The current network state
+	 * @return The following network state
+	 * @throws ParamDefinitionException
+	 * @throws NotExistingNodeException
+	 * @throws InputTypeException
+	 */
+	public BitState getNewState(BitState currentState) throws ParamDefinitionException, NotExistingNodeException, InputTypeException{
+		BitState newState = new BitState(this.geneRegulatoryNetwork.getNodesNumber());
+		this.step(currentState, newState);
+		return newState;
+	}
+
+	/**
+	 * This method writes the following network state of a given state in the passed state.
+	 * No objects are allocated, so it should be preferred when the states are not stored.
+	 * The two states can be the same object: in this case the state is updated in place.
+	 * This method uses an internal scratch state: a graph manager must not be shared between threads.
+	 * @param currentState: The current network state
+	 * @param newState: The state where the following network state is written
+	 * @throws ParamDefinitionException
+	 * @throws NotExistingNodeException
+	 * @throws InputTypeException
+	 */
+	public void step(BitState currentState, BitState newState) throws ParamDefinitionException, NotExistingNodeException, InputTypeException{
+		int nodes = this.geneRegulatoryNetwork.getNodesNumber();
+		if(currentState == null || newState == null)
+			throw new ParamDefinitionException("The states must be not null");
+		if(currentState.length() != nodes || newState.length() != nodes)
+			throw new ParamDefinitionException("The states must have " + nodes + " nodes");
+
+		//The following state is written in the scratch state when the states are the same object
+		BitState target = newState;
+		if(currentState == newState){
+			if(this.scratchState == null || this.scratchState.length() != nodes)
+				this.scratchState = new BitState(nodes);
+			target = this.scratchState;
+		}
+
+		//Compiles the network the first time it is needed
+		if(this.compilation && this.compiledNetwork == null && !this.compilationFailed){
+			this.compiledNetwork = NetworkCompiler.compile(this.geneRegulatoryNetwork);
+			this.compilationFailed = this.compiledNetwork == null;
+		}
+		if(this.compiledNetwork != null)
+			this.compiledNetwork.step(currentState.getWords(), target.getWords());
+		else
+			this.geneRegulatoryNetwork.step(currentState, target);
+
+		if(target != newState)
+			System.arraycopy(target.getWords(), 0, newState.getWords(), 0, target.getWords().length);
+	}
+
 	/**
 	 * This method returns the number of the nodes in the graph
 	 * @return the number of the node in the graph
@@ -627,7 +823,8 @@ public class GraphManager {
 		if(nodeNumber < 0 || nodeNumber > this.getNodesNumber())
 			throw new ParamDefinitionException("The node number value must be between 0 and " + this.getNodesNumber());
 
-		this.geneRegulatoryNetwork.getFunction(nodeNumber).perpetuallyMutationActivation(knockIn);
+		this.getWritableFunction(nodeNumber).perpetuallyMutationActivation(knockIn);
+		this.invalidateCompiledNetworks();
 
 	}
 	
@@ -642,8 +839,23 @@ public class GraphManager {
 		if(nodeName == null)
 			throw new ParamDefinitionException("The node name must be not null!");
 		int nodeNumber = this.geneRegulatoryNetwork.getNodeNumber(nodeName);
-		this.geneRegulatoryNetwork.getFunction(nodeNumber).perpetuallyMutationActivation(knockIn);
+		this.getWritableFunction(nodeNumber).perpetuallyMutationActivation(knockIn);
+		this.invalidateCompiledNetworks();
+
+	}
 
+	/**
+	 * This method returns the function of a node that can be modified.
+	 * The functions shared by a mutant are copied the first time they are modified.
+	 * @param nodeNumber: the node
+	 * @return the function of the node
+	 * @throws NotExistingNodeException
+	 * @throws ParamDefinitionException
+	 */
+	private Function getWritableFunction(int nodeNumber) throws NotExistingNodeException, ParamDefinitionException{
+		if(this.geneRegulatoryNetwork instanceof MutatedNetwork)
+			return ((MutatedNetwork) this.geneRegulatoryNetwork).getOwnFunction(nodeNumber);
+		return this.geneRegulatoryNetwork.getFunction(nodeNumber);
 	}
 
 	/**
@@ -655,7 +867,8 @@ public class GraphManager {
 		if(nodeNumber < 0 || nodeNumber > this.getNodesNumber())
 			throw new ParamDefinitionException("The node number value must be between 0 and " + this.getNodesNumber());
 
-		this.geneRegulatoryNetwork.getFunction(nodeNumber).perpetuallyMutationDeactivation();
+		this.getWritableFunction(nodeNumber).perpetuallyMutationDeactivation();
+		this.invalidateCompiledNetworks();
 
 	}
 
@@ -669,10 +882,42 @@ public class GraphManager {
 
 		GraphManager newGraphManager = new GraphManager();
 		newGraphManager.geneRegulatoryNetwork = this.geneRegulatoryNetwork.copy();
+		newGraphManager.compilation = this.compilation;
 
 		return newGraphManager;
 	}
 
+	/**
+	 * This method creates a mutant of the network, with the given nodes perpetually mutated.
+	 * The mutant is a copy-on-write view (see the MutatedNetwork class): the structure and the functions
+	 * that are not mutated are shared, so a mutant is much cheaper than a copy of the graph manager.
+	 * The bit-sliced network is shared too, with the mutated functions constant.
+	 * This network must not be modified while its mutants are used. The mutants of the same network
+	 * can be used by different threads if the functions are completely defined: the lazily defined
+	 * functions choose their outputs during the evaluation.
+	 * @param nodes: the mutated nodes
+	 * @param knockIns: the fixed value of each mutated node
+	 * @return the graph manager of the mutant
+	 * @throws ParamDefinitionException
+	 * @throws NotExistingNodeException
+	 */
+	public GraphManager createMutant(int[] nodes, boolean[] knockIns) throws ParamDefinitionException, NotExistingNodeException{
+		if(nodes == null || knockIns == null || nodes.length != knockIns.length)
+			throw new ParamDefinitionException("Each mutated node must have its value");
+
+		GraphManager mutant = new GraphManager();
+		mutant.geneRegulatoryNetwork = new MutatedNetwork(this.geneRegulatoryNetwork);
+		mutant.compilation = this.compilation;
+		for(int i = 0; i < nodes.length; i++)
+			mutant.perpetuallyChangeFunctionValue(nodes[i], knockIns[i]);
+
+		//The bit-sliced network changes only in the mutated functions
+		BitSlicedNetwork slicedNetwork = this.getBitSlicedNetwork();
+		if(slicedNetwork != null)
+			mutant.slicedNetwork = slicedNetwork.createMutant(nodes, knockIns);
+		return mutant;
+	}
+
 	/**
 	 * This method returns the node number, given its name. 
 	 * The node number will be -1 if the node doen't exist.
@@ -0,0 +1,51 @@
+package it.unimib.disco.bimib.Networks;
+
+import static org.junit.Assert.*;
+
+import java.util.Properties;
+
+import org.junit.Test;
+
+import it.unimib.disco.bimib.Utility.BitState;
+
+public class GraphManagerTest {
+
+	public GraphManagerTest() {
+	}
+
+	@Test
+	public void testStep() throws Exception {
+		Properties features = new Properties();
+		features.setProperty("topology", "PartiallyRandom");
+		features.setProperty("nodes", "10");
+		features.setProperty("edges", "20");
+		features.setProperty("fixed-inputs-number", "2");
+		features.setProperty("completely-defined-functions", "yes");
+		features.setProperty("function-type", "Boolean");
+		features.setProperty("random-type", "0.6");
+		features.setProperty("and-type", "0.2");
+		features.setProperty("or-type", "0.2");
+		features.setProperty("canalized-type", "0");
+		features.setProperty("bias-type", "0");
+		features.setProperty("bias-value", "0.5");
+		GraphManager manager = new GraphManager();
+		manager.createNetwork(features);
+
+		BitState newState = new BitState(10), inPlace = new BitState(10);
+		for(long index = 0; index < (1L << 10); index++){
+			BitState state = BitState.fromIndex(index, 10);
+			Boolean[] expected = manager.getNewState(state.toBooleanArray());
+
+			//The step in a passed state, in place and allocating the state give the Boolean following state
+			manager.step(state, newState);
+			assertEquals(BitState.fromBooleanArray(expected), newState);
+			inPlace.setIndex(index);
+			manager.step(inPlace, inPlace);
+			assertEquals(newState, inPlace);
+			assertEquals(newState, manager.getNewState(state));
+			//The current state is not changed
+			assertEquals(index, state.toIndex());
+		}
+	}
+
+}
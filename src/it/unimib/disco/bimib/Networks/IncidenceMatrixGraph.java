@@ -18,6 +18,7 @@ package it.unimib.disco.bimib.Networks;
 //GRNSim imports
 import it.unimib.disco.bimib.Exceptions.*;
 import it.unimib.disco.bimib.Functions.Function;
+import it.unimib.disco.bimib.Utility.BitState;
 import it.unimib.disco.bimib.Utility.UtilityRandom;
 
 //System imports
@@ -449,6 +450,39 @@ public abstract class IncidenceMatrixGraph implements GeneRegulatoryNetwork{
 		return this.genesStateFunctions[node].eval(inputs);
 	}
 
+	/**
+	 * This method returns the function value for a specified node in the given network state.
+	 * @param node: The node name.
+	 * @param state: The whole network state
+	 * @return the function value
+	 * @throws NotExistingNodeException: The specified node doesn't exist.
+	 * @throws ParamDefinitionException 
+	 */
+	public boolean evalFunction(int node, BitState state) throws NotExistingNodeException, ParamDefinitionException{
+		if(node < 0 || node >= this.nodesNumber)
+			throw new NotExistingNodeException("The node " + node + " doesn't exist! Nodes are in [0, " + this.nodesNumber + "]");
+		return this.genesStateFunctions[node].eval(state);
+	}
+
+	/**
+	 * This method computes the following network state of a given state.
+	 * The two states must be different objects.
+	 * @param currentState: The current network state
+	 * @param newState: The state where the following network state is written
+	 * @throws NotExistingNodeException
+	 * @throws ParamDefinitionException
+	 */
+	public void step(BitState currentState, BitState newState) throws NotExistingNodeException, ParamDefinitionException{
+		long[] words = newState.getWords();
+		for(int w = 0; w < words.length; w++)
+			words[w] = 0L;
+		//Evaluates the function of each node
+		for(int node = 0; node < this.nodesNumber; node++){
+			if(this.genesStateFunctions[node].eval(currentState))
+				words[node >>> 6] |= 1L << node;
+		}
+	}
+
 	/**
 	 * This method prints the incident matrix.
 	 */
@@ -599,6 +633,14 @@ public abstract class IncidenceMatrixGraph implements GeneRegulatoryNetwork{
 		this.addEdge(newNode, target);
 	}
 	
+	/**
+	 * This method returns the network topology
+	 * @return the topology name
+	 */
+	public String getTopology(){
+		return this.topology;
+	}
+	
 	@Override
 	/**
 	 * toString method
@@ -0,0 +1,263 @@
+/**
+ * This class is a copy-on-write view of a gene regulatory network with some perpetually mutated functions.
+ * The structure and the functions of the original network are shared, only the functions of the mutated
+ * nodes are copied, so a mutant is created without copying the whole network.
+ * The original network must not be modified while the view is used. The first change of the view structure
+ * copies the original network, then the view behaves as a normal network.
+ */
+
+package it.unimib.disco.bimib.Networks;
+
+//System imports
+import java.util.ArrayList;
+import java.util.List;
+
+//GRNSim imports
+import it.unimib.disco.bimib.Exceptions.*;
+import it.unimib.disco.bimib.Functions.Function;
+import it.unimib.disco.bimib.Utility.BitState;
+
+class MutatedNetwork implements GeneRegulatoryNetwork {
+
+	//The shared network, or its copy after the first change
+	private GeneRegulatoryNetwork network;
+	private boolean copied;
+	//The own functions of the view, null for the shared ones
+	private Function[] functions;
+	//The nodes with an own function
+	private ArrayList<Integer> ownNodes;
+
+	/**
+	 * Generic constructor. Use the createMutant method of the graph manager.
+	 * @param network: the original network
+	 */
+	MutatedNetwork(GeneRegulatoryNetwork network){
+		if(network == null)
+			throw new NullPointerException("The network must be not null");
+		this.network = network;
+		this.copied = false;
+		this.functions = new Function[network.getNodesNumber()];
+		this.ownNodes = new ArrayList<Integer>();
+	}
+
+	/**
+	 * This method returns the function of a node owned by the view, so it can be modified.
+	 * The shared function is copied the first time.
+	 * @param node: the node
+	 * @return the own function of the node
+	 * @throws NotExistingNodeException
+	 * @throws ParamDefinitionException
+	 */
+	Function getOwnFunction(int node) throws NotExistingNodeException, ParamDefinitionException{
+		if(this.copied)
+			return this.network.getFunction(node);
+		if(this.functions[node] == null){
+			this.functions[node] = this.network.getFunction(node).copy();
+			this.ownNodes.add(node);
+		}
+		return this.functions[node];
+	}
+
+	/**
+	 * This method copies the shared network before its first change.
+	 * The own functions are moved in the copied network.
+	 * @return the network that can be modified
+	 * @throws ParamDefinitionException
+	 */
+	private GeneRegulatoryNetwork getWritableNetwork() throws ParamDefinitionException{
+		if(!this.copied){
+			this.network = this.copy();
+			this.copied = true;
+			this.functions = null;
+			this.ownNodes = null;
+		}
+		return this.network;
+	}
+
+	@Override
+	public int[] getNodes(){
+		return this.network.getNodes();
+	}
+
+	@Override
+	public ArrayList<String> getNodesNames(){
+		return this.network.getNodesNames();
+	}
+
+	@Override
+	public List<int[]> getEdges(){
+		return this.network.getEdges();
+	}
+
+	@Override
+	public ArrayList<Integer> getOutcomingNodes(int node) throws NotExistingNodeException{
+		return this.network.getOutcomingNodes(node);
+	}
+
+	@Override
+	public boolean areNodesConnected(int nodeA, int nodeB) throws NotExistingNodeException{
+		return this.network.areNodesConnected(nodeA, nodeB);
+	}
+
+	@Override
+	public ArrayList<Integer> getIncomingNodes(int node) throws NotExistingNodeException{
+		return this.network.getIncomingNodes(node);
+	}
+
+	@Override
+	public void addEdge(int nodeA, int nodeB) throws NotExistingNodeException{
+		try{
+			this.getWritableNetwork().addEdge(nodeA, nodeB);
+		}catch(ParamDefinitionException e){
+			throw new NotExistingNodeException(e.getMessage());
+		}
+	}
+
+	@Override
+	public void removeEdge(int nodeA, int nodeB) throws NotExistingNodeException{
+		try{
+			this.getWritableNetwork().removeEdge(nodeA, nodeB);
+		}catch(ParamDefinitionException e){
+			throw new NotExistingNodeException(e.getMessage());
+		}
+	}
+
+	@Override
+	public int getNodesNumber(){
+		return this.network.getNodesNumber();
+	}
+
+	@Override
+	public int getNodeDegree(int node) throws NotExistingNodeException{
+		return this.network.getNodeDegree(node);
+	}
+
+	@Override
+	public int getNodeIncomingDegree(int node) throws NotExistingNodeException{
+		return this.network.getNodeIncomingDegree(node);
+	}
+
+	@Override
+	public int getNodeOutcomingDegree(int node) throws NotExistingNodeException{
+		return this.network.getNodeOutcomingDegree(node);
+	}
+
+	@Override
+	public int getTotalDegree(){
+		return this.network.getTotalDegree();
+	}
+
+	@Override
+	public void addRandomEdges(int newEdges, ArrayList<String> noSource, ArrayList<String> noTarget) throws ParamDefinitionException, NotExistingNodeException{
+		this.getWritableNetwork().addRandomEdges(newEdges, noSource, noTarget);
+	}
+
+	@Override
+	public void addRandomEdges(int newEdges, ArrayList<String> noSource, ArrayList<String> noTarget, int fixedInputNumber) throws ParamDefinitionException, NotExistingNodeException{
+		this.getWritableNetwork().addRandomEdges(newEdges, noSource, noTarget, fixedInputNumber);
+	}
+
+	@Override
+	public void addFunction(int node, Function function) throws NotExistingNodeException{
+		if(node < 0 || node >= this.getNodesNumber())
+			throw new NotExistingNodeException("The node " + node + " doesn't exist! Nodes are in [0, " + this.getNodesNumber() + "]");
+		if(this.copied){
+			this.network.addFunction(node, function);
+			return;
+		}
+		//Only the function is changed: it is owned by the view
+		if(this.functions[node] == null)
+			this.ownNodes.add(node);
+		this.functions[node] = function;
+	}
+
+	@Override
+	public void addFunctions(Function[] functions) throws ParamDefinitionException{
+		this.getWritableNetwork().addFunctions(functions);
+	}
+
+	@Override
+	public Function getFunction(int node) throws NotExistingNodeException{
+		if(!this.copied && node >= 0 && node < this.functions.length && this.functions[node] != null)
+			return this.functions[node];
+		return this.network.getFunction(node);
+	}
+
+	@Override
+	public Object evalFunction(int node, Object[] inputs) throws NotExistingNodeException, InputTypeException, ParamDefinitionException{
+		return this.getFunction(node).eval(inputs);
+	}
+
+	@Override
+	public boolean evalFunction(int node, BitState state) throws NotExistingNodeException, ParamDefinitionException{
+		return this.getFunction(node).eval(state);
+	}
+
+	@Override
+	public void step(BitState currentState, BitState newState) throws NotExistingNodeException, ParamDefinitionException{
+		this.network.step(currentState, newState);
+		if(this.copied)
+			return;
+		//Evaluates the own functions again
+		for(int node : this.ownNodes)
+			newState.set(node, this.functions[node].eval(currentState));
+	}
+
+	@Override
+	public String toGRNML(){
+		if(this.copied)
+			return this.network.toGRNML();
+		try{
+			return this.copy().toGRNML();
+		}catch(ParamDefinitionException e){
+			return this.network.toGRNML();
+		}
+	}
+
+	@Override
+	public GeneRegulatoryNetwork copy() throws ParamDefinitionException{
+		GeneRegulatoryNetwork copiedNetwork = this.network.copy();
+		if(this.copied)
+			return copiedNetwork;
+		try{
+			for(int node : this.ownNodes)
+				copiedNetwork.addFunction(node, this.functions[node].copy());
+		}catch(NotExistingNodeException e){
+			throw new ParamDefinitionException(e.getMessage());
+		}
+		return copiedNetwork;
+	}
+
+	@Override
+	public int getNodeNumber(String nodeName){
+		return this.network.getNodeNumber(nodeName);
+	}
+
+	@Override
+	public void addNodes(int nodesNumber){
+		try{
+			this.getWritableNetwork().addNodes(nodesNumber);
+		}catch(ParamDefinitionException e){
+			throw new IllegalStateException(e.getMessage());
+		}
+	}
+
+	@Override
+	public void changeRandomlyEdgeSource(int node, int newNode) throws NotExistingNodeException{
+		try{
+			this.getWritableNetwork().changeRandomlyEdgeSource(node, newNode);
+		}catch(ParamDefinitionException e){
+			throw new NotExistingNodeException(e.getMessage());
+		}
+	}
+
+	@Override
+	public String getTopology(){
+		return this.network.getTopology();
+	}
+
+	@Override
+	public String toString(){
+		return this.network.toString();
+	}
+}
@@ -0,0 +1,259 @@
+/**
+ * This class compiles a gene regulatory network in a specialized step function.
+ * The Java source of a class implementing the CompiledNetwork interface is generated
+ * with the update of each node unrolled as straight-line bit logic; then it is
+ * compiled in memory and loaded as a hidden class.
+ * The network can not be compiled if a function is lazily defined, if a function
+ * type is not supported or if the Java compiler is not available: in these cases
+ * the interpreted evaluation must be used.
+ */
+
+package it.unimib.disco.bimib.Networks;
+
+//System imports
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandles;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+//GRNSim imports
+import it.unimib.disco.bimib.Exceptions.NotExistingNodeException;
+import it.unimib.disco.bimib.Functions.*;
+
+public class NetworkCompiler {
+
+	//Name of the generated class
+	private static final String CLASS_NAME = "GeneratedNetwork";
+	//Maximum number of inputs of a table written as a long constant
+	private static final int CONSTANT_TABLE_INPUTS = 6;
+
+	/**
+	 * This method compiles the given network.
+	 * @param network: the network to compile
+	 * @return the compiled network, null if the network can not be compiled
+	 */
+	public static CompiledNetwork compile(GeneRegulatoryNetwork network){
+		if(network == null)
+			throw new NullPointerException("The network must be not null");
+		try{
+			String source = NetworkCompiler.generateSource(network);
+			if(source == null)
+				return null;
+			byte[] bytecode = NetworkCompiler.compileSource(source);
+			if(bytecode == null)
+				return null;
+			//Loads the class as a hidden class: it is unloaded with the compiled network
+			MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(bytecode, true);
+			return (CompiledNetwork) lookup.lookupClass().getDeclaredConstructor().newInstance();
+		}catch(NotExistingNodeException e){
+			return null;
+		}catch(ReflectiveOperationException e){
+			return null;
+		}catch(LinkageError e){
+			return null;
+		}
+	}
+
+	/**
+	 * This method generates the source of the compiled network class.
+	 * Each word of the following state is computed by its own method.
+	 * @param network: the network to compile
+	 * @return the class source, null if a function can not be compiled
+	 * @throws NotExistingNodeException
+	 */
+	private static String generateSource(GeneRegulatoryNetwork network) throws NotExistingNodeException{
+		int nodes = network.getNodesNumber();
+		int words = (nodes + 63) / 64;
+		StringBuilder fields = new StringBuilder();
+		StringBuilder methods = new StringBuilder();
+		StringBuilder step = new StringBuilder();
+
+		for(int w = 0; w < words; w++){
+			step.append("\t\tout[").append(w).append("] = this.word").append(w).append("(in);\n");
+			methods.append("\tprivate long word").append(w).append("(long[] in){\n");
+			methods.append("\t\tint index;\n");
+			methods.append("\t\tlong out = 0L;\n");
+			for(int node = w * 64; node < Math.min(nodes, (w + 1) * 64); node++){
+				String update = NetworkCompiler.generateNodeUpdate(network.getFunction(node), node, fields);
+				if(update == null)
+					return null;
+				methods.append(update);
+			}
+			methods.append("\t\treturn out;\n");
+			methods.append("\t}\n\n");
+		}
+
+		return "package " + NetworkCompiler.class.getPackage().getName() + ";\n\n" +
+				"public final class " + CLASS_NAME + " implements " + CompiledNetwork.class.getSimpleName() + " {\n\n" +
+				fields.toString() + "\n" +
+				"\tpublic void step(long[] in, long[] out){\n" + step.toString() + "\t}\n\n" +
+				methods.toString() + "}\n";
+	}
+
+	/**
+	 * This method generates the statements that set the node bit in the 'out' word.
+	 * @param function: the node function
+	 * @param node: the node id
+	 * @param fields: the buffer where the table fields are added
+	 * @return the statements, null if the function can not be compiled
+	 */
+	private static String generateNodeUpdate(Function function, int node, StringBuilder fields){
+		String bit = "(1L << " + (node & 63) + ")";
+		StringBuilder update = new StringBuilder("\t\t//Node " + node + "\n");
+
+		if(function == null)
+			return null;
+
+		//Perpetually mutated functions are constant
+		if(function instanceof BooleanFunction && ((BooleanFunction) function).getMutationInAction()){
+			if(((BooleanFunction) function).getKnockIn())
+				update.append("\t\tout |= ").append(bit).append(";\n");
+			return update.toString();
+		}
+
+		if(function instanceof AndOrFunction){
+			ArrayList<Integer> inputs = function.getInputs();
+			//A function without inputs is always false
+			if(inputs.size() == 0)
+				return update.toString();
+			//Groups the input nodes by word
+			long[] masks = new long[(NetworkCompiler.maxNode(inputs) >>> 6) + 1];
+			for(int input : inputs)
+				masks[input >>> 6] |= 1L << input;
+			boolean and = ((AndOrFunction) function).isAndFunction();
+			ArrayList<String> tests = new ArrayList<String>();
+			for(int w = 0; w < masks.length; w++){
+				if(masks[w] == 0L)
+					continue;
+				String mask = "0x" + Long.toHexString(masks[w]) + "L";
+				if(and)
+					tests.add("(in[" + w + "] & " + mask + ") == " + mask);
+				else
+					tests.add("(in[" + w + "] & " + mask + ") != 0L");
+			}
+			update.append("\t\tif(");
+			for(int t = 0; t < tests.size(); t++)
+				update.append(t > 0 ? (and ? " && " : " || ") : "").append(tests.get(t));
+			update.append(")\n\t\t\tout |= ").append(bit).append(";\n");
+			return update.toString();
+		}
+
+		TruthTable table = NetworkCompiler.getDefinedTruthTable(function);
+		if(table == null)
+			return null;
+
+		int[] inputs = table.getInputs();
+		long[] outputs = table.getOutputs();
+		//Computes the table entry index
+		update.append("\t\tindex = 0;\n");
+		for(int input : inputs)
+			update.append("\t\tindex = (index << 1) | (int)((in[").append(input >>> 6)
+			.append("] >>> ").append(input & 63).append(") & 1L);\n");
+		if(inputs.length <= CONSTANT_TABLE_INPUTS){
+			//The table is written as a constant
+			update.append("\t\tout |= ((0x").append(Long.toHexString(outputs[0]))
+			.append("L >>> index) & 1L) << ").append(node & 63).append(";\n");
+		}else{
+			//The table is written as a static field
+			fields.append("\tprivate static final long[] TABLE_").append(node).append(" = {");
+			for(int w = 0; w < outputs.length; w++)
+				fields.append(w > 0 ? ", " : "").append("0x").append(Long.toHexString(outputs[w])).append("L");
+			fields.append("};\n");
+			update.append("\t\tout |= ((TABLE_").append(node)
+			.append("[index >>> 6] >>> index) & 1L) << ").append(node & 63).append(";\n");
+		}
+		return update.toString();
+	}
+
+	/**
+	 * This method returns the truth table of a table based function.
+	 * @param function: the function
+	 * @return the truth table, null if the function is not table based, has too many inputs or is lazily defined
+	 */
+	static TruthTable getDefinedTruthTable(Function function){
+		TruthTable table;
+		if(function instanceof RandomFunction)
+			table = ((RandomFunction) function).getTruthTable();
+		else if(function instanceof CanalizedFunction)
+			table = ((CanalizedFunction) function).getTruthTable();
+		else
+			return null;
+		//Lazily defined functions are not considered
+		if(table == null || !table.isCompletelyDefined())
+			return null;
+		return table;
+	}
+
+	/**
+	 * This method returns the maximum node id in the list
+	 * @param nodes: the list of node ids
+	 * @return the maximum id
+	 */
+	private static int maxNode(ArrayList<Integer> nodes){
+		int max = 0;
+		for(int node : nodes)
+			max = Math.max(max, node);
+		return max;
+	}
+
+	/**
+	 * This method compiles the source in memory.
+	 * @param source: the class source
+	 * @return the class bytecode, null if the compiler is not available or the compilation fails
+	 */
+	private static byte[] compileSource(final String source){
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		if(compiler == null)
+			return null;
+
+		final String className = NetworkCompiler.class.getPackage().getName() + "." + CLASS_NAME;
+		final ByteArrayOutputStream bytecode = new ByteArrayOutputStream();
+		StandardJavaFileManager standardManager = compiler.getStandardFileManager(null, null, null);
+
+		//The class file is written in memory
+		JavaFileManager fileManager = new ForwardingJavaFileManager<StandardJavaFileManager>(standardManager){
+			@Override
+			public JavaFileObject getJavaFileForOutput(Location location, String name, JavaFileObject.Kind kind, FileObject sibling){
+				return new SimpleJavaFileObject(URI.create("bytes:///" + name.replace('.', '/') + kind.extension), kind){
+					@Override
+					public OutputStream openOutputStream(){
+						return bytecode;
+					}
+				};
+			}
+		};
+		JavaFileObject sourceFile = new SimpleJavaFileObject(URI.create("string:///" + className.replace('.', '/') + JavaFileObject.Kind.SOURCE.extension),
+				JavaFileObject.Kind.SOURCE){
+			@Override
+			public CharSequence getCharContent(boolean ignoreEncodingErrors){
+				return source;
+			}
+		};
+
+		//The CompiledNetwork interface must be in the class path
+		String classPath = System.getProperty("java.class.path");
+		try{
+			classPath = classPath + File.pathSeparator +
+					new File(CompiledNetwork.class.getProtectionDomain().getCodeSource().getLocation().toURI()).getPath();
+		}catch(Exception e){
+			//The default class path is used
+		}
+		List<String> options = Arrays.asList("-classpath", classPath, "-g:none", "-nowarn");
+
+		boolean compiled = compiler.getTask(null, fileManager, null, options, null, Arrays.asList(sourceFile)).call();
+		return compiled ? bytecode.toByteArray() : null;
+	}
+}
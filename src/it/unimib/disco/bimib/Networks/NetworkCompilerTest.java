@@ -0,0 +1,85 @@
+package it.unimib.disco.bimib.Networks;
+
+import static org.junit.Assert.*;
+
+import java.util.Properties;
+import java.util.Random;
+
+import org.junit.Test;
+
+import it.unimib.disco.bimib.Utility.BitState;
+import it.unimib.disco.bimib.Utility.SimulationFeaturesConstants;
+
+public class NetworkCompilerTest {
+
+	public NetworkCompilerTest() {
+	}
+
+	/**
+	 * This method creates a random network of completely defined random, and, or and canalized functions
+	 * @param nodes: the number of the nodes
+	 * @return the graph manager of the network
+	 * @throws Exception
+	 */
+	private static GraphManager createMixedNetwork(int nodes) throws Exception {
+		Properties features = new Properties();
+		features.setProperty("topology", "PartiallyRandom");
+		features.setProperty("nodes", String.valueOf(nodes));
+		features.setProperty("edges", String.valueOf(3 * nodes));
+		features.setProperty("fixed-inputs-number", "3");
+		features.setProperty("completely-defined-functions", "yes");
+		features.setProperty("function-type", "Boolean");
+		features.setProperty("random-type", "0.4");
+		features.setProperty("and-type", "0.2");
+		features.setProperty("or-type", "0.2");
+		features.setProperty("canalized-type", "0.2");
+		features.setProperty("bias-type", "0");
+		features.setProperty("bias-value", "0.5");
+		GraphManager manager = new GraphManager();
+		manager.createNetwork(features);
+		return manager;
+	}
+
+	@Test
+	public void testCompiledStep() throws Exception {
+		for(int n = 0; n < 5; n++){
+			GeneRegulatoryNetwork network = createMixedNetwork(12).getGraph();
+			CompiledNetwork compiled = NetworkCompiler.compile(network);
+			assertNotNull(compiled);
+
+			//The compiled step function has the same following state of every state
+			BitState state = new BitState(12), expected = new BitState(12), compiledState = new BitState(12);
+			for(long index = 0; index < (1L << 12); index++){
+				state.setIndex(index);
+				network.step(state, expected);
+				compiled.step(state.getWords(), compiledState.getWords());
+				assertEquals(expected, compiledState);
+			}
+		}
+	}
+
+	@Test
+	public void testCompiledManager() throws Exception {
+		//The states of the network use two words
+		GraphManager manager = createMixedNetwork(70);
+		GraphManager compiledManager = manager.copy();
+		Properties features = new Properties();
+		features.setProperty(SimulationFeaturesConstants.NETWORK_COMPILATION, SimulationFeaturesConstants.YES);
+		compiledManager.setCompilation(features);
+
+		//The trajectories are the same with and without compilation
+		Random random = new Random(1);
+		for(int t = 0; t < 100; t++){
+			BitState state = new BitState(70);
+			for(int node = 0; node < 70; node++)
+				state.set(node, random.nextBoolean());
+			BitState compiledState = state.copy();
+			for(int step = 0; step < 20; step++){
+				state = manager.getNewState(state);
+				compiledManager.step(compiledState, compiledState);
+				assertEquals(state, compiledState);
+			}
+		}
+	}
+
+}
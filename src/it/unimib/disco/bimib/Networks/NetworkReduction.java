@@ -0,0 +1,408 @@
+/**
+ * This class reduces a network to the nodes that determine its asymptotic dynamics.
+ * Two kinds of nodes are removed:
+ * - the frozen nodes, whose function becomes constant after propagating the constant functions
+ *   (for example the knocked-in or knocked-out nodes, and the AND nodes with a constant false input).
+ *   The constants are propagated in rounds: a node frozen in the round r has its value from the time r on;
+ * - the leaves, that are not inputs of any remaining node and don't have a self-loop.
+ *   They are removed iteratively, so the chains of nodes that only regulate the leaves are removed too.
+ * After the freezing time every trajectory follows the dynamics of the reduced network,
+ * whose functions have the frozen inputs replaced by their values, and the leaves are determined
+ * by the previous states of the other nodes. So the attractors of the network are the attractors
+ * of the reduced network, with the frozen nodes at their values and the leaves computed by simulation.
+ * The leaves can be kept: then only the frozen nodes are removed, and the reduced network has the
+ * non-frozen nodes of the frozen core analysis (see the FrozenCore class).
+ * The functions of the network must be compiled in truth tables (see the BitSlicedNetwork class).
+ */
+
+package it.unimib.disco.bimib.Networks;
+
+//System imports
+import java.util.ArrayList;
+
+//GRNSim imports
+import it.unimib.disco.bimib.Exceptions.*;
+import it.unimib.disco.bimib.Functions.*;
+import it.unimib.disco.bimib.Utility.BitState;
+
+public class NetworkReduction {
+
+	//Value of a node that is not frozen, used by the constants propagation
+	private static final int NOT_FROZEN = -1;
+
+	private GraphManager graph;
+	private int nodes;
+	//The frozen nodes with their values, and the round in which the last node has been frozen
+	private boolean[] frozen;
+	private boolean[] values;
+	private int freezingTime;
+	//The removed leaves, and the number of rounds in which they have been removed
+	private boolean[] leaves;
+	private int leavesDepth;
+	//The node of the network of each reduced node, and the reduced node of each node (-1 if removed)
+	private int[] reducedNodes;
+	private int[] reducedIndexes;
+	private GraphManager reducedGraph;
+
+	/**
+	 * Generic constructor. The frozen nodes and the leaves are removed. Use the getReduction method of the graph manager.
+	 * @param graph: the graph manager connected to the network
+	 * @throws ParamDefinitionException The network functions can not be compiled in truth tables
+	 * @throws NotExistingNodeException
+	 */
+	NetworkReduction(GraphManager graph) throws ParamDefinitionException, NotExistingNodeException{
+		this(graph, true);
+	}
+
+	/**
+	 * Generic constructor. Use the getReduction method of the graph manager.
+	 * @param graph: the graph manager connected to the network
+	 * @param removesLeaves: true in order to remove the leaves too, false in order to remove only the frozen nodes
+	 * @throws ParamDefinitionException The network functions can not be compiled in truth tables
+	 * @throws NotExistingNodeException
+	 */
+	NetworkReduction(GraphManager graph, boolean removesLeaves) throws ParamDefinitionException, NotExistingNodeException{
+		if(graph == null)
+			throw new NullPointerException("The graph manager must be not null");
+		BitSlicedNetwork network = graph.getBitSlicedNetwork();
+		if(network == null)
+			throw new ParamDefinitionException("The network reduction requires functions that can be compiled in truth tables");
+		this.graph = graph;
+		this.nodes = network.getNodesNumber();
+
+		this.findFrozenNodes(network);
+		if(removesLeaves)
+			this.findLeaves(network);
+		else{
+			this.leaves = new boolean[this.nodes];
+			this.leavesDepth = 0;
+		}
+
+		//Numbers the remaining nodes. If all the nodes are frozen, the node 0 is kept in order to have a fixed point
+		ArrayList<Integer> remaining = new ArrayList<Integer>();
+		this.reducedIndexes = new int[this.nodes];
+		for(int node = 0; node < this.nodes; node++){
+			this.reducedIndexes[node] = -1;
+			if(!this.frozen[node] && !this.leaves[node]){
+				this.reducedIndexes[node] = remaining.size();
+				remaining.add(node);
+			}
+		}
+		if(remaining.isEmpty() && this.nodes > 0){
+			this.reducedIndexes[0] = 0;
+			remaining.add(0);
+		}
+		this.reducedNodes = new int[remaining.size()];
+		for(int i = 0; i < this.reducedNodes.length; i++)
+			this.reducedNodes[i] = remaining.get(i);
+
+		this.reducedGraph = this.createReducedGraph(network);
+	}
+
+	/**
+	 * This method propagates the constant functions in rounds, until no other node is frozen.
+	 * @param network: the bit-sliced network
+	 */
+	private void findFrozenNodes(BitSlicedNetwork network){
+		boolean[] frozenNodes, frozenValues;
+		boolean changed = true;
+		int value;
+
+		this.frozen = new boolean[this.nodes];
+		this.values = new boolean[this.nodes];
+		this.freezingTime = 0;
+		while(changed){
+			changed = false;
+			//The nodes of a round are evaluated with the values of the previous round
+			frozenNodes = this.frozen.clone();
+			frozenValues = this.values.clone();
+			for(int node = 0; node < this.nodes; node++){
+				if(this.frozen[node])
+					continue;
+				value = this.evaluatesFrozenInputs(network, node);
+				if(value != NOT_FROZEN){
+					frozenNodes[node] = true;
+					frozenValues[node] = value == 1;
+					changed = true;
+				}
+			}
+			if(changed){
+				this.frozen = frozenNodes;
+				this.values = frozenValues;
+				this.freezingTime++;
+			}
+		}
+	}
+
+	/**
+	 * This method evaluates the function of a node with only the values of the frozen nodes.
+	 * @param network: the bit-sliced network
+	 * @param node: the node
+	 * @return 1 or 0 if the function value is determined by the frozen inputs, NOT_FROZEN otherwise
+	 */
+	private int evaluatesFrozenInputs(BitSlicedNetwork network, int node){
+		int[] inputs = network.getInputs(node);
+		switch(network.getFunctionType(node)){
+		case BitSlicedNetwork.AND:
+		case BitSlicedNetwork.OR:
+			//A false input determines an AND function, a true input determines an OR function
+			boolean and = network.getFunctionType(node) == BitSlicedNetwork.AND;
+			boolean allFrozen = true;
+			for(int input : inputs){
+				if(!this.frozen[input])
+					allFrozen = false;
+				else if(this.values[input] != and)
+					return and ? 0 : 1;
+			}
+			return allFrozen ? (and ? 1 : 0) : NOT_FROZEN;
+		case BitSlicedNetwork.TABLE:
+			//The function is determined if all the entries with the frozen inputs values have the same output
+			int output = NOT_FROZEN;
+			for(int entry = 0; entry < (1 << inputs.length); entry++){
+				if(!this.agreesWithFrozenInputs(inputs, entry))
+					continue;
+				int entryOutput = network.getOutput(node, entry) ? 1 : 0;
+				if(output == NOT_FROZEN)
+					output = entryOutput;
+				else if(output != entryOutput)
+					return NOT_FROZEN;
+			}
+			return output;
+		default:
+			return network.getConstant(node) ? 1 : 0;
+		}
+	}
+
+	/**
+	 * This method checks if a table entry has the values of the frozen inputs
+	 * @param inputs: the function inputs, the first one is the most significant bit of the entry index
+	 * @param entry: the entry index
+	 * @return true if each frozen input has its value in the entry
+	 */
+	private boolean agreesWithFrozenInputs(int[] inputs, int entry){
+		for(int i = 0; i < inputs.length; i++){
+			if(this.frozen[inputs[i]] && (((entry >>> (inputs.length - 1 - i)) & 1) == 1) != this.values[inputs[i]])
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * This method removes the leaves in rounds: a node is removed when all the nodes that it regulates
+	 * are frozen or removed. The frozen nodes are not considered: after the freezing time they don't
+	 * depend on their inputs.
+	 * @param network: the bit-sliced network
+	 */
+	private void findLeaves(BitSlicedNetwork network){
+		int[] successors = new int[this.nodes];
+		boolean[] selfLoop = new boolean[this.nodes];
+		ArrayList<Integer> round = new ArrayList<Integer>();
+		ArrayList<Integer> nextRound;
+
+		//Counts the remaining nodes regulated by each node
+		for(int node = 0; node < this.nodes; node++){
+			if(this.frozen[node])
+				continue;
+			for(int input : network.getInputs(node)){
+				if(input == node)
+					selfLoop[node] = true;
+				else
+					successors[input]++;
+			}
+		}
+
+		this.leaves = new boolean[this.nodes];
+		this.leavesDepth = 0;
+		for(int node = 0; node < this.nodes; node++){
+			if(!this.frozen[node] && !selfLoop[node] && successors[node] == 0)
+				round.add(node);
+		}
+		while(!round.isEmpty()){
+			this.leavesDepth++;
+			nextRound = new ArrayList<Integer>();
+			for(int leaf : round)
+				this.leaves[leaf] = true;
+			for(int leaf : round){
+				for(int input : network.getInputs(leaf)){
+					if(this.frozen[input] || input == leaf)
+						continue;
+					successors[input]--;
+					if(successors[input] == 0 && !selfLoop[input] && !this.leaves[input])
+						nextRound.add(input);
+				}
+			}
+			round = nextRound;
+		}
+	}
+
+	/**
+	 * This method creates the graph manager of the reduced network.
+	 * The frozen inputs of the remaining functions are replaced by their values.
+	 * @param network: the bit-sliced network
+	 * @return the reduced graph manager
+	 * @throws ParamDefinitionException
+	 * @throws NotExistingNodeException
+	 */
+	private GraphManager createReducedGraph(BitSlicedNetwork network) throws ParamDefinitionException, NotExistingNodeException{
+		String[] names = new String[this.reducedNodes.length];
+		Function[] functions = new Function[this.reducedNodes.length];
+		ArrayList<int[]> edges = new ArrayList<int[]>();
+		ArrayList<String> nodesNames = this.graph.getGraph().getNodesNames();
+
+		for(int i = 0; i < this.reducedNodes.length; i++){
+			int node = this.reducedNodes[i];
+			names[i] = nodesNames.get(node);
+
+			//The remaining inputs, without repetitions
+			ArrayList<Integer> inputs = new ArrayList<Integer>();
+			if(!this.frozen[node]){
+				for(int input : network.getInputs(node)){
+					if(!this.frozen[input] && !inputs.contains(this.reducedIndexes[input]))
+						inputs.add(this.reducedIndexes[input]);
+				}
+			}
+			for(int input : inputs)
+				edges.add(new int[]{input, i});
+
+			if(this.frozen[node])
+				//A kept frozen node has a function without inputs
+				functions[i] = new RandomFunction(0.5, new String[]{""}, new Boolean[]{this.values[node]}, inputs);
+			else if(network.getFunctionType(node) == BitSlicedNetwork.TABLE)
+				functions[i] = this.createReducedTable(network, node, inputs);
+			else
+				//The frozen inputs of an AND (OR) function are true (false), so they are ignored
+				functions[i] = new AndOrFunction(network.getFunctionType(node) == BitSlicedNetwork.AND, inputs);
+		}
+
+		GraphManager reducedGraph = new GraphManager();
+		reducedGraph.createGraph(names, edges.toArray(new int[edges.size()][]), functions, this.graph.getGraph().getTopology());
+		return reducedGraph;
+	}
+
+	/**
+	 * This method creates the table function of a reduced node
+	 * @param network: the bit-sliced network
+	 * @param node: the node
+	 * @param inputs: the reduced inputs of the function
+	 * @return the reduced function
+	 * @throws ParamDefinitionException
+	 */
+	private Function createReducedTable(BitSlicedNetwork network, int node, ArrayList<Integer> inputs) throws ParamDefinitionException{
+		int[] networkInputs = network.getInputs(node);
+		String[] keys = new String[1 << inputs.size()];
+		Boolean[] outputs = new Boolean[keys.length];
+		char[] key = new char[inputs.size()];
+
+		for(int reducedEntry = 0; reducedEntry < keys.length; reducedEntry++){
+			for(int i = 0; i < key.length; i++)
+				key[i] = ((reducedEntry >>> (key.length - 1 - i)) & 1) == 1 ? '1' : '0';
+			//Builds the entry of the original table: each input is frozen or a reduced input
+			int entry = 0;
+			for(int input : networkInputs){
+				boolean value = this.frozen[input] ? this.values[input] : key[inputs.indexOf(this.reducedIndexes[input])] == '1';
+				entry = (entry << 1) | (value ? 1 : 0);
+			}
+			keys[reducedEntry] = new String(key);
+			outputs[reducedEntry] = network.getOutput(node, entry);
+		}
+		return new RandomFunction(0.5, keys, outputs, inputs);
+	}
+
+	/**
+	 * This method returns the graph manager of the reduced network
+	 * @return the reduced graph manager
+	 */
+	public GraphManager getReducedGraph(){
+		return this.reducedGraph;
+	}
+
+	/**
+	 * This method returns the nodes of the network kept in the reduced network
+	 * @return the node of the network of each reduced node
+	 */
+	public int[] getReducedNodes(){
+		return this.reducedNodes.clone();
+	}
+
+	/**
+	 * This method returns the number of the frozen nodes
+	 * @return the number of the frozen nodes
+	 */
+	public int getFrozenNodesNumber(){
+		int frozenNodes = 0;
+		for(boolean isFrozen : this.frozen)
+			frozenNodes += isFrozen ? 1 : 0;
+		return frozenNodes;
+	}
+
+	/**
+	 * This method returns the number of the removed leaves
+	 * @return the number of the leaves
+	 */
+	public int getLeavesNumber(){
+		int leavesNumber = 0;
+		for(boolean isLeaf : this.leaves)
+			leavesNumber += isLeaf ? 1 : 0;
+		return leavesNumber;
+	}
+
+	/**
+	 * This method returns the number of steps after which all the frozen nodes have their values
+	 * @return the freezing time
+	 */
+	public int getFreezingTime(){
+		return this.freezingTime;
+	}
+
+	/**
+	 * This method returns the reduced state reached by a network state after the freezing time.
+	 * The following states of the reduced state are the ones of the network trajectory.
+	 * @param state: the network state
+	 * @return the reduced state
+	 * @throws ParamDefinitionException
+	 * @throws NotExistingNodeException
+	 * @throws InputTypeException
+	 */
+	public BitState project(BitState state) throws ParamDefinitionException, NotExistingNodeException, InputTypeException{
+		if(state == null || state.length() != this.nodes)
+			throw new ParamDefinitionException("The state must have " + this.nodes + " nodes");
+		BitState frozenState = state.copy();
+		for(int step = 0; step < this.freezingTime; step++)
+			this.graph.step(frozenState, frozenState);
+
+		BitState reducedState = new BitState(this.reducedNodes.length);
+		for(int i = 0; i < this.reducedNodes.length; i++)
+			reducedState.set(i, frozenState.get(this.reducedNodes[i]));
+		return reducedState;
+	}
+
+	/**
+	 * This method returns the network cycle of a cycle of the reduced network.
+	 * The frozen nodes are set to their values and the network is simulated until the leaves
+	 * are determined by the reduced nodes.
+	 * @param cycle: the states of the reduced cycle
+	 * @return the states of the network cycle, with the same period
+	 * @throws ParamDefinitionException
+	 * @throws NotExistingNodeException
+	 * @throws InputTypeException
+	 */
+	public BitState[] lift(BitState[] cycle) throws ParamDefinitionException, NotExistingNodeException, InputTypeException{
+		if(cycle == null || cycle.length == 0)
+			throw new ParamDefinitionException("The cycle must have at least one state");
+		BitState state = new BitState(this.nodes);
+		for(int node = 0; node < this.nodes; node++)
+			state.set(node, this.frozen[node] && this.values[node]);
+		for(int i = 0; i < this.reducedNodes.length; i++)
+			state.set(this.reducedNodes[i], cycle[0].get(i));
+		for(int step = 0; step < this.leavesDepth; step++)
+			this.graph.step(state, state);
+
+		BitState[] liftedCycle = new BitState[cycle.length];
+		for(int i = 0; i < liftedCycle.length; i++){
+			liftedCycle[i] = state;
+			state = this.graph.getNewState(state);
+		}
+		return liftedCycle;
+	}
+
+}
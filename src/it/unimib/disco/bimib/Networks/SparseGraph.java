@@ -0,0 +1,434 @@
+/**
+ * This class implements the GeneRegulatoryNetwork interface with sparse adjacency arrays.
+ * For each node the incoming and the outcoming nodes are stored in sorted integer arrays,
+ * so the memory is proportional to the number of edges instead of the squared number of nodes.
+ * The degrees and the number of the edges are maintained at each change and the
+ * node names are indexed in an hash map.
+ * It is suggested for networks with a lot of nodes and a low connectivity.
+ */
+
+package it.unimib.disco.bimib.Networks;
+
+//System imports
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+//GRNSim imports
+import it.unimib.disco.bimib.Exceptions.*;
+import it.unimib.disco.bimib.Functions.Function;
+import it.unimib.disco.bimib.Utility.BitState;
+import it.unimib.disco.bimib.Utility.UtilityRandom;
+
+public class SparseGraph implements GeneRegulatoryNetwork {
+
+	private static final int INITIAL_CAPACITY = 2;
+
+	private int nodesNumber;
+	private int edgesNumber;
+	private int[] nodes;
+	private ArrayList<String> nodesName;
+	private HashMap<String, Integer> nodesIndex;
+	private String topology;
+
+	//Sorted incoming and outcoming nodes of each node
+	private int[][] incoming;
+	private int[] incomingDegree;
+	private int[][] outcoming;
+	private int[] outcomingDegree;
+
+	//Gene changing state functions
+	private Function[] genesStateFunctions;
+
+	/**
+	 * This method creates a new graph without edges
+	 * @param n: the graph nodes number
+	 * @param topology: the network topology
+	 */
+	public SparseGraph(int n, String topology){
+		this.nodesNumber = 0;
+		this.edgesNumber = 0;
+		this.topology = topology;
+		this.nodes = new int[0];
+		this.nodesName = new ArrayList<String>(n);
+		this.nodesIndex = new HashMap<String, Integer>();
+		this.incoming = new int[0][];
+		this.incomingDegree = new int[0];
+		this.outcoming = new int[0][];
+		this.outcomingDegree = new int[0];
+		this.genesStateFunctions = new Function[0];
+		this.addNodes(n);
+	}
+
+	/**
+	 * Generic constructor: It creates the network from the passed parameters
+	 * @param nodesName: Array with the nodes name
+	 * @param edges: Array of the edges. Each edge is represented as a two element array.
+	 * @param topology: the network topology
+	 * @throws NotExistingNodeException
+	 */
+	public SparseGraph(String[] nodesName, int[][] edges, String topology) throws NotExistingNodeException{
+		this(nodesName.length, topology);
+		//Sets the nodes name
+		for(int i = 0; i < nodesName.length; i++)
+			this.nodesName.set(i, nodesName[i]);
+		this.indexNodesName();
+		//Adds the edges
+		for(int[] edge : edges)
+			this.addEdge(edge[0], edge[1]);
+	}
+
+	/**
+	 * This method creates a sparse copy of the given network.
+	 * The functions are copied.
+	 * @param network: the network to be copied
+	 * @throws ParamDefinitionException
+	 * @throws NotExistingNodeException
+	 */
+	public SparseGraph(GeneRegulatoryNetwork network) throws ParamDefinitionException, NotExistingNodeException{
+		this(network.getNodesNumber(), network.getTopology());
+		for(int i = 0; i < this.nodesNumber; i++){
+			this.nodesName.set(i, network.getNodesNames().get(i));
+			if(network.getFunction(i) != null)
+				this.genesStateFunctions[i] = network.getFunction(i).copy();
+		}
+		this.indexNodesName();
+		for(int[] edge : network.getEdges())
+			this.addEdge(edge[0], edge[1]);
+	}
+
+	/**
+	 * This method rebuilds the node names index.
+	 * If more nodes have the same name, the first one is indexed.
+	 */
+	private void indexNodesName(){
+		this.nodesIndex.clear();
+		for(int i = this.nodesName.size() - 1; i >= 0; i--)
+			this.nodesIndex.put(this.nodesName.get(i), i);
+	}
+
+	/**
+	 * This method checks if the node exists
+	 * @param node: the node
+	 * @throws NotExistingNodeException
+	 */
+	private void checkNode(int node) throws NotExistingNodeException{
+		if(node < 0 || node >= this.nodesNumber)
+			throw new NotExistingNodeException("gene_" + node + " doesn't exist!");
+	}
+
+	/**
+	 * This method inserts a node in a sorted adjacency array
+	 * @param adjacency: the adjacency arrays
+	 * @param degree: the adjacency arrays sizes
+	 * @param node: the node owning the array
+	 * @param value: the node to be inserted
+	 */
+	private static void insert(int[][] adjacency, int[] degree, int node, int value){
+		int position = -(Arrays.binarySearch(adjacency[node], 0, degree[node], value) + 1);
+		if(degree[node] == adjacency[node].length)
+			adjacency[node] = Arrays.copyOf(adjacency[node], Math.max(INITIAL_CAPACITY, 2 * degree[node]));
+		System.arraycopy(adjacency[node], position, adjacency[node], position + 1, degree[node] - position);
+		adjacency[node][position] = value;
+		degree[node]++;
+	}
+
+	/**
+	 * This method removes a node from a sorted adjacency array
+	 * @param adjacency: the adjacency arrays
+	 * @param degree: the adjacency arrays sizes
+	 * @param node: the node owning the array
+	 * @param value: the node to be removed
+	 */
+	private static void delete(int[][] adjacency, int[] degree, int node, int value){
+		int position = Arrays.binarySearch(adjacency[node], 0, degree[node], value);
+		System.arraycopy(adjacency[node], position + 1, adjacency[node], position, degree[node] - position - 1);
+		degree[node]--;
+	}
+
+	/**
+	 * This method converts an adjacency array in a list
+	 * @param adjacency: the adjacency array
+	 * @param degree: the array size
+	 * @return the list of the nodes
+	 */
+	private static ArrayList<Integer> toList(int[] adjacency, int degree){
+		ArrayList<Integer> list = new ArrayList<Integer>(degree);
+		for(int i = 0; i < degree; i++)
+			list.add(adjacency[i]);
+		return list;
+	}
+
+	@Override
+	public int[] getNodes(){
+		return this.nodes;
+	}
+
+	@Override
+	public ArrayList<String> getNodesNames(){
+		return this.nodesName;
+	}
+
+	@Override
+	/**
+	 * This method return the list of the edges of the graph, sorted by source and target.
+	 * @return The list of the edges
+	 */
+	public List<int[]> getEdges(){
+		ArrayList<int[]> edges = new ArrayList<int[]>(this.edgesNumber);
+		for(int source = 0; source < this.nodesNumber; source++){
+			for(int i = 0; i < this.outcomingDegree[source]; i++)
+				edges.add(new int[]{source, this.outcoming[source][i]});
+		}
+		return edges;
+	}
+
+	@Override
+	public ArrayList<Integer> getOutcomingNodes(int node) throws NotExistingNodeException{
+		this.checkNode(node);
+		return SparseGraph.toList(this.outcoming[node], this.outcomingDegree[node]);
+	}
+
+	@Override
+	public ArrayList<Integer> getIncomingNodes(int node) throws NotExistingNodeException{
+		this.checkNode(node);
+		return SparseGraph.toList(this.incoming[node], this.incomingDegree[node]);
+	}
+
+	@Override
+	public boolean areNodesConnected(int nodeA, int nodeB) throws NotExistingNodeException{
+		this.checkNode(nodeA);
+		this.checkNode(nodeB);
+		return Arrays.binarySearch(this.outcoming[nodeA], 0, this.outcomingDegree[nodeA], nodeB) >= 0;
+	}
+
+	@Override
+	public void addEdge(int nodeA, int nodeB) throws NotExistingNodeException{
+		if(this.areNodesConnected(nodeA, nodeB))
+			return;
+		SparseGraph.insert(this.outcoming, this.outcomingDegree, nodeA, nodeB);
+		SparseGraph.insert(this.incoming, this.incomingDegree, nodeB, nodeA);
+		this.edgesNumber++;
+	}
+
+	@Override
+	public void removeEdge(int nodeA, int nodeB) throws NotExistingNodeException{
+		if(!this.areNodesConnected(nodeA, nodeB))
+			return;
+		SparseGraph.delete(this.outcoming, this.outcomingDegree, nodeA, nodeB);
+		SparseGraph.delete(this.incoming, this.incomingDegree, nodeB, nodeA);
+		this.edgesNumber--;
+	}
+
+	@Override
+	public int getNodesNumber(){
+		return this.nodesNumber;
+	}
+
+	@Override
+	public int getNodeDegree(int node) throws NotExistingNodeException{
+		this.checkNode(node);
+		return this.incomingDegree[node] + this.outcomingDegree[node];
+	}
+
+	@Override
+	public int getNodeIncomingDegree(int node) throws NotExistingNodeException{
+		this.checkNode(node);
+		return this.incomingDegree[node];
+	}
+
+	@Override
+	public int getNodeOutcomingDegree(int node) throws NotExistingNodeException{
+		this.checkNode(node);
+		return this.outcomingDegree[node];
+	}
+
+	@Override
+	public int getTotalDegree(){
+		return 2 * this.edgesNumber;
+	}
+
+	@Override
+	public void addRandomEdges(int newEdges, ArrayList<String> noSource, ArrayList<String> noTarget) throws ParamDefinitionException, NotExistingNodeException{
+		int maxNewEdges = (this.nodesNumber * (this.nodesNumber - 1)) - this.edgesNumber;
+		//Parameters checking
+		if(newEdges < 0 || newEdges > maxNewEdges)
+			throw new ParamDefinitionException("The number of new edges must be between 0 and " + maxNewEdges);
+		this.addRandomEdges(newEdges, noSource, noTarget, -1, maxNewEdges);
+	}
+
+	@Override
+	public void addRandomEdges(int newEdges, ArrayList<String> noSource, ArrayList<String> noTarget, int maxInput) throws ParamDefinitionException, NotExistingNodeException{
+		int maxNewEdges = (this.nodesNumber * maxInput) - this.edgesNumber;
+		//Parameters checking
+		if(newEdges < 0 || newEdges > maxNewEdges)
+			throw new ParamDefinitionException("The number of new edges must be between 0 and " + maxNewEdges);
+		this.addRandomEdges(newEdges, noSource, noTarget, maxInput, maxNewEdges);
+	}
+
+	/**
+	 * This method adds newEdges random edges to the graph, as done by the incidence matrix graph
+	 * @param newEdges: the number of new edges to be added.
+	 * @param noSource: the nodes that can not be a source
+	 * @param noTarget: the nodes that can not be a target
+	 * @param maxInput: the maximum number of inputs of a node, -1 if it is not limited
+	 * @param maxNewEdges: the maximum number of new edges
+	 * @throws NotExistingNodeException
+	 * @throws ParamDefinitionException
+	 */
+	private void addRandomEdges(int newEdges, ArrayList<String> noSource, ArrayList<String> noTarget, int maxInput, int maxNewEdges) throws NotExistingNodeException, ParamDefinitionException{
+		int sourceNode, targetNode;
+		//Adds the new edges
+		for(int i = 0; i < newEdges; i++){
+			//Selects the new random edge and checks that they'll not be the same.
+			do{
+				//Checks that the selected node can be a source node.
+				do{
+					sourceNode = UtilityRandom.randomUniform(0, this.nodesNumber);
+				}while(noSource != null && noSource.contains(String.valueOf(sourceNode)));
+				//Checks that the selected node can be a target node.
+				do{
+					targetNode = UtilityRandom.randomUniform(0, this.nodesNumber);
+				}while(noTarget != null && noTarget.contains(String.valueOf(targetNode)));
+
+			}while(sourceNode == targetNode || this.areNodesConnected(sourceNode, targetNode) ||
+					(maxInput != -1 && this.incomingDegree[targetNode] == maxInput));
+			//Adds the edge
+			this.addEdge(sourceNode, targetNode);
+			//Adds the new input to the function. Only if it exist.
+			if(this.genesStateFunctions[targetNode] != null)
+				this.genesStateFunctions[targetNode].addLink(sourceNode);
+		}
+	}
+
+	@Override
+	public void addFunction(int node, Function function) throws NotExistingNodeException{
+		if(node < 0 || node >= this.nodesNumber)
+			throw new NotExistingNodeException("Wrong node! gene_" + node + " doesn't exist");
+		this.genesStateFunctions[node] = function;
+	}
+
+	@Override
+	public void addFunctions(Function[] functions) throws ParamDefinitionException{
+		//Checks if there is one function for each node
+		if(functions.length != this.nodesNumber)
+			throw new ParamDefinitionException("Wrong number of function added! Functions must be " + this.nodesNumber);
+		this.genesStateFunctions = functions;
+	}
+
+	@Override
+	public Function getFunction(int node) throws NotExistingNodeException{
+		if(node < 0 || node >= this.nodesNumber)
+			throw new NotExistingNodeException("The node " + node + " doesn't exist! Nodes are in [0, " + this.nodesNumber + "]");
+		return this.genesStateFunctions[node];
+	}
+
+	@Override
+	public Object evalFunction(int node, Object[] inputs) throws NotExistingNodeException, InputTypeException, ParamDefinitionException{
+		return this.getFunction(node).eval(inputs);
+	}
+
+	@Override
+	public boolean evalFunction(int node, BitState state) throws NotExistingNodeException, ParamDefinitionException{
+		return this.getFunction(node).eval(state);
+	}
+
+	@Override
+	public void step(BitState currentState, BitState newState) throws NotExistingNodeException, ParamDefinitionException{
+		long[] words = newState.getWords();
+		for(int w = 0; w < words.length; w++)
+			words[w] = 0L;
+		//Evaluates the function of each node
+		for(int node = 0; node < this.nodesNumber; node++){
+			if(this.genesStateFunctions[node].eval(currentState))
+				words[node >>> 6] |= 1L << node;
+		}
+	}
+
+	@Override
+	public String toGRNML(){
+		StringBuilder grnml = new StringBuilder("<graph topology = \""+ this.topology +"\" nodes_number = \"" + this.nodesNumber + "\">\n");
+		//Nodes
+		for(int i = 0; i < this.nodesNumber; i++){
+			grnml.append("\t\t<node id = \"" + this.nodes[i] +"\" name = \"" + this.nodesName.get(i) + "\" >\n");
+			//Function
+			grnml.append(this.genesStateFunctions[i].toGRNML());
+			grnml.append("\t\t</node>\n");
+		}
+		//Writes the edges
+		for(int[] edge : this.getEdges())
+			grnml.append("\t\t\t<edge source = \"" + edge[0] + "\" destination = \"" + edge[1] + "\"> </edge>\n");
+		grnml.append("</graph>");
+		return grnml.toString();
+	}
+
+	@Override
+	public GeneRegulatoryNetwork copy() throws ParamDefinitionException{
+		SparseGraph newGraph = new SparseGraph(0, this.topology);
+		newGraph.nodesNumber = this.nodesNumber;
+		newGraph.edgesNumber = this.edgesNumber;
+		newGraph.nodes = this.nodes.clone();
+		newGraph.nodesName = new ArrayList<String>(this.nodesName);
+		newGraph.nodesIndex = new HashMap<String, Integer>(this.nodesIndex);
+		newGraph.incomingDegree = this.incomingDegree.clone();
+		newGraph.outcomingDegree = this.outcomingDegree.clone();
+		newGraph.incoming = new int[this.nodesNumber][];
+		newGraph.outcoming = new int[this.nodesNumber][];
+		newGraph.genesStateFunctions = new Function[this.nodesNumber];
+		for(int i = 0; i < this.nodesNumber; i++){
+			newGraph.incoming[i] = Arrays.copyOf(this.incoming[i], this.incomingDegree[i]);
+			newGraph.outcoming[i] = Arrays.copyOf(this.outcoming[i], this.outcomingDegree[i]);
+			if(this.genesStateFunctions[i] != null)
+				newGraph.genesStateFunctions[i] = this.genesStateFunctions[i].copy();
+		}
+		return newGraph;
+	}
+
+	@Override
+	public int getNodeNumber(String nodeName){
+		Integer node = this.nodesIndex.get(nodeName);
+		return node == null ? -1 : node;
+	}
+
+	@Override
+	public void addNodes(int nodesNumber){
+		int newNodesNumber = this.nodesNumber + nodesNumber;
+		this.nodes = Arrays.copyOf(this.nodes, newNodesNumber);
+		this.incoming = Arrays.copyOf(this.incoming, newNodesNumber);
+		this.incomingDegree = Arrays.copyOf(this.incomingDegree, newNodesNumber);
+		this.outcoming = Arrays.copyOf(this.outcoming, newNodesNumber);
+		this.outcomingDegree = Arrays.copyOf(this.outcomingDegree, newNodesNumber);
+		this.genesStateFunctions = Arrays.copyOf(this.genesStateFunctions, newNodesNumber);
+		for(int i = this.nodesNumber; i < newNodesNumber; i++){
+			this.nodes[i] = i;
+			this.incoming[i] = new int[0];
+			this.outcoming[i] = new int[0];
+			this.nodesName.add(i, "gene_" + i);
+			if(!this.nodesIndex.containsKey("gene_" + i))
+				this.nodesIndex.put("gene_" + i, i);
+		}
+		this.nodesNumber = newNodesNumber;
+	}
+
+	@Override
+	public void changeRandomlyEdgeSource(int node, int newNode) throws NotExistingNodeException{
+		ArrayList<Integer> targetNodes = this.getOutcomingNodes(node);
+		int target;
+		do{
+			target = UtilityRandom.randomUniformChoice(targetNodes);
+		}while(!this.areNodesConnected(newNode, target));
+		this.removeEdge(node, target);
+		this.addEdge(newNode, target);
+	}
+
+	@Override
+	public String getTopology(){
+		return this.topology;
+	}
+
+	@Override
+	public String toString(){
+		return "G = (" + Arrays.toString(this.nodes) + ", " + this.edgesNumber + " edges)";
+	}
+}
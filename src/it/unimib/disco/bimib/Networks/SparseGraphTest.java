@@ -0,0 +1,80 @@
+package it.unimib.disco.bimib.Networks;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+import it.unimib.disco.bimib.Sampling.BruteForceSampling;
+import it.unimib.disco.bimib.Utility.SimulationFeaturesConstants;
+
+public class SparseGraphTest {
+
+	public SparseGraphTest() {
+	}
+
+	/**
+	 * This method asserts that two brute force samplings have the same attractors, basins and transients
+	 * @param expected: the expected sampling
+	 * @param actual: the actual sampling
+	 */
+	private static void assertSameSampling(BruteForceSampling expected, BruteForceSampling actual) {
+		assertEquals(Arrays.toString(expected.getAttractors()), Arrays.toString(actual.getAttractors()));
+		assertEquals(expected.getBasinOfAttraction(), actual.getBasinOfAttraction());
+		assertEquals(expected.getTransientLength(), actual.getTransientLength());
+	}
+
+	@Test
+	public void testSparseRepresentation() throws Exception {
+		Properties features = new Properties();
+		features.setProperty("topology", "PartiallyRandom");
+		features.setProperty("nodes", "12");
+		features.setProperty("edges", "24");
+		features.setProperty("fixed-inputs-number", "2");
+		features.setProperty("completely-defined-functions", "yes");
+		features.setProperty("function-type", "Boolean");
+		features.setProperty("random-type", "0.6");
+		features.setProperty("and-type", "0.2");
+		features.setProperty("or-type", "0.2");
+		features.setProperty("canalized-type", "0");
+		features.setProperty("bias-type", "0");
+		features.setProperty("bias-value", "0.5");
+		Properties sparse = new Properties();
+		sparse.setProperty(SimulationFeaturesConstants.GRAPH_REPRESENTATION, SimulationFeaturesConstants.SPARSE_REPRESENTATION);
+		Properties dense = new Properties();
+		dense.setProperty(SimulationFeaturesConstants.GRAPH_REPRESENTATION, SimulationFeaturesConstants.DENSE_REPRESENTATION);
+
+		for(int n = 0; n < 5; n++){
+			GraphManager manager = new GraphManager();
+			manager.createNetwork(features);
+			GraphManager sparseManager = manager.copy();
+			sparseManager.setGraphRepresentation(sparse);
+			assertTrue(sparseManager.getGraph() instanceof SparseGraph);
+
+			//The same edges and the same dynamics
+			for(int node = 0; node < 12; node++){
+				assertEquals(new TreeSet<Integer>(manager.getGraph().getIncomingNodes(node)),
+						new TreeSet<Integer>(sparseManager.getGraph().getIncomingNodes(node)));
+				assertEquals(new TreeSet<Integer>(manager.getGraph().getOutcomingNodes(node)),
+						new TreeSet<Integer>(sparseManager.getGraph().getOutcomingNodes(node)));
+			}
+			BruteForceSampling bruteForce = new BruteForceSampling(manager);
+			assertSameSampling(bruteForce, new BruteForceSampling(sparseManager));
+
+			//A knocked out node has the same effect on both the representations
+			manager.perpetuallyChangeFunctionValue(n, false);
+			sparseManager.perpetuallyChangeFunctionValue(n, false);
+			assertSameSampling(new BruteForceSampling(manager), new BruteForceSampling(sparseManager));
+
+			//The network converted back to the dense representation is the same
+			sparseManager.restoreFunction(n);
+			sparseManager.setGraphRepresentation(dense);
+			assertFalse(sparseManager.getGraph() instanceof SparseGraph);
+			assertSameSampling(bruteForce, new BruteForceSampling(sparseManager));
+		}
+	}
+
+}
@@ -0,0 +1,49 @@
+/**
+ * This class is a state table stored in an int array on the heap.
+ * It can be used by the networks with up to 30 nodes.
+ */
+
+package it.unimib.disco.bimib.Sampling;
+
+//System imports
+import java.util.Arrays;
+
+class ArrayStateTable implements StateTable {
+
+	//Maximum number of the states stored in an array
+	static final long MAX_SIZE = 1L << 30;
+
+	private int[] values;
+
+	/**
+	 * Generic constructor. All the values are 0.
+	 * @param size: the number of the state indexes
+	 */
+	ArrayStateTable(long size){
+		if(size > MAX_SIZE)
+			throw new IllegalArgumentException("The table is too large to be stored in an array");
+		this.values = new int[(int) size];
+	}
+
+	public int get(long index){
+		return this.values[(int) index];
+	}
+
+	public void set(long index, int value){
+		this.values[(int) index] = value;
+	}
+
+	public void fill(int value){
+		Arrays.fill(this.values, value);
+	}
+
+	public long size(){
+		return this.values.length;
+	}
+
+	public StateTable copy(){
+		ArrayStateTable copiedTable = new ArrayStateTable(0);
+		copiedTable.values = Arrays.copyOf(this.values, this.values.length);
+		return copiedTable;
+	}
+}
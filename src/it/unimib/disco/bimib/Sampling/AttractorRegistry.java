@@ -0,0 +1,252 @@
+/**
+ * This class is the registry of the attractors found by a sampling method.
+ * Each attractor gets a dense id when it is discovered, in order of discovery, and its
+ * cycle is stored once in canonical form: the rotation that starts from the minimal state,
+ * where the node 0 is the most significant bit. The minimal state represents the attractor,
+ * so the same cycle has the same representative whatever state of it is reached first.
+ * The mask of the nodes that oscillate in the cycle is computed when the attractor is registered,
+ * while the basin dimension and the longest transient are updated by the sampling method as the states
+ * are evaluated: all these statistics are read without scanning the visited states.
+ *
+ * The lookups don't need any lock and can be executed while another thread registers new attractors.
+ */
+
+package it.unimib.disco.bimib.Sampling;
+
+//System imports
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+//GRNSim imports
+import it.unimib.disco.bimib.Utility.BitState;
+
+class AttractorRegistry {
+
+	//Id returned by the lookup of a state out of the registered cycles
+	static final int NOT_FOUND = -1;
+
+	//The canonical cycles: the attractor id is the position in the list
+	private CopyOnWriteArrayList<BitState[]> cycles;
+	//The attractor id of each state in a registered cycle
+	private ConcurrentHashMap<BitState, Integer> ids;
+	//The oscillating nodes mask of each attractor, in order of id
+	private CopyOnWriteArrayList<long[]> oscillatingMasks;
+	//The basin dimension and the longest transient of each attractor, in order of id
+	private CopyOnWriteArrayList<AtomicInteger> basins;
+	private CopyOnWriteArrayList<AtomicInteger> transients;
+
+	/**
+	 * Generic constructor. The registry is empty.
+	 */
+	AttractorRegistry(){
+		this.cycles = new CopyOnWriteArrayList<BitState[]>();
+		this.ids = new ConcurrentHashMap<BitState, Integer>();
+		this.oscillatingMasks = new CopyOnWriteArrayList<long[]>();
+		this.basins = new CopyOnWriteArrayList<AtomicInteger>();
+		this.transients = new CopyOnWriteArrayList<AtomicInteger>();
+	}
+
+	/**
+	 * This method registers an attractor, if its cycle is not already registered.
+	 * @param cycle: the states of the cycle, in order of the network dynamics, starting from any state
+	 * @return the attractor id
+	 */
+	synchronized int register(BitState[] cycle){
+		Integer id = this.ids.get(cycle[0]);
+		if(id != null)
+			return id;
+
+		//Rotates the cycle in order to start from the minimal state
+		int minimal = 0;
+		for(int i = 1; i < cycle.length; i++){
+			if(AttractorRegistry.compare(cycle[i], cycle[minimal]) < 0)
+				minimal = i;
+		}
+		BitState[] canonicalCycle = new BitState[cycle.length];
+		for(int i = 0; i < cycle.length; i++)
+			canonicalCycle[i] = cycle[(minimal + i) % cycle.length];
+
+		//A node is oscillating if its value changes at least once in the cycle:
+		//the differences from the first state are accumulated word by word
+		long[] firstWords = canonicalCycle[0].getWords();
+		long[] oscillatingMask = new long[firstWords.length];
+		for(BitState state : canonicalCycle){
+			for(int w = 0; w < oscillatingMask.length; w++)
+				oscillatingMask[w] |= state.getWords()[w] ^ firstWords[w];
+		}
+
+		id = this.cycles.size();
+		for(BitState state : canonicalCycle)
+			this.ids.put(state, id);
+		//The statistics are added before the cycle, so they are available as soon as the id is
+		this.oscillatingMasks.add(oscillatingMask);
+		this.basins.add(new AtomicInteger(0));
+		this.transients.add(new AtomicInteger(0));
+		this.cycles.add(canonicalCycle);
+		return id;
+	}
+
+	/**
+	 * This method compares two states as binary numbers where the node 0 is the most significant bit.
+	 * @param first: the first state
+	 * @param second: the second state
+	 * @return a negative value, zero or a positive value if the first state is less than, equal to
+	 * or greater than the second one
+	 */
+	static int compare(BitState first, BitState second){
+		long[] firstWords = first.getWords();
+		long[] secondWords = second.getWords();
+		for(int w = 0; w < firstWords.length; w++){
+			if(firstWords[w] != secondWords[w])
+				return Long.compareUnsigned(Long.reverse(firstWords[w]), Long.reverse(secondWords[w]));
+		}
+		return 0;
+	}
+
+	/**
+	 * This method returns the id of the attractor that contains the given state in its cycle
+	 * @param state: the state
+	 * @return the attractor id, NOT_FOUND if the state is not in a registered cycle
+	 */
+	int getId(BitState state){
+		Integer id = this.ids.get(state);
+		return id == null ? NOT_FOUND : id;
+	}
+
+	/**
+	 * This method returns the representative state of the attractor with the given id
+	 * @param id: the attractor id
+	 * @return the minimal state of the attractor cycle
+	 */
+	BitState getAttractor(int id){
+		return this.cycles.get(id)[0];
+	}
+
+	/**
+	 * This method returns the canonical cycle of the attractor with the given id.
+	 * The returned array must not be modified.
+	 * @param id: the attractor id
+	 * @return the cycle states, starting from the minimal one
+	 */
+	BitState[] getCycle(int id){
+		return this.cycles.get(id);
+	}
+
+	/**
+	 * This method returns the period of the attractor with the given id
+	 * @param id: the attractor id
+	 * @return the number of the states in the cycle
+	 */
+	int getPeriod(int id){
+		return this.cycles.get(id).length;
+	}
+
+	/**
+	 * This method returns the mask of the nodes that oscillate in the attractor with the given id.
+	 * The bit of the node i is in the word i / 64, as in the BitState words. The mask must not be modified.
+	 * @param id: the attractor id
+	 * @return the oscillating nodes mask
+	 */
+	long[] getOscillatingMask(int id){
+		return this.oscillatingMasks.get(id);
+	}
+
+	/**
+	 * This method adds the given number of states to the basin of attraction of an attractor
+	 * @param id: the attractor id
+	 * @param states: the number of the new states in the basin
+	 */
+	void addToBasin(int id, int states){
+		this.basins.get(id).addAndGet(states);
+	}
+
+	/**
+	 * This method stores the transient length of an attractor if it is the longest one
+	 * @param id: the attractor id
+	 * @param transientLength: the number of steps needed to reach the attractor
+	 */
+	void updateTransientLength(int id, int transientLength){
+		AtomicInteger longest = this.transients.get(id);
+		int current;
+		do{
+			current = longest.get();
+		}while(current < transientLength && !longest.compareAndSet(current, transientLength));
+	}
+
+	/**
+	 * This method replaces the basin dimension of an attractor, for example with its exact value
+	 * @param id: the attractor id
+	 * @param states: the number of the states in the basin
+	 */
+	void setBasin(int id, int states){
+		this.basins.get(id).set(states);
+	}
+
+	/**
+	 * This method replaces the longest transient of an attractor
+	 * @param id: the attractor id
+	 * @param transientLength: the longest number of steps needed to reach the attractor
+	 */
+	void setTransientLength(int id, int transientLength){
+		this.transients.get(id).set(transientLength);
+	}
+
+	/**
+	 * This method returns the basin dimension of each attractor, in order of id
+	 * @return the basins dimension
+	 */
+	ArrayList<Integer> getBasins(){
+		ArrayList<Integer> basins = new ArrayList<Integer>(this.basins.size());
+		for(AtomicInteger basin : this.basins)
+			basins.add(basin.get());
+		return basins;
+	}
+
+	/**
+	 * This method returns the longest transient of each attractor, in order of id
+	 * @return the transients length
+	 */
+	ArrayList<Integer> getTransientLengths(){
+		ArrayList<Integer> transients = new ArrayList<Integer>(this.transients.size());
+		for(AtomicInteger transientLength : this.transients)
+			transients.add(transientLength.get());
+		return transients;
+	}
+
+	/**
+	 * This method returns the number of the registered attractors
+	 * @return the number of the attractors
+	 */
+	int size(){
+		return this.cycles.size();
+	}
+
+	/**
+	 * This method returns the representatives of all the registered attractors, in order of id
+	 * @return the attractors list
+	 */
+	ArrayList<BitState> getAttractors(){
+		ArrayList<BitState> attractors = new ArrayList<BitState>(this.cycles.size());
+		for(BitState[] cycle : this.cycles)
+			attractors.add(cycle[0]);
+		return attractors;
+	}
+
+	/**
+	 * This method returns a copy of the registry. The cycles are shared, since they are never modified.
+	 * @return the copy of the registry
+	 */
+	synchronized AttractorRegistry copy(){
+		AttractorRegistry copiedRegistry = new AttractorRegistry();
+		copiedRegistry.cycles.addAll(this.cycles);
+		copiedRegistry.ids.putAll(this.ids);
+		copiedRegistry.oscillatingMasks.addAll(this.oscillatingMasks);
+		for(AtomicInteger basin : this.basins)
+			copiedRegistry.basins.add(new AtomicInteger(basin.get()));
+		for(AtomicInteger transientLength : this.transients)
+			copiedRegistry.transients.add(new AtomicInteger(transientLength.get()));
+		return copiedRegistry;
+	}
+}
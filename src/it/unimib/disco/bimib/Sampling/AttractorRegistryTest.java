@@ -0,0 +1,83 @@
+package it.unimib.disco.bimib.Sampling;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Random;
+
+import org.junit.Test;
+
+import it.unimib.disco.bimib.Utility.BitState;
+
+public class AttractorRegistryTest {
+
+	public AttractorRegistryTest() {
+	}
+
+	@Test
+	public void testBruteForceCycles() throws Exception {
+		for(int n = 0; n < 10; n++){
+			BruteForceSampling bruteForce = new BruteForceSampling(ModularSamplingTest.createRandomNetwork(12));
+			final ArrayList<BitState[]> cycles = new ArrayList<BitState[]>();
+			for(Object attractor : bruteForce.getAttractors()){
+				Object[] states = bruteForce.getStatesInAttractor(attractor);
+				BitState[] cycle = new BitState[states.length];
+				for(int i = 0; i < cycle.length; i++)
+					cycle[i] = (BitState) states[i];
+				cycles.add(cycle);
+			}
+
+			//Several threads register the cycles in different orders, starting from different states
+			final AttractorRegistry registry = new AttractorRegistry();
+			Thread[] threads = new Thread[4];
+			for(int t = 0; t < threads.length; t++){
+				final Random random = new Random(t);
+				threads[t] = new Thread(new Runnable(){
+					public void run(){
+						ArrayList<BitState[]> shuffled = new ArrayList<BitState[]>(cycles);
+						Collections.shuffle(shuffled, random);
+						for(BitState[] cycle : shuffled){
+							int start = random.nextInt(cycle.length);
+							BitState[] rotated = new BitState[cycle.length];
+							for(int i = 0; i < cycle.length; i++)
+								rotated[i] = cycle[(start + i) % cycle.length];
+							registry.addToBasin(registry.register(rotated), 1);
+						}
+					}
+				});
+				threads[t].start();
+			}
+			for(Thread thread : threads)
+				thread.join();
+
+			//Each attractor is registered once, with a dense id and its canonical cycle
+			assertEquals(cycles.size(), registry.size());
+			for(BitState[] cycle : cycles){
+				int id = registry.getId(cycle[0]);
+				assertTrue(id >= 0 && id < cycles.size());
+				assertEquals(threads.length, (int) registry.getBasins().get(id));
+				assertEquals(cycle.length, registry.getPeriod(id));
+				long[] oscillatingMask = new long[1];
+				String minimal = cycle[0].toString();
+				for(BitState state : cycle){
+					assertEquals(id, registry.getId(state));
+					oscillatingMask[0] |= state.getWords()[0] ^ cycle[0].getWords()[0];
+					if(state.toString().compareTo(minimal) < 0)
+						minimal = state.toString();
+				}
+				assertEquals(minimal, registry.getAttractor(id).toString());
+				//The canonical cycle is a rotation of the cycle
+				BitState[] canonicalCycle = registry.getCycle(id);
+				int start = 0;
+				while(!cycle[start].equals(canonicalCycle[0]))
+					start++;
+				for(int i = 0; i < cycle.length; i++)
+					assertEquals(cycle[(start + i) % cycle.length], canonicalCycle[i]);
+				assertArrayEquals(oscillatingMask, registry.getOscillatingMask(id));
+			}
+			assertEquals(AttractorRegistry.NOT_FOUND, registry.getId(new BitState(13)));
+		}
+	}
+
+}
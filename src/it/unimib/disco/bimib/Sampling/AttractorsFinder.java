@@ -20,9 +20,9 @@ public interface AttractorsFinder {
 
 	/**
 	 * This method returns the attractor of a given network status.
-	 * The status must be a binary string; it's value must be between 0 and the 2^n - 1 
+	 * The status must be a BitState with n nodes, 
 	 * where n is the number of the nodes in the network.
-	 * @param status: The string value representing the network status.
+	 * @param status: The BitState value representing the network status.
 	 * @throws InputTypeException 
 	 * @throws NotExistingNodeException 
 	 * @throws AttractorNotFoundException 
@@ -125,6 +125,21 @@ public interface AttractorsFinder {
 	 * @return the number of the attractors
 	 */
 	public int getAttractorsNumber();
+
+	/**
+	 * This method returns the id of the given attractor.
+	 * The ids are dense and follow the order of the getAttractors method.
+	 * @param attractor: the attractor or any state of its cycle
+	 * @return the attractor id, -1 if the attractor is unknown
+	 */
+	public int getAttractorId(Object attractor);
+
+	/**
+	 * This method returns the attractor with the given id.
+	 * @param id: the attractor id, between 0 and the number of the attractors - 1
+	 * @return the attractor
+	 */
+	public Object getAttractorById(int id);
 	
 	/**
 	 * This method returns the number of attractors not found
@@ -133,12 +148,14 @@ public interface AttractorsFinder {
 	public int getAttractorsNotFound();
 	
 	/**
-	 * This method returns the couples state-attractor as an HashMap
+	 * This method returns the couples state-attractor as an HashMap.
+	 * States and attractors are represented as binary strings.
 	 */
 	public HashMap<String, String> getStatesAttractorsCouples();
 	
 	/**
 	 * This method returns the couples state-position as an HashMap.
+	 * States are represented as binary strings.
 	 */
 	public HashMap<String, Integer> getStatesPositionsCouples();
 }
@@ -0,0 +1,190 @@
+/**
+ * This class computes the exact basins of attraction by reversing the network dynamics.
+ * The sets of states are represented as binary decision diagrams, with a variable for each node.
+ * The next state function of each node is encoded from its table, so the pre-image of a set of states
+ * (the states whose following state is in the set) is the set with each variable replaced by its function.
+ * The basin of an attractor is built level by level starting from its cycle: the level d contains
+ * the states that need d steps to reach the cycle. The states of each level are counted, not enumerated.
+ * The functions of the network must be compiled in truth tables (see the BitSlicedNetwork class).
+ */
+
+package it.unimib.disco.bimib.Sampling;
+
+//System imports
+import java.math.BigInteger;
+import java.util.ArrayList;
+
+//GRNSim imports
+import it.unimib.disco.bimib.Bdd.BddManager;
+import it.unimib.disco.bimib.Networks.BitSlicedNetwork;
+import it.unimib.disco.bimib.Utility.BitState;
+
+class BasinCalculator {
+
+	private BddManager manager;
+	//The referenced next state function of each node
+	private int[] functions;
+
+	/**
+	 * Generic constructor
+	 * @param network: the bit-sliced network
+	 */
+	BasinCalculator(BitSlicedNetwork network){
+		if(network == null)
+			throw new NullPointerException("The network must be not null");
+		this.manager = new BddManager(network.getNodesNumber());
+		this.functions = this.createFunctions(network);
+	}
+
+	/**
+	 * This method returns the BDD manager of the sets of states
+	 * @return the BDD manager
+	 */
+	BddManager getManager(){
+		return this.manager;
+	}
+
+	/**
+	 * This method computes the exact basin of each registered attractor.
+	 * The basins dimension and the longest transients of the registry are replaced.
+	 * @param registry: the attractors registry
+	 * @return the number of states at each depth of each basin, in order of attractor id
+	 */
+	ArrayList<ArrayList<BigInteger>> calculatesBasins(AttractorRegistry registry){
+		ArrayList<ArrayList<BigInteger>> depthDistributions = new ArrayList<ArrayList<BigInteger>>();
+		for(int id = 0; id < registry.size(); id++){
+			ArrayList<BigInteger> levels = new ArrayList<BigInteger>();
+			int cycleStates = this.createStates(registry.getCycle(id));
+			this.manager.deref(this.createBasin(cycleStates, levels));
+			this.manager.deref(cycleStates);
+			registry.setBasin(id, BasinCalculator.toInt(BasinCalculator.sum(levels)));
+			registry.setTransientLength(id, levels.size() - 1);
+			depthDistributions.add(levels);
+		}
+		return depthDistributions;
+	}
+
+	/**
+	 * This method returns the set of the given states
+	 * @param states: the states
+	 * @return the referenced set of states
+	 */
+	int createStates(BitState[] states){
+		int set = this.manager.ref(BddManager.FALSE);
+		for(BitState state : states){
+			boolean[] values = new boolean[state.length()];
+			for(int node = 0; node < values.length; node++)
+				values[node] = state.get(node);
+			int expanded = this.manager.ref(this.manager.or(set, this.manager.minterm(values)));
+			this.manager.deref(set);
+			set = expanded;
+		}
+		return set;
+	}
+
+	/**
+	 * This method computes the states that reach a closed set of states, such as the states of a cycle.
+	 * The pre-images of the last level are added until no new state is found.
+	 * @param states: the set of states, it remains referenced
+	 * @param levels: the list where the number of the states at each depth is added, starting from the given states
+	 * @return the referenced basin of the set of states
+	 */
+	int createBasin(int states, ArrayList<BigInteger> levels){
+		int basin = this.manager.ref(states);
+		int frontier = this.manager.ref(states);
+		int preImage, level, expanded;
+		levels.add(this.manager.satCount(states));
+		while(true){
+			preImage = this.manager.ref(this.manager.compose(frontier, this.functions));
+			level = this.manager.ref(this.manager.diff(preImage, basin));
+			this.manager.deref(preImage);
+			this.manager.deref(frontier);
+			if(level == BddManager.FALSE)
+				return basin;
+			levels.add(this.manager.satCount(level));
+			frontier = level;
+			expanded = this.manager.ref(this.manager.or(basin, frontier));
+			this.manager.deref(basin);
+			basin = expanded;
+		}
+	}
+
+	/**
+	 * This method returns the sum of the given numbers
+	 * @param numbers: the numbers
+	 * @return the sum
+	 */
+	static BigInteger sum(ArrayList<BigInteger> numbers){
+		BigInteger sum = BigInteger.ZERO;
+		for(BigInteger number : numbers)
+			sum = sum.add(number);
+		return sum;
+	}
+
+	/**
+	 * This method converts a number in an int, limited to Integer.MAX_VALUE
+	 * @param number: the number
+	 * @return the limited number
+	 */
+	static int toInt(BigInteger number){
+		return number.min(BigInteger.valueOf(Integer.MAX_VALUE)).intValue();
+	}
+
+	/**
+	 * This method encodes the next state function of each node.
+	 * The variable i of the manager is the current value of the node i.
+	 * @param network: the bit-sliced network
+	 * @return the referenced function of each node
+	 */
+	private int[] createFunctions(BitSlicedNetwork network){
+		int[] functions = new int[network.getNodesNumber()];
+		int[] inputs;
+		int function, combined;
+		for(int node = 0; node < functions.length; node++){
+			inputs = network.getInputs(node);
+			switch(network.getFunctionType(node)){
+			case BitSlicedNetwork.AND:
+			case BitSlicedNetwork.OR:
+				function = network.getFunctionType(node) == BitSlicedNetwork.AND ? BddManager.TRUE : BddManager.FALSE;
+				for(int input : inputs){
+					if(network.getFunctionType(node) == BitSlicedNetwork.AND)
+						combined = this.manager.ref(this.manager.and(function, this.manager.ithVar(input)));
+					else
+						combined = this.manager.ref(this.manager.or(function, this.manager.ithVar(input)));
+					this.manager.deref(function);
+					function = combined;
+				}
+				break;
+			case BitSlicedNetwork.TABLE:
+				function = this.createTableFunction(network, node, inputs, 0, 0);
+				break;
+			default:
+				function = network.getConstant(node) ? BddManager.TRUE : BddManager.FALSE;
+			}
+			functions[node] = function;
+		}
+		return functions;
+	}
+
+	/**
+	 * This method encodes the entries of a table function that start with the given inputs values (Shannon expansion).
+	 * The first input is the most significant bit of the entry index.
+	 * @param network: the bit-sliced network
+	 * @param node: the node of the function
+	 * @param inputs: the function inputs
+	 * @param input: the number of the fixed inputs
+	 * @param prefix: the values of the fixed inputs
+	 * @return the referenced function
+	 */
+	private int createTableFunction(BitSlicedNetwork network, int node, int[] inputs, int input, int prefix){
+		if(input == inputs.length)
+			return network.getOutput(node, prefix) ? BddManager.TRUE : BddManager.FALSE;
+		int low = this.createTableFunction(network, node, inputs, input + 1, prefix << 1);
+		int high = this.createTableFunction(network, node, inputs, input + 1, (prefix << 1) | 1);
+		int function = this.manager.ref(this.manager.ite(this.manager.ithVar(inputs[input]), high, low));
+		this.manager.deref(low);
+		this.manager.deref(high);
+		return function;
+	}
+
+}
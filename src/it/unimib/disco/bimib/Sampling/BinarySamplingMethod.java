@@ -14,13 +14,17 @@ import java.util.HashMap;
 //GRNSim imports
 import it.unimib.disco.bimib.Exceptions.*;
 import it.unimib.disco.bimib.Networks.GraphManager;
+import it.unimib.disco.bimib.Utility.BitState;
 
 public abstract class BinarySamplingMethod implements AttractorsFinder {
 
 	protected GraphManager graph;
-	private HashMap<String, Double> fluctuations;
+	//The oscillating nodes ratio of the simulated attractors out of the registry, by minimal state
+	private HashMap<BitState, Double> fluctuations;
 	protected HashMap<Object, Object[]> storedInformation;
 	protected int attractorNotFound;
+	//The found attractors, with their canonical cycles and statistics
+	protected AttractorRegistry registry;
 
 
 	/**
@@ -32,7 +36,8 @@ public abstract class BinarySamplingMethod implements AttractorsFinder {
 			this.graph = manager;
 		else
 			throw new NullPointerException("No valid graphManager specified");
-		this.fluctuations = new HashMap<String, Double>();
+		this.fluctuations = new HashMap<BitState, Double>();
+		this.registry = new AttractorRegistry();
 
 		this.storedInformation = null;
 		this.attractorNotFound = 0;
@@ -40,109 +45,65 @@ public abstract class BinarySamplingMethod implements AttractorsFinder {
 
 
 	/**
-	 * This method converts an integer number in a boolean array
-	 * @param state: The integer value. It must be grater or equal than 0
-	 * @param n: the number of binary digit to be use
-	 * @return a boolean array representing the network status
-	 * @throws ParamDefinitionException An error occurred during the conversion
-	 */
-	protected Boolean[] fromIntegerToBinaryArray(int state, int n) throws ParamDefinitionException{
-		//Checks the parameters
-		if(state < 0 || n < 0)
-			throw new ParamDefinitionException("Incorrect parameters");
-		//Converts the integer value in a binary string
-		String stringBinaryInt = Integer.toBinaryString(state);
-		Boolean[] converted = new Boolean[n];
-		int index = n - 1;
-		//Copies the string in the array and adds the other false values. 
-		//The array must have n values.
-		for(int i = stringBinaryInt.length() - 1; i >= 0; i--){
-			converted[index] = (stringBinaryInt.charAt(i) == '1' ? Boolean.TRUE : Boolean.FALSE);
-			index--;
-		}
-		for(; index >= 0; index--){
-			converted[index] = Boolean.FALSE;
-		}
-		//Returns the converted array
-		return converted;
-
-	}
-
-
-	/**
-	 * This method converts a boolean array in a binary string
-	 * @param state: The boolean array. 
-	 * @return a binary string representing the network status
-	 */
-	protected String fromArrayToString(Boolean[] state){
-		//Checks the parameter
-		if(state == null)
-			throw new NullPointerException("The array mustn't be null");
-		String converted = "";
-		//Creates the binary string string
-		for(int i = 0; i < state.length; i++){
-			converted += (state[i] ? "1" : "0");
-		}
-		//Returns the converted string value
-		return converted;
-	}
-
-	/**
-	 * This method converts a binary string in a boolean array.
-	 * @param state: the binary string
-	 * @return a boolean array with n elements.
-	 */
-	protected Boolean[] fromStringToArray(String state){
-		Boolean[] converted = new Boolean[state.length()];
-		//Converts each binary char in a Boolean value
-		for(int i = 0; i < state.length(); i++){
-			converted[i] = (state.charAt(i) == '1' ? Boolean.TRUE : Boolean.FALSE);
-		}
-		//Returns the converted object
-		return converted;
-	}
-
-	/**
-	 * This method returns the array of states in the given attractor
+	 * This method returns the array of states in the given attractor.
+	 * The cycles of the registered attractors are read from the registry,
+	 * the other ones are simulated.
 	 * @param The attractor
-	 * @return The array of status
+	 * @return The array of status, starting from the given state
 	 * @throws InputTypeException 
 	 * @throws NotExistingNodeException 
 	 */
 	public Object[] getStatesInAttractor(Object attractor) throws ParamDefinitionException, NotExistingNodeException, InputTypeException{
-		ArrayList<String> statesInAttractor;
-		String newState;
-
-		double fluctuation = 0.0;
+		ArrayList<BitState> statesInAttractor;
+		BitState newState, firstState, minimalState;
+		BitState[] cycle;
+		Object[] states;
+		long[] oscillatingMask;
+		int id, start;
+
+		//Checks the inputs type. In this implementation it must be a BitState
+		if(!(attractor instanceof BitState))
+			throw new ParamDefinitionException("Attractor must be a BitState");
+		firstState = (BitState) attractor;
+
+		id = this.registry.getId(firstState);
+		if(id != AttractorRegistry.NOT_FOUND){
+			//Copies the registered cycle, rotated in order to start from the given state
+			cycle = this.registry.getCycle(id);
+			start = 0;
+			while(!cycle[start].equals(firstState))
+				start++;
+			states = new Object[cycle.length];
+			for(int i = 0; i < cycle.length; i++)
+				states[i] = cycle[(start + i) % cycle.length];
+			return states;
+		}
 
-		//Checks the inputs type. In this implementation it must be String
-		if(!(attractor instanceof String))
-			throw new ParamDefinitionException("Attractor must be a string");
 		//Algorithm initialization
-		statesInAttractor = new ArrayList<String>();
-		newState = (String) attractor;
+		statesInAttractor = new ArrayList<BitState>();
+		newState = firstState;
 
 		do{
 			statesInAttractor.add(newState);
-			newState = this.fromArrayToString(this.graph.getNewState(this.fromStringToArray(newState)));
-		}while(!(newState.equals((String) attractor)));
-
-		if(!this.fluctuations.containsKey(attractor)){
-
-			for(int i = 0; i < ((String)attractor).length(); i++){
-				char first = statesInAttractor.get(0).charAt(i);
-				int j = 1;
-				boolean oscillating = false;
-				while(j < statesInAttractor.size() && !oscillating){
-					oscillating = statesInAttractor.get(j).charAt(i) != first;
-					j++;
-				}
-				//Verifies if the nodes of one state is different from another
-				//If there is only a change in a node is considered oscillating
-				if(oscillating)
-					fluctuation ++;
+			newState = new BitState(firstState.length());
+			this.graph.step(statesInAttractor.get(statesInAttractor.size() - 1), newState);
+		}while(!(newState.equals(firstState)));
+
+		//The attractor is represented by the minimal state of its cycle, whatever state is given
+		minimalState = firstState;
+		for(BitState state : statesInAttractor){
+			if(AttractorRegistry.compare(state, minimalState) < 0)
+				minimalState = state;
+		}
+		if(!this.fluctuations.containsKey(minimalState)){
+			//A node is oscillating if its value changes at least once in the attractor:
+			//the differences from the first state are accumulated word by word
+			oscillatingMask = new long[firstState.getWords().length];
+			for(BitState state : statesInAttractor){
+				for(int w = 0; w < oscillatingMask.length; w++)
+					oscillatingMask[w] |= state.getWords()[w] ^ firstState.getWords()[w];
 			}
-			this.fluctuations.put((String)attractor, fluctuation/((String)attractor).length());
+			this.fluctuations.put(minimalState, this.getOscillatingNodesRatio(oscillatingMask));
 		}		
 
 		//Returns the list of states in the given attractor
@@ -151,26 +112,95 @@ public abstract class BinarySamplingMethod implements AttractorsFinder {
 	}
 
 	/**
-	 * This method returns for each attractor the percentage of nodes oscillating
+	 * This method returns the ratio of the oscillating nodes of an attractor
+	 * @param oscillatingMask: the mask of the oscillating nodes
+	 * @return the ratio of the oscillating nodes
+	 */
+	private double getOscillatingNodesRatio(long[] oscillatingMask){
+		double fluctuation = 0.0;
+		for(long word : oscillatingMask)
+			fluctuation += Long.bitCount(word);
+		return fluctuation/this.graph.getNodesNumber();
+	}
+
+	/**
+	 * This method returns for each attractor the percentage of nodes oscillating.
+	 * The registered attractors are read from their oscillating nodes masks, the other ones
+	 * are counted if their states have been computed.
 	 * @return the ratio of oscillating nodes of the network
 	 */
 	public double getOscillatingNodesRatio(){
 		double ratio = 0.0;
-		double attractors = this.fluctuations.keySet().size();
-		for(String key : this.fluctuations.keySet()){
+		int registered = this.registry.size();
+		double attractors = registered;
+		for(int id = 0; id < registered; id++)
+			ratio = ratio + this.getOscillatingNodesRatio(this.registry.getOscillatingMask(id));
+		for(BitState key : this.fluctuations.keySet()){
+			if(this.registry.getId(key) != AttractorRegistry.NOT_FOUND)
+				continue;
 			ratio = ratio + this.fluctuations.get(key);
+			attractors++;
 		}
 		//Returns the ratio of oscillating nodes of the network.
 		return ratio/attractors;
 
 	}
 
+	/**
+	 * This method returns the length of the longest transient of each attractor.
+	 * The lengths are updated during the sampling.
+	 * @return the length of transients, in the same order of the attractors
+	 */
+	public ArrayList<Integer> getTransientLength(){
+		return this.registry.getTransientLengths();
+	}
+
+	/**
+	 * This method returns the basin of attractions of each attractors.
+	 * The basins dimension are updated during the sampling.
+	 * @return An array list with each basin dimension, in the same order of the attractors
+	 */
+	public ArrayList<Integer> getBasinOfAttraction(){
+		return this.registry.getBasins();
+	}
+
+	/**
+	 * This method return an array with all the calculated attractors.
+	 * Each attractor is represented as the minimal state of its cycle.
+	 * @return a BitState array with the attractors is returned, in order of discovery.
+	 */
+	public Object[] getAttractors(){
+		return this.registry.getAttractors().toArray();
+	}
+
 	/**
 	 * This method returns the number of the attractors.
 	 * @return the number of the attractors
 	 */
 	public int getAttractorsNumber(){
-		return this.getAttractors().length;
+		return this.registry.size();
+	}
+
+	/**
+	 * This method returns the id of the given attractor.
+	 * @param attractor: the attractor or any state of its cycle
+	 * @return the attractor id, -1 if the attractor is unknown
+	 */
+	public int getAttractorId(Object attractor){
+		if(!(attractor instanceof BitState))
+			return AttractorRegistry.NOT_FOUND;
+		return this.registry.getId((BitState) attractor);
+	}
+
+	/**
+	 * This method returns the attractor with the given id.
+	 * @param id: the attractor id
+	 * @return the attractor
+	 */
+	public Object getAttractorById(int id){
+		if(id < 0 || id >= this.registry.size())
+			throw new IndexOutOfBoundsException("Invalid attractor id: " + id);
+		return this.registry.getAttractor(id);
 	}
 	
 	/**
@@ -184,6 +214,10 @@ public abstract class BinarySamplingMethod implements AttractorsFinder {
 	public int getAttractorLength(Object attractor) throws ParamDefinitionException, NotExistingNodeException, InputTypeException{
 		if(attractor == null)
 			throw new NullPointerException("The attractor must be not null");
+		//The period is known if the attractor is registered
+		int id = this.getAttractorId(attractor);
+		if(id != AttractorRegistry.NOT_FOUND)
+			return this.registry.getPeriod(id);
 		return this.getStatesInAttractor(attractor).length;
 	}
 
@@ -11,32 +11,94 @@
 
 package it.unimib.disco.bimib.Sampling;
 //System imports
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 //GRNSim imports
 import it.unimib.disco.bimib.Exceptions.*;
+import it.unimib.disco.bimib.Networks.BitSlicedNetwork;
 import it.unimib.disco.bimib.Networks.GraphManager;
+import it.unimib.disco.bimib.Utility.BitState;
 
 public class BruteForceSampling extends BinarySamplingMethod {
 
-	private String[] attractors;
-	private int [] positions;
-	private String[] oldAttractors;
+	//Attractor id of a state not yet evaluated and of a state in the current trajectory
+	private static final int UNKNOWN = -1;
+	private static final int VISITING = -2;
+	//Maximum number of 64 states blocks evaluated by a single parallel task
+	private static final int TASK_BLOCKS = 1024;
+	//Lanes values of the 6 least significant bits of the state index
+	private static final long[] LANE_PATTERNS = {0xAAAAAAAAAAAAAAAAL, 0xCCCCCCCCCCCCCCCCL, 0xF0F0F0F0F0F0F0F0L,
+		0xFF00FF00FF00FF00L, 0xFFFF0000FFFF0000L, 0xFFFFFFFF00000000L};
+
+	//Maximum number of nodes of the networks with file-backed tables: the following states are stored as unsigned ints
+	private static final int MAX_MAPPED_NODES = 32;
+
+	//Attractor id of each state in the attractors registry
+	private StateTable attractorIds;
+	private StateTable positions;
+	private AttractorRegistry oldRegistry;
+	//Number of the sampling threads
+	private int threads;
+	//Directory of the memory-mapped tables, null if the tables are stored in the heap
+	private String tablesDirectory;
 
 
 	/**
 	 * Generic constructor
 	 * @param graph: A GraphManager object connected to the network
-	 * @throws NullPointerException 
+	 * @throws NullPointerException
 	 * @throws ParamDefinitionException An error occurred during a internal conversion
-	 * @throws InputTypeException 
-	 * @throws NotExistingNodeException 
+	 * @throws InputTypeException
+	 * @throws NotExistingNodeException
 	 */
 	public BruteForceSampling(GraphManager graph) throws NullPointerException, ParamDefinitionException, NotExistingNodeException, InputTypeException{
+		this(graph, 1);
+	}
+
+	/**
+	 * Generic constructor
+	 * @param graph: A GraphManager object connected to the network
+	 * @param threads: The number of the threads used to compute the following states
+	 * @throws NullPointerException
+	 * @throws ParamDefinitionException An error occurred during a internal conversion
+	 * @throws InputTypeException
+	 * @throws NotExistingNodeException
+	 */
+	public BruteForceSampling(GraphManager graph, int threads) throws NullPointerException, ParamDefinitionException, NotExistingNodeException, InputTypeException{
+		this(graph, threads, null);
+	}
+
+	/**
+	 * Generic constructor
+	 * @param graph: A GraphManager object connected to the network
+	 * @param threads: The number of the threads used to compute the following states
+	 * @param tablesDirectory: The directory of the memory-mapped state tables, null in order to store them in the heap
+	 * @throws NullPointerException
+	 * @throws ParamDefinitionException An error occurred during a internal conversion or the tables can not be mapped
+	 * @throws InputTypeException
+	 * @throws NotExistingNodeException
+	 */
+	public BruteForceSampling(GraphManager graph, int threads, String tablesDirectory) throws NullPointerException, ParamDefinitionException, NotExistingNodeException, InputTypeException{
 		super(graph);
-		this.attractors = new String[(int)Math.pow(2, graph.getNodesNumber())];
-		this.positions = new int[(int)Math.pow(2, graph.getNodesNumber())];
+		if(threads <= 0)
+			throw new ParamDefinitionException("The number of threads must be greater than 0");
+		//Validates the size of the state space
+		if(tablesDirectory == null && graph.getNodesNumber() > 30)
+			throw new ParamDefinitionException("The state tables of a network with more than 30 nodes must be memory-mapped");
+		if(tablesDirectory != null && graph.getNodesNumber() > MAX_MAPPED_NODES)
+			throw new ParamDefinitionException("The brute force sampling supports networks with up to " + MAX_MAPPED_NODES + " nodes");
+		if(tablesDirectory != null && !new File(tablesDirectory).isDirectory())
+			throw new ParamDefinitionException(tablesDirectory + " is not a directory");
+		this.threads = threads;
+		this.tablesDirectory = tablesDirectory;
+		this.attractorIds = this.createTable();
+		this.positions = this.createTable();
 		//Calculates all the attractors
 		this.calculatesAttractors();
 		this.storedInformation = null;
@@ -44,152 +106,304 @@ public class BruteForceSampling extends BinarySamplingMethod {
 
 	/**
 	 * This methods calculates all the attractors of a given graph.
-	 * All the possible states are analyzed. This method is not suggested 
+	 * All the possible states are analyzed. This method is not suggested
 	 * for a network with a lot of nodes.
-	 * @throws ParamDefinitionException An error during a conversion 
-	 * @throws InputTypeException 
-	 * @throws NotExistingNodeException 
+	 * The following state of each state is computed first, then the cycles and the basins
+	 * of the state transition graph are labeled with a single pass over the states.
+	 * With more than one thread the states are labeled in parallel (see the StatesLabeling class).
+	 * @throws ParamDefinitionException An error during a conversion
+	 * @throws InputTypeException
+	 * @throws NotExistingNodeException
 	 */
 	private void calculatesAttractors() throws ParamDefinitionException, NotExistingNodeException, InputTypeException {
 
-		int nodes = this.graph.getNodesNumber();
-		int states = this.attractors.length;
-		//Generates a new random initial state
-		Boolean[] currentState;
-		String currentAttractor;
-		ArrayList<String> visited;
-		Boolean[] newState;
-		int count, attractor, newStateIndex;
-
-		//For each possible state gets its attractor
-		for(int state = 0; state < states; state++){
-
-			//Convert the i(th) state in a Boolean sequence
-			currentState = fromIntegerToBinaryArray(state, nodes);
-			currentAttractor = null;
-			newState = null;
-			visited = new ArrayList<String>();
-			count = 1;
-			do{
-				//Saves the transient
-				this.positions[state] = count;
-				count ++;
-
-				//Stores the current state as visited
-				visited.add(fromArrayToString(currentState));
-				//Perform the new network state
-				newState = this.graph.getNewState(currentState);
-				if(visited.contains(fromArrayToString(newState))){
-					currentAttractor = fromArrayToString(newState);
-				}else if(this.attractors[Integer.parseInt(fromArrayToString(newState), 2)] != null){
-					newStateIndex = Integer.parseInt(fromArrayToString(newState), 2);
-					currentAttractor = this.attractors[newStateIndex];
-					attractor = Integer.parseInt(currentAttractor,2);
-					if(this.positions[attractor] < this.positions[newStateIndex] + 
-							this.positions[attractor] - this.positions[state] ){
-						this.positions[attractor] += this.positions[newStateIndex] - this.positions[state];
-					}
-				}
+		long states = this.attractorIds.size();
+		long[] trajectory = new long[16];
+		long state;
+		int steps, cycleStart, attractorId, transientLength;
+		BitState[] cycle;
 
-				if(currentAttractor != null){
-					for(String s : visited){
-						this.attractors[Integer.parseInt(s, 2)] = currentAttractor;
-					}
-				}else{
-					currentState = newState;
+		//Computes the following state of each state
+		StateTable successors = this.loadSuccessors();
+
+		super.registry = new AttractorRegistry();
+		if(this.threads > 1){
+			new StatesLabeling(successors, this.attractorIds, this.positions, this.graph.getNodesNumber()).labels(super.registry, this.threads);
+			return;
+		}
+		this.attractorIds.fill(UNKNOWN);
+
+		for(long initialState = 0; initialState < states; initialState++){
+
+			//The attractor of the state is already known
+			if(this.attractorIds.get(initialState) != UNKNOWN)
+				continue;
+
+			//Follows the trajectory until a known state or a state of the trajectory is reached
+			steps = 0;
+			state = initialState;
+			while(this.attractorIds.get(state) == UNKNOWN){
+				this.attractorIds.set(state, VISITING);
+				if(steps == trajectory.length)
+					trajectory = Arrays.copyOf(trajectory, 2 * trajectory.length);
+				trajectory[steps] = state;
+				steps++;
+				//The following states are stored as unsigned values
+				state = successors.get(state) & 0xFFFFFFFFL;
+			}
+
+			if(this.attractorIds.get(state) == VISITING){
+				//The trajectory reaches a new attractor
+				cycleStart = 0;
+				while(trajectory[cycleStart] != state)
+					cycleStart++;
+				cycle = new BitState[steps - cycleStart];
+				for(int i = 0; i < cycle.length; i++)
+					cycle[i] = BitState.fromIndex(trajectory[cycleStart + i], this.graph.getNodesNumber());
+				attractorId = super.registry.register(cycle);
+				transientLength = cycleStart;
+				for(int i = 0; i < steps; i++){
+					this.attractorIds.set(trajectory[i], attractorId);
+					this.positions.set(trajectory[i], Math.max(0, cycleStart - i));
+				}
+			}else{
+				//The trajectory reaches a known basin of attraction
+				attractorId = this.attractorIds.get(state);
+				transientLength = steps + this.positions.get(state);
+				for(int i = 0; i < steps; i++){
+					this.attractorIds.set(trajectory[i], attractorId);
+					this.positions.set(trajectory[i], transientLength - i);
 				}
-			}while(currentAttractor == null);
+			}
+
+			//Updates the basin dimension and the longest transient
+			super.registry.addToBasin(attractorId, steps);
+			super.registry.updateTransientLength(attractorId, transientLength);
 		}
 	}
 
-
 	/**
-	 * This method returns the attractor of a given network status.
-	 * The status must be a binary string; it's value must be between 0 and the 2^n - 1 
-	 * where n is the number of the nodes in the network.
-	 * @param status: The string value representing the network status.
-	 * @ParamDefinitionException: The passed status isn't correct, it doesn't follow 
-	 * the previous rules.
+	 * This method creates a state table with a value for each network state.
+	 * The table is memory-mapped in a temporary file if the tables directory is specified.
+	 * @return the new state table
+	 * @throws ParamDefinitionException the table can not be mapped
 	 */
-	@Override
-	public Object getAttractor(Object status) throws ParamDefinitionException {
-		int intStatus;
-		//Checks if the status is a string
-		if(!(status instanceof String))
-			throw new ParamDefinitionException("The staus must be a string value");
-		//Gets the corresponding integer status
-		intStatus = Integer.parseInt((String) status, 2);
-		//Checks the value of the status
-		if(intStatus >= this.attractors.length)
-			throw new ParamDefinitionException("Invalid status");
-		//Returns the status attractor
-		return this.attractors[intStatus];
+	private StateTable createTable() throws ParamDefinitionException{
+		long size = 1L << this.graph.getNodesNumber();
+		if(this.tablesDirectory == null)
+			return new ArrayStateTable(size);
+		try{
+			return MappedStateTable.createTemporary(new File(this.tablesDirectory), size);
+		}catch(IOException e){
+			throw new ParamDefinitionException("Unable to map the state table: " + e.getMessage());
+		}
 	}
 
+	/**
+	 * This method returns the table of the following states.
+	 * When the tables are memory-mapped and the network can be bit-sliced, the table is stored
+	 * in a file named after the network digest, so it is reused by the runs on the same network.
+	 * The whole digest is stored in the file header and checked before the table is reused.
+	 * @return the following state of each state
+	 * @throws ParamDefinitionException the table can not be mapped
+	 * @throws NotExistingNodeException
+	 * @throws InputTypeException
+	 */
+	private StateTable loadSuccessors() throws ParamDefinitionException, NotExistingNodeException, InputTypeException{
+		BitSlicedNetwork slicedNetwork = this.graph.getBitSlicedNetwork();
+		int nodes = this.graph.getNodesNumber();
+
+		if(this.tablesDirectory == null || slicedNetwork == null){
+			StateTable successors = this.createTable();
+			this.calculatesSuccessors(successors);
+			return successors;
+		}
+
+		byte[] digest = slicedNetwork.digest();
+		File file = new File(this.tablesDirectory, "successors-" + nodes + "-" + BruteForceSampling.toHex(digest, 8) + ".table");
+		try{
+			MappedStateTable successors = MappedStateTable.open(file, 1L << nodes, digest);
+			//Computes the table only if it hasn't been completed by a previous run
+			if(!successors.isCompleted()){
+				this.calculatesSuccessors(successors);
+				successors.complete();
+			}
+			return successors;
+		}catch(IOException e){
+			throw new ParamDefinitionException("Unable to map the state table: " + e.getMessage());
+		}
+	}
 
 	/**
-	 * This method returns an array with all the calculated attractors.
-	 * Each attractor is represented as a binary string.
-	 * @return a String array with the attractors is returned.
+	 * This method returns the first bytes of a digest as an hexadecimal string
+	 * @param digest: the digest
+	 * @param bytes: the number of the written bytes
+	 * @return the hexadecimal string
 	 */
-	@Override
-	public Object[] getAttractors(){
-		//Returns all the attractors
-		ArrayList<String> l = new ArrayList<String>();
-		for(int i = 0; i < this.attractors.length; i++)
-			if(!l.contains(this.attractors[i]))
-				l.add(this.attractors[i]);
-		return l.toArray();
+	private static String toHex(byte[] digest, int bytes){
+		StringBuilder hex = new StringBuilder();
+		for(int i = 0; i < bytes; i++)
+			hex.append(String.format("%02x", digest[i] & 0xFF));
+		return hex.toString();
 	}
 
 	/**
-	 * This method returns the length of the transient states in a network
-	 * @return the length of transients
+	 * This method computes the following state index of each state index.
+	 * The states are evaluated 64 at a time on the bit-sliced network, split between the threads.
+	 * If the network can not be bit-sliced, the states are evaluated one by one.
+	 * @param successors: the array where the following states are written
+	 * @throws ParamDefinitionException
+	 * @throws NotExistingNodeException
+	 * @throws InputTypeException
 	 */
-	public ArrayList<Integer> getTransientLength() {
-		ArrayList<Integer> transientLength = new ArrayList<Integer>();
+	private void calculatesSuccessors(StateTable successors) throws ParamDefinitionException, NotExistingNodeException, InputTypeException{
+		int nodes = this.graph.getNodesNumber();
+		BitSlicedNetwork slicedNetwork = this.graph.getBitSlicedNetwork();
+
+		if(slicedNetwork != null){
+			int blocks = (int) ((successors.size() + BitSlicedNetwork.LANES - 1) / BitSlicedNetwork.LANES);
+			if(this.threads > 1){
+				ForkJoinPool pool = new ForkJoinPool(this.threads);
+				try{
+					pool.invoke(new SuccessorsTask(slicedNetwork, successors, 0, blocks));
+				}finally{
+					pool.shutdown();
+				}
+			}else{
+				BruteForceSampling.calculatesSuccessors(slicedNetwork, successors, 0, blocks);
+			}
+			return;
+		}
 
-		Object[] attractors = this.getAttractors();
-		for(Object attractor : attractors){
-			transientLength.add(this.positions[Integer.parseInt(attractor.toString(),2)]);
+		//The states are updated in place: no objects are allocated
+		BitState currentState = new BitState(nodes);
+		BitState newState = new BitState(nodes);
+		for(long state = 0; state < successors.size(); state++){
+			currentState.setIndex(state);
+			this.graph.step(currentState, newState);
+			successors.set(state, (int) newState.toIndex());
 		}
+	}
+
+	/**
+	 * This method computes the following state indexes of a range of 64 states blocks on the bit-sliced network.
+	 * The block b contains the states from 64 * b to 64 * b + 63, so the lanes of the
+	 * 6 least significant bits of the state index have always the same values.
+	 * @param network: the bit-sliced network
+	 * @param successors: the array where the following states are written
+	 * @param fromBlock: the first block (included)
+	 * @param toBlock: the last block (excluded)
+	 */
+	private static void calculatesSuccessors(BitSlicedNetwork network, StateTable successors, int fromBlock, int toBlock){
+		int nodes = network.getNodesNumber();
+		long[] slices = new long[nodes];
+		long[] newSlices = new long[nodes];
+		long first;
+		int lanes, successor, bit;
+
+		for(int block = fromBlock; block < toBlock; block++){
+			first = (long) block * BitSlicedNetwork.LANES;
+			//The node 0 is the most significant bit of the state index
+			for(int node = 0; node < nodes; node++){
+				bit = nodes - 1 - node;
+				if(bit < LANE_PATTERNS.length)
+					slices[node] = LANE_PATTERNS[bit];
+				else
+					slices[node] = ((first >>> bit) & 1) == 0 ? 0L : -1L;
+			}
+
+			network.step(slices, newSlices);
 
-		return transientLength;
+			//Converts each lane in the following state index
+			lanes = (int) Math.min(BitSlicedNetwork.LANES, successors.size() - first);
+			for(int lane = 0; lane < lanes; lane++){
+				successor = 0;
+				for(int node = 0; node < nodes; node++)
+					successor = (successor << 1) | (int) ((newSlices[node] >>> lane) & 1L);
+				successors.set(first + lane, successor);
+			}
+		}
 	}
 
 	/**
-	 * This method returns the basin of attractions of each attractors
-	 * @return HashMap(attractors,#transient)
+	 * This class is the fork-join task that computes the following states of a range of 64 states blocks.
+	 * The range is split until it is small enough, then it is evaluated on a copy of the bit-sliced network.
 	 */
-	public ArrayList<Integer> getBasinOfAttraction(){
-		HashMap<String, Integer> basin = new HashMap<String, Integer>();
-		ArrayList<Integer> basinDistribuction = new ArrayList<Integer>();
-		for(String attractor : attractors){
-			if(basin.containsKey(attractor)){
-				basin.put(attractor, basin.get(attractor) + 1);
-			}else{
-				basin.put(attractor, 1);
+	private static class SuccessorsTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private BitSlicedNetwork network;
+		private StateTable successors;
+		private int fromBlock;
+		private int toBlock;
+
+		/**
+		 * Generic constructor
+		 * @param network: the bit-sliced network
+		 * @param successors: the array where the following states are written
+		 * @param fromBlock: the first block (included)
+		 * @param toBlock: the last block (excluded)
+		 */
+		SuccessorsTask(BitSlicedNetwork network, StateTable successors, int fromBlock, int toBlock){
+			this.network = network;
+			this.successors = successors;
+			this.fromBlock = fromBlock;
+			this.toBlock = toBlock;
+		}
+
+		@Override
+		protected void compute(){
+			//Splits the range in two tasks
+			if(this.toBlock - this.fromBlock > TASK_BLOCKS){
+				int middle = (this.fromBlock + this.toBlock) >>> 1;
+				invokeAll(new SuccessorsTask(this.network, this.successors, this.fromBlock, middle),
+						new SuccessorsTask(this.network, this.successors, middle, this.toBlock));
+				return;
 			}
+			//The bit-sliced network has a scratch buffer: each task uses its own copy
+			BruteForceSampling.calculatesSuccessors(this.network.copy(), this.successors, this.fromBlock, this.toBlock);
 		}
-		for(String attractor : basin.keySet())
-			basinDistribuction.add(basin.get(attractor));
-		return basinDistribuction;
+	}
 
+
+	/**
+	 * This method returns the attractor of a given network status.
+	 * The status must be a BitState with n nodes,
+	 * where n is the number of the nodes in the network.
+	 * @param status: The BitState value representing the network status.
+	 * @ParamDefinitionException: The passed status isn't correct, it doesn't follow
+	 * the previous rules.
+	 */
+	@Override
+	public Object getAttractor(Object status) throws ParamDefinitionException {
+		long intStatus;
+		//Checks if the status is a BitState
+		if(!(status instanceof BitState))
+			throw new ParamDefinitionException("The status must be a BitState value");
+		//Gets the corresponding integer status
+		intStatus = ((BitState) status).toIndex();
+		//Checks the value of the status
+		if(intStatus >= this.attractorIds.size())
+			throw new ParamDefinitionException("Invalid status");
+		//Returns the status attractor
+		if(this.attractorIds.get(intStatus) == UNKNOWN)
+			return null;
+		return super.registry.getAttractor(this.attractorIds.get(intStatus));
 	}
 
 	/**
 	 * This method rewireds the attractor finder element.
 	 * It is used when the perpetual mutations are introduced
 	 * @throws ParamDefinitionException Something gone wrong
-	 * @throws InputTypeException 
-	 * @throws NotExistingNodeException 
+	 * @throws InputTypeException
+	 * @throws NotExistingNodeException
 	 */
 	public void rewiredAttractorFinder() throws ParamDefinitionException, NotExistingNodeException, InputTypeException {
 
-		this.oldAttractors = this.attractors;
+		this.oldRegistry = super.registry;
 
-		this.attractors = new String [this.attractors.length];
-		this.positions = new int [this.positions.length];
+		this.positions.fill(0);
 
 		//Calculates the new attractors
 		this.calculatesAttractors();
@@ -209,12 +423,13 @@ public class BruteForceSampling extends BinarySamplingMethod {
 		Object[] attractorsSet = this.getAttractors();
 
 		for(Object attractor : attractorsSet){
-			this.storedInformation.put(attractor, 
-					this.getStatesInAttractor(attractor));	
+			this.storedInformation.put(attractor,
+					this.getStatesInAttractor(attractor));
 		}
 
-		this.attractors = new String[this.attractors.length];
-		this.positions = new int[this.positions.length];
+		this.attractorIds.fill(UNKNOWN);
+		this.positions.fill(0);
+		super.registry = new AttractorRegistry();
 	}
 
 	/**
@@ -234,38 +449,29 @@ public class BruteForceSampling extends BinarySamplingMethod {
 	 */
 	public Object[] getOldAttractors(){
 		//Returns all the attractors
-		ArrayList<String> oldAttractorlist = new ArrayList<String>();
-
-		for(int i = 0; i < this.oldAttractors.length; i++)
-			if(!oldAttractorlist.contains(this.oldAttractors[i]))
-				oldAttractorlist.add(this.oldAttractors[i]);
-		return oldAttractorlist.toArray();
+		return this.oldRegistry.getAttractors().toArray();
 
 	}
 
 	/**
 	 * This method returns a copy of itself.
 	 * @return a copy of itself.
-	 * @throws InputTypeException 
-	 * @throws NotExistingNodeException 
-	 * @throws ParamDefinitionException 
-	 * @throws NullPointerException 
+	 * @throws InputTypeException
+	 * @throws NotExistingNodeException
+	 * @throws ParamDefinitionException
+	 * @throws NullPointerException
 	 */
 	public AttractorsFinder copy() throws NullPointerException, ParamDefinitionException, NotExistingNodeException, InputTypeException{
-		BruteForceSampling copiedSampling = new BruteForceSampling(this.graph);
-
-		String[] copiedAttractors = new String[this.attractors.length];
-		int [] copiedPositions = new int[this.positions.length];
-
-		//Copies the arrays
-		for(int i = 0; i < this.attractors.length; i++){
-			copiedAttractors[i] = this.attractors[i];
-			copiedPositions[i] = this.positions[i];
+		BruteForceSampling copiedSampling = new BruteForceSampling(this.graph, this.threads, this.tablesDirectory);
+
+		//Puts the copies of the tables in the new sampling
+		try{
+			copiedSampling.attractorIds = this.attractorIds.copy();
+			copiedSampling.positions = this.positions.copy();
+		}catch(IOException e){
+			throw new ParamDefinitionException("Unable to map the state table: " + e.getMessage());
 		}
-
-		//Puts the copies in the new sampling
-		copiedSampling.attractors = copiedAttractors;
-		copiedSampling.positions = copiedPositions;
+		copiedSampling.registry = super.registry.copy();
 
 		return copiedSampling;
 
@@ -277,9 +483,15 @@ public class BruteForceSampling extends BinarySamplingMethod {
 	 */
 	public HashMap<String, String> getStatesAttractorsCouples() {
 		HashMap<String, String> statesAttractors = new HashMap<String, String>();
+		ArrayList<BitState> attractorsList = super.registry.getAttractors();
+		String[] attractorsNames = new String[attractorsList.size()];
+		//Converts each attractor only once
+		for(int i = 0; i < attractorsNames.length; i++)
+			attractorsNames[i] = attractorsList.get(i).toString();
 		//Puts the each couple (state, attractor) in the statesAttractors object
-		for(int i = 0; i < this.attractors.length; i++)
-			statesAttractors.put(Integer.toBinaryString(i), this.attractors[i]);
+		for(long i = 0; i < this.attractorIds.size(); i++)
+			statesAttractors.put(Long.toBinaryString(i),
+					this.attractorIds.get(i) == UNKNOWN ? null : attractorsNames[this.attractorIds.get(i)]);
 
 		return statesAttractors;
 	}
@@ -291,8 +503,8 @@ public class BruteForceSampling extends BinarySamplingMethod {
 	public HashMap<String, Integer> getStatesPositionsCouples() {
 		HashMap<String, Integer> statesPositions = new HashMap<String, Integer>();
 		//Puts the each couple (state, position) in the statesPositions object
-		for(int i = 0; i < this.positions.length; i++)
-			statesPositions.put(Integer.toBinaryString(i), this.positions[i]);
+		for(long i = 0; i < this.positions.size(); i++)
+			statesPositions.put(Long.toBinaryString(i), this.positions.get(i));
 		return statesPositions;
 	}
 
@@ -0,0 +1,72 @@
+package it.unimib.disco.bimib.Sampling;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import it.unimib.disco.bimib.Networks.GraphManager;
+
+public class BruteForceSamplingTest {
+
+	public BruteForceSamplingTest() {
+	}
+
+	/**
+	 * This method asserts that two brute force samplings have the same attractors and the same labels of the states
+	 * @param expected: the expected sampling
+	 * @param actual: the actual sampling
+	 */
+	private static void assertSameSampling(BruteForceSampling expected, BruteForceSampling actual) {
+		assertEquals(Arrays.toString(expected.getAttractors()), Arrays.toString(actual.getAttractors()));
+		assertEquals(expected.getBasinOfAttraction(), actual.getBasinOfAttraction());
+		assertEquals(expected.getTransientLength(), actual.getTransientLength());
+		assertEquals(expected.getStatesAttractorsCouples(), actual.getStatesAttractorsCouples());
+		assertEquals(expected.getStatesPositionsCouples(), actual.getStatesPositionsCouples());
+	}
+
+	@Test
+	public void testParallelLabeling() throws Exception {
+		//The larger networks split the labeling in several tasks
+		for(int nodes : new int[]{8, 12, 17}){
+			for(int n = 0; n < 5; n++){
+				GraphManager manager = ModularSamplingTest.createRandomNetwork(nodes);
+				BruteForceSampling sequential = new BruteForceSampling(manager, 1);
+				BruteForceSampling parallel = new BruteForceSampling(manager, 4);
+
+				//The same attractors in the same order, with the same labels of the states
+				assertSameSampling(sequential, parallel);
+			}
+		}
+	}
+
+	@Test
+	public void testMappedTables() throws Exception {
+		File directory = Files.createTempDirectory("tables").toFile();
+		for(int n = 0; n < 5; n++){
+			GraphManager manager = ModularSamplingTest.createRandomNetwork(12);
+			BruteForceSampling heap = new BruteForceSampling(manager);
+
+			//The mapped tables give the same sampling, also when the successors table is reused
+			assertSameSampling(heap, new BruteForceSampling(manager, 1, directory.getPath()));
+			assertSameSampling(heap, new BruteForceSampling(manager, 4, directory.getPath()));
+
+			//A mutant doesn't reuse the successors table of the network
+			GraphManager mutant = manager.createMutant(new int[]{n}, new boolean[]{false});
+			assertSameSampling(new BruteForceSampling(mutant), new BruteForceSampling(mutant, 1, directory.getPath()));
+		}
+
+		//A successors table for each network and mutant
+		File[] files = directory.listFiles();
+		assertEquals(10, files.length);
+		for(File file : files){
+			assertTrue(file.getName().startsWith("successors-12-"));
+			file.delete();
+		}
+		directory.delete();
+	}
+
+}
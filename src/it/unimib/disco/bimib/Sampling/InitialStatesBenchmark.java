@@ -0,0 +1,59 @@
+/**
+ * This class compares the initial conditions generators of the partial sampling.
+ * For each generator the attractors of the given network are sampled in steps of 1000 initial conditions,
+ * and the number of found attractors is reported after each step.
+ * Usage: InitialStatesBenchmark network.grnml [initial-conditions] [max-simulation-times] [sampling-threads]
+ * The output is a CSV table with the generator, the tested initial conditions, the found attractors,
+ * the attractors found in the last step and the elapsed milliseconds.
+ */
+
+package it.unimib.disco.bimib.Sampling;
+
+//GRNSim imports
+import it.unimib.disco.bimib.IO.Input;
+import it.unimib.disco.bimib.Networks.GraphManager;
+import it.unimib.disco.bimib.Utility.SimulationFeaturesConstants;
+
+public class InitialStatesBenchmark {
+
+	//Number of initial conditions tested between two reports
+	private static final int STEP = 1000;
+
+	private static final String[] GENERATORS = {SimulationFeaturesConstants.RANDOM_GENERATOR, 
+		SimulationFeaturesConstants.LOW_DISCREPANCY_GENERATOR, SimulationFeaturesConstants.STRATIFIED_GENERATOR};
+
+	public static void main(String[] args) throws Exception {
+		GraphManager graph;
+		PartialSamplingSettings settings;
+		PartialSampling sampling;
+		int initialConditions, cutoff, threads, attractors, step;
+		long start;
+
+		if(args.length == 0){
+			System.out.println("Usage: InitialStatesBenchmark network.grnml [initial-conditions] [max-simulation-times] [sampling-threads]");
+			return;
+		}
+		graph = Input.readGRNMLFile(args[0]);
+		initialConditions = args.length > 1 ? Integer.valueOf(args[1]) : 10 * STEP;
+		cutoff = args.length > 2 ? Integer.valueOf(args[2]) : -1;
+		threads = args.length > 3 ? Integer.valueOf(args[3]) : 1;
+
+		System.out.println("generator,initial-conditions,attractors,new-attractors,milliseconds");
+		for(String generator : GENERATORS){
+			//Each generator starts from an empty sampling
+			settings = new PartialSamplingSettings(0, cutoff);
+			settings.setThreads(threads);
+			settings.setGenerator(SamplingManager.createInitialStatesGenerator(generator, graph.getNodesNumber()));
+			sampling = new PartialSampling(graph, settings);
+			start = System.currentTimeMillis();
+			for(int tested = 0; tested < initialConditions; tested = tested + step){
+				step = Math.min(STEP, initialConditions - tested);
+				attractors = sampling.getAttractorsNumber();
+				sampling.calculatesAttractors(step);
+				System.out.println(generator + "," + (tested + step) + "," + sampling.getAttractorsNumber() + "," 
+						+ (sampling.getAttractorsNumber() - attractors) + "," + (System.currentTimeMillis() - start));
+			}
+		}
+	}
+
+}
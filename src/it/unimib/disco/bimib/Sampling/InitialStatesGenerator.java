@@ -0,0 +1,25 @@
+/**
+ * InitialStatesGenerator interface.
+ * This interface specifies the generators of the initial conditions tested by the partial sampling.
+ * A generator is used by a single thread at a time.
+ */
+
+package it.unimib.disco.bimib.Sampling;
+
+//GRNSim imports
+import it.unimib.disco.bimib.Utility.BitState;
+
+public interface InitialStatesGenerator {
+
+	/**
+	 * This method returns the following initial state
+	 * @return a new initial state
+	 */
+	public BitState next();
+
+	/**
+	 * This method returns the number of the nodes of the generated states
+	 * @return the number of the nodes
+	 */
+	public int getNodesNumber();
+}
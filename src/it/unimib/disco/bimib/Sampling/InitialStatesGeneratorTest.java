@@ -0,0 +1,96 @@
+package it.unimib.disco.bimib.Sampling;
+
+import static org.junit.Assert.*;
+
+import java.util.HashSet;
+
+import org.junit.Test;
+
+import it.unimib.disco.bimib.Networks.GraphManager;
+import it.unimib.disco.bimib.Utility.BitState;
+
+public class InitialStatesGeneratorTest {
+
+	public InitialStatesGeneratorTest() {
+	}
+
+	@Test
+	public void testLowDiscrepancyStates() {
+		for(int nodes : new int[]{12, 70}){
+			LowDiscrepancyInitialStates generator = new LowDiscrepancyInitialStates(nodes);
+			assertEquals(nodes, generator.getNodesNumber());
+			//The blocks of 2^k states, with 2^k greater than the number of nodes
+			int block = Integer.highestOneBit(nodes) << 1;
+			HashSet<BitState> generated = new HashSet<BitState>();
+			BitState[] states = new BitState[block];
+			for(int b = 0; b < 4096 / block; b++){
+				for(int i = 0; i < block; i++){
+					states[i] = generator.next();
+					assertEquals(nodes, states[i].length());
+					assertTrue(generated.add(states[i]));
+				}
+
+				//Every node is active in half of the states, every couple of nodes takes each value in a quarter of them
+				for(int first = 0; first < nodes; first++){
+					int active = 0;
+					for(BitState state : states)
+						active += state.get(first) ? 1 : 0;
+					assertEquals(block / 2, active);
+					for(int second = first + 1; second < nodes; second++){
+						int[] values = new int[4];
+						for(BitState state : states)
+							values[(state.get(first) ? 2 : 0) + (state.get(second) ? 1 : 0)]++;
+						for(int value : values)
+							assertEquals(block / 4, value);
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testStratifiedStates() {
+		//All the states of a small network, with the binomial distribution of the weights
+		StratifiedInitialStates generator = new StratifiedInitialStates(12);
+		assertEquals(12, generator.getNodesNumber());
+		HashSet<BitState> generated = new HashSet<BitState>();
+		for(int i = 0; i < 4096; i++)
+			assertTrue(generated.add(generator.next()));
+		assertEquals(4096, generated.size());
+
+		//The states are distinct in each window of remembered states
+		generator = new StratifiedInitialStates(30, 100);
+		for(int window = 0; window < 5; window++){
+			generated.clear();
+			int weights = 0;
+			for(int i = 0; i < 100; i++){
+				BitState state = generator.next();
+				assertTrue(generated.add(state));
+				weights += state.cardinality();
+			}
+			//The mean weight is close to the half of the nodes
+			assertTrue(Math.abs(weights / 100.0 - 15) < 1.5);
+		}
+	}
+
+	@Test
+	public void testBruteForceBasins() throws Exception {
+		for(int n = 0; n < 5; n++){
+			GraphManager manager = ModularSamplingTest.createRandomNetwork(12);
+			BruteForceSampling bruteForce = new BruteForceSampling(manager);
+
+			//The generators that cover the state space give the brute force basins
+			for(InitialStatesGenerator generator : new InitialStatesGenerator[]{
+					new StratifiedInitialStates(12), new LowDiscrepancyInitialStates(12)}){
+				PartialSamplingSettings settings = new PartialSamplingSettings(4096, 5000);
+				settings.setGenerator(generator);
+				PartialSampling sampling = new PartialSampling(manager, settings);
+				assertEquals(ModularSamplingTest.byAttractor(bruteForce, bruteForce.getBasinOfAttraction()),
+						ModularSamplingTest.byAttractor(sampling, sampling.getBasinOfAttraction()));
+				assertEquals(ModularSamplingTest.byAttractor(bruteForce, bruteForce.getTransientLength()),
+						ModularSamplingTest.byAttractor(sampling, sampling.getTransientLength()));
+			}
+		}
+	}
+
+}
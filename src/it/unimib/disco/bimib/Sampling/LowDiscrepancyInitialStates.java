@@ -0,0 +1,132 @@
+/**
+ * This class generates the initial states as the points of a scrambled binary digital net,
+ * the one-bit-per-node counterpart of a Sobol sequence.
+ * The i-th state is the product of the Gray code of i with a generator matrix, plus a random shift:
+ * the states follow each other flipping the matrix row of the lowest changed bit of i, as done by
+ * the Antonov-Saleev construction of the Sobol sequences.
+ * The first rows give each node a distinct non-zero label, assigned with a random permutation of the nodes:
+ * in each aligned block of 2^k states, where 2^k is greater than the number of nodes, every node is active
+ * in half of the states and every couple of nodes takes each one of the four values in a quarter of the states.
+ * The other rows are random, but linearly independent until the number of rows reaches the number of nodes:
+ * the first 2^min(nodes, 64) states are distinct.
+ */
+
+package it.unimib.disco.bimib.Sampling;
+
+//System imports
+import java.util.ArrayList;
+
+//GRNSim imports
+import it.unimib.disco.bimib.Utility.BitState;
+import it.unimib.disco.bimib.Utility.UtilityRandom;
+
+class LowDiscrepancyInitialStates implements InitialStatesGenerator {
+
+	private static final double ACTIVATION_PROBABILITY = 0.5;
+	//The index of the states is a long value
+	private static final int ROWS = 64;
+
+	private int nodes;
+	//The generator matrix rows, as words of node bits
+	private long[][] rows;
+	//The index and the value of the following state
+	private long index;
+	private BitState state;
+
+	/**
+	 * Generic constructor
+	 * @param nodes: the number of the nodes
+	 */
+	LowDiscrepancyInitialStates(int nodes){
+		Integer[] permutation = new Integer[nodes];
+		//The echelon form of the rows, in order to test their independence
+		ArrayList<long[]> basis = new ArrayList<long[]>();
+		ArrayList<Integer> pivots = new ArrayList<Integer>();
+		BitState row;
+		int labelBits, label;
+
+		this.nodes = nodes;
+		this.rows = new long[ROWS][];
+		for(int node = 0; node < nodes; node++)
+			permutation[node] = node;
+		UtilityRandom.randomPermutation(permutation);
+
+		//Number of bits needed by the labels 1 ... nodes
+		labelBits = Integer.SIZE - Integer.numberOfLeadingZeros(nodes);
+		for(int bit = 0; bit < ROWS; bit++){
+			if(bit < labelBits){
+				row = new BitState(nodes);
+				for(int node = 0; node < nodes; node++){
+					label = permutation[node] + 1;
+					if(((label >>> bit) & 1) != 0)
+						row.set(node, true);
+				}
+				//The label rows are always independent
+				LowDiscrepancyInitialStates.addToBasis(row.getWords(), basis, pivots);
+			}else{
+				do{
+					row = UtilityRandom.createRandomBitState(nodes, ACTIVATION_PROBABILITY);
+				}while(!LowDiscrepancyInitialStates.addToBasis(row.getWords(), basis, pivots) && basis.size() < nodes);
+			}
+			this.rows[bit] = row.getWords();
+		}
+
+		//The random shift is the first state
+		this.index = 0;
+		this.state = UtilityRandom.createRandomBitState(nodes, ACTIVATION_PROBABILITY);
+	}
+
+	/**
+	 * This method adds the given row to the echelon form of the previous rows, if it is linearly independent.
+	 * Each basis row has a pivot bit, that is cleared in all the following rows.
+	 * @param row: the row words
+	 * @param basis: the echelon form rows
+	 * @param pivots: the pivot bit of each echelon form row
+	 * @return true if the row is independent from the previous rows
+	 */
+	private static boolean addToBasis(long[] row, ArrayList<long[]> basis, ArrayList<Integer> pivots){
+		long[] reduced = row.clone();
+		int pivot;
+		for(int i = 0; i < basis.size(); i++){
+			pivot = pivots.get(i);
+			if(((reduced[pivot >>> 6] >>> pivot) & 1L) == 0)
+				continue;
+			for(int w = 0; w < reduced.length; w++)
+				reduced[w] ^= basis.get(i)[w];
+		}
+		for(int w = 0; w < reduced.length; w++){
+			if(reduced[w] != 0){
+				basis.add(reduced);
+				pivots.add(w * BitState.WORD_SIZE + Long.numberOfTrailingZeros(reduced[w]));
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * This method returns the following state of the net
+	 * @return a new initial state
+	 */
+	public BitState next(){
+		BitState next = this.state.copy();
+		long[] words = this.state.getWords();
+		long[] row;
+
+		//The Gray code of the following index differs in the lowest set bit of the index
+		this.index++;
+		row = this.rows[Long.numberOfTrailingZeros(this.index) % ROWS];
+		for(int w = 0; w < words.length; w++)
+			words[w] ^= row[w];
+		return next;
+	}
+
+	/**
+	 * This method returns the number of the nodes of the generated states
+	 * @return the number of the nodes
+	 */
+	public int getNodesNumber(){
+		return this.nodes;
+	}
+
+}
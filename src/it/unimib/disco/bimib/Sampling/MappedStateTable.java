@@ -0,0 +1,154 @@
+/**
+ * This class is a state table stored in a memory-mapped file, so the tables of
+ * the networks with up to 32 nodes don't need to fit in the heap.
+ * The values are mapped in segments of 2^28 ints, after a header of 32 bytes.
+ * The header contains the stamp of the table content (for example the SHA-256 digest of the network functions),
+ * written only when the table is completed: a table file can be reused by another run that expects the same stamp.
+ */
+
+package it.unimib.disco.bimib.Sampling;
+
+//System imports
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+class MappedStateTable implements StateTable {
+
+	//The size of the stamps
+	static final int HEADER_SIZE = 32;
+	private static final int SEGMENT_BITS = 28;
+	private static final long SEGMENT_MASK = (1L << SEGMENT_BITS) - 1;
+
+	private File file;
+	private long size;
+	private byte[] stamp;
+	private boolean completed;
+	private MappedByteBuffer[] segments;
+
+	/**
+	 * Private constructor. Use the open and createTemporary methods.
+	 * @param file: the table file
+	 * @param size: the number of the state indexes
+	 * @param stamp: the expected stamp of the table content, of HEADER_SIZE bytes
+	 * @throws IOException the file can not be mapped
+	 */
+	private MappedStateTable(File file, long size, byte[] stamp) throws IOException{
+		if(stamp.length != HEADER_SIZE)
+			throw new IllegalArgumentException("The stamp must have " + HEADER_SIZE + " bytes");
+		this.file = file;
+		this.size = size;
+		this.stamp = stamp;
+		this.segments = new MappedByteBuffer[(int) ((size + SEGMENT_MASK) >>> SEGMENT_BITS)];
+
+		RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+		try{
+			long length = HEADER_SIZE + 4 * size;
+			//A file with a different length can't contain the table
+			if(randomAccessFile.length() == length){
+				byte[] header = new byte[HEADER_SIZE];
+				randomAccessFile.readFully(header);
+				this.completed = Arrays.equals(header, stamp);
+			}else{
+				randomAccessFile.setLength(0);
+				randomAccessFile.setLength(length);
+				this.completed = false;
+			}
+			//The mapping remains valid after the channel is closed
+			FileChannel channel = randomAccessFile.getChannel();
+			for(int segment = 0; segment < this.segments.length; segment++){
+				long first = (long) segment << SEGMENT_BITS;
+				long values = Math.min(SEGMENT_MASK + 1, size - first);
+				this.segments[segment] = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_SIZE + 4 * first, 4 * values);
+			}
+		}finally{
+			randomAccessFile.close();
+		}
+	}
+
+	/**
+	 * This method maps the given table file. The file is created if it doesn't exist,
+	 * and its content is kept only if it has been completed with the same stamp.
+	 * @param file: the table file
+	 * @param size: the number of the state indexes
+	 * @param stamp: the stamp of the table content, of HEADER_SIZE bytes
+	 * @return the mapped table
+	 * @throws IOException the file can not be mapped
+	 */
+	static MappedStateTable open(File file, long size, byte[] stamp) throws IOException{
+		return new MappedStateTable(file, size, stamp);
+	}
+
+	/**
+	 * This method maps a new temporary table file in the given directory.
+	 * The file is deleted as soon as it is mapped, otherwise when the virtual machine terminates.
+	 * @param directory: the directory of the file
+	 * @param size: the number of the state indexes
+	 * @return the mapped table
+	 * @throws IOException the file can not be created
+	 */
+	static MappedStateTable createTemporary(File directory, long size) throws IOException{
+		File file = File.createTempFile("states", ".table", directory);
+		MappedStateTable table = new MappedStateTable(file, size, new byte[HEADER_SIZE]);
+		//The mapping remains valid after the file is deleted on the most of the platforms
+		if(!file.delete())
+			file.deleteOnExit();
+		return table;
+	}
+
+	/**
+	 * This method returns true if the table has been completed with the expected stamp
+	 * @return true if the content of the table can be reused
+	 */
+	boolean isCompleted(){
+		return this.completed;
+	}
+
+	/**
+	 * This method writes the table on the disk and marks it as completed.
+	 * @throws IOException the stamp can not be written
+	 */
+	void complete() throws IOException{
+		for(MappedByteBuffer segment : this.segments)
+			segment.force();
+		//The stamp is written only after the values
+		RandomAccessFile randomAccessFile = new RandomAccessFile(this.file, "rw");
+		try{
+			randomAccessFile.write(this.stamp);
+			randomAccessFile.getFD().sync();
+		}finally{
+			randomAccessFile.close();
+		}
+		this.completed = true;
+	}
+
+	public int get(long index){
+		return this.segments[(int) (index >>> SEGMENT_BITS)].getInt((int) (index & SEGMENT_MASK) << 2);
+	}
+
+	public void set(long index, int value){
+		this.segments[(int) (index >>> SEGMENT_BITS)].putInt((int) (index & SEGMENT_MASK) << 2, value);
+	}
+
+	public void fill(int value){
+		for(MappedByteBuffer segment : this.segments){
+			for(int offset = 0; offset < segment.capacity(); offset += 4)
+				segment.putInt(offset, value);
+		}
+	}
+
+	public long size(){
+		return this.size;
+	}
+
+	public StateTable copy() throws IOException{
+		MappedStateTable copiedTable = MappedStateTable.createTemporary(this.file.getParentFile(), this.size);
+		//The duplicates don't change the positions of the shared buffers
+		for(int segment = 0; segment < this.segments.length; segment++)
+			copiedTable.segments[segment].duplicate().put(this.segments[segment].duplicate());
+		return copiedTable;
+	}
+}
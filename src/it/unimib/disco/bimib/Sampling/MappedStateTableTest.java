@@ -0,0 +1,43 @@
+package it.unimib.disco.bimib.Sampling;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import org.junit.Test;
+
+public class MappedStateTableTest {
+
+	public MappedStateTableTest() {
+	}
+
+	@Test
+	public void testStamp() throws Exception {
+		File directory = Files.createTempDirectory("tables").toFile();
+		File file = new File(directory, "successors.table");
+		byte[] stamp = new byte[MappedStateTable.HEADER_SIZE];
+		for(int i = 0; i < stamp.length; i++)
+			stamp[i] = (byte) (31 * i + 7);
+
+		//A table is reused only after it is completed
+		MappedStateTable table = MappedStateTable.open(file, 1000, stamp);
+		assertFalse(table.isCompleted());
+		for(int index = 0; index < 1000; index++)
+			table.set(index, 3 * index);
+		assertFalse(MappedStateTable.open(file, 1000, stamp).isCompleted());
+		table.complete();
+		table = MappedStateTable.open(file, 1000, stamp);
+		assertTrue(table.isCompleted());
+		for(int index = 0; index < 1000; index++)
+			assertEquals(3 * index, table.get(index));
+
+		//A table with a stamp that differs in the last byte is not reused
+		byte[] otherStamp = stamp.clone();
+		otherStamp[otherStamp.length - 1]++;
+		assertFalse(MappedStateTable.open(file, 1000, otherStamp).isCompleted());
+		file.delete();
+		directory.delete();
+	}
+
+}
@@ -0,0 +1,366 @@
+/**
+ * This class implements the modular sampling method.
+ * The regulatory graph is decomposed in its strongly connected components (the modules), that are
+ * analyzed in topological order: the nodes of the analyzed modules never depend on the other ones,
+ * so their attractors are the projections of the network attractors.
+ * Each module is driven by an attractor of the upstream nodes, whose period is p: the module state and the
+ * phase of the upstream attractor evolve deterministically, so all the p * 2^m couples phase-module state are
+ * simulated and each cycle is a new attractor of the analyzed nodes. Then all the attractors are exact,
+ * and several small state spaces are enumerated instead of the whole one.
+ * The exact basins of attraction are computed backward from the found attractors (see the BasinCalculator class).
+ * The basins are counted, not enumerated: only the states of the attractors are returned as couples.
+ * The functions of the network must be compiled in truth tables (see the BitSlicedNetwork class).
+ */
+
+package it.unimib.disco.bimib.Sampling;
+
+//System imports
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+
+//GRNSim imports
+import it.unimib.disco.bimib.Exceptions.*;
+import it.unimib.disco.bimib.Networks.BitSlicedNetwork;
+import it.unimib.disco.bimib.Networks.GraphManager;
+import it.unimib.disco.bimib.Utility.BitState;
+import it.unimib.disco.bimib.Utility.SCCTarjan;
+
+public class ModularSampling extends BinarySamplingMethod {
+
+	//Maximum number of the couples phase-module state simulated for an upstream attractor
+	public static final int MAX_MODULE_STATES = 1 << 24;
+
+	//The modules in topological order
+	private ArrayList<int[]> modules;
+	//The number of states at each depth of each basin, in order of attractor id
+	private ArrayList<ArrayList<BigInteger>> depthDistributions;
+	private AttractorRegistry oldRegistry;
+
+
+	/**
+	 * Generic constructor
+	 * @param graph: A GraphManager object connected to the network
+	 * @throws NullPointerException
+	 * @throws ParamDefinitionException The network functions can not be compiled in truth tables or a module is too large
+	 * @throws InputTypeException
+	 * @throws NotExistingNodeException
+	 */
+	public ModularSampling(GraphManager graph) throws NullPointerException, ParamDefinitionException, NotExistingNodeException, InputTypeException{
+		super(graph);
+		//Calculates all the attractors
+		this.calculatesAttractors();
+		this.storedInformation = null;
+	}
+
+	/**
+	 * This constructor copies an existing modular sampling
+	 * @param sampling: the copied sampling
+	 */
+	private ModularSampling(ModularSampling sampling){
+		super(sampling.graph);
+		this.modules = sampling.modules;
+		super.registry = sampling.registry.copy();
+		this.depthDistributions = new ArrayList<ArrayList<BigInteger>>(sampling.depthDistributions);
+		this.storedInformation = null;
+	}
+
+	/**
+	 * This method calculates all the attractors of the graph, module by module, and their exact basins of attraction.
+	 * @throws ParamDefinitionException The network functions can not be compiled in truth tables or a module is too large
+	 * @throws InputTypeException
+	 * @throws NotExistingNodeException
+	 */
+	private void calculatesAttractors() throws ParamDefinitionException, NotExistingNodeException, InputTypeException {
+		BitSlicedNetwork slicedNetwork = this.graph.getBitSlicedNetwork();
+		if(slicedNetwork == null)
+			throw new ParamDefinitionException("The modular sampling requires functions that can be compiled in truth tables");
+
+		this.modules = ModularSampling.findModules(slicedNetwork);
+
+		//Before the first module there is a single attractor, without analyzed nodes
+		ArrayList<BitState[]> attractors = new ArrayList<BitState[]>();
+		attractors.add(new BitState[]{new BitState(slicedNetwork.getNodesNumber())});
+		for(int[] module : this.modules){
+			ArrayList<BitState[]> extendedAttractors = new ArrayList<BitState[]>();
+			for(BitState[] attractor : attractors)
+				extendedAttractors.addAll(this.extendsAttractor(slicedNetwork, attractor, module));
+			attractors = extendedAttractors;
+		}
+
+		super.registry = new AttractorRegistry();
+		for(BitState[] attractor : attractors)
+			super.registry.register(attractor);
+
+		//All the attractors are known, so each basin is the backward closure of its cycle
+		this.depthDistributions = new BasinCalculator(slicedNetwork).calculatesBasins(super.registry);
+	}
+
+	/**
+	 * This method decomposes the regulatory graph in its strongly connected components
+	 * @param network: the bit-sliced network
+	 * @return the modules, each module follows the modules of its inputs
+	 */
+	private static ArrayList<int[]> findModules(BitSlicedNetwork network){
+		ArrayList<ArrayList<Integer>> regulatedNodes = new ArrayList<ArrayList<Integer>>();
+		for(int node = 0; node < network.getNodesNumber(); node++)
+			regulatedNodes.add(new ArrayList<Integer>());
+		for(int node = 0; node < network.getNodesNumber(); node++){
+			for(int input : network.getInputs(node))
+				regulatedNodes.get(input).add(node);
+		}
+
+		//The components are found after all the components they regulate
+		ArrayList<ArrayList<Integer>> components = new SCCTarjan().scc(regulatedNodes);
+		Collections.reverse(components);
+		ArrayList<int[]> modules = new ArrayList<int[]>();
+		for(ArrayList<Integer> component : components){
+			int[] module = new int[component.size()];
+			for(int i = 0; i < module.length; i++)
+				module[i] = component.get(i);
+			modules.add(module);
+		}
+		return modules;
+	}
+
+	/**
+	 * This method finds the attractors of a module driven by an attractor of the upstream nodes.
+	 * The couple phase-module state of index (phase << m) | moduleState is simulated for each phase
+	 * and module state: a walk that reaches one of its own couples has found a new cycle.
+	 * @param network: the bit-sliced network
+	 * @param attractor: the cycle of the upstream nodes, the other nodes are false
+	 * @param module: the nodes of the module
+	 * @return the cycles of the upstream nodes and the module
+	 * @throws ParamDefinitionException The module is too large
+	 */
+	private ArrayList<BitState[]> extendsAttractor(BitSlicedNetwork network, BitState[] attractor, int[] module) throws ParamDefinitionException{
+		ArrayList<BitState[]> cycles = new ArrayList<BitState[]>();
+		ArrayList<BitState> cycle;
+		if(module.length >= 31 || ((long) attractor.length << module.length) > MAX_MODULE_STATES)
+			throw new ParamDefinitionException("The module of " + module.length + " nodes driven by an attractor of period "
+					+ attractor.length + " is too large for the modular sampling");
+
+		int couples = attractor.length << module.length;
+		//The walk that has visited each couple, 0 if it is not visited
+		int[] walks = new int[couples];
+		BitState scratch = new BitState(network.getNodesNumber());
+		int walk = 0, couple, next;
+		for(int start = 0; start < couples; start++){
+			if(walks[start] != 0)
+				continue;
+			walk++;
+			couple = start;
+			while(walks[couple] == 0){
+				walks[couple] = walk;
+				couple = this.nextCouple(network, attractor, module, couple, scratch);
+			}
+			//The walk has reached an older walk, so its cycle is already found
+			if(walks[couple] != walk)
+				continue;
+			cycle = new ArrayList<BitState>();
+			next = couple;
+			do{
+				cycle.add(ModularSampling.toState(attractor, module, next));
+				next = this.nextCouple(network, attractor, module, next, scratch);
+			}while(next != couple);
+			cycles.add(cycle.toArray(new BitState[cycle.size()]));
+		}
+		return cycles;
+	}
+
+	/**
+	 * This method returns the state of the upstream nodes and the module of a couple
+	 * @param attractor: the cycle of the upstream nodes
+	 * @param module: the nodes of the module
+	 * @param couple: the couple index
+	 * @return the state of the couple
+	 */
+	private static BitState toState(BitState[] attractor, int[] module, int couple){
+		BitState state = attractor[couple >>> module.length].copy();
+		for(int i = 0; i < module.length; i++)
+			state.set(module[i], ((couple >>> i) & 1) == 1);
+		return state;
+	}
+
+	/**
+	 * This method returns the following couple: the module nodes are evaluated on the state of the couple
+	 * and the phase of the upstream attractor is increased.
+	 * @param network: the bit-sliced network
+	 * @param attractor: the cycle of the upstream nodes
+	 * @param module: the nodes of the module
+	 * @param couple: the couple index
+	 * @param scratch: the state where the couple state is written
+	 * @return the following couple index
+	 */
+	private int nextCouple(BitSlicedNetwork network, BitState[] attractor, int[] module, int couple, BitState scratch){
+		int phase = couple >>> module.length;
+		System.arraycopy(attractor[phase].getWords(), 0, scratch.getWords(), 0, scratch.getWords().length);
+		for(int i = 0; i < module.length; i++)
+			scratch.set(module[i], ((couple >>> i) & 1) == 1);
+
+		int moduleState = 0;
+		for(int i = 0; i < module.length; i++){
+			if(network.evaluates(module[i], scratch))
+				moduleState |= 1 << i;
+		}
+		return (((phase + 1) % attractor.length) << module.length) | moduleState;
+	}
+
+	/**
+	 * This method returns the modules of the network, in topological order
+	 * @return the nodes of each module
+	 */
+	public ArrayList<int[]> getModules(){
+		return new ArrayList<int[]>(this.modules);
+	}
+
+	/**
+	 * This method returns the exact basin dimension of each attractor.
+	 * The basins returned by the getBasinOfAttraction method are limited to Integer.MAX_VALUE.
+	 * @return the exact basins dimension, in the same order of the attractors
+	 */
+	public ArrayList<BigInteger> getExactBasins(){
+		ArrayList<BigInteger> exactBasins = new ArrayList<BigInteger>();
+		for(ArrayList<BigInteger> levels : this.depthDistributions)
+			exactBasins.add(BasinCalculator.sum(levels));
+		return exactBasins;
+	}
+
+	/**
+	 * This method returns the transients distribution of each basin: the element d of an attractor list
+	 * is the number of states that need d steps to reach the attractor (the element 0 is the period).
+	 * @return the number of states at each depth of each basin, in the same order of the attractors
+	 */
+	public ArrayList<ArrayList<BigInteger>> getDepthDistributions(){
+		return new ArrayList<ArrayList<BigInteger>>(this.depthDistributions);
+	}
+
+	/**
+	 * This method returns the attractor of a given network status.
+	 * The status is simulated until a state of a found attractor is reached.
+	 * @param status: The BitState value representing the network status.
+	 * @ParamDefinitionException: The passed status isn't correct
+	 */
+	@Override
+	public Object getAttractor(Object status) throws ParamDefinitionException, NotExistingNodeException, InputTypeException {
+		BitState state, newState;
+		int id;
+		//Checks if the status is a BitState
+		if(!(status instanceof BitState))
+			throw new ParamDefinitionException("The status must be a BitState value");
+		state = (BitState) status;
+		if(state.length() != this.graph.getNodesNumber())
+			throw new ParamDefinitionException("Invalid status");
+		//The attractors are not available after the clearAndStore method
+		if(super.registry.size() == 0)
+			return null;
+		//All the attractors are registered, so each trajectory reaches one of them
+		id = super.registry.getId(state);
+		while(id == AttractorRegistry.NOT_FOUND){
+			newState = new BitState(state.length());
+			this.graph.step(state, newState);
+			state = newState;
+			id = super.registry.getId(state);
+		}
+		return super.registry.getAttractor(id);
+	}
+
+	/**
+	 * This method rewireds the attractor finder element.
+	 * It is used when the perpetual mutations are introduced
+	 * @throws ParamDefinitionException Something gone wrong
+	 * @throws InputTypeException
+	 * @throws NotExistingNodeException
+	 */
+	public void rewiredAttractorFinder() throws ParamDefinitionException, NotExistingNodeException, InputTypeException {
+
+		this.oldRegistry = super.registry;
+
+		//Calculates the new attractors
+		this.calculatesAttractors();
+
+	}
+
+	/**
+	 * This method saves the old state of the sampling object.
+	 * @throws ParamDefinitionException
+	 * @throws NotExistingNodeException
+	 * @throws InputTypeException
+	 */
+	public void clearAndStore() throws ParamDefinitionException, NotExistingNodeException, InputTypeException{
+
+		this.storedInformation = new HashMap<Object, Object[]>();
+
+		Object[] attractorsSet = this.getAttractors();
+
+		for(Object attractor : attractorsSet){
+			this.storedInformation.put(attractor,
+					this.getStatesInAttractor(attractor));
+		}
+
+		super.registry = new AttractorRegistry();
+		this.depthDistributions = new ArrayList<ArrayList<BigInteger>>();
+	}
+
+	/**
+	 * This method returns the stored attractors.
+	 * The returned HashMap has the attractor id as key an an object array, representing the
+	 * states in the attractor, as value.
+	 * @return The stored attractors
+	 */
+	public HashMap<Object, Object[]> getStoredAttractors(){
+		return this.storedInformation;
+	}
+
+
+	/**
+	 * This method returns all the old attractor when is made a permanent perturbation
+	 * @return all the old attractors
+	 */
+	public Object[] getOldAttractors(){
+		//Returns all the attractors
+		return this.oldRegistry.getAttractors().toArray();
+
+	}
+
+	/**
+	 * This method returns a copy of itself.
+	 * @return a copy of itself.
+	 */
+	public AttractorsFinder copy(){
+		return new ModularSampling(this);
+	}
+
+	@Override
+	/**
+	 * This method returns the couples state-attractor as an HashMap.
+	 * The basins are not enumerated: only the states of the attractors are returned,
+	 * their dimensions are returned by the getBasinOfAttraction method.
+	 */
+	public HashMap<String, String> getStatesAttractorsCouples() {
+		HashMap<String, String> statesAttractors = new HashMap<String, String>();
+		for(int id = 0; id < super.registry.size(); id++){
+			String attractorName = super.registry.getAttractor(id).toString();
+			for(BitState state : super.registry.getCycle(id))
+				statesAttractors.put(state.toString(), attractorName);
+		}
+		return statesAttractors;
+	}
+
+	@Override
+	/**
+	 * This method returns the couples state-position as an HashMap.
+	 * The basins are not enumerated: only the states of the attractors are returned,
+	 * their dimensions are returned by the getBasinOfAttraction method.
+	 */
+	public HashMap<String, Integer> getStatesPositionsCouples() {
+		HashMap<String, Integer> statesPositions = new HashMap<String, Integer>();
+		for(int id = 0; id < super.registry.size(); id++){
+			for(BitState state : super.registry.getCycle(id))
+				statesPositions.put(state.toString(), 0);
+		}
+		return statesPositions;
+	}
+
+}
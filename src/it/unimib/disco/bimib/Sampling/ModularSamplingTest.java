@@ -0,0 +1,83 @@
+package it.unimib.disco.bimib.Sampling;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Properties;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+import it.unimib.disco.bimib.Networks.GraphManager;
+
+public class ModularSamplingTest {
+
+	public ModularSamplingTest() {
+	}
+
+	/**
+	 * This method creates a random network of completely defined random functions
+	 * @param nodes: the number of the nodes
+	 * @return the graph manager of the network
+	 * @throws Exception
+	 */
+	static GraphManager createRandomNetwork(int nodes) throws Exception {
+		Properties features = new Properties();
+		features.setProperty("topology", "PartiallyRandom");
+		features.setProperty("nodes", String.valueOf(nodes));
+		features.setProperty("edges", String.valueOf(2 * nodes));
+		features.setProperty("fixed-inputs-number", "2");
+		features.setProperty("completely-defined-functions", "yes");
+		features.setProperty("function-type", "Boolean");
+		features.setProperty("random-type", "1");
+		features.setProperty("and-type", "0");
+		features.setProperty("or-type", "0");
+		features.setProperty("canalized-type", "0");
+		features.setProperty("bias-type", "0");
+		features.setProperty("bias-value", "0.5");
+		GraphManager manager = new GraphManager();
+		manager.createNetwork(features);
+		return manager;
+	}
+
+	/**
+	 * This method returns a value of each attractor, identified by the sorted states of its cycle
+	 * @param finder: the sampling
+	 * @param values: the values in the same order of the attractors
+	 * @return the value of each attractor
+	 * @throws Exception
+	 */
+	static HashMap<String, Integer> byAttractor(AttractorsFinder finder, ArrayList<Integer> values) throws Exception {
+		HashMap<String, Integer> attractorValues = new HashMap<String, Integer>();
+		Object[] attractors = finder.getAttractors();
+		assertEquals(attractors.length, values.size());
+		for(int id = 0; id < attractors.length; id++){
+			TreeSet<String> cycle = new TreeSet<String>();
+			for(Object state : finder.getStatesInAttractor(attractors[id]))
+				cycle.add(state.toString());
+			attractorValues.put(cycle.toString(), values.get(id));
+		}
+		return attractorValues;
+	}
+
+	@Test
+	public void testBruteForceBasins() throws Exception {
+		for(int n = 0; n < 10; n++){
+			GraphManager manager = createRandomNetwork(12);
+			ModularSampling sampling = new ModularSampling(manager);
+			BruteForceSampling bruteForce = new BruteForceSampling(manager);
+
+			//The same attractors with the same basins, which cover the state space
+			HashMap<String, Integer> basins = byAttractor(sampling, sampling.getBasinOfAttraction());
+			assertEquals(byAttractor(bruteForce, bruteForce.getBasinOfAttraction()), basins);
+			int states = 0;
+			for(int basin : basins.values())
+				states += basin;
+			assertEquals(1 << 12, states);
+			assertEquals(byAttractor(bruteForce, bruteForce.getTransientLength()),
+					byAttractor(sampling, sampling.getTransientLength()));
+		}
+	}
+
+}
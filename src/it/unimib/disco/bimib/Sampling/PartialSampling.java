@@ -13,26 +13,52 @@
 package it.unimib.disco.bimib.Sampling;
 
 //System imports
+import java.math.BigInteger;
 import java.util.ArrayList;
-import java.util.Set;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.HashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
-import it.unimib.disco.bimib.Utility.UtilityRandom;
+import it.unimib.disco.bimib.Utility.BitState;
 import it.unimib.disco.bimib.Exceptions.*;
+import it.unimib.disco.bimib.Networks.BitSlicedNetwork;
 import it.unimib.disco.bimib.Networks.GraphManager;
 
 public class PartialSampling extends BinarySamplingMethod {
 
-	private final double ACTIVATION_PROBABILITY = 0.5;
+	//Maximum number of initial conditions evaluated by a single parallel task
+	private static final int TASK_INITIAL_CONDITIONS = 16 * BitSlicedNetwork.LANES;
+	//Number of initial conditions evaluated between two checks of the adaptive sampling
+	private static final int ADAPTIVE_INITIAL_CONDITIONS = 4 * BitSlicedNetwork.LANES;
 
-	//This hash map contains the founded attractors 
-	private HashMap<String, String> attractors;
-	//This hash map contains the positions of a state in the attractor transient
-	private HashMap<String, Integer> positions;
-	//This has map contains the old attractor when a permanent perturbation is made
-	private HashMap<String, String> oldAttractors;
+	//The founded states are shared by the sampling threads
+	//This index contains the attractor of each founded state and the number of steps needed to reach it
+	private StateIndex states;
+	//This index and this registry contain the old states and attractors when a permanent perturbation is made
+	private StateIndex oldStates;
+	private AttractorRegistry oldRegistry;
 	
 	private int cutoff;
+	//Number of the sampling threads
+	private int threads;
+	//Maximum number of stored states, 0 if all the visited states are stored
+	private int maxStoredStates;
+	//Maximum missing mass of the adaptive sampling, 0 if all the initial conditions are evaluated
+	private double epsilon;
+	//Number of the evaluated initial conditions and Good-Turing estimation of the missing mass
+	private int usedInitialConditions;
+	private double missingMass;
+	//The generator of the initial conditions
+	private InitialStatesGenerator generator;
+	//Maximum period of the attractors found with the SAT solver before the sampling, 0 if they are not searched
+	private int seedPeriod;
+	private int seededAttractors;
+	//The number of states at each depth of the exact basins, null if the basins are sampled
+	private ArrayList<ArrayList<BigInteger>> depthDistributions;
+	//The bit-sliced network of the sampled dynamics, used to find the functions changed by a permanent perturbation
+	private BitSlicedNetwork sampledNetwork;
 
 	/**
 	 * Generic constructor
@@ -40,9 +66,18 @@ public class PartialSampling extends BinarySamplingMethod {
 	 */
 	public PartialSampling(GraphManager manager){
 		super(manager);
-		this.attractors = new HashMap<String, String>();
-		this.positions = new HashMap<String, Integer>();
 		this.cutoff = -1;
+		this.threads = 1;
+		this.maxStoredStates = 0;
+		this.states = new StateIndex(this.graph.getNodesNumber(), this.maxStoredStates);
+		this.epsilon = 0;
+		this.usedInitialConditions = 0;
+		this.missingMass = -1;
+		this.generator = new RandomInitialStates(this.graph.getNodesNumber());
+		this.seedPeriod = 0;
+		this.seededAttractors = 0;
+		this.depthDistributions = null;
+		this.sampledNetwork = null;
 	}
 
 	/**
@@ -55,30 +90,158 @@ public class PartialSampling extends BinarySamplingMethod {
 	 * @throws AttractorNotFoundException 
 	 */
 	public PartialSampling(GraphManager manager, int initialConditions, int cutoff) throws ParamDefinitionException, NotExistingNodeException, InputTypeException, AttractorNotFoundException {
+		this(manager, initialConditions, cutoff, 1);
+	}
+
+	/**
+	 * Generic constructor
+	 * @param manager: It's the connected Graph manager in which there is the network
+	 * @param initialConditions: The number of the initial conditions to be test
+	 * @param cutoff: The maximum number of steps performed from each initial condition
+	 * @param threads: The number of the sampling threads
+	 * @throws ParamDefinitionException 
+	 * @throws InputTypeException 
+	 * @throws NotExistingNodeException 
+	 * @throws AttractorNotFoundException 
+	 */
+	public PartialSampling(GraphManager manager, int initialConditions, int cutoff, int threads) throws ParamDefinitionException, NotExistingNodeException, InputTypeException, AttractorNotFoundException {
+		this(manager, PartialSampling.createSettings(initialConditions, cutoff, threads));
+	}
+
+	/**
+	 * Generic constructor
+	 * @param manager: It's the connected Graph manager in which there is the network
+	 * @param settings: The parameters of the sampling (see the PartialSamplingSettings class)
+	 * @throws ParamDefinitionException 
+	 * @throws InputTypeException 
+	 * @throws NotExistingNodeException 
+	 * @throws AttractorNotFoundException 
+	 */
+	public PartialSampling(GraphManager manager, PartialSamplingSettings settings) throws ParamDefinitionException, NotExistingNodeException, InputTypeException, AttractorNotFoundException {
 		super(manager);
-		this.attractors = new HashMap<String, String>();
-		this.positions = new HashMap<String, Integer>();
-		this.cutoff = cutoff;
+		if(settings == null)
+			throw new NullPointerException("The sampling settings must be not null");
+		if(settings.getSeedPeriod() > 0 && this.graph.getBitSlicedNetwork() == null)
+			throw new ParamDefinitionException("The attractors seeding requires functions that can be compiled in truth tables");
+		this.maxStoredStates = settings.getMaxStoredStates();
+		this.epsilon = settings.getMissingMassThreshold();
+		this.missingMass = -1;
+		this.generator = settings.getGenerator();
+		if(this.generator == null)
+			this.generator = new RandomInitialStates(this.graph.getNodesNumber());
+		if(this.generator.getNodesNumber() != this.graph.getNodesNumber())
+			throw new ParamDefinitionException("The initial states generator must have the same nodes of the network");
+		this.states = new StateIndex(this.graph.getNodesNumber(), this.maxStoredStates);
+		this.cutoff = settings.getCutoff();
+		this.threads = settings.getThreads();
+		this.seedPeriod = settings.getSeedPeriod();
+		this.seededAttractors = 0;
+		this.depthDistributions = null;
+		this.sampledNetwork = this.graph.getBitSlicedNetwork();
+		//Finds the short attractors, then the sampling has to find only the other ones
+		if(this.seedPeriod > 0)
+			this.seedAttractors(settings.getInitialConditions());
 		//Calculates a set of attractors
-		this.calculatesAttractors(initialConditions);
+		this.calculatesAttractors(settings.getInitialConditions());
+	}
+
+	/**
+	 * This method returns the settings of a sampling with the given threads and the default values of the other parameters
+	 * @param initialConditions: The number of the initial conditions to be test
+	 * @param cutoff: The maximum number of steps performed from each initial condition
+	 * @param threads: The number of the sampling threads
+	 * @return the sampling settings
+	 * @throws ParamDefinitionException The number of threads is not greater than 0
+	 */
+	private static PartialSamplingSettings createSettings(int initialConditions, int cutoff, int threads) throws ParamDefinitionException{
+		PartialSamplingSettings settings = new PartialSamplingSettings(initialConditions, cutoff);
+		settings.setThreads(threads);
+		return settings;
+	}
+
+	/**
+	 * This method registers the attractors with a period up to seedPeriod, found with a SAT solver.
+	 * The states of their cycles are stored, so the trajectories that reach them stop without detecting the cycle.
+	 * @param maxAttractors: the maximum number of the registered attractors
+	 */
+	private void seedAttractors(int maxAttractors){
+		SatCycleFinder finder = new SatCycleFinder(this.graph.getBitSlicedNetwork());
+		this.seededAttractors = 0;
+		for(BitState[] cycle : finder.findCycles(this.seedPeriod, maxAttractors)){
+			int attractorId = super.registry.register(cycle);
+			int newStates = 0;
+			for(BitState state : cycle){
+				if(this.states.put(state, attractorId, 0))
+					newStates++;
+			}
+			super.registry.addToBasin(attractorId, newStates);
+			this.seededAttractors++;
+		}
+	}
+
+	/**
+	 * This method replaces the sampled basins of the found attractors with the exact ones, computed backward
+	 * from each attractor cycle (see the BasinCalculator class). The exact basins are computed again
+	 * after each permanent perturbation.
+	 * The exact basins can be computed for networks with up to 30-40 nodes, depending on their functions.
+	 * @throws ParamDefinitionException The network functions can not be compiled in truth tables
+	 */
+	public void calculatesExactBasins() throws ParamDefinitionException{
+		BitSlicedNetwork slicedNetwork = this.graph.getBitSlicedNetwork();
+		if(slicedNetwork == null)
+			throw new ParamDefinitionException("The exact basins require functions that can be compiled in truth tables");
+		this.depthDistributions = new BasinCalculator(slicedNetwork).calculatesBasins(super.registry);
+	}
+
+	/**
+	 * This method returns the transients distribution of each exact basin: the element d of an attractor list
+	 * is the number of states that need d steps to reach the attractor (the element 0 is the period).
+	 * @return the number of states at each depth of each basin, in the same order of the attractors,
+	 * null if the exact basins have not been computed
+	 */
+	public ArrayList<ArrayList<BigInteger>> getDepthDistributions(){
+		if(this.depthDistributions == null)
+			return null;
+		return new ArrayList<ArrayList<BigInteger>>(this.depthDistributions);
 	}
 
 	/**
 	 * This method calculate the attractors testing only steps initial states.
-	 * Each initial state is randomly selected from all the initial states.
+	 * Each initial state is given by the initial states generator.
+	 * The method can be called again in order to test other initial conditions.
 	 * @param steps: Number of initial condition to be test
 	 * @throws ParamDefinitionException 
 	 * @throws InputTypeException 
 	 * @throws NotExistingNodeException 
 	 * @throws AttractorNotFoundException 
 	 */
-	private void calculatesAttractors(int initialConditions) throws ParamDefinitionException, NotExistingNodeException, InputTypeException{
-		String state;
-		int nodes = this.graph.getNodesNumber();
+	void calculatesAttractors(int initialConditions) throws ParamDefinitionException, NotExistingNodeException, InputTypeException{
+		BitState state;
+
+		//The adaptive sampling stops when no other attractor is likely to be found
+		if(this.epsilon > 0){
+			this.calculatesAttractorsAdaptively(initialConditions);
+			return;
+		}
+		this.usedInitialConditions = this.usedInitialConditions + initialConditions;
+
+		//Evaluates 64 initial conditions at the same time, if possible
+		BitSlicedNetwork slicedNetwork = this.graph.getBitSlicedNetwork();
+		if(slicedNetwork != null){
+			if(this.threads > 1){
+				//Splits the initial conditions between the threads
+				super.attractorNotFound = super.attractorNotFound + 
+						this.searchAttractorsInParallel(null, initialConditions, slicedNetwork);
+			}else{
+				super.attractorNotFound = super.attractorNotFound + 
+						this.searchAttractorsWithInitialStates(this.createInitialStates(initialConditions), slicedNetwork);
+			}
+			return;
+		}
 
 		for(int i = 0; i < initialConditions; i++){
 			//Generates a new random state
-			state = UtilityRandom.createRandomBinarySequence(nodes, ACTIVATION_PROBABILITY);
+			state = this.nextInitialState();
 			//Calculates the attractor for the generated state
 			try{
 				this.searchAttractorWithInitialState(state, this.cutoff);
@@ -90,166 +253,583 @@ public class PartialSampling extends BinarySamplingMethod {
 	}
 
 	/**
-	 * This method calculates the attractor starting with the 'state' initial state.
-	 * @param state: The initial state to be test
+	 * This method calculates the attractors testing batches of generated initial states until
+	 * the Good-Turing estimation of the missing mass is lower than epsilon.
+	 * The missing mass is the number of attractors reached by a single initial condition
+	 * divided by the number of initial conditions with a found attractor.
+	 * @param maxInitialConditions: the maximum number of initial conditions to be test
 	 * @throws ParamDefinitionException 
 	 * @throws InputTypeException 
 	 * @throws NotExistingNodeException 
-	 * @throws AttractorNotFoundException 
 	 */
-	private void searchAttractorWithInitialState(String state, int cutoff) throws ParamDefinitionException, NotExistingNodeException, InputTypeException, AttractorNotFoundException{
-
-		//Generates a new random initial state
-		String currentState = state;
-		String currentAttractor;
-		ArrayList<String> visited;
-		String newState;
-		int count = 1;
-		currentAttractor = null;
-		newState = null;
-		visited = new ArrayList<String>();
-		do{
-			//Stores the position for the transient
-			this.positions.put(currentState, count);
-			count ++;
-			//Stores the current state as visited
-			visited.add(currentState);
-			//Perform the new network state
-
-			newState = super.fromArrayToString(this.graph.getNewState(super.fromStringToArray(currentState)));
+	private void calculatesAttractorsAdaptively(int maxInitialConditions) throws ParamDefinitionException, NotExistingNodeException, InputTypeException{
+		//Number of initial conditions that reach each attractor
+		ArrayList<Integer> hits = new ArrayList<Integer>();
+		int singletons = 0, sampled = 0, batchSize, attractorId;
+		BitState[] batch;
+		long entry;
 
-			if(visited.contains(newState)){
-				currentAttractor = newState;
+		//Each thread evaluates a whole task between two checks
+		BitSlicedNetwork slicedNetwork = this.graph.getBitSlicedNetwork();
+		if(slicedNetwork != null && this.threads > 1)
+			batchSize = this.threads * TASK_INITIAL_CONDITIONS;
+		else
+			batchSize = ADAPTIVE_INITIAL_CONDITIONS;
 
-			}else if(this.attractors.containsKey(newState)){
-				currentAttractor = attractors.get(newState);
-				if(this.positions.get(currentAttractor) < this.positions.get(newState) +
-						this.positions.get(currentAttractor) - this.positions.get(state)){
+		this.usedInitialConditions = 0;
+		this.missingMass = 1;
+		while(this.usedInitialConditions < maxInitialConditions && this.missingMass >= this.epsilon){
+			batch = new BitState[Math.min(batchSize, maxInitialConditions - this.usedInitialConditions)];
+			for(int i = 0; i < batch.length; i++)
+				batch[i] = this.nextInitialState();
+			this.searchAttractorsWithInitialStates(batch, slicedNetwork);
+			this.usedInitialConditions = this.usedInitialConditions + batch.length;
 
-					this.positions.put(currentAttractor, 
-							this.positions.get(currentAttractor) + 
-							this.positions.get(newState) - 
-							this.positions.get(state));
-				}
-			}
-			if(currentAttractor != null){
-				for(String s : visited){
-					this.attractors.put(s, currentAttractor);
-				}
-			}else{
-				currentState = newState;
+			//Counts the initial conditions of each attractor.
+			//In a memory-bounded sampling an evicted initial condition is not counted.
+			for(BitState state : batch){
+				entry = this.lookup(state);
+				if(entry == StateIndex.NOT_FOUND)
+					continue;
+				attractorId = StateIndex.getAttractorId(entry);
+				while(hits.size() <= attractorId)
+					hits.add(0);
+				hits.set(attractorId, hits.get(attractorId) + 1);
+				if(hits.get(attractorId) == 1)
+					singletons++;
+				else if(hits.get(attractorId) == 2)
+					singletons--;
+				sampled++;
 			}
-		}while(currentAttractor == null && (count <= cutoff || cutoff == -1 ));
-		
-		//Attractor not found
-		if((cutoff != -1) && (count > cutoff)){
-			throw new AttractorNotFoundException();
+			if(sampled > 0)
+				this.missingMass = (double) singletons / sampled;
 		}
 	}
 
 	/**
-	 * This method returns the attractor of a given network status.
-	 * The status must be a binary string; it's value must be between 0 and the 2^n - 1 
-	 * where n is the number of the nodes in the network.
-	 * @param status: The string value representing the network status.
+	 * This method calculates the attractors of the given initial states.
+	 * The bit-sliced network is used, if possible.
+	 * @param initialStates: the initial states to be test
+	 * @param slicedNetwork: the bit-sliced network, null if the network can't be bit-sliced
+	 * @throws ParamDefinitionException 
 	 * @throws InputTypeException 
 	 * @throws NotExistingNodeException 
-	 * @throws AttractorNotFoundException 
-	 * @ParamDefinitionException: The passed status isn't correct, it doesn't follow 
-	 * the previous rules.
 	 */
-	@Override
-	public Object getAttractor(Object status) throws ParamDefinitionException, NotExistingNodeException, InputTypeException {
-		//Checks if the status is a string
-		if(!(status instanceof String))
-			throw new ParamDefinitionException("The staus must be a string value");
-		
-		//The attractor of the passed state is unknown
-		if(!this.attractors.containsKey(status)){
+	private void searchAttractorsWithInitialStates(BitState[] initialStates, BitSlicedNetwork slicedNetwork) throws ParamDefinitionException, NotExistingNodeException, InputTypeException{
+		if(slicedNetwork != null){
+			if(this.threads > 1){
+				super.attractorNotFound = super.attractorNotFound + 
+						this.searchAttractorsInParallel(initialStates, initialStates.length, slicedNetwork);
+			}else{
+				super.attractorNotFound = super.attractorNotFound + 
+						this.searchAttractorsWithInitialStates(Arrays.asList(initialStates).iterator(), slicedNetwork);
+			}
+			return;
+		}
+
+		for(BitState state : initialStates){
 			try{
-				//Calculates the attractor for the given state
-				this.searchAttractorWithInitialState((String)status, this.cutoff);
-				//Returns the required attractor
-				return this.attractors.get(status);
+				this.searchAttractorWithInitialState(state, this.cutoff);
 			}catch(AttractorNotFoundException e){
-				return null;
+				//No attractor found
+				super.attractorNotFound = super.attractorNotFound + 1;
 			}
 		}
-		return this.attractors.get(status);	
 	}
 
 	/**
-	 * This method return an array with all the calculated attractors.
-	 * Each attractor is represented as a binary string.
-	 * @return a String array with the attractors is returned.
+	 * This method returns the following initial state of the generator.
+	 * The generator is shared by the sampling threads.
+	 * @return a new initial state
 	 */
-	@Override
-	public Object[] getAttractors() {
-		ArrayList<String> attractorsList = new ArrayList<String>();
-		Object[] states = this.attractors.values().toArray();
-		for(int i = 0; i < this.attractors.size(); i++){
-			if(!attractorsList.contains((String)states[i])){
-				attractorsList.add((String)states[i]);
+	private BitState nextInitialState(){
+		synchronized(this.generator){
+			return this.generator.next();
+		}
+	}
+
+	/**
+	 * This method returns an iterator over the given number of initial states.
+	 * The states are generated when they are required.
+	 * @param initialConditions: the number of the initial states
+	 * @return the initial states iterator
+	 */
+	private Iterator<BitState> createInitialStates(final int initialConditions){
+		return new Iterator<BitState>(){
+			private int generated = 0;
+
+			public boolean hasNext(){
+				return this.generated < initialConditions;
+			}
+
+			public BitState next(){
+				this.generated++;
+				return nextInitialState();
 			}
+
+			public void remove(){
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+
+	/**
+	 * This method calculates the attractors of the given initial states with a pool of threads.
+	 * The initial states are split in fork-join tasks, each one uses its own copy of the bit-sliced network.
+	 * The found attractors are shared, so a trajectory stops as soon as it reaches a state
+	 * already evaluated by another thread.
+	 * @param initialStates: the initial states to be test, null if they must be generated
+	 * @param initialConditions: the number of the initial states
+	 * @param network: the bit-sliced network
+	 * @return the number of the initial states without a found attractor
+	 */
+	private int searchAttractorsInParallel(BitState[] initialStates, int initialConditions, BitSlicedNetwork network){
+		ForkJoinPool pool = new ForkJoinPool(this.threads);
+		try{
+			return pool.invoke(new SamplingTask(initialStates, 0, initialConditions, network));
+		}finally{
+			pool.shutdown();
 		}
-		//Returns the calculated attractors
-		return attractorsList.toArray();
 	}
 
 	/**
-	 * This method returns the length of the transient states in a network
-	 * @return the length of transients
+	 * This class is the fork-join task that calculates the attractors of a range of initial states.
+	 * The range is split until it is small enough to be evaluated on the bit-sliced network.
 	 */
-	@Override
-	public ArrayList<Integer> getTransientLength() {
-		ArrayList<Integer> transientLength = new ArrayList<Integer>();
-		Object[] attractorsArray = this.getAttractors();
-		for(Object attractor : attractorsArray){
-			transientLength.add(this.positions.get(attractor));
+	private class SamplingTask extends RecursiveTask<Integer> {
+
+		private static final long serialVersionUID = 1L;
+
+		//The initial states, null if they must be generated
+		private BitState[] initialStates;
+		private int from;
+		private int to;
+		private BitSlicedNetwork network;
+
+		/**
+		 * Generic constructor
+		 * @param initialStates: the initial states, null if they must be generated
+		 * @param from: the first initial state of the range (included)
+		 * @param to: the last initial state of the range (excluded)
+		 * @param network: the bit-sliced network
+		 */
+		SamplingTask(BitState[] initialStates, int from, int to, BitSlicedNetwork network){
+			this.initialStates = initialStates;
+			this.from = from;
+			this.to = to;
+			this.network = network;
+		}
+
+		@Override
+		protected Integer compute(){
+			//Splits the range in two tasks
+			if(this.to - this.from > TASK_INITIAL_CONDITIONS){
+				int middle = (this.from + this.to) >>> 1;
+				SamplingTask first = new SamplingTask(this.initialStates, this.from, middle, this.network);
+				SamplingTask second = new SamplingTask(this.initialStates, middle, this.to, this.network);
+				first.fork();
+				return second.compute() + first.join();
+			}
+
+			Iterator<BitState> states;
+			if(this.initialStates == null)
+				states = createInitialStates(this.to - this.from);
+			else
+				states = Arrays.asList(this.initialStates).subList(this.from, this.to).iterator();
+			//The bit-sliced network has a scratch buffer: each task uses its own copy
+			return searchAttractorsWithInitialStates(states, this.network.copy());
 		}
-		return transientLength;
 	}
 
 	/**
-	 * This method returns the basin of attractions of each attractors.
-	 * @return An array list with each basin dimension.
+	 * This method calculates the attractors of the given initial states using the bit-sliced network.
+	 * Each lane follows the trajectory of an initial state as done by the searchAttractorWithInitialState 
+	 * method. When a lane reaches an attractor or the cutoff, the following initial state is loaded in the lane.
+	 * @param initialStates: the initial states to be test
+	 * @param network: the bit-sliced network
+	 * @return the number of the initial states without a found attractor
 	 */
-	public ArrayList<Integer> getBasinOfAttraction(){
-		HashMap<String, Integer> basin = new HashMap<String, Integer>();
-		ArrayList<Integer> basinDistribuction = new ArrayList<Integer>();
-		for(String state : attractors.keySet()){
-			if(basin.containsKey(attractors.get(state))){
-				basin.put(attractors.get(state), basin.get(attractors.get(state)) + 1);
-			}else{
-				basin.put(attractors.get(state), 1);
+	private int searchAttractorsWithInitialStates(Iterator<BitState> initialStates, BitSlicedNetwork network){
+		int nodes = network.getNodesNumber();
+		int lanes = BitSlicedNetwork.LANES;
+		int active = 0, notFound = 0;
+		long[] slices = new long[nodes];
+		long[] newSlices = new long[nodes];
+		long[] swap;
+		Trajectory[] trajectories = new Trajectory[lanes];
+		boolean[] running = new boolean[lanes];
+		boolean ended;
+		BitState[] newStates = new BitState[lanes];
+		BitState newState;
+		Trajectory trajectory;
+
+		//Loads the first initial states
+		for(int lane = 0; lane < lanes; lane++){
+			trajectories[lane] = new Trajectory();
+			running[lane] = this.loadLane(lane, initialStates, slices, trajectories[lane]);
+			if(running[lane])
+				active++;
+		}
+
+		while(active > 0){
+			for(int lane = 0; lane < lanes; lane++){
+				if(running[lane])
+					newStates[lane] = new BitState(nodes);
+			}
+
+			//Performs the new network states of all the lanes
+			network.step(slices, newSlices);
+			BitSlicedNetwork.getLanes(newSlices, newStates);
+			swap = slices;
+			slices = newSlices;
+			newSlices = swap;
+
+			for(int lane = 0; lane < lanes; lane++){
+				if(!running[lane])
+					continue;
+				newState = newStates[lane];
+				newStates[lane] = null;
+				trajectory = trajectories[lane];
+				trajectory.add(newState);
+
+				ended = false;
+				if(this.isKnown(newState) || trajectory.isCycleDetected())
+					ended = this.storeTrajectory(trajectory) != AttractorRegistry.NOT_FOUND;
+				if(!ended && this.cutoff != -1 && trajectory.getSteps() >= this.cutoff){
+					//Attractor not found
+					notFound++;
+					ended = true;
+				}
+				if(!ended)
+					continue;
+
+				//The lane trajectory is ended: loads the following initial state
+				running[lane] = this.loadLane(lane, initialStates, slices, trajectory);
+				if(!running[lane])
+					active--;
+			}
+		}
+		return notFound;
+	}
+
+	/**
+	 * This method loads the following initial state with an unknown attractor in a lane of the bit-sliced states.
+	 * @param lane: the lane
+	 * @param initialStates: the initial states
+	 * @param slices: the bit-sliced states
+	 * @param trajectory: the lane trajectory
+	 * @return false if there are no more initial states
+	 */
+	private boolean loadLane(int lane, Iterator<BitState> initialStates, long[] slices, Trajectory trajectory){
+		BitState state;
+		while(initialStates.hasNext()){
+			state = initialStates.next();
+			//The attractor of the state is already known
+			if(this.isKnown(state))
+				continue;
+			BitSlicedNetwork.setLane(slices, lane, state);
+			trajectory.start(state);
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * This method returns the position of the first state of the trajectory with a known attractor
+	 * @param trajectory: the trajectory
+	 * @return the position of the state, -1 if all the states are unknown
+	 */
+	private int firstKnownState(Trajectory trajectory){
+		for(int position = 0; position <= trajectory.getSteps(); position++){
+			if(this.isKnown(trajectory.get(position)))
+				return position;
+		}
+		return -1;
+	}
+
+	/**
+	 * This method returns the attractor id and the position of the given state.
+	 * The states of the attractors are always known, even if they have been evicted from the stored states.
+	 * @param state: the state
+	 * @return the lookup result, StateIndex.NOT_FOUND if the state is unknown
+	 */
+	private long lookup(BitState state){
+		long entry = this.states.lookup(state);
+		if(entry == StateIndex.NOT_FOUND && this.states.isBounded()){
+			int attractorId = super.registry.getId(state);
+			if(attractorId != AttractorRegistry.NOT_FOUND)
+				entry = (long) attractorId << 32;
+		}
+		return entry;
+	}
+
+	/**
+	 * This method returns true if the attractor of the given state is known
+	 * @param state: the state
+	 * @return true if the state is known
+	 */
+	private boolean isKnown(BitState state){
+		return this.lookup(state) != StateIndex.NOT_FOUND;
+	}
+
+	/**
+	 * This method stores the attractor and the position of each state in the trajectory.
+	 * The position of a state is the number of steps needed to reach its attractor.
+	 * If a known state is reached, the trajectory states have the same attractor of the known state;
+	 * otherwise the detected cycle is a new attractor, registered with its canonical cycle.
+	 * Other lanes or threads could have reached some states of the trajectory in the meantime,
+	 * so the trajectory is stopped at its first known state and the new attractors are stored
+	 * one at a time.
+	 * In a memory-bounded sampling the known state can be evicted before the trajectory is stored:
+	 * if no cycle has been detected, the trajectory must be continued.
+	 * @param trajectory: the trajectory, that reaches a known state or a detected cycle
+	 * @return the attractor id of the trajectory, AttractorRegistry.NOT_FOUND if the trajectory must be continued
+	 */
+	private int storeTrajectory(Trajectory trajectory){
+		BitState[] cycle;
+		int attractorId, transientLength, period, knownState;
+		long knownEntry;
+
+		do{
+			knownState = this.firstKnownState(trajectory);
+			if(knownState == -1){
+				synchronized(this.states){
+					knownState = this.firstKnownState(trajectory);
+					if(knownState == -1 && !trajectory.isCycleDetected())
+						return AttractorRegistry.NOT_FOUND;
+					if(knownState == -1){
+						//The trajectory reaches a new attractor
+						transientLength = trajectory.getTransientLength();
+						period = trajectory.getPeriod();
+						cycle = new BitState[period];
+						for(int i = 0; i < period; i++)
+							cycle[i] = trajectory.get(transientLength + i);
+						attractorId = this.registry.register(cycle);
+						this.storeStates(trajectory, transientLength + period, attractorId, transientLength);
+						return attractorId;
+					}
+				}
 			}
+			knownEntry = this.lookup(trajectory.get(knownState));
+			//The known state can be evicted by another thread in the meantime
+		}while(knownEntry == StateIndex.NOT_FOUND);
+
+		//The trajectory reaches a known basin of attraction
+		attractorId = StateIndex.getAttractorId(knownEntry);
+		transientLength = knownState + StateIndex.getPosition(knownEntry);
+		this.storeStates(trajectory, knownState, attractorId, transientLength);
+		return attractorId;
+	}
+
+	/**
+	 * This method stores the first states of a trajectory and updates the statistics of their attractor:
+	 * the new states are added to the basin of attraction and the transient length is stored if it is the longest one.
+	 * @param trajectory: the trajectory
+	 * @param states: the number of the states to be stored
+	 * @param attractorId: the attractor id of the trajectory
+	 * @param transientLength: the number of steps needed by the first state to reach the attractor
+	 */
+	private void storeStates(Trajectory trajectory, int states, int attractorId, int transientLength){
+		int newStates = 0;
+		for(int position = 0; position < states; position++){
+			if(this.states.put(trajectory.get(position), attractorId, Math.max(0, transientLength - position)))
+				newStates++;
 		}
-		for(String attractor : basin.keySet())
-			basinDistribuction.add(basin.get(attractor));
-		return basinDistribuction;
+		super.registry.addToBasin(attractorId, newStates);
+		super.registry.updateTransientLength(attractorId, transientLength);
+	}
 
+	/**
+	 * This method calculates the attractor starting with the 'state' initial state.
+	 * The cycle is detected with the Brent's algorithm and the trajectory is stopped
+	 * as soon as it reaches a state with a known attractor.
+	 * @param state: The initial state to be test
+	 * @return the attractor id of the state
+	 * @throws ParamDefinitionException
+	 * @throws InputTypeException
+	 * @throws NotExistingNodeException
+	 * @throws AttractorNotFoundException
+	 */
+	private int searchAttractorWithInitialState(BitState state, int cutoff) throws ParamDefinitionException, NotExistingNodeException, InputTypeException, AttractorNotFoundException{
+
+		//The attractor of the state is already known
+		long entry = this.lookup(state);
+		if(entry != StateIndex.NOT_FOUND)
+			return StateIndex.getAttractorId(entry);
+
+		Trajectory trajectory = new Trajectory();
+		BitState newState;
+		int attractorId;
+		trajectory.start(state);
+		do{
+			//Perform the new network state
+			newState = new BitState(state.length());
+			this.graph.step(trajectory.getLast(), newState);
+			trajectory.add(newState);
+
+			if(this.isKnown(newState) || trajectory.isCycleDetected()){
+				attractorId = this.storeTrajectory(trajectory);
+				if(attractorId != AttractorRegistry.NOT_FOUND)
+					return attractorId;
+			}
+		}while(cutoff == -1 || trajectory.getSteps() < cutoff);
+
+		//Attractor not found
+		throw new AttractorNotFoundException();
+	}
+
+	/**
+	 * This method returns the attractor of a given network status.
+	 * The status must be a BitState with n nodes, 
+	 * where n is the number of the nodes in the network.
+	 * @param status: The BitState value representing the network status.
+	 * @throws InputTypeException 
+	 * @throws NotExistingNodeException 
+	 * @throws AttractorNotFoundException 
+	 * @ParamDefinitionException: The passed status isn't correct, it doesn't follow 
+	 * the previous rules.
+	 */
+	@Override
+	public Object getAttractor(Object status) throws ParamDefinitionException, NotExistingNodeException, InputTypeException {
+		//Checks if the status is a BitState
+		if(!(status instanceof BitState))
+			throw new ParamDefinitionException("The status must be a BitState value");
+		
+		try{
+			//Calculates the attractor for the given state, if it is unknown
+			return this.registry.getAttractor(this.searchAttractorWithInitialState((BitState) status, this.cutoff));
+		}catch(AttractorNotFoundException e){
+			return null;
+		}
 	}
 
 	/**
 	 * This method rewires the attractor finder element.
-	 * It is used when the perpetual mutations are introduced
+	 * It is used when the perpetual mutations are introduced.
+	 * The old states that are not affected by the mutations keep their results (see the keepsUnaffectedStates
+	 * method), only the other ones are simulated again on the mutated network.
+	 * If some attractors are not found within the cutoff, the exception is thrown after all the old states
+	 * are evaluated, so the found attractors are kept.
 	 * @throws ParamDefinitionException 
 	 * @throws InputTypeException 
 	 * @throws NotExistingNodeException 
 	 * @throws AttractorNotFoundException 
 	 */
 	public void rewiredAttractorFinder() throws ParamDefinitionException, NotExistingNodeException, InputTypeException, AttractorNotFoundException {
-		Set<String> oldStates = this.attractors.keySet();
-		this.oldAttractors = this.attractors;
+		this.oldStates = this.states;
+		this.oldRegistry = this.registry;
 
-		this.attractors = new HashMap<String, String>();
-		this.positions = new HashMap<String, Integer>();
+		this.states = new StateIndex(this.graph.getNodesNumber(), this.maxStoredStates);
+		super.registry = new AttractorRegistry();
+		//The short attractors of the mutated network are found again
+		if(this.seedPeriod > 0 && this.graph.getBitSlicedNetwork() != null)
+			this.seedAttractors(Math.max(1, this.usedInitialConditions));
 
-		//Calculates the new attractor for the specified state
-		for(String state : oldStates){
-			this.searchAttractorWithInitialState(state, this.cutoff);
+		//The old results that are still valid are kept
+		BitSlicedNetwork slicedNetwork = this.graph.getBitSlicedNetwork();
+		this.keepsUnaffectedStates(slicedNetwork);
+
+		//Calculates the new attractors of the other old states with the bit-sliced network, if possible
+		int notFound = 0;
+		if(slicedNetwork != null){
+			if(this.threads > 1){
+				ArrayList<BitState> oldStatesList = new ArrayList<BitState>();
+				for(BitState state : this.oldStates){
+					if(!this.isKnown(state))
+						oldStatesList.add(state);
+				}
+				notFound = this.searchAttractorsInParallel(oldStatesList.toArray(new BitState[oldStatesList.size()]), 
+						oldStatesList.size(), slicedNetwork);
+			}else
+				notFound = this.searchAttractorsWithInitialStates(this.oldStates.iterator(), slicedNetwork);
+		}else{
+			//Calculates the new attractor for the specified state
+			for(BitState state : this.oldStates){
+				try{
+					this.searchAttractorWithInitialState(state, this.cutoff);
+				}catch(AttractorNotFoundException e){
+					notFound++;
+				}
+			}
 		}
 
+		this.sampledNetwork = slicedNetwork;
+
+		//The exact basins of the new attractors
+		if(this.depthDistributions != null)
+			this.calculatesExactBasins();
+
+		//The found attractors are kept, the missing ones are counted
+		super.attractorNotFound = notFound;
+		if(notFound > 0)
+			throw new AttractorNotFoundException();
+
+	}
+
+	/**
+	 * This method stores the old states whose results are not changed by the permanent perturbation.
+	 * The changed functions are found comparing the sampled bit-sliced network with the mutated one:
+	 * a state is affected if a changed function has a different value in it, so its following state is changed.
+	 * Only the inputs of the changed functions are read, the old states are not simulated again.
+	 * Each stored state reaches its attractor through stored states of the same basin, whose positions
+	 * decrease by one at each step. So the states of a basin that are closer to the attractor than
+	 * its nearest affected state keep their results, and the attractor keeps its canonical cycle if none
+	 * of its states is affected. The other old states are simulated again, and their trajectories stop
+	 * at the first kept state.
+	 * The old results are kept only if all the visited states are stored: the evicted states can be affected.
+	 * @param slicedNetwork: the mutated bit-sliced network, null if the network can't be bit-sliced
+	 */
+	private void keepsUnaffectedStates(BitSlicedNetwork slicedNetwork){
+		if(slicedNetwork == null || this.sampledNetwork == null || this.oldStates.isBounded())
+			return;
+
+		//The functions changed by the perturbation
+		ArrayList<Integer> changedNodes = new ArrayList<Integer>();
+		for(int node = 0; node < slicedNetwork.getNodesNumber(); node++){
+			if(!slicedNetwork.hasSameFunction(this.sampledNetwork, node))
+				changedNodes.add(node);
+		}
+
+		//The position of the nearest affected state of each basin
+		int[] affectedPositions = new int[this.oldRegistry.size()];
+		Arrays.fill(affectedPositions, Integer.MAX_VALUE);
+		StateIndex.StatesIterator iterator = this.oldStates.iterator();
+		while(iterator.hasNext()){
+			BitState state = iterator.next();
+			int oldId = iterator.getAttractorId();
+			int position = iterator.getPosition();
+			for(int i = 0; i < changedNodes.size() && position < affectedPositions[oldId]; i++){
+				int node = changedNodes.get(i);
+				if(slicedNetwork.evaluates(node, state) != this.sampledNetwork.evaluates(node, state))
+					affectedPositions[oldId] = position;
+			}
+		}
+
+		//The kept attractors are registered in the same order
+		int[] attractorIds = new int[affectedPositions.length];
+		int[] newStates = new int[affectedPositions.length];
+		int[] transientLengths = new int[affectedPositions.length];
+		for(int oldId = 0; oldId < affectedPositions.length; oldId++){
+			if(affectedPositions[oldId] > 0)
+				attractorIds[oldId] = super.registry.register(this.oldRegistry.getCycle(oldId));
+		}
+		iterator = this.oldStates.iterator();
+		while(iterator.hasNext()){
+			BitState state = iterator.next();
+			int oldId = iterator.getAttractorId();
+			int position = iterator.getPosition();
+			if(position >= affectedPositions[oldId])
+				continue;
+			if(this.states.put(state, attractorIds[oldId], position))
+				newStates[oldId]++;
+			transientLengths[oldId] = Math.max(transientLengths[oldId], position);
+		}
+		for(int oldId = 0; oldId < affectedPositions.length; oldId++){
+			if(affectedPositions[oldId] == 0)
+				continue;
+			super.registry.addToBasin(attractorIds[oldId], newStates[oldId]);
+			super.registry.updateTransientLength(attractorIds[oldId], transientLengths[oldId]);
+		}
 	}
 
 	/**
@@ -269,8 +849,8 @@ public class PartialSampling extends BinarySamplingMethod {
 					this.getStatesInAttractor(attractor));
 		}
 
-		this.attractors = new HashMap<String, String>();
-		this.positions = new HashMap<String, Integer>();
+		this.states = new StateIndex(this.graph.getNodesNumber(), this.maxStoredStates);
+		super.registry = new AttractorRegistry();
 
 	}
 
@@ -285,19 +865,14 @@ public class PartialSampling extends BinarySamplingMethod {
 	}
 
 	/**
-	 * This method returns all the old attractor when is made a permanent perturbation
+	 * This method returns all the old attractor when is made a permanent perturbation.
+	 * The old attractors are canonical too, so an attractor that survives the perturbation
+	 * is equal to the corresponding new one.
 	 * @return all the old attractors
 	 */
 	public Object[] getOldAttractors(){
-		ArrayList<String> oldAttractorsList = new ArrayList<String>();
-		Object[] states = this.oldAttractors.values().toArray();
-		for(int i = 0; i < this.oldAttractors.size(); i++){
-			if(!oldAttractorsList.contains((String)states[i])){
-				oldAttractorsList.add((String)states[i]);
-			}
-		}
 		//Returns the calculated attractors
-		return oldAttractorsList.toArray();
+		return this.oldRegistry.getAttractors().toArray();
 	}
 
 	/**
@@ -312,30 +887,85 @@ public class PartialSampling extends BinarySamplingMethod {
 
 		PartialSampling copiedSampling = new PartialSampling(this.graph);
 
-		HashMap<String, String> copiedAttractors = new HashMap<String, String>();
-		HashMap<String, Integer> copiedPositions = new HashMap<String, Integer>();
-
-		for(String state : this.attractors.keySet()){
-			copiedAttractors.put(new String(state), new String(this.attractors.get(state)));
-			copiedPositions.put(new String(state), new Integer(this.positions.get(state)));
-		}
-
 		//Sets the copied attributes in the copied sampling object
-		copiedSampling.attractors = copiedAttractors;
-		copiedSampling.positions = copiedPositions;
+		copiedSampling.states = this.states.copy();
+		copiedSampling.registry = this.registry.copy();
 		copiedSampling.cutoff = this.cutoff;
-		copiedSampling.oldAttractors = null;
+		copiedSampling.threads = this.threads;
+		copiedSampling.maxStoredStates = this.maxStoredStates;
+		copiedSampling.epsilon = this.epsilon;
+		copiedSampling.usedInitialConditions = this.usedInitialConditions;
+		copiedSampling.missingMass = this.missingMass;
+		copiedSampling.generator = this.generator;
+		copiedSampling.seedPeriod = this.seedPeriod;
+		copiedSampling.seededAttractors = this.seededAttractors;
+		copiedSampling.depthDistributions = this.depthDistributions == null ? null : 
+			new ArrayList<ArrayList<BigInteger>>(this.depthDistributions);
+		copiedSampling.sampledNetwork = this.sampledNetwork;
+		copiedSampling.oldStates = null;
+		copiedSampling.oldRegistry = null;
 
 		return copiedSampling;
 
 	}
 
+	/**
+	 * This method returns a new sampling of a mutant of the network, whose attractors are calculated
+	 * from the states of this sampling as done by the rewiredAttractorFinder method.
+	 * This sampling is only read, so many mutants can be evaluated at the same time: each copy
+	 * uses a single thread.
+	 * The copy keeps the attractors found within the cutoff, the states without attractor are counted
+	 * by its getAttractorsNotFound method.
+	 * @param mutant: the graph manager of the mutant (see the createMutant method of the graph manager)
+	 * @return the sampling of the mutant
+	 * @throws ParamDefinitionException
+	 * @throws NotExistingNodeException
+	 * @throws InputTypeException
+	 */
+	public PartialSampling rewiredCopy(GraphManager mutant) throws ParamDefinitionException, NotExistingNodeException, InputTypeException{
+		if(mutant == null)
+			throw new NullPointerException("The mutant must be not null");
+		if(mutant.getNodesNumber() != this.graph.getNodesNumber())
+			throw new ParamDefinitionException("The mutant must have the same nodes of the network");
+
+		PartialSampling copiedSampling = new PartialSampling(mutant);
+		copiedSampling.states = this.states;
+		copiedSampling.registry = this.registry;
+		copiedSampling.cutoff = this.cutoff;
+		copiedSampling.threads = 1;
+		copiedSampling.maxStoredStates = this.maxStoredStates;
+		copiedSampling.epsilon = this.epsilon;
+		copiedSampling.usedInitialConditions = this.usedInitialConditions;
+		copiedSampling.missingMass = this.missingMass;
+		copiedSampling.generator = this.generator;
+		copiedSampling.seedPeriod = this.seedPeriod;
+		copiedSampling.depthDistributions = this.depthDistributions;
+		copiedSampling.sampledNetwork = this.sampledNetwork;
+
+		try{
+			copiedSampling.rewiredAttractorFinder();
+		}catch(AttractorNotFoundException e){
+			//The partial landscape is returned
+		}
+		return copiedSampling;
+	}
+
 	@Override
 	/**
 	 * This method returns the couples state-attractor as an HashMap
 	 */
 	public HashMap<String, String> getStatesAttractorsCouples() {
-		return this.attractors;
+		HashMap<String, String> statesAttractors = new HashMap<String, String>();
+		ArrayList<BitState> attractorsList = this.registry.getAttractors();
+		String[] attractorsNames = new String[attractorsList.size()];
+		//Converts each attractor only once
+		for(int i = 0; i < attractorsNames.length; i++)
+			attractorsNames[i] = attractorsList.get(i).toString();
+		//Converts each couple (state, attractor) in its binary string form
+		StateIndex.StatesIterator iterator = this.states.iterator();
+		while(iterator.hasNext())
+			statesAttractors.put(iterator.next().toString(), attractorsNames[iterator.getAttractorId()]);
+		return statesAttractors;
 	}
 
 	@Override
@@ -343,8 +973,53 @@ public class PartialSampling extends BinarySamplingMethod {
 	 * This method returns the couples state-position as an HashMap.
 	 */
 	public HashMap<String, Integer> getStatesPositionsCouples() {
-		return this.positions;
+		HashMap<String, Integer> statesPositions = new HashMap<String, Integer>();
+		//Converts each state in its binary string form
+		StateIndex.StatesIterator iterator = this.states.iterator();
+		while(iterator.hasNext())
+			statesPositions.put(iterator.next().toString(), iterator.getPosition());
+		return statesPositions;
+	}
+
+	/**
+	 * This method returns the maximum number of stored states
+	 * @return the maximum number of stored states, 0 if all the visited states are stored
+	 */
+	public int getMaxStoredStates(){
+		return this.maxStoredStates;
+	}
+
+	/**
+	 * This method returns the number of the attractors found with the SAT solver before the sampling
+	 * @return the number of the seeded attractors
+	 */
+	public int getSeededAttractors(){
+		return this.seededAttractors;
+	}
+
+	/**
+	 * This method returns the number of the evaluated initial conditions
+	 * @return the number of the evaluated initial conditions
+	 */
+	public int getUsedInitialConditions(){
+		return this.usedInitialConditions;
 	}
 
+	/**
+	 * This method returns the Good-Turing estimation of the missing mass of the adaptive sampling:
+	 * the probability that a new initial condition reaches an attractor not yet found.
+	 * @return the estimated missing mass, -1 if the sampling is not adaptive
+	 */
+	public double getMissingMass(){
+		return this.missingMass;
+	}
+
+	/**
+	 * This method returns true if the sampling stops when the missing mass is lower than a threshold
+	 * @return true if the sampling is adaptive
+	 */
+	public boolean isAdaptive(){
+		return this.epsilon > 0;
+	}
 
 }
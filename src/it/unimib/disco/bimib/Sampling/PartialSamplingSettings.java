@@ -0,0 +1,151 @@
+/**
+ * This class contains the parameters of the partial sampling.
+ * The number of initial conditions and the cutoff are always specified, the other parameters
+ * have default values: a single thread, all the visited states stored, all the initial conditions tested,
+ * independent random initial conditions and no attractors found with the SAT solver.
+ */
+
+package it.unimib.disco.bimib.Sampling;
+
+//GRNSim imports
+import it.unimib.disco.bimib.Exceptions.ParamDefinitionException;
+
+public class PartialSamplingSettings {
+
+	private int initialConditions;
+	private int cutoff;
+	private int threads;
+	private int maxStoredStates;
+	private double missingMassThreshold;
+	private InitialStatesGenerator generator;
+	private int seedPeriod;
+
+	/**
+	 * Generic constructor
+	 * @param initialConditions: The number of the initial conditions to be test. In the adaptive sampling
+	 * it is the maximum number of initial conditions.
+	 * @param cutoff: The maximum number of steps performed from each initial condition
+	 */
+	public PartialSamplingSettings(int initialConditions, int cutoff){
+		this.initialConditions = initialConditions;
+		this.cutoff = cutoff;
+		this.threads = 1;
+		this.maxStoredStates = 0;
+		this.missingMassThreshold = 0;
+		this.generator = null;
+		this.seedPeriod = 0;
+	}
+
+	/**
+	 * This method returns the number of the initial conditions
+	 * @return the number of the initial conditions
+	 */
+	public int getInitialConditions(){
+		return this.initialConditions;
+	}
+
+	/**
+	 * This method returns the maximum number of steps performed from each initial condition
+	 * @return the cutoff
+	 */
+	public int getCutoff(){
+		return this.cutoff;
+	}
+
+	/**
+	 * This method sets the number of the sampling threads
+	 * @param threads: The number of the sampling threads
+	 * @throws ParamDefinitionException The number of threads is not greater than 0
+	 */
+	public void setThreads(int threads) throws ParamDefinitionException{
+		if(threads <= 0)
+			throw new ParamDefinitionException("The number of threads must be greater than 0");
+		this.threads = threads;
+	}
+
+	/**
+	 * This method returns the number of the sampling threads
+	 * @return the number of the sampling threads
+	 */
+	public int getThreads(){
+		return this.threads;
+	}
+
+	/**
+	 * This method sets the maximum number of stored states.
+	 * When the bound is reached the least recently reached transient states are evicted:
+	 * the attractors and the basins dimension are always kept.
+	 * @param maxStoredStates: The maximum number of stored states, 0 in order to store all the visited states.
+	 * @throws ParamDefinitionException The maximum number of stored states is negative
+	 */
+	public void setMaxStoredStates(int maxStoredStates) throws ParamDefinitionException{
+		if(maxStoredStates < 0)
+			throw new ParamDefinitionException("The maximum number of stored states must be greater than 0");
+		this.maxStoredStates = maxStoredStates;
+	}
+
+	/**
+	 * This method returns the maximum number of stored states
+	 * @return the maximum number of stored states, 0 if all the visited states are stored
+	 */
+	public int getMaxStoredStates(){
+		return this.maxStoredStates;
+	}
+
+	/**
+	 * This method sets the missing mass under which the adaptive sampling stops.
+	 * The missing mass is the probability that a new initial condition reaches an attractor not yet found.
+	 * @param missingMassThreshold: The missing mass threshold, 0 in order to test all the initial conditions.
+	 * @throws ParamDefinitionException The threshold is not between 0 and 1
+	 */
+	public void setMissingMassThreshold(double missingMassThreshold) throws ParamDefinitionException{
+		if(missingMassThreshold < 0 || missingMassThreshold >= 1)
+			throw new ParamDefinitionException("The missing mass threshold must be between 0 and 1");
+		this.missingMassThreshold = missingMassThreshold;
+	}
+
+	/**
+	 * This method returns the missing mass under which the adaptive sampling stops
+	 * @return the missing mass threshold, 0 if all the initial conditions are tested
+	 */
+	public double getMissingMassThreshold(){
+		return this.missingMassThreshold;
+	}
+
+	/**
+	 * This method sets the generator of the initial conditions
+	 * @param generator: The generator of the initial conditions, null in order to use independent random states.
+	 */
+	public void setGenerator(InitialStatesGenerator generator){
+		this.generator = generator;
+	}
+
+	/**
+	 * This method returns the generator of the initial conditions
+	 * @return the generator of the initial conditions, null if independent random states are used
+	 */
+	public InitialStatesGenerator getGenerator(){
+		return this.generator;
+	}
+
+	/**
+	 * This method sets the maximum period of the attractors found with a SAT solver before the sampling.
+	 * At most initialConditions attractors are found in this way.
+	 * @param seedPeriod: The maximum period (1 for the fixed points only), 0 in order to find the attractors only by sampling.
+	 * @throws ParamDefinitionException The maximum period is negative
+	 */
+	public void setSeedPeriod(int seedPeriod) throws ParamDefinitionException{
+		if(seedPeriod < 0)
+			throw new ParamDefinitionException("The maximum period of the seeded attractors must be greater than 0");
+		this.seedPeriod = seedPeriod;
+	}
+
+	/**
+	 * This method returns the maximum period of the attractors found with a SAT solver before the sampling
+	 * @return the maximum period, 0 if the attractors are found only by sampling
+	 */
+	public int getSeedPeriod(){
+		return this.seedPeriod;
+	}
+
+}
@@ -0,0 +1,276 @@
+package it.unimib.disco.bimib.Sampling;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import it.unimib.disco.bimib.Networks.GraphManager;
+import it.unimib.disco.bimib.Utility.BitState;
+
+public class PartialSamplingTest {
+
+	public PartialSamplingTest() {
+	}
+
+	/**
+	 * This method asserts that the attractors and the stored states of a sampling are the ones of the brute force sampling,
+	 * and that the basin of each attractor contains its stored states
+	 * @param sampling: the sampling
+	 * @param bruteForce: the brute force sampling of the same network
+	 * @throws Exception
+	 */
+	static void assertBruteForceStates(AttractorsFinder sampling, BruteForceSampling bruteForce) throws Exception {
+		for(Object attractor : sampling.getAttractors()){
+			assertNotEquals(AttractorRegistry.NOT_FOUND, bruteForce.getAttractorId(attractor));
+			assertEquals(bruteForce.getAttractorLength(attractor), sampling.getAttractorLength(attractor));
+		}
+
+		//Each stored state has the attractor and the position of the brute force sampling
+		HashMap<String, Integer> positions = bruteForce.getStatesPositionsCouples();
+		HashMap<String, Integer> samplingPositions = sampling.getStatesPositionsCouples();
+		int[] storedStates = new int[sampling.getAttractorsNumber()];
+		for(Map.Entry<String, String> couple : sampling.getStatesAttractorsCouples().entrySet()){
+			BitState state = BitState.fromString(couple.getKey());
+			assertEquals(bruteForce.getAttractor(state).toString(), couple.getValue());
+			assertEquals(positions.get(Long.toBinaryString(state.toIndex())), samplingPositions.get(couple.getKey()));
+			storedStates[sampling.getAttractorId(BitState.fromString(couple.getValue()))]++;
+		}
+		for(int id = 0; id < storedStates.length; id++)
+			assertTrue(sampling.getBasinOfAttraction().get(id) >= storedStates[id]);
+	}
+
+	@Test
+	public void testBruteForceStates() throws Exception {
+		for(int n = 0; n < 10; n++){
+			GraphManager manager = ModularSamplingTest.createRandomNetwork(12);
+			PartialSampling sampling = new PartialSampling(manager, 200, 5000);
+			BruteForceSampling bruteForce = new BruteForceSampling(manager);
+			assertTrue(sampling.getAttractorsNumber() > 0);
+			assertBruteForceStates(sampling, bruteForce);
+
+			//The cycles are the ones of the brute force sampling, starting from the attractor
+			for(Object attractor : sampling.getAttractors()){
+				Object[] cycle = sampling.getStatesInAttractor(attractor);
+				Object[] bruteForceCycle = bruteForce.getStatesInAttractor(attractor);
+				assertEquals(attractor, cycle[0]);
+				assertEquals(bruteForceCycle.length, cycle.length);
+				for(int i = 0; i < cycle.length; i++)
+					assertEquals(bruteForceCycle[i], cycle[i]);
+			}
+		}
+	}
+
+	@Test
+	public void testAttractorCycles() throws Exception {
+		for(int n = 0; n < 10; n++){
+			GraphManager manager = ModularSamplingTest.createRandomNetwork(12);
+			BruteForceSampling bruteForce = new BruteForceSampling(manager);
+			//Few initial conditions, so some attractors are not registered
+			PartialSampling sampling = new PartialSampling(manager, 3, 5000);
+
+			double ratio = 0;
+			for(Object attractor : bruteForce.getAttractors()){
+				//The cycle starts from the given state, also for the attractors not registered by the sampling
+				Object[] cycle = bruteForce.getStatesInAttractor(attractor);
+				int oscillatingNodes = 0;
+				for(int node = 0; node < 12; node++){
+					for(Object state : cycle){
+						if(((BitState) state).get(node) != ((BitState) attractor).get(node)){
+							oscillatingNodes++;
+							break;
+						}
+					}
+				}
+				ratio += oscillatingNodes / 12.0;
+				for(int start = 0; start < cycle.length; start++){
+					BitState state = (BitState) cycle[start];
+					Object[] samplingCycle = sampling.getStatesInAttractor(state);
+					assertEquals(cycle.length, samplingCycle.length);
+					assertEquals(cycle.length, sampling.getAttractorLength(state));
+					for(int i = 0; i < cycle.length; i++){
+						assertEquals(cycle[(start + i) % cycle.length], samplingCycle[i]);
+						assertEquals(manager.getNewState((BitState) samplingCycle[i]), samplingCycle[(i + 1) % cycle.length]);
+					}
+				}
+			}
+
+			//The oscillating nodes of all the attractors
+			assertEquals(ratio / bruteForce.getAttractorsNumber(), bruteForce.getOscillatingNodesRatio(), 1e-9);
+			assertEquals(ratio / bruteForce.getAttractorsNumber(), sampling.getOscillatingNodesRatio(), 1e-9);
+		}
+	}
+
+	/**
+	 * This method returns a generator of random initial states with the given seed
+	 * @param nodes: the number of the nodes
+	 * @param seed: the seed of the random numbers
+	 * @return the initial states generator
+	 */
+	static InitialStatesGenerator createSeededGenerator(final int nodes, long seed) {
+		final Random random = new Random(seed);
+		return new InitialStatesGenerator(){
+			public BitState next(){
+				return BitState.fromIndex(random.nextLong() & ((1L << nodes) - 1), nodes);
+			}
+			public int getNodesNumber(){
+				return nodes;
+			}
+		};
+	}
+
+	@Test
+	public void testBoundedSampling() throws Exception {
+		for(int n = 0; n < 10; n++){
+			GraphManager manager = ModularSamplingTest.createRandomNetwork(14);
+			PartialSamplingSettings settings = new PartialSamplingSettings(500, 5000);
+			settings.setGenerator(createSeededGenerator(14, n));
+			PartialSampling sampling = new PartialSampling(manager, settings);
+			settings.setGenerator(createSeededGenerator(14, n));
+			settings.setMaxStoredStates(200);
+			PartialSampling boundedSampling = new PartialSampling(manager, settings);
+
+			//The same initial conditions give the same attractors and basins, whatever states are stored
+			assertEquals(ModularSamplingTest.byAttractor(sampling, sampling.getBasinOfAttraction()),
+					ModularSamplingTest.byAttractor(boundedSampling, boundedSampling.getBasinOfAttraction()));
+			assertEquals(ModularSamplingTest.byAttractor(sampling, sampling.getTransientLength()),
+					ModularSamplingTest.byAttractor(boundedSampling, boundedSampling.getTransientLength()));
+			assertBruteForceStates(boundedSampling, new BruteForceSampling(manager));
+			assertTrue(boundedSampling.getStatesAttractorsCouples().size() <= 2 * 200);
+			assertTrue(boundedSampling.getStatesAttractorsCouples().size() < sampling.getStatesAttractorsCouples().size());
+		}
+	}
+
+	@Test
+	public void testAdaptiveSampling() throws Exception {
+		for(int n = 0; n < 10; n++){
+			GraphManager manager = ModularSamplingTest.createRandomNetwork(14);
+			BruteForceSampling bruteForce = new BruteForceSampling(manager);
+			PartialSamplingSettings settings = new PartialSamplingSettings(100000, 5000);
+			settings.setGenerator(createSeededGenerator(14, n));
+			settings.setMissingMassThreshold(0.01);
+			PartialSampling sampling = new PartialSampling(manager, settings);
+			assertTrue(sampling.isAdaptive());
+			assertBruteForceStates(sampling, bruteForce);
+
+			//The sampling stops before the maximum number of initial conditions when the missing mass is low
+			assertTrue(sampling.getUsedInitialConditions() < 100000);
+			assertTrue(sampling.getMissingMass() < 0.01);
+
+			//The basins of the attractors not found are small
+			int missedStates = 0;
+			for(int id = 0; id < bruteForce.getAttractorsNumber(); id++){
+				if(sampling.getAttractorId(bruteForce.getAttractorById(id)) == AttractorRegistry.NOT_FOUND)
+					missedStates += bruteForce.getBasinOfAttraction().get(id);
+			}
+			assertTrue(missedStates < 0.05 * (1 << 14));
+		}
+
+		//A sampling that is not adaptive evaluates all the initial conditions
+		PartialSampling sampling = new PartialSampling(ModularSamplingTest.createRandomNetwork(14), 300, 5000);
+		assertFalse(sampling.isAdaptive());
+		assertEquals(300, sampling.getUsedInitialConditions());
+		assertEquals(-1, sampling.getMissingMass(), 0);
+	}
+
+	@Test
+	public void testIncrementalStatistics() throws Exception {
+		for(int n = 0; n < 10; n++){
+			GraphManager manager = ModularSamplingTest.createRandomNetwork(14);
+			BruteForceSampling bruteForce = new BruteForceSampling(manager);
+			for(BinarySamplingMethod sampling : new BinarySamplingMethod[]{new PartialSampling(manager, 500, 5000, 1),
+					new PartialSampling(manager, 500, 5000, 4), bruteForce}){
+				//The statistics are the ones of the stored states
+				int[] basins = new int[sampling.getAttractorsNumber()];
+				int[] transients = new int[sampling.getAttractorsNumber()];
+				HashMap<String, Integer> positions = sampling.getStatesPositionsCouples();
+				for(Map.Entry<String, String> couple : sampling.getStatesAttractorsCouples().entrySet()){
+					int id = sampling.getAttractorId(BitState.fromString(couple.getValue()));
+					basins[id]++;
+					transients[id] = Math.max(transients[id], positions.get(couple.getKey()));
+				}
+				double ratio = 0;
+				for(int id = 0; id < basins.length; id++){
+					assertEquals(basins[id], (int) sampling.getBasinOfAttraction().get(id));
+					assertEquals(transients[id], (int) sampling.getTransientLength().get(id));
+					long oscillatingMask = 0;
+					for(Object state : bruteForce.getStatesInAttractor(sampling.getAttractorById(id)))
+						oscillatingMask |= ((BitState) state).getWords()[0] ^ ((BitState) sampling.getAttractorById(id)).getWords()[0];
+					ratio += Long.bitCount(oscillatingMask) / 14.0;
+				}
+				assertEquals(ratio / basins.length, sampling.getOscillatingNodesRatio(), 1e-9);
+			}
+		}
+	}
+
+	@Test
+	public void testExactBasins() throws Exception {
+		for(int n = 0; n < 10; n++){
+			GraphManager manager = ModularSamplingTest.createRandomNetwork(12);
+			BruteForceSampling bruteForce = new BruteForceSampling(manager);
+			PartialSampling sampling = new PartialSampling(manager, 20, 5000);
+			assertNull(sampling.getDepthDistributions());
+			sampling.calculatesExactBasins();
+
+			//The basins of the found attractors are the brute force ones
+			HashMap<String, Integer> basins = ModularSamplingTest.byAttractor(bruteForce, bruteForce.getBasinOfAttraction());
+			HashMap<String, Integer> transients = ModularSamplingTest.byAttractor(bruteForce, bruteForce.getTransientLength());
+			for(Map.Entry<String, Integer> basin : ModularSamplingTest.byAttractor(sampling, sampling.getBasinOfAttraction()).entrySet())
+				assertEquals(basins.get(basin.getKey()), basin.getValue());
+			for(Map.Entry<String, Integer> transientLength : ModularSamplingTest.byAttractor(sampling, sampling.getTransientLength()).entrySet())
+				assertEquals(transients.get(transientLength.getKey()), transientLength.getValue());
+			SymbolicSamplingTest.assertDepthDistributions(sampling, sampling.getDepthDistributions(), bruteForce);
+
+			//The exact basins are computed again after a permanent perturbation
+			manager.perpetuallyChangeFunctionValue(n, true);
+			sampling.rewiredAttractorFinder();
+			SymbolicSamplingTest.assertDepthDistributions(sampling, sampling.getDepthDistributions(), new BruteForceSampling(manager));
+		}
+	}
+
+	@Test
+	public void testRewiring() throws Exception {
+		for(int n = 0; n < 10; n++){
+			GraphManager manager = ModularSamplingTest.createRandomNetwork(12);
+			PartialSampling sampling = new PartialSampling(manager, 200, 5000);
+			String attractors = Arrays.toString(sampling.getAttractors());
+			HashMap<String, String> couples = sampling.getStatesAttractorsCouples();
+
+			//The sampling of a mutant copy has the results of a new brute force sampling of the mutant
+			GraphManager mutant = manager.createMutant(new int[]{n}, new boolean[]{n % 2 == 0});
+			PartialSampling mutantSampling = sampling.rewiredCopy(mutant);
+			assertBruteForceStates(mutantSampling, new BruteForceSampling(mutant));
+			assertTrue(mutantSampling.getStatesAttractorsCouples().keySet().containsAll(couples.keySet()));
+			assertEquals(couples, sampling.getStatesAttractorsCouples());
+
+			//The rewired sampling evaluates again all the old states on the mutated network
+			manager.perpetuallyChangeFunctionValue(n, n % 2 == 0);
+			sampling.rewiredAttractorFinder();
+			BruteForceSampling bruteForce = new BruteForceSampling(manager);
+			assertBruteForceStates(sampling, bruteForce);
+			assertTrue(sampling.getStatesAttractorsCouples().keySet().containsAll(couples.keySet()));
+			assertEquals(attractors, Arrays.toString(sampling.getOldAttractors()));
+			assertEquals(mutantSampling.getStatesAttractorsCouples(), sampling.getStatesAttractorsCouples());
+		}
+	}
+
+	@Test
+	public void testParallelSampling() throws Exception {
+		for(int n = 0; n < 10; n++){
+			GraphManager manager = ModularSamplingTest.createRandomNetwork(14);
+			PartialSampling sampling = new PartialSampling(manager, 2000, 5000, 4);
+			assertBruteForceStates(sampling, new BruteForceSampling(manager));
+
+			//Each stored state is counted once in the basins, also when several threads reach it
+			int basins = 0;
+			for(int basin : sampling.getBasinOfAttraction())
+				basins += basin;
+			assertEquals(sampling.getStatesAttractorsCouples().size(), basins);
+		}
+	}
+
+}
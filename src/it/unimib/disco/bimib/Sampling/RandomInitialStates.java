@@ -0,0 +1,42 @@
+/**
+ * This class generates independent random initial states:
+ * each node is active with probability 0.5.
+ */
+
+package it.unimib.disco.bimib.Sampling;
+
+//GRNSim imports
+import it.unimib.disco.bimib.Utility.BitState;
+import it.unimib.disco.bimib.Utility.UtilityRandom;
+
+class RandomInitialStates implements InitialStatesGenerator {
+
+	private static final double ACTIVATION_PROBABILITY = 0.5;
+
+	private int nodes;
+
+	/**
+	 * Generic constructor
+	 * @param nodes: the number of the nodes
+	 */
+	RandomInitialStates(int nodes){
+		this.nodes = nodes;
+	}
+
+	/**
+	 * This method returns a new random state
+	 * @return a new initial state
+	 */
+	public BitState next(){
+		return UtilityRandom.createRandomBitState(this.nodes, ACTIVATION_PROBABILITY);
+	}
+
+	/**
+	 * This method returns the number of the nodes of the generated states
+	 * @return the number of the nodes
+	 */
+	public int getNodesNumber(){
+		return this.nodes;
+	}
+
+}
@@ -0,0 +1,381 @@
+/**
+ * This class samples the reduced network, without the frozen nodes and the leaves (see the NetworkReduction class).
+ * The attractors are found by the sampling method specified in the features on the reduced network,
+ * then they are lifted to the states of the whole network. A network state is projected on the reduced
+ * network after the freezing time, so the perturbation experiments are evaluated on the reduced network too.
+ * The basins of attraction of the reduced network don't contain the states with the frozen nodes out of their values,
+ * so they are returned separately. When the reduced network is explored completely (or its sampled attractors have
+ * exact basins) the exact basins of the whole network are computed backward from the lifted attractors
+ * (see the BasinCalculator class). Only the states of the attractors are returned as couples.
+ * The leaves can be kept, so that only the frozen nodes are removed (the frozen core sampling).
+ * The functions of the network must be compiled in truth tables (see the BitSlicedNetwork class).
+ */
+
+package it.unimib.disco.bimib.Sampling;
+
+//System imports
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Properties;
+
+//GRNSim imports
+import it.unimib.disco.bimib.Exceptions.*;
+import it.unimib.disco.bimib.Networks.BitSlicedNetwork;
+import it.unimib.disco.bimib.Networks.GraphManager;
+import it.unimib.disco.bimib.Networks.NetworkReduction;
+import it.unimib.disco.bimib.Utility.BitState;
+
+public class ReducedSampling extends BinarySamplingMethod {
+
+	private Properties simulationFeatures;
+	private NetworkReduction reduction;
+	//True if the leaves are removed too
+	private boolean removesLeaves;
+	//The attractor finder of the reduced network
+	private AttractorsFinder finder;
+	//The number of states of the network at each depth of each exact basin
+	private ArrayList<ArrayList<BigInteger>> depthDistributions;
+	private AttractorRegistry oldRegistry;
+
+
+	/**
+	 * Generic constructor
+	 * @param simulationFeatures: the simulation features, with the sampling method of the reduced network
+	 * @param graph: A GraphManager object connected to the network
+	 * @throws NullPointerException
+	 * @throws ParamDefinitionException The network functions can not be compiled in truth tables
+	 * @throws NotExistingNodeException
+	 * @throws InputTypeException
+	 * @throws AttractorNotFoundException
+	 */
+	public ReducedSampling(Properties simulationFeatures, GraphManager graph) throws NullPointerException, ParamDefinitionException, NotExistingNodeException, InputTypeException, AttractorNotFoundException{
+		this(simulationFeatures, graph, true);
+	}
+
+	/**
+	 * Generic constructor
+	 * @param simulationFeatures: the simulation features, with the sampling method of the reduced network
+	 * @param graph: A GraphManager object connected to the network
+	 * @param removesLeaves: true in order to remove the frozen nodes and the leaves, false in order to remove only the frozen nodes
+	 * @throws NullPointerException
+	 * @throws ParamDefinitionException The network functions can not be compiled in truth tables
+	 * @throws NotExistingNodeException
+	 * @throws InputTypeException
+	 * @throws AttractorNotFoundException
+	 */
+	public ReducedSampling(Properties simulationFeatures, GraphManager graph, boolean removesLeaves) throws NullPointerException, ParamDefinitionException, NotExistingNodeException, InputTypeException, AttractorNotFoundException{
+		super(graph);
+		if(simulationFeatures == null)
+			throw new NullPointerException("The simulation features must be not null");
+		this.simulationFeatures = simulationFeatures;
+		this.removesLeaves = removesLeaves;
+		//Samples the reduced network
+		this.reduction = this.reducesNetwork();
+		this.finder = SamplingManager.createAttractorsFinder(simulationFeatures, this.reduction.getReducedGraph());
+		if(this.finder == null)
+			throw new ParamDefinitionException("Unknown sampling method");
+		this.depthDistributions = new ArrayList<ArrayList<BigInteger>>();
+		this.liftsAttractors();
+		this.storedInformation = null;
+	}
+
+	/**
+	 * This constructor copies an existing reduced sampling
+	 * @param sampling: the copied sampling
+	 * @throws NullPointerException
+	 * @throws ParamDefinitionException
+	 * @throws NotExistingNodeException
+	 * @throws InputTypeException
+	 */
+	private ReducedSampling(ReducedSampling sampling) throws NullPointerException, ParamDefinitionException, NotExistingNodeException, InputTypeException{
+		super(sampling.graph);
+		this.simulationFeatures = sampling.simulationFeatures;
+		this.reduction = sampling.reduction;
+		this.removesLeaves = sampling.removesLeaves;
+		this.finder = sampling.finder.copy();
+		super.registry = sampling.registry.copy();
+		this.depthDistributions = new ArrayList<ArrayList<BigInteger>>(sampling.depthDistributions);
+		this.storedInformation = null;
+	}
+
+	/**
+	 * This method returns the reduction of the network
+	 * @return the reduction without the frozen nodes, and without the leaves if they are removed
+	 * @throws ParamDefinitionException
+	 * @throws NotExistingNodeException
+	 */
+	private NetworkReduction reducesNetwork() throws ParamDefinitionException, NotExistingNodeException{
+		if(this.removesLeaves)
+			return this.graph.getReduction();
+		return this.graph.getFrozenReduction();
+	}
+
+	/**
+	 * This method registers the lifted cycles of the attractors of the reduced network that are not registered yet.
+	 * The attractors are registered in the same order, so they have the same ids.
+	 * The exact basins of the whole network are computed again when new attractors are registered.
+	 * @throws ParamDefinitionException
+	 * @throws NotExistingNodeException
+	 * @throws InputTypeException
+	 */
+	private void liftsAttractors() throws ParamDefinitionException, NotExistingNodeException, InputTypeException{
+		int registered = super.registry.size();
+		for(int id = registered; id < this.finder.getAttractorsNumber(); id++)
+			super.registry.register(this.liftsCycle(this.finder.getAttractorById(id)));
+		if(super.registry.size() > registered && this.hasExactBasins())
+			this.calculatesBasins();
+	}
+
+	/**
+	 * This method checks if the basins of the reduced network are exact: the reduced network is explored completely,
+	 * or the exact basins of its sampled attractors are computed
+	 * @return true if the basins of the reduced network are exact
+	 */
+	private boolean hasExactBasins(){
+		if(this.finder instanceof PartialSampling)
+			return ((PartialSampling) this.finder).getDepthDistributions() != null;
+		return this.finder instanceof BruteForceSampling || this.finder instanceof SymbolicSampling 
+				|| this.finder instanceof ModularSampling;
+	}
+
+	/**
+	 * This method computes the exact basins of the registered attractors in the whole network.
+	 * The states with the frozen nodes out of their values are counted too, so the basins are not the ones
+	 * of the reduced network multiplied by a constant.
+	 * @throws ParamDefinitionException The network functions can not be compiled in truth tables
+	 */
+	private void calculatesBasins() throws ParamDefinitionException{
+		BitSlicedNetwork slicedNetwork = this.graph.getBitSlicedNetwork();
+		if(slicedNetwork == null)
+			throw new ParamDefinitionException("The network reduction requires functions that can be compiled in truth tables");
+		this.depthDistributions = new BasinCalculator(slicedNetwork).calculatesBasins(super.registry);
+	}
+
+	/**
+	 * This method returns the network cycle of an attractor of the reduced network
+	 * @param attractor: the attractor of the reduced network
+	 * @return the states of the network cycle
+	 * @throws ParamDefinitionException
+	 * @throws NotExistingNodeException
+	 * @throws InputTypeException
+	 */
+	private BitState[] liftsCycle(Object attractor) throws ParamDefinitionException, NotExistingNodeException, InputTypeException{
+		Object[] states = this.finder.getStatesInAttractor(attractor);
+		BitState[] cycle = new BitState[states.length];
+		for(int i = 0; i < states.length; i++)
+			cycle[i] = (BitState) states[i];
+		return this.reduction.lift(cycle);
+	}
+
+	/**
+	 * This method returns the network reduction
+	 * @return the network reduction
+	 */
+	public NetworkReduction getReduction(){
+		return this.reduction;
+	}
+
+	/**
+	 * This method returns the attractor finder of the reduced network
+	 * @return the attractor finder of the reduced network
+	 */
+	public AttractorsFinder getReducedFinder(){
+		return this.finder;
+	}
+
+	/**
+	 * This method returns the attractor of a given network status.
+	 * The status is projected on the reduced network, whose attractor is lifted.
+	 * @param status: The BitState value representing the network status.
+	 * @ParamDefinitionException: The passed status isn't correct
+	 */
+	@Override
+	public Object getAttractor(Object status) throws ParamDefinitionException, NotExistingNodeException, InputTypeException, AttractorNotFoundException {
+		Object attractor;
+		int id;
+		//Checks if the status is a BitState
+		if(!(status instanceof BitState))
+			throw new ParamDefinitionException("The status must be a BitState value");
+		if(((BitState) status).length() != this.graph.getNodesNumber())
+			throw new ParamDefinitionException("Invalid status");
+
+		attractor = this.finder.getAttractor(this.reduction.project((BitState) status));
+		if(attractor == null)
+			return null;
+		//The attractor can be new
+		this.liftsAttractors();
+		id = this.finder.getAttractorId(attractor);
+		if(id == AttractorRegistry.NOT_FOUND)
+			return this.liftsCycle(attractor)[0];
+		return super.registry.getAttractor(id);
+	}
+
+	/**
+	 * This method returns the length of the longest transient of each attractor in the whole network.
+	 * @return the length of transients, in the same order of the attractors, 
+	 * null if the basins of the reduced network are sampled (see the getReducedTransientLength method)
+	 */
+	@Override
+	public ArrayList<Integer> getTransientLength(){
+		if(!this.hasExactBasins())
+			return null;
+		return super.getTransientLength();
+	}
+
+	/**
+	 * This method returns the basin of attractions of each attractors in the whole network.
+	 * @return An array list with each basin dimension, in the same order of the attractors, 
+	 * null if the basins of the reduced network are sampled (see the getReducedBasinOfAttraction method)
+	 */
+	@Override
+	public ArrayList<Integer> getBasinOfAttraction(){
+		if(!this.hasExactBasins())
+			return null;
+		return super.getBasinOfAttraction();
+	}
+
+	/**
+	 * This method returns the length of the longest transient of each attractor in the reduced network.
+	 * @return the length of transients, in the same order of the attractors
+	 */
+	public ArrayList<Integer> getReducedTransientLength(){
+		return this.finder.getTransientLength();
+	}
+
+	/**
+	 * This method returns the basin of attractions of each attractors in the reduced network.
+	 * @return An array list with each basin dimension, in the same order of the attractors
+	 */
+	public ArrayList<Integer> getReducedBasinOfAttraction(){
+		return this.finder.getBasinOfAttraction();
+	}
+
+	/**
+	 * This method returns the transients distribution of each exact basin in the whole network: the element d of 
+	 * an attractor list is the number of states that need d steps to reach the attractor (the element 0 is the period).
+	 * @return the number of states at each depth of each basin, in the same order of the attractors,
+	 * null if the basins of the reduced network are sampled
+	 */
+	public ArrayList<ArrayList<BigInteger>> getDepthDistributions(){
+		if(!this.hasExactBasins())
+			return null;
+		return new ArrayList<ArrayList<BigInteger>>(this.depthDistributions);
+	}
+
+	/**
+	 * This method returns the number of times that the attractor does not found
+	 * @return the number of times when the attractor does not found.
+	 */
+	@Override
+	public int getAttractorsNotFound(){
+		return this.finder.getAttractorsNotFound();
+	}
+
+	/**
+	 * This method rewireds the attractor finder element.
+	 * It is used when the perpetual mutations are introduced: the mutated network is reduced
+	 * and sampled again.
+	 * @throws ParamDefinitionException Something gone wrong
+	 * @throws InputTypeException
+	 * @throws NotExistingNodeException
+	 * @throws AttractorNotFoundException
+	 */
+	public void rewiredAttractorFinder() throws ParamDefinitionException, NotExistingNodeException, InputTypeException, AttractorNotFoundException {
+
+		this.oldRegistry = super.registry;
+
+		//Calculates the new attractors
+		this.reduction = this.reducesNetwork();
+		this.finder = SamplingManager.createAttractorsFinder(this.simulationFeatures, this.reduction.getReducedGraph());
+		super.registry = new AttractorRegistry();
+		this.depthDistributions = new ArrayList<ArrayList<BigInteger>>();
+		this.liftsAttractors();
+
+	}
+
+	/**
+	 * This method saves the old state of the sampling object.
+	 * @throws ParamDefinitionException
+	 * @throws NotExistingNodeException
+	 * @throws InputTypeException
+	 */
+	public void clearAndStore() throws ParamDefinitionException, NotExistingNodeException, InputTypeException{
+
+		this.storedInformation = new HashMap<Object, Object[]>();
+
+		Object[] attractorsSet = this.getAttractors();
+
+		for(Object attractor : attractorsSet){
+			this.storedInformation.put(attractor,
+					this.getStatesInAttractor(attractor));
+		}
+
+		this.finder.clearAndStore();
+		super.registry = new AttractorRegistry();
+		this.depthDistributions = new ArrayList<ArrayList<BigInteger>>();
+	}
+
+	/**
+	 * This method returns the stored attractors.
+	 * The returned HashMap has the attractor id as key an an object array, representing the
+	 * states in the attractor, as value.
+	 * @return The stored attractors
+	 */
+	public HashMap<Object, Object[]> getStoredAttractors(){
+		return this.storedInformation;
+	}
+
+
+	/**
+	 * This method returns all the old attractor when is made a permanent perturbation
+	 * @return all the old attractors
+	 */
+	public Object[] getOldAttractors(){
+		//Returns all the attractors
+		return this.oldRegistry.getAttractors().toArray();
+
+	}
+
+	/**
+	 * This method returns a copy of itself.
+	 * @return a copy of itself.
+	 * @throws InputTypeException
+	 * @throws NotExistingNodeException
+	 * @throws ParamDefinitionException
+	 * @throws NullPointerException
+	 */
+	public AttractorsFinder copy() throws NullPointerException, ParamDefinitionException, NotExistingNodeException, InputTypeException{
+		return new ReducedSampling(this);
+	}
+
+	@Override
+	/**
+	 * This method returns the couples state-attractor as an HashMap.
+	 * The states of the reduced network can not be lifted: only the states of the attractors are returned.
+	 */
+	public HashMap<String, String> getStatesAttractorsCouples() {
+		HashMap<String, String> statesAttractors = new HashMap<String, String>();
+		for(int id = 0; id < super.registry.size(); id++){
+			String attractorName = super.registry.getAttractor(id).toString();
+			for(BitState state : super.registry.getCycle(id))
+				statesAttractors.put(state.toString(), attractorName);
+		}
+		return statesAttractors;
+	}
+
+	@Override
+	/**
+	 * This method returns the couples state-position as an HashMap.
+	 * The states of the reduced network can not be lifted: only the states of the attractors are returned.
+	 */
+	public HashMap<String, Integer> getStatesPositionsCouples() {
+		HashMap<String, Integer> statesPositions = new HashMap<String, Integer>();
+		for(int id = 0; id < super.registry.size(); id++){
+			for(BitState state : super.registry.getCycle(id))
+				statesPositions.put(state.toString(), 0);
+		}
+		return statesPositions;
+	}
+
+}
@@ -0,0 +1,89 @@
+package it.unimib.disco.bimib.Sampling;
+
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+import java.util.Properties;
+
+import org.junit.Test;
+
+import it.unimib.disco.bimib.Networks.GraphManager;
+import it.unimib.disco.bimib.Utility.SimulationFeaturesConstants;
+
+public class ReducedSamplingTest {
+
+	public ReducedSamplingTest() {
+	}
+
+	/**
+	 * This method creates a random network of and, or and random functions, with frozen nodes and leaves
+	 * @param nodes: the number of the nodes
+	 * @return the graph manager of the network
+	 * @throws Exception
+	 */
+	private static GraphManager createReducibleNetwork(int nodes) throws Exception {
+		Properties features = new Properties();
+		features.setProperty("topology", "PartiallyRandom");
+		features.setProperty("nodes", String.valueOf(nodes));
+		features.setProperty("edges", String.valueOf(2 * nodes));
+		features.setProperty("fixed-inputs-number", "2");
+		features.setProperty("completely-defined-functions", "yes");
+		features.setProperty("function-type", "Boolean");
+		features.setProperty("random-type", "0.4");
+		features.setProperty("and-type", "0.3");
+		features.setProperty("or-type", "0.3");
+		features.setProperty("canalized-type", "0");
+		features.setProperty("bias-type", "0");
+		features.setProperty("bias-value", "0.5");
+		GraphManager manager = new GraphManager();
+		manager.createNetwork(features);
+		return manager;
+	}
+
+	@Test
+	public void testBruteForceBasins() throws Exception {
+		Properties features = new Properties();
+		features.setProperty(SimulationFeaturesConstants.SAMPLING_METHOD, SimulationFeaturesConstants.BRUTE_FORCE);
+		int removedNodes = 0;
+		for(int n = 0; n < 10; n++){
+			GraphManager manager = createReducibleNetwork(12);
+			//A knocked out node is frozen
+			manager.perpetuallyChangeFunctionValue(n, false);
+			BruteForceSampling bruteForce = new BruteForceSampling(manager);
+			HashMap<String, Integer> basins = ModularSamplingTest.byAttractor(bruteForce, bruteForce.getBasinOfAttraction());
+			HashMap<String, Integer> transients = ModularSamplingTest.byAttractor(bruteForce, bruteForce.getTransientLength());
+
+			//The basins are the ones of the whole network, with or without the leaves
+			for(boolean removesLeaves : new boolean[]{true, false}){
+				ReducedSampling sampling = new ReducedSampling(features, manager, removesLeaves);
+				removedNodes += 12 - sampling.getReduction().getReducedNodes().length;
+				assertEquals(basins, ModularSamplingTest.byAttractor(sampling, sampling.getBasinOfAttraction()));
+				assertEquals(transients, ModularSamplingTest.byAttractor(sampling, sampling.getTransientLength()));
+
+				//The basins of the reduced network are returned separately
+				int reducedStates = 0;
+				for(int basin : sampling.getReducedBasinOfAttraction())
+					reducedStates += basin;
+				assertEquals(1 << sampling.getReduction().getReducedNodes().length, reducedStates);
+			}
+		}
+		assertTrue(removedNodes > 0);
+	}
+
+	@Test
+	public void testSampledBasins() throws Exception {
+		Properties features = new Properties();
+		features.setProperty(SimulationFeaturesConstants.SAMPLING_METHOD, SimulationFeaturesConstants.PARTIAL_SAMPLING);
+		features.setProperty(SimulationFeaturesConstants.INITIAL_CONDITIONS, "50");
+		features.setProperty(SimulationFeaturesConstants.MAX_SIMULATION_TIMES, "1000");
+		GraphManager manager = createReducibleNetwork(12);
+		manager.perpetuallyChangeFunctionValue(0, false);
+
+		//The sampled basins of the reduced network are not basins of the whole network
+		ReducedSampling sampling = new ReducedSampling(features, manager);
+		assertNull(sampling.getBasinOfAttraction());
+		assertNull(sampling.getTransientLength());
+		assertEquals(sampling.getAttractorsNumber(), sampling.getReducedBasinOfAttraction().size());
+	}
+
+}
@@ -16,12 +16,15 @@ import java.util.Properties;
 //GRNSim imports
 import it.unimib.disco.bimib.Utility.*;
 import it.unimib.disco.bimib.Exceptions.*;
+import it.unimib.disco.bimib.Networks.FrozenCore;
 import it.unimib.disco.bimib.Networks.GraphManager;
 
 public class SamplingManager {
 
 
 	private AttractorsFinder sampling;
+	//The frozen core of the network, null if it is not requested
+	private FrozenCore frozenCore;
 
 	/**
 	 * Default constructor.
@@ -35,16 +38,90 @@ public class SamplingManager {
 	 * @throws AttractorNotFoundException 
 	 */
 	public SamplingManager(Properties simulationFeatures, GraphManager graph) throws NullPointerException, ParamDefinitionException, NotExistingNodeException, InputTypeException, AttractorNotFoundException {
+		//Finds the frozen core, if specified
+		if(simulationFeatures.getProperty(SimulationFeaturesConstants.FROZEN_CORE, SimulationFeaturesConstants.NO)
+				.equals(SimulationFeaturesConstants.YES))
+			this.frozenCore = graph.getFrozenCore();
 
-		int initialConditions, cutoff;
+		//Samples the reduced network, if specified
+		if(simulationFeatures.getProperty(SimulationFeaturesConstants.NETWORK_REDUCTION, SimulationFeaturesConstants.NO)
+				.equals(SimulationFeaturesConstants.YES))
+			this.sampling = new ReducedSampling(simulationFeatures, graph);
+		//Samples the network without the frozen nodes, if it can be reduced
+		else if(this.frozenCore != null && graph.getBitSlicedNetwork() != null)
+			this.sampling = new ReducedSampling(simulationFeatures, graph, false);
+		else
+			this.sampling = SamplingManager.createAttractorsFinder(simulationFeatures, graph);
+	}
+
+	/**
+	 * This method checks that the features which need the network functions compiled in truth tables
+	 * (the symbolic and the modular sampling, the SAT seeding, the exact basins and the network reduction)
+	 * are not used with lazily defined functions, so the simulation doesn't stop at the first sampled network.
+	 * @param simulationFeatures: Input parameters
+	 * @throws FeaturesException: a feature requires completely defined functions
+	 */
+	public static void validatesFeatures(Properties simulationFeatures) throws FeaturesException{
+		if(!simulationFeatures.getProperty(SimulationFeaturesConstants.COMPLETELY_DEFINED_FUNCTIONS, SimulationFeaturesConstants.YES)
+				.equals(SimulationFeaturesConstants.NO))
+			return;
+		String feature = null;
+		String method = simulationFeatures.getProperty(SimulationFeaturesConstants.SAMPLING_METHOD, "");
+		if(method.equals(SimulationFeaturesConstants.SYMBOLIC_SAMPLING) || method.equals(SimulationFeaturesConstants.MODULAR_SAMPLING))
+			feature = SimulationFeaturesConstants.SAMPLING_METHOD + " " + method;
+		else if(simulationFeatures.containsKey(SimulationFeaturesConstants.SAT_MAX_PERIOD))
+			feature = SimulationFeaturesConstants.SAT_MAX_PERIOD;
+		else if(simulationFeatures.getProperty(SimulationFeaturesConstants.EXACT_BASINS, SimulationFeaturesConstants.NO)
+				.equals(SimulationFeaturesConstants.YES))
+			feature = SimulationFeaturesConstants.EXACT_BASINS;
+		else if(simulationFeatures.getProperty(SimulationFeaturesConstants.NETWORK_REDUCTION, SimulationFeaturesConstants.NO)
+				.equals(SimulationFeaturesConstants.YES))
+			feature = SimulationFeaturesConstants.NETWORK_REDUCTION;
+		if(feature != null)
+			throw new FeaturesException("The " + feature + " feature requires completely defined functions (" 
+					+ SimulationFeaturesConstants.COMPLETELY_DEFINED_FUNCTIONS + " yes)");
+	}
+
+	/**
+	 * This method creates the attractor finder of a network.
+	 * In this method the correct sampling algorithm is chosen.
+	 * @param simulationFeatures: Input parameters
+	 * @param graph: The graph manager which contains the network graph
+	 * @return the attractor finder, null if the sampling method is unknown
+	 * @throws NullPointerException: Null parameter passed
+	 * @throws ParamDefinitionException: Incorrect parameter passed
+	 * @throws InputTypeException 
+	 * @throws NotExistingNodeException 
+	 * @throws AttractorNotFoundException 
+	 */
+	static AttractorsFinder createAttractorsFinder(Properties simulationFeatures, GraphManager graph) throws NullPointerException, ParamDefinitionException, NotExistingNodeException, InputTypeException, AttractorNotFoundException {
+
+		AttractorsFinder sampling = null;
+		int initialConditions, cutoff, threads, maxStoredStates, seedPeriod;
+		double missingMassThreshold;
+		InitialStatesGenerator generator;
+		PartialSamplingSettings settings;
+		String tablesDirectory;
 
 		if(!simulationFeatures.containsKey(SimulationFeaturesConstants.SAMPLING_METHOD))
 			throw new ParamDefinitionException("Sampling method type missed");
 		
+		//Gets the number of the sampling threads, if specified
+		threads = 1;
+		if(simulationFeatures.containsKey(SimulationFeaturesConstants.SAMPLING_THREADS))
+			threads = Integer.valueOf(simulationFeatures.get(SimulationFeaturesConstants.SAMPLING_THREADS).toString());
+		//Validates the number of threads
+		if(threads <= 0)
+			throw new ParamDefinitionException("The " + SimulationFeaturesConstants.SAMPLING_THREADS + " value must be greater than 0");
+
 		//Chooses the sampling method to be execute
 		//*** BRUTE FORCE ***
 		if(simulationFeatures.get(SimulationFeaturesConstants.SAMPLING_METHOD).equals(SimulationFeaturesConstants.BRUTE_FORCE)){
-			this.sampling = new BruteForceSampling(graph);
+			//Gets the directory of the memory-mapped tables, if specified
+			tablesDirectory = null;
+			if(simulationFeatures.containsKey(SimulationFeaturesConstants.BRUTE_FORCE_TABLES_DIRECTORY))
+				tablesDirectory = simulationFeatures.get(SimulationFeaturesConstants.BRUTE_FORCE_TABLES_DIRECTORY).toString();
+			sampling = new BruteForceSampling(graph, threads, tablesDirectory);
 
 			//*** PARTIAL SAMPLING ***
 		}else if(simulationFeatures.get(SimulationFeaturesConstants.SAMPLING_METHOD).equals(SimulationFeaturesConstants.PARTIAL_SAMPLING)){
@@ -63,10 +140,93 @@ public class SamplingManager {
 			if(cutoff < -2)
 				throw new ParamDefinitionException("The " + SimulationFeaturesConstants.MAX_SIMULATION_TIMES + " value must be greater than 0");
 
+			//Gets the maximum number of stored states, if specified
+			maxStoredStates = 0;
+			if(simulationFeatures.containsKey(SimulationFeaturesConstants.MAX_STORED_STATES))
+				maxStoredStates = Integer.valueOf(simulationFeatures.get(SimulationFeaturesConstants.MAX_STORED_STATES).toString());
+			//Validates the maximum number of stored states
+			if(maxStoredStates < 0)
+				throw new ParamDefinitionException("The " + SimulationFeaturesConstants.MAX_STORED_STATES + " value must be greater than 0");
+
+			//Gets the missing mass threshold of the adaptive sampling, if specified
+			missingMassThreshold = 0;
+			if(simulationFeatures.containsKey(SimulationFeaturesConstants.MISSING_MASS_THRESHOLD))
+				missingMassThreshold = Double.valueOf(simulationFeatures.get(SimulationFeaturesConstants.MISSING_MASS_THRESHOLD).toString());
+			//Validates the missing mass threshold
+			if(missingMassThreshold < 0 || missingMassThreshold >= 1)
+				throw new ParamDefinitionException("The " + SimulationFeaturesConstants.MISSING_MASS_THRESHOLD + " value must be between 0 and 1");
+
+			//Gets the initial conditions generator, if specified
+			generator = null;
+			if(simulationFeatures.containsKey(SimulationFeaturesConstants.INITIAL_CONDITIONS_GENERATOR))
+				generator = SamplingManager.createInitialStatesGenerator(
+						simulationFeatures.get(SimulationFeaturesConstants.INITIAL_CONDITIONS_GENERATOR).toString(), graph.getNodesNumber(), 
+						maxStoredStates);
+
+			//Gets the maximum period of the attractors found by the SAT solver, if specified
+			seedPeriod = 0;
+			if(simulationFeatures.containsKey(SimulationFeaturesConstants.SAT_MAX_PERIOD))
+				seedPeriod = Integer.valueOf(simulationFeatures.get(SimulationFeaturesConstants.SAT_MAX_PERIOD).toString());
+			//Validates the maximum period
+			if(seedPeriod < 0)
+				throw new ParamDefinitionException("The " + SimulationFeaturesConstants.SAT_MAX_PERIOD + " value must be greater than 0");
+
 			//Sampling
-			this.sampling = new PartialSampling(graph, initialConditions, cutoff);
+			settings = new PartialSamplingSettings(initialConditions, cutoff);
+			settings.setThreads(threads);
+			settings.setMaxStoredStates(maxStoredStates);
+			settings.setMissingMassThreshold(missingMassThreshold);
+			settings.setGenerator(generator);
+			settings.setSeedPeriod(seedPeriod);
+			sampling = new PartialSampling(graph, settings);
+
+			//Computes the exact basins of the found attractors, if specified
+			if(simulationFeatures.getProperty(SimulationFeaturesConstants.EXACT_BASINS, SimulationFeaturesConstants.NO)
+					.equals(SimulationFeaturesConstants.YES))
+				((PartialSampling) sampling).calculatesExactBasins();
+
+			//*** SYMBOLIC SAMPLING ***
+		}else if(simulationFeatures.get(SimulationFeaturesConstants.SAMPLING_METHOD).equals(SimulationFeaturesConstants.SYMBOLIC_SAMPLING)){
+			sampling = new SymbolicSampling(graph);
+
+			//*** MODULAR SAMPLING ***
+		}else if(simulationFeatures.get(SimulationFeaturesConstants.SAMPLING_METHOD).equals(SimulationFeaturesConstants.MODULAR_SAMPLING)){
+			sampling = new ModularSampling(graph);
 		}
 
+		return sampling;
+	}
+
+	/**
+	 * This method returns the initial conditions generator of the given type
+	 * @param type: the generator type (Random, LowDiscrepancy or Stratified)
+	 * @param nodes: the number of the nodes of the network
+	 * @return the initial conditions generator
+	 * @throws ParamDefinitionException: unknown generator type
+	 */
+	public static InitialStatesGenerator createInitialStatesGenerator(String type, int nodes) throws ParamDefinitionException{
+		return SamplingManager.createInitialStatesGenerator(type, nodes, 0);
+	}
+
+	/**
+	 * This method returns the initial conditions generator of the given type
+	 * @param type: the generator type (Random, LowDiscrepancy or Stratified)
+	 * @param nodes: the number of the nodes of the network
+	 * @param maxStoredStates: the maximum number of states stored by the sampling, 0 if it is not bounded.
+	 * The stratified generator doesn't remember more generated states.
+	 * @return the initial conditions generator
+	 * @throws ParamDefinitionException: unknown generator type
+	 */
+	public static InitialStatesGenerator createInitialStatesGenerator(String type, int nodes, int maxStoredStates) throws ParamDefinitionException{
+		if(type.equals(SimulationFeaturesConstants.RANDOM_GENERATOR))
+			return new RandomInitialStates(nodes);
+		if(type.equals(SimulationFeaturesConstants.LOW_DISCREPANCY_GENERATOR))
+			return new LowDiscrepancyInitialStates(nodes);
+		if(type.equals(SimulationFeaturesConstants.STRATIFIED_GENERATOR))
+			return new StratifiedInitialStates(nodes, maxStoredStates);
+		throw new ParamDefinitionException("The " + SimulationFeaturesConstants.INITIAL_CONDITIONS_GENERATOR + " value must be " 
+				+ SimulationFeaturesConstants.RANDOM_GENERATOR + ", " + SimulationFeaturesConstants.LOW_DISCREPANCY_GENERATOR 
+				+ " or " + SimulationFeaturesConstants.STRATIFIED_GENERATOR);
 	}
 
 	/**
@@ -88,5 +248,64 @@ public class SamplingManager {
 		return this.sampling;
 	}
 
+	/**
+	 * This method returns the frozen core of the network
+	 * @return the frozen core, null if it is not requested
+	 */
+	public FrozenCore getFrozenCore(){
+		return this.frozenCore;
+	}
+
+	/**
+	 * This method returns the partial sampling, also when the reduced network is sampled
+	 * @return the partial sampling, null if the sampling is not partial
+	 */
+	private PartialSampling getPartialSampling(){
+		AttractorsFinder finder = this.sampling;
+		if(finder instanceof ReducedSampling)
+			finder = ((ReducedSampling) finder).getReducedFinder();
+		if(finder instanceof PartialSampling)
+			return (PartialSampling) finder;
+		return null;
+	}
+
+	/**
+	 * This method returns the maximum number of states stored by the sampling
+	 * @return the maximum number of stored states, 0 if all the visited states are stored
+	 */
+	public int getMaxStoredStates(){
+		if(this.getPartialSampling() != null)
+			return this.getPartialSampling().getMaxStoredStates();
+		return 0;
+	}
+
+	/**
+	 * This method returns true if the sampling stops when the attractors discovery saturates
+	 * @return true if the sampling is adaptive
+	 */
+	public boolean isAdaptive(){
+		return this.getPartialSampling() != null && this.getPartialSampling().isAdaptive();
+	}
+
+	/**
+	 * This method returns the number of the initial conditions evaluated by the sampling
+	 * @return the number of the evaluated initial conditions, 0 if the sampling is not partial
+	 */
+	public int getUsedInitialConditions(){
+		if(this.getPartialSampling() != null)
+			return this.getPartialSampling().getUsedInitialConditions();
+		return 0;
+	}
+
+	/**
+	 * This method returns the estimated missing mass of the adaptive sampling
+	 * @return the estimated missing mass, -1 if the sampling is not adaptive
+	 */
+	public double getMissingMass(){
+		if(this.getPartialSampling() != null)
+			return this.getPartialSampling().getMissingMass();
+		return -1;
+	}
+
 }
 
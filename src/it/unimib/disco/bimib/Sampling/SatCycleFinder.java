@@ -0,0 +1,215 @@
+/**
+ * This class finds the short attractors of a network with a SAT solver, without simulating any trajectory.
+ * The states x(0), ..., x(p - 1) of a cycle of period p satisfy x(t + 1 mod p) = f(x(t)): this condition is
+ * encoded in conjunctive normal form from the table of each node function and all its solutions are enumerated.
+ * When a cycle is found, each of its states is blocked as x(0), so every rotation of the cycle is excluded.
+ * The periods are tested in increasing order and the cycles found with a shorter period are blocked too:
+ * the fixed points are the solutions of the period 1.
+ * The functions of the network must be compiled in truth tables (see the BitSlicedNetwork class).
+ */
+
+package it.unimib.disco.bimib.Sampling;
+
+//System imports
+import java.util.ArrayList;
+
+//GRNSim imports
+import it.unimib.disco.bimib.Networks.BitSlicedNetwork;
+import it.unimib.disco.bimib.Sat.SatSolver;
+import it.unimib.disco.bimib.Utility.BitState;
+
+class SatCycleFinder {
+
+	//Maximum number of conflicts of a single solution search: the period is abandoned when it is reached
+	static final long MAX_CONFLICTS = 100000;
+
+	private BitSlicedNetwork network;
+	private int nodes;
+	//The found cycles, and false if the last search has been limited
+	private ArrayList<BitState[]> cycles;
+	private boolean completed;
+
+	/**
+	 * Generic constructor
+	 * @param network: the bit-sliced network
+	 */
+	SatCycleFinder(BitSlicedNetwork network){
+		if(network == null)
+			throw new NullPointerException("The network must be not null");
+		this.network = network;
+		this.nodes = network.getNodesNumber();
+		this.cycles = new ArrayList<BitState[]>();
+		this.completed = true;
+	}
+
+	/**
+	 * This method finds the cycles with a period up to maxPeriod.
+	 * @param maxPeriod: the maximum period
+	 * @param maxCycles: the maximum number of the found cycles
+	 * @return the found cycles, in order of period
+	 */
+	ArrayList<BitState[]> findCycles(int maxPeriod, int maxCycles){
+		this.cycles = new ArrayList<BitState[]>();
+		this.completed = true;
+		for(int period = 1; period <= maxPeriod && this.cycles.size() < maxCycles; period++)
+			this.findPeriodCycles(period, maxCycles);
+		if(this.cycles.size() >= maxCycles)
+			this.completed = false;
+		return this.cycles;
+	}
+
+	/**
+	 * This method returns true if all the cycles of the tested periods have been found
+	 * by the last search: the number of cycles or of conflicts has not been limited.
+	 * @return true if the enumeration is complete
+	 */
+	boolean isCompleted(){
+		return this.completed;
+	}
+
+	/**
+	 * This method enumerates the cycles of the given period
+	 * @param period: the period
+	 * @param maxCycles: the maximum number of the found cycles
+	 */
+	private void findPeriodCycles(int period, int maxCycles){
+		SatSolver solver = new SatSolver();
+		for(int i = 0; i < period * this.nodes; i++)
+			solver.newVariable();
+
+		//Encodes the transitions of the cycle: the variable t * nodes + i is the node i at the time t
+		for(int time = 0; time < period; time++){
+			for(int node = 0; node < this.nodes; node++)
+				this.encodeFunction(solver, node, time * this.nodes, ((time + 1) % period) * this.nodes);
+		}
+		//Blocks the cycles already found
+		for(BitState[] cycle : this.cycles){
+			for(BitState state : cycle)
+				this.block(solver, state);
+		}
+
+		while(this.cycles.size() < maxCycles){
+			int result = solver.solve(MAX_CONFLICTS);
+			if(result == SatSolver.UNKNOWN)
+				this.completed = false;
+			if(result != SatSolver.SATISFIABLE)
+				return;
+
+			//Reads the states of the cycle: the period of the solution can divide the tested one
+			//only if a shorter period has not been completely enumerated
+			ArrayList<BitState> states = new ArrayList<BitState>();
+			BitState first = this.getState(solver, 0);
+			states.add(first);
+			for(int time = 1; time < period; time++){
+				BitState state = this.getState(solver, time * this.nodes);
+				if(state.equals(first))
+					break;
+				states.add(state);
+			}
+			BitState[] cycle = states.toArray(new BitState[states.size()]);
+			this.cycles.add(cycle);
+			for(BitState state : cycle)
+				this.block(solver, state);
+		}
+	}
+
+	/**
+	 * This method reads a state from the solution
+	 * @param solver: the solver
+	 * @param offset: the variable of the node 0
+	 * @return the state
+	 */
+	private BitState getState(SatSolver solver, int offset){
+		BitState state = new BitState(this.nodes);
+		for(int node = 0; node < this.nodes; node++)
+			state.set(node, solver.getValue(offset + node));
+		return state;
+	}
+
+	/**
+	 * This method adds the clause that excludes the given state as the first state of the cycle
+	 * @param solver: the solver
+	 * @param state: the state
+	 */
+	private void block(SatSolver solver, BitState state){
+		int[] clause = new int[this.nodes];
+		for(int node = 0; node < this.nodes; node++)
+			clause[node] = SatCycleFinder.literal(node, !state.get(node));
+		solver.addClause(clause);
+	}
+
+	/**
+	 * This method returns the DIMACS literal of a variable value
+	 * @param variable: the variable
+	 * @param value: the value
+	 * @return the literal that is true if the variable has the given value
+	 */
+	private static int literal(int variable, boolean value){
+		return value ? variable + 1 : -(variable + 1);
+	}
+
+	/**
+	 * This method encodes the clauses of the node function between two times
+	 * @param solver: the solver
+	 * @param node: the node
+	 * @param current: the variable of the node 0 at the current time
+	 * @param next: the variable of the node 0 at the following time
+	 */
+	private void encodeFunction(SatSolver solver, int node, int current, int next){
+		int output = next + node;
+		int[] inputs = this.network.getInputs(node);
+		int[] clause;
+
+		switch(this.network.getFunctionType(node)){
+		case BitSlicedNetwork.AND:
+		case BitSlicedNetwork.OR:
+			//The AND output is true if all the inputs are true, the OR output is false if all the inputs are false
+			boolean and = this.network.getFunctionType(node) == BitSlicedNetwork.AND;
+			clause = new int[inputs.length + 1];
+			for(int i = 0; i < inputs.length; i++){
+				solver.addClause(SatCycleFinder.literal(output, !and), SatCycleFinder.literal(current + inputs[i], and));
+				clause[i] = SatCycleFinder.literal(current + inputs[i], !and);
+			}
+			clause[inputs.length] = SatCycleFinder.literal(output, and);
+			solver.addClause(clause);
+			break;
+		case BitSlicedNetwork.TABLE:
+			this.encodeTable(solver, node, inputs, current, output, 0, 0);
+			break;
+		default:
+			solver.addClause(SatCycleFinder.literal(output, this.network.getConstant(node)));
+		}
+	}
+
+	/**
+	 * This method encodes the entries of a table function that start with the given inputs values.
+	 * If all these entries have the same output, a single clause is added: the fixed inputs imply the output.
+	 * @param solver: the solver
+	 * @param node: the node
+	 * @param inputs: the function inputs, the first one is the most significant bit of the entry index
+	 * @param current: the variable of the node 0 at the current time
+	 * @param output: the variable of the node at the following time
+	 * @param input: the number of the fixed inputs
+	 * @param prefix: the values of the fixed inputs
+	 */
+	private void encodeTable(SatSolver solver, int node, int[] inputs, int current, int output, int input, int prefix){
+		int free = inputs.length - input;
+		int first = prefix << free;
+		boolean value = this.network.getOutput(node, first);
+		boolean constant = true;
+		for(int entry = first + 1; entry < first + (1 << free) && constant; entry++)
+			constant = this.network.getOutput(node, entry) == value;
+
+		if(constant){
+			int[] clause = new int[input + 1];
+			for(int i = 0; i < input; i++)
+				clause[i] = SatCycleFinder.literal(current + inputs[i], ((prefix >>> (input - 1 - i)) & 1) == 0);
+			clause[input] = SatCycleFinder.literal(output, value);
+			solver.addClause(clause);
+			return;
+		}
+		this.encodeTable(solver, node, inputs, current, output, input + 1, prefix << 1);
+		this.encodeTable(solver, node, inputs, current, output, input + 1, (prefix << 1) | 1);
+	}
+
+}
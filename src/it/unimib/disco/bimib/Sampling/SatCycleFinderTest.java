@@ -0,0 +1,72 @@
+package it.unimib.disco.bimib.Sampling;
+
+import static org.junit.Assert.*;
+
+import java.util.HashSet;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+import it.unimib.disco.bimib.Networks.GraphManager;
+import it.unimib.disco.bimib.Utility.BitState;
+
+public class SatCycleFinderTest {
+
+	public SatCycleFinderTest() {
+	}
+
+	/**
+	 * This method returns the sorted states of a cycle
+	 * @param cycle: the states of the cycle
+	 * @return the sorted states as a string
+	 */
+	private static String sortedStates(Object[] cycle) {
+		TreeSet<String> states = new TreeSet<String>();
+		for(Object state : cycle)
+			states.add(state.toString());
+		return states.toString();
+	}
+
+	@Test
+	public void testBruteForceCycles() throws Exception {
+		for(int n = 0; n < 10; n++){
+			GraphManager manager = ModularSamplingTest.createRandomNetwork(12);
+			BruteForceSampling bruteForce = new BruteForceSampling(manager);
+			HashSet<String> expected = new HashSet<String>();
+			for(Object attractor : bruteForce.getAttractors()){
+				if(bruteForce.getAttractorLength(attractor) <= 4)
+					expected.add(sortedStates(bruteForce.getStatesInAttractor(attractor)));
+			}
+
+			//The cycles with a period up to 4 are the brute force ones, found once and in order of period
+			SatCycleFinder finder = new SatCycleFinder(manager.getBitSlicedNetwork());
+			HashSet<String> found = new HashSet<String>();
+			int period = 1;
+			for(BitState[] cycle : finder.findCycles(4, 1000)){
+				assertTrue(cycle.length >= period);
+				period = cycle.length;
+				for(int i = 0; i < cycle.length; i++)
+					assertEquals(manager.getNewState(cycle[i]), cycle[(i + 1) % cycle.length]);
+				assertTrue(found.add(sortedStates(cycle)));
+			}
+			assertTrue(finder.isCompleted());
+			assertEquals(expected, found);
+
+			//The seeded sampling registers the same fixed points before sampling
+			PartialSamplingSettings settings = new PartialSamplingSettings(50, 5000);
+			settings.setSeedPeriod(1);
+			PartialSampling sampling = new PartialSampling(manager, settings);
+			int fixedPoints = 0;
+			for(int id = 0; id < bruteForce.getAttractorsNumber(); id++){
+				if(bruteForce.getAttractorLength(bruteForce.getAttractorById(id)) == 1){
+					fixedPoints++;
+					int seededId = sampling.getAttractorId(bruteForce.getAttractorById(id));
+					assertTrue(seededId >= 0 && seededId < sampling.getSeededAttractors());
+				}
+			}
+			assertEquals(fixedPoints, sampling.getSeededAttractors());
+			PartialSamplingTest.assertBruteForceStates(sampling, bruteForce);
+		}
+	}
+
+}
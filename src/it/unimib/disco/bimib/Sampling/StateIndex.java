@@ -0,0 +1,484 @@
+/**
+ * This class is an open addressing hash table that maps the visited network states
+ * to their attractor id and to their position (the number of steps needed to reach the attractor).
+ * The states are stored as packed words in a single long array, so each state
+ * needs about n/8 + 8 bytes instead of the objects of a hash map entry.
+ * The attractor ids are the ids of an AttractorRegistry.
+ *
+ * The lookups don't need any lock and can be executed while another thread stores new states:
+ * a slot is published by writing its attractor id as last value. The states
+ * are stored one thread at a time.
+ *
+ * The index can be bounded. A bounded index keeps two generations of states: when the current one
+ * is full it becomes the old one and the previous old generation is evicted. A state found in the
+ * old generation is copied in the current one, so the states that are reached again survive the
+ * eviction (second chance). The tables are never modified in place, so the lookups remain lock free.
+ * A state is new if it is stored for the first time: the sampling methods count the new states
+ * of each basin of attraction, so the basins dimension doesn't depend on the stored states.
+ * A bounded index remembers the counted states with a 64 bit fingerprint that is never evicted
+ * (the state itself for networks with up to 64 nodes), so an evicted state that is reached again
+ * is not counted twice. The fingerprints need 8-16 bytes for each visited state.
+ */
+
+package it.unimib.disco.bimib.Sampling;
+
+//System imports
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+//GRNSim imports
+import it.unimib.disco.bimib.Utility.BitState;
+
+class StateIndex implements Iterable<BitState> {
+
+	//Value returned by the lookup of an unknown state
+	static final long NOT_FOUND = -1L;
+
+	private static final int INITIAL_CAPACITY = 1024;
+
+	private int nodes;
+	private int wordsNumber;
+	//Maximum number of stored states, 0 if the index is not bounded
+	private int maxStates;
+	//The current table, replaced when it is too full
+	private volatile Table table;
+	//The old generation of a bounded index, null if there isn't
+	private volatile Table oldTable;
+	private int size;
+	private int oldSize;
+	//The fingerprints of the counted states of a bounded index, null if the index is not bounded
+	private Fingerprints counted;
+
+	/**
+	 * This class contains the slots of the hash table.
+	 * The slot i uses the words from i * wordsNumber to (i + 1) * wordsNumber - 1.
+	 */
+	private static class Table {
+		private long[] keys;
+		private int[] positions;
+		//Attractor id + 1 of each slot, 0 if the slot is empty
+		private AtomicIntegerArray ids;
+		private int mask;
+
+		private Table(int capacity, int wordsNumber){
+			this.keys = new long[capacity * wordsNumber];
+			this.positions = new int[capacity];
+			this.ids = new AtomicIntegerArray(capacity);
+			this.mask = capacity - 1;
+		}
+
+		private Table copy(){
+			Table copiedTable = new Table(this.mask + 1, 0);
+			copiedTable.keys = Arrays.copyOf(this.keys, this.keys.length);
+			System.arraycopy(this.positions, 0, copiedTable.positions, 0, this.positions.length);
+			for(int slot = 0; slot <= this.mask; slot++)
+				copiedTable.ids.set(slot, this.ids.get(slot));
+			return copiedTable;
+		}
+	}
+
+	/**
+	 * This class is an open addressing set of state fingerprints, that is never evicted.
+	 * The fingerprint 0 is stored by a flag, since 0 marks the empty slots.
+	 */
+	private static class Fingerprints {
+		private long[] slots;
+		private boolean zero;
+		private int size;
+
+		private Fingerprints(){
+			this.slots = new long[INITIAL_CAPACITY];
+			this.zero = false;
+			this.size = 0;
+		}
+
+		/**
+		 * This method adds a fingerprint to the set
+		 * @param fingerprint: the fingerprint
+		 * @return true if the fingerprint was not in the set
+		 */
+		private boolean add(long fingerprint){
+			if(fingerprint == 0){
+				boolean added = !this.zero;
+				this.zero = true;
+				return added;
+			}
+			if(3 * (this.size + 1) > 2 * this.slots.length)
+				this.resize();
+			if(!Fingerprints.insert(this.slots, fingerprint))
+				return false;
+			this.size++;
+			return true;
+		}
+
+		/**
+		 * This method inserts a fingerprint in the given slots
+		 * @param slots: the slots
+		 * @param fingerprint: the fingerprint, not 0
+		 * @return true if the fingerprint was not in the slots
+		 */
+		private static boolean insert(long[] slots, long fingerprint){
+			int mask = slots.length - 1;
+			int slot = (int) (fingerprint ^ (fingerprint >>> 32)) & mask;
+			while(slots[slot] != 0){
+				if(slots[slot] == fingerprint)
+					return false;
+				slot = (slot + 1) & mask;
+			}
+			slots[slot] = fingerprint;
+			return true;
+		}
+
+		/**
+		 * This method moves the fingerprints in a set with the double capacity
+		 */
+		private void resize(){
+			long[] resized = new long[2 * this.slots.length];
+			for(long fingerprint : this.slots){
+				if(fingerprint != 0)
+					Fingerprints.insert(resized, fingerprint);
+			}
+			this.slots = resized;
+		}
+
+		private Fingerprints copy(){
+			Fingerprints copiedSet = new Fingerprints();
+			copiedSet.slots = Arrays.copyOf(this.slots, this.slots.length);
+			copiedSet.zero = this.zero;
+			copiedSet.size = this.size;
+			return copiedSet;
+		}
+	}
+
+	/**
+	 * Generic constructor. The index is empty and not bounded.
+	 * @param nodes: the number of the nodes of the states
+	 */
+	StateIndex(int nodes){
+		this(nodes, 0);
+	}
+
+	/**
+	 * Generic constructor. The index is empty.
+	 * @param nodes: the number of the nodes of the states
+	 * @param maxStates: the maximum number of stored states, 0 if the index is not bounded
+	 */
+	StateIndex(int nodes, int maxStates){
+		this.nodes = nodes;
+		this.wordsNumber = BitState.wordsNumber(nodes);
+		this.maxStates = maxStates;
+		this.table = new Table(INITIAL_CAPACITY, this.wordsNumber);
+		this.oldTable = null;
+		this.size = 0;
+		this.oldSize = 0;
+		this.counted = maxStates > 0 ? new Fingerprints() : null;
+	}
+
+	/**
+	 * This method returns the hash of the state words
+	 * @param words: the state words
+	 * @return the hash value
+	 */
+	private static int hash(long[] words){
+		long hash = 0L;
+		for(long word : words){
+			hash = (hash ^ word) * 0x9E3779B97F4A7C15L;
+			hash ^= hash >>> 32;
+		}
+		return (int) hash;
+	}
+
+	/**
+	 * This method returns the 64 bit fingerprint of the state words: the only word of the states
+	 * with up to 64 nodes, otherwise a mix of all the words.
+	 * @param words: the state words
+	 * @return the fingerprint
+	 */
+	private static long fingerprint(long[] words){
+		if(words.length == 1)
+			return words[0];
+		long fingerprint = 0x2545F4914F6CDD1DL;
+		for(long word : words){
+			fingerprint = (fingerprint ^ word) * 0xBF58476D1CE4E5B9L;
+			fingerprint ^= fingerprint >>> 31;
+		}
+		return fingerprint;
+	}
+
+	/**
+	 * This method returns the slot of the given state in the given table.
+	 * @param table: the table
+	 * @param words: the state words
+	 * @return the slot of the state if it is stored, otherwise -(empty slot) - 1
+	 */
+	private int find(Table table, long[] words){
+		int slot = StateIndex.hash(words) & table.mask;
+		while(table.ids.get(slot) != 0){
+			int offset = slot * this.wordsNumber;
+			int w = 0;
+			while(w < this.wordsNumber && table.keys[offset + w] == words[w])
+				w++;
+			if(w == this.wordsNumber)
+				return slot;
+			slot = (slot + 1) & table.mask;
+		}
+		return -slot - 1;
+	}
+
+	/**
+	 * This method returns true if the state is stored
+	 * @param state: the state
+	 * @return true if the state is stored
+	 */
+	boolean contains(BitState state){
+		return this.lookup(state) != NOT_FOUND;
+	}
+
+	/**
+	 * This method returns the attractor id and the position of the given state.
+	 * A state found in the old generation is moved in the current one.
+	 * @param state: the state
+	 * @return the attractor id in the 32 most significant bits and the position in the others,
+	 * NOT_FOUND if the state is not stored.
+	 */
+	long lookup(BitState state){
+		//The current table is read first: it is replaced after the old one during an eviction
+		Table current = this.table;
+		Table old = this.oldTable;
+		int slot = this.find(current, state.getWords());
+		if(slot >= 0)
+			return ((long) (current.ids.get(slot) - 1) << 32) | current.positions[slot];
+		if(old == null)
+			return NOT_FOUND;
+		slot = this.find(old, state.getWords());
+		if(slot < 0)
+			return NOT_FOUND;
+		int attractorId = old.ids.get(slot) - 1;
+		int position = old.positions[slot];
+		//Second chance: the state survives the next eviction
+		this.put(state, attractorId, position, false);
+		return ((long) attractorId << 32) | position;
+	}
+
+	/**
+	 * This method returns the attractor id of a lookup result
+	 * @param entry: the lookup result
+	 * @return the attractor id
+	 */
+	static int getAttractorId(long entry){
+		return (int) (entry >>> 32);
+	}
+
+	/**
+	 * This method returns the position of a lookup result
+	 * @param entry: the lookup result
+	 * @return the position
+	 */
+	static int getPosition(long entry){
+		return (int) entry;
+	}
+
+	/**
+	 * This method stores a state if it is not already stored.
+	 * @param state: the state
+	 * @param attractorId: the id of the state attractor
+	 * @param position: the number of steps needed to reach the attractor
+	 * @return true if the state is new
+	 */
+	boolean put(BitState state, int attractorId, int position){
+		return this.put(state, attractorId, position, true);
+	}
+
+	/**
+	 * This method stores a state in the current table if it is not already stored.
+	 * @param state: the state
+	 * @param attractorId: the id of the state attractor
+	 * @param position: the number of steps needed to reach the attractor
+	 * @param isNew: true if the state can be new, false if it is moved from the old generation
+	 * @return true if the state is new: it has never been counted before
+	 */
+	private synchronized boolean put(BitState state, int attractorId, int position, boolean isNew){
+		long[] words = state.getWords();
+		int slot = this.find(this.table, words);
+		if(slot >= 0)
+			return false;
+		//The evicted states are counted once
+		if(isNew && this.counted != null)
+			isNew = this.counted.add(StateIndex.fingerprint(words));
+
+		//Evicts the old generation when the current one is full
+		if(this.maxStates > 0 && 2 * (this.size + 1) > this.maxStates){
+			this.oldTable = this.table;
+			this.oldSize = this.size;
+			this.table = new Table(INITIAL_CAPACITY, this.wordsNumber);
+			this.size = 0;
+			slot = this.find(this.table, words);
+		}
+		//Grows the table when it is two thirds full
+		if(3 * (this.size + 1) > 2 * (this.table.mask + 1)){
+			this.resize();
+			slot = this.find(this.table, words);
+		}
+		slot = -slot - 1;
+		Table current = this.table;
+		System.arraycopy(words, 0, current.keys, slot * this.wordsNumber, this.wordsNumber);
+		current.positions[slot] = position;
+		//The slot is published by its attractor id
+		current.ids.set(slot, attractorId + 1);
+		this.size++;
+		return isNew;
+	}
+
+	/**
+	 * This method moves all the stored states in a table with the double capacity.
+	 * The old table is not modified, so it can be still read by the other threads.
+	 */
+	private void resize(){
+		Table old = this.table;
+		Table resized = new Table(2 * (old.mask + 1), this.wordsNumber);
+		long[] words = new long[this.wordsNumber];
+		for(int slot = 0; slot <= old.mask; slot++){
+			if(old.ids.get(slot) == 0)
+				continue;
+			System.arraycopy(old.keys, slot * this.wordsNumber, words, 0, this.wordsNumber);
+			int newSlot = -this.find(resized, words) - 1;
+			System.arraycopy(words, 0, resized.keys, newSlot * this.wordsNumber, this.wordsNumber);
+			resized.positions[newSlot] = old.positions[slot];
+			resized.ids.set(newSlot, old.ids.get(slot));
+		}
+		this.table = resized;
+	}
+
+	/**
+	 * This method returns true if the index is bounded
+	 * @return true if the index evicts the states
+	 */
+	boolean isBounded(){
+		return this.maxStates > 0;
+	}
+
+	/**
+	 * This method returns the maximum number of stored states
+	 * @return the maximum number of stored states, 0 if the index is not bounded
+	 */
+	int getMaxStates(){
+		return this.maxStates;
+	}
+
+	/**
+	 * This method returns the number of the stored states
+	 * @return the number of the stored states
+	 */
+	synchronized int size(){
+		return this.size + this.oldSize;
+	}
+
+	/**
+	 * This method returns a copy of the index
+	 * @return the copy of the index
+	 */
+	synchronized StateIndex copy(){
+		StateIndex copiedIndex = new StateIndex(this.nodes, this.maxStates);
+		copiedIndex.table = this.table.copy();
+		copiedIndex.oldTable = this.oldTable == null ? null : this.oldTable.copy();
+		copiedIndex.size = this.size;
+		copiedIndex.oldSize = this.oldSize;
+		copiedIndex.counted = this.counted == null ? null : this.counted.copy();
+		return copiedIndex;
+	}
+
+	/**
+	 * This method returns an iterator over the stored states.
+	 * A new state object is created for each stored state.
+	 * @return the states iterator
+	 */
+	public StatesIterator iterator(){
+		return new StatesIterator(this.table, this.oldTable);
+	}
+
+	/**
+	 * This class iterates over the stored states of the current table and then of the old one.
+	 * The states of the old table that are in the current one too are skipped.
+	 * The attractor id and the position of the last returned state are available too.
+	 */
+	class StatesIterator implements Iterator<BitState> {
+
+		private Table current;
+		private Table table;
+		private Table old;
+		private int next;
+		private Table lastTable;
+		private int last;
+		private long[] words;
+
+		private StatesIterator(Table current, Table old){
+			this.current = current;
+			this.table = current;
+			this.old = old;
+			this.next = 0;
+			this.lastTable = current;
+			this.last = -1;
+			this.words = new long[wordsNumber];
+			this.moveToNext();
+		}
+
+		private void moveToNext(){
+			while(true){
+				while(this.next <= this.table.mask && !this.isReturned(this.next))
+					this.next++;
+				if(this.next <= this.table.mask || this.table != this.current || this.old == null)
+					return;
+				//Continues with the old table
+				this.table = this.old;
+				this.next = 0;
+			}
+		}
+
+		private boolean isReturned(int slot){
+			if(this.table.ids.get(slot) == 0)
+				return false;
+			if(this.table == this.current)
+				return true;
+			System.arraycopy(this.table.keys, slot * wordsNumber, this.words, 0, wordsNumber);
+			return find(this.current, this.words) < 0;
+		}
+
+		public boolean hasNext(){
+			return this.next <= this.table.mask;
+		}
+
+		public BitState next(){
+			if(!this.hasNext())
+				throw new NoSuchElementException();
+			BitState state = new BitState(nodes);
+			System.arraycopy(this.table.keys, this.next * wordsNumber, state.getWords(), 0, wordsNumber);
+			this.lastTable = this.table;
+			this.last = this.next;
+			this.next++;
+			this.moveToNext();
+			return state;
+		}
+
+		/**
+		 * This method returns the attractor id of the last returned state
+		 * @return the attractor id
+		 */
+		int getAttractorId(){
+			return this.lastTable.ids.get(this.last) - 1;
+		}
+
+		/**
+		 * This method returns the position of the last returned state
+		 * @return the position
+		 */
+		int getPosition(){
+			return this.lastTable.positions[this.last];
+		}
+
+		public void remove(){
+			throw new UnsupportedOperationException();
+		}
+	}
+}
@@ -0,0 +1,120 @@
+package it.unimib.disco.bimib.Sampling;
+
+import static org.junit.Assert.*;
+
+import java.util.HashSet;
+
+import org.junit.Test;
+
+import it.unimib.disco.bimib.Utility.BitState;
+
+public class StateIndexTest {
+
+	public StateIndexTest() {
+	}
+
+	/**
+	 * This method returns a state of 70 nodes, so each state uses two words
+	 * @param i: the state number
+	 * @return the state
+	 */
+	private static BitState state(int i) {
+		BitState state = new BitState(70);
+		state.getWords()[0] = i * 0x9E3779B97F4A7C15L;
+		state.getWords()[1] = i & 0x3F;
+		return state;
+	}
+
+	@Test
+	public void testResize() {
+		StateIndex index = new StateIndex(70);
+		for(int i = 0; i < 5000; i++)
+			assertTrue(index.put(state(i), i % 7, i));
+		assertEquals(5000, index.size());
+
+		//The states survive the resizes
+		for(int i = 0; i < 5000; i++){
+			long entry = index.lookup(state(i));
+			assertEquals(i % 7, StateIndex.getAttractorId(entry));
+			assertEquals(i, StateIndex.getPosition(entry));
+		}
+		assertEquals(StateIndex.NOT_FOUND, index.lookup(state(5000)));
+
+		//A stored state is not stored again
+		assertFalse(index.put(state(10), 3, 3));
+		assertEquals(10, StateIndex.getPosition(index.lookup(state(10))));
+		assertEquals(5000, index.size());
+		assertFalse(index.isBounded());
+	}
+
+	@Test
+	public void testIteratorPositions() {
+		StateIndex index = new StateIndex(70);
+		for(int i = 0; i < 2000; i++)
+			index.put(state(i), i % 3, i);
+
+		HashSet<BitState> returned = new HashSet<BitState>();
+		StateIndex.StatesIterator iterator = index.iterator();
+		while(iterator.hasNext()){
+			BitState state = iterator.next();
+			assertTrue(returned.add(state));
+			int i = iterator.getPosition();
+			assertEquals(state(i), state);
+			assertEquals(i % 3, iterator.getAttractorId());
+		}
+		assertEquals(2000, returned.size());
+	}
+
+	@Test
+	public void testBoundedGenerations() {
+		//Each generation keeps 50 states
+		StateIndex index = new StateIndex(70, 100);
+		for(int i = 0; i < 60; i++)
+			index.put(state(i), 0, i);
+		assertEquals(60, index.size());
+
+		//The state 0 is in the old generation: the lookup moves it in the current one
+		assertEquals(0, StateIndex.getPosition(index.lookup(state(0))));
+		for(int i = 60; i < 100; i++)
+			index.put(state(i), 0, i);
+		assertTrue(index.size() <= 100);
+		assertTrue(index.contains(state(0)));
+		assertFalse(index.contains(state(1)));
+		assertTrue(index.contains(state(99)));
+
+		//An evicted state is counted once
+		assertFalse(index.put(state(1), 0, 1));
+		assertTrue(index.contains(state(1)));
+		assertTrue(index.put(state(100), 0, 100));
+
+		//A copy has the same states and the same counted states
+		StateIndex copied = index.copy();
+		assertEquals(index.size(), copied.size());
+		assertFalse(copied.put(state(2), 0, 2));
+		assertTrue(copied.put(state(101), 0, 101));
+		assertFalse(index.contains(state(101)));
+	}
+
+	@Test
+	public void testBoundedIterator() {
+		StateIndex index = new StateIndex(70, 100);
+		for(int i = 0; i < 80; i++)
+			index.put(state(i), i % 3, i);
+		//The states of the old generation that are moved in the current one are returned once
+		for(int i = 0; i < 10; i++)
+			index.lookup(state(i));
+
+		HashSet<BitState> returned = new HashSet<BitState>();
+		StateIndex.StatesIterator iterator = index.iterator();
+		while(iterator.hasNext()){
+			BitState state = iterator.next();
+			assertTrue(returned.add(state));
+			int i = iterator.getPosition();
+			assertEquals(state(i), state);
+			assertEquals(i % 3, iterator.getAttractorId());
+		}
+		assertEquals(80, returned.size());
+		assertEquals(index.size() - 10, returned.size());
+	}
+
+}
@@ -0,0 +1,48 @@
+/**
+ * StateTable interface.
+ * This interface specifies a table with an int value for each network state index,
+ * used by the brute force sampling to store the following states, the attractor ids and the positions.
+ * The index is a long value, so the tables of the networks with up to 32 nodes can be addressed.
+ */
+
+package it.unimib.disco.bimib.Sampling;
+
+//System imports
+import java.io.IOException;
+
+interface StateTable {
+
+	/**
+	 * This method returns the value of the given state index
+	 * @param index: the state index
+	 * @return the value
+	 */
+	public int get(long index);
+
+	/**
+	 * This method sets the value of the given state index.
+	 * Different indexes can be set by different threads at the same time.
+	 * @param index: the state index
+	 * @param value: the value
+	 */
+	public void set(long index, int value);
+
+	/**
+	 * This method sets the same value for all the state indexes
+	 * @param value: the value
+	 */
+	public void fill(int value);
+
+	/**
+	 * This method returns the number of the state indexes
+	 * @return the number of the state indexes
+	 */
+	public long size();
+
+	/**
+	 * This method returns a copy of the table
+	 * @return the copy of the table
+	 * @throws IOException the copy can not be stored
+	 */
+	public StateTable copy() throws IOException;
+}
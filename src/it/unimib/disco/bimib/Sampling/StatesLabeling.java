@@ -0,0 +1,348 @@
+/**
+ * This class labels the cycles and the basins of the state transition graph in parallel,
+ * given the following state of each state (see the BruteForceSampling class).
+ * The states of the cycles are found by pointer jumping: the table of F^(2^k) is computed from the one
+ * of F^(2^(k-1)) until its image doesn't shrink anymore, then the image contains exactly the states of the cycles.
+ * The cycles are labeled walking them, then each state follows its trajectory until a labeled state
+ * and labels the states of the trajectory. The attractor id and the distance from the cycle of a state don't depend
+ * on the thread that writes them, so the threads share the tables without locking.
+ * The attractors are registered in order of the smallest state of their basins, as done by the sequential labeling.
+ */
+
+package it.unimib.disco.bimib.Sampling;
+
+//System imports
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+//GRNSim imports
+import it.unimib.disco.bimib.Utility.BitState;
+
+class StatesLabeling {
+
+	//Value of a state not yet labeled
+	private static final int UNKNOWN = -1;
+	//Maximum number of states labeled by a single parallel task
+	private static final long TASK_STATES = 1L << 16;
+	//Maximum number of attractors whose statistics are accumulated by each task before being merged
+	private static final int LOCAL_ATTRACTORS = 1 << 12;
+
+	//The phases executed by the parallel tasks
+	private static final int JUMP = 0;
+	private static final int MARK = 1;
+	private static final int INITIALIZE = 2;
+	private static final int WALK = 3;
+	private static final int STATISTICS = 4;
+	private static final int RENUMBER = 5;
+
+	private StateTable successors;
+	private StateTable attractorIds;
+	private StateTable positions;
+	private int nodes;
+	private long states;
+
+	//The tables of the pointer jumping: the destination contains the source composed with itself
+	private StateTable source;
+	private StateTable destination;
+	//The image of the last table, one bit for each state
+	private AtomicLongArray image;
+
+	//The states of each cycle, in order of discovery
+	private ArrayList<long[]> cycles;
+	//The basin dimension, the longest transient and the smallest state of each cycle basin
+	private AtomicLongArray basins;
+	private AtomicIntegerArray transients;
+	private AtomicLongArray smallestStates;
+	//The final attractor id of each cycle
+	private int[] ranks;
+
+	/**
+	 * Generic constructor
+	 * @param successors: the following state of each state, as unsigned values
+	 * @param attractorIds: the table where the attractor id of each state is written
+	 * @param positions: the table where the distance of each state from its cycle is written
+	 * @param nodes: the number of the nodes of the network
+	 */
+	StatesLabeling(StateTable successors, StateTable attractorIds, StateTable positions, int nodes){
+		this.successors = successors;
+		this.attractorIds = attractorIds;
+		this.positions = positions;
+		this.nodes = nodes;
+		this.states = successors.size();
+	}
+
+	/**
+	 * This method labels all the states and registers the attractors, with their basin dimension and longest transient.
+	 * The attractor ids and the positions tables are used by the pointer jumping before being labeled.
+	 * @param registry: the empty registry of the attractors
+	 * @param threads: the number of the labeling threads
+	 */
+	void labels(AttractorRegistry registry, int threads){
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		try{
+			this.findsCycleStates(pool);
+			pool.invoke(new LabelingTask(this, INITIALIZE, 0, this.states));
+			this.labelsCycles();
+			this.image = null;
+			pool.invoke(new LabelingTask(this, WALK, 0, this.states));
+
+			int cyclesNumber = this.cycles.size();
+			this.basins = new AtomicLongArray(cyclesNumber);
+			this.transients = new AtomicIntegerArray(cyclesNumber);
+			this.smallestStates = new AtomicLongArray(cyclesNumber);
+			for(int cycle = 0; cycle < cyclesNumber; cycle++)
+				this.smallestStates.set(cycle, Long.MAX_VALUE);
+			pool.invoke(new LabelingTask(this, STATISTICS, 0, this.states));
+
+			//The attractors are ordered by the smallest state of their basins
+			Integer[] order = new Integer[cyclesNumber];
+			for(int cycle = 0; cycle < cyclesNumber; cycle++)
+				order[cycle] = cycle;
+			Arrays.sort(order, (first, second) -> Long.compare(this.smallestStates.get(first), this.smallestStates.get(second)));
+			this.ranks = new int[cyclesNumber];
+			boolean renumbered = false;
+			for(int rank = 0; rank < cyclesNumber; rank++){
+				int cycle = order[rank];
+				this.ranks[cycle] = rank;
+				renumbered = renumbered || cycle != rank;
+				BitState[] cycleStates = new BitState[this.cycles.get(cycle).length];
+				for(int i = 0; i < cycleStates.length; i++)
+					cycleStates[i] = BitState.fromIndex(this.cycles.get(cycle)[i], this.nodes);
+				registry.register(cycleStates);
+				registry.addToBasin(rank, (int) Math.min(this.basins.get(cycle), Integer.MAX_VALUE));
+				registry.updateTransientLength(rank, this.transients.get(cycle));
+			}
+			if(renumbered)
+				pool.invoke(new LabelingTask(this, RENUMBER, 0, this.states));
+		}finally{
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * This method finds the states of the cycles by pointer jumping.
+	 * The images of F, F^2, F^4, ... are nested: when two consecutive images have the same size,
+	 * F is a bijection of the image, so the image contains only the states of the cycles, and all of them.
+	 * @param pool: the threads pool
+	 */
+	private void findsCycleStates(ForkJoinPool pool){
+		this.image = new AtomicLongArray((int) ((this.states + 63) >>> 6));
+		this.source = this.successors;
+		pool.invoke(new LabelingTask(this, MARK, 0, this.states));
+		long imageSize = this.countsImage(), newImageSize;
+
+		//The successors table is never written: the other two tables are used alternately
+		this.destination = this.attractorIds;
+		while(true){
+			pool.invoke(new LabelingTask(this, JUMP, 0, this.states));
+			this.source = this.destination;
+			for(int word = 0; word < this.image.length(); word++)
+				this.image.set(word, 0L);
+			pool.invoke(new LabelingTask(this, MARK, 0, this.states));
+			newImageSize = this.countsImage();
+			if(newImageSize == imageSize)
+				return;
+			imageSize = newImageSize;
+			this.destination = this.source == this.attractorIds ? this.positions : this.attractorIds;
+		}
+	}
+
+	/**
+	 * This method returns the number of the states in the image
+	 * @return the size of the image
+	 */
+	private long countsImage(){
+		long size = 0;
+		for(int word = 0; word < this.image.length(); word++)
+			size += Long.bitCount(this.image.get(word));
+		return size;
+	}
+
+	/**
+	 * This method walks the cycles in order of their smallest state, and labels their states
+	 * with the cycle number and the position 0.
+	 */
+	private void labelsCycles(){
+		this.cycles = new ArrayList<long[]>();
+		long[] cycle = new long[16];
+		int length;
+		for(int word = 0; word < this.image.length(); word++){
+			long bits = this.image.get(word);
+			while(bits != 0){
+				long state = ((long) word << 6) + Long.numberOfTrailingZeros(bits);
+				bits &= bits - 1;
+				if(this.attractorIds.get(state) != UNKNOWN)
+					continue;
+				length = 0;
+				long cycleState = state;
+				do{
+					if(length == cycle.length)
+						cycle = Arrays.copyOf(cycle, 2 * cycle.length);
+					cycle[length] = cycleState;
+					length++;
+					this.attractorIds.set(cycleState, this.cycles.size());
+					this.positions.set(cycleState, 0);
+					cycleState = this.successors.get(cycleState) & 0xFFFFFFFFL;
+				}while(cycleState != state);
+				this.cycles.add(Arrays.copyOf(cycle, length));
+			}
+		}
+	}
+
+	/**
+	 * This method executes a phase of the labeling on a range of states
+	 * @param phase: the phase
+	 * @param from: the first state (included)
+	 * @param to: the last state (excluded)
+	 */
+	private void process(int phase, long from, long to){
+		switch(phase){
+		case JUMP:
+			for(long state = from; state < to; state++){
+				long next = this.source.get(state) & 0xFFFFFFFFL;
+				this.destination.set(state, this.source.get(next));
+			}
+			break;
+		case MARK:
+			for(long state = from; state < to; state++){
+				long next = this.source.get(state) & 0xFFFFFFFFL;
+				long bit = 1L << next;
+				int word = (int) (next >>> 6);
+				if((this.image.get(word) & bit) == 0)
+					this.image.getAndAccumulate(word, bit, (a, b) -> a | b);
+			}
+			break;
+		case INITIALIZE:
+			for(long state = from; state < to; state++){
+				this.attractorIds.set(state, UNKNOWN);
+				this.positions.set(state, UNKNOWN);
+			}
+			break;
+		case WALK:
+			this.walks(from, to);
+			break;
+		case STATISTICS:
+			this.accumulatesStatistics(from, to);
+			break;
+		case RENUMBER:
+			for(long state = from; state < to; state++)
+				this.attractorIds.set(state, this.ranks[this.attractorIds.get(state)]);
+			break;
+		}
+	}
+
+	/**
+	 * This method labels the states of a range: each state not yet labeled follows its trajectory
+	 * until a labeled state, then the states of the trajectory are labeled backward.
+	 * The position is written before the attractor id, and a state is labeled when both of them are written.
+	 * @param from: the first state (included)
+	 * @param to: the last state (excluded)
+	 */
+	private void walks(long from, long to){
+		long[] trajectory = new long[16];
+		int steps, attractorId, position;
+		long state;
+		for(long initialState = from; initialState < to; initialState++){
+			steps = 0;
+			state = initialState;
+			while(this.attractorIds.get(state) == UNKNOWN || this.positions.get(state) == UNKNOWN){
+				if(steps == trajectory.length)
+					trajectory = Arrays.copyOf(trajectory, 2 * trajectory.length);
+				trajectory[steps] = state;
+				steps++;
+				state = this.successors.get(state) & 0xFFFFFFFFL;
+			}
+			attractorId = this.attractorIds.get(state);
+			position = this.positions.get(state);
+			for(int i = steps - 1; i >= 0; i--){
+				position++;
+				this.positions.set(trajectory[i], position);
+				this.attractorIds.set(trajectory[i], attractorId);
+			}
+		}
+	}
+
+	/**
+	 * This method accumulates the basin dimension, the longest transient and the smallest state of each cycle
+	 * on a range of states. With few cycles the statistics of the range are merged at the end.
+	 * @param from: the first state (included)
+	 * @param to: the last state (excluded)
+	 */
+	private void accumulatesStatistics(long from, long to){
+		int cyclesNumber = this.cycles.size();
+		if(cyclesNumber > LOCAL_ATTRACTORS){
+			for(long state = from; state < to; state++){
+				int cycle = this.attractorIds.get(state);
+				this.basins.incrementAndGet(cycle);
+				this.transients.accumulateAndGet(cycle, this.positions.get(state), Math::max);
+				this.smallestStates.accumulateAndGet(cycle, state, Math::min);
+			}
+			return;
+		}
+
+		long[] basins = new long[cyclesNumber];
+		int[] transients = new int[cyclesNumber];
+		long[] smallestStates = new long[cyclesNumber];
+		Arrays.fill(smallestStates, Long.MAX_VALUE);
+		for(long state = from; state < to; state++){
+			int cycle = this.attractorIds.get(state);
+			//The states are in increasing order
+			if(basins[cycle] == 0)
+				smallestStates[cycle] = state;
+			basins[cycle]++;
+			transients[cycle] = Math.max(transients[cycle], this.positions.get(state));
+		}
+		for(int cycle = 0; cycle < cyclesNumber; cycle++){
+			if(basins[cycle] == 0)
+				continue;
+			this.basins.addAndGet(cycle, basins[cycle]);
+			this.transients.accumulateAndGet(cycle, transients[cycle], Math::max);
+			this.smallestStates.accumulateAndGet(cycle, smallestStates[cycle], Math::min);
+		}
+	}
+
+	/**
+	 * This class is the fork-join task that executes a phase of the labeling on a range of states.
+	 * The range is split until it is small enough.
+	 */
+	private static class LabelingTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private StatesLabeling labeling;
+		private int phase;
+		private long from;
+		private long to;
+
+		/**
+		 * Generic constructor
+		 * @param labeling: the labeling
+		 * @param phase: the executed phase
+		 * @param from: the first state (included)
+		 * @param to: the last state (excluded)
+		 */
+		LabelingTask(StatesLabeling labeling, int phase, long from, long to){
+			this.labeling = labeling;
+			this.phase = phase;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute(){
+			//Splits the range in two tasks
+			if(this.to - this.from > TASK_STATES){
+				long middle = (this.from + this.to) >>> 1;
+				invokeAll(new LabelingTask(this.labeling, this.phase, this.from, middle),
+						new LabelingTask(this.labeling, this.phase, middle, this.to));
+				return;
+			}
+			this.labeling.process(this.phase, this.from, this.to);
+		}
+	}
+
+}
@@ -0,0 +1,147 @@
+/**
+ * This class generates distinct initial states, stratified by Hamming weight (the number of active nodes).
+ * The weights follow the binomial distribution of the random states, but they are drawn with a stratified
+ * sampling: each block of draws takes one quantile from each one of its strata, in random order.
+ * Given the weight, the active nodes are chosen at random, and an already generated state is discarded.
+ * The generated states are remembered up to a maximum number (the bound of the stored states of the sampling,
+ * if any): then the generation starts again, so the states are distinct in each window of generated states.
+ */
+
+package it.unimib.disco.bimib.Sampling;
+
+//System imports
+import java.util.ArrayList;
+import java.util.HashSet;
+
+//GRNSim imports
+import it.unimib.disco.bimib.Utility.BitState;
+import it.unimib.disco.bimib.Utility.UtilityRandom;
+
+class StratifiedInitialStates implements InitialStatesGenerator {
+
+	//Number of random states of the same weight tried before the following weight is drawn
+	private static final int WEIGHT_ATTEMPTS = 32;
+	//Maximum number of remembered states, if the sampling is not bounded
+	private static final int MAX_GENERATED_STATES = 1 << 18;
+
+	private int nodes;
+	//The cumulative distribution of the weights of the random states
+	private double[] weightDistribution;
+	//The strata of the current block, in random order
+	private ArrayList<Integer> strata;
+	//The nodes, in order to choose the active ones
+	private int[] permutation;
+	//The generated states of the current window and their maximum number
+	private HashSet<BitState> generated;
+	private long maxGenerated;
+
+	/**
+	 * Generic constructor. At most 2^18 generated states are remembered.
+	 * @param nodes: the number of the nodes
+	 */
+	StratifiedInitialStates(int nodes){
+		this(nodes, 0);
+	}
+
+	/**
+	 * Generic constructor
+	 * @param nodes: the number of the nodes
+	 * @param maxStates: the maximum number of remembered states, 0 in order to remember at most 2^18 states
+	 */
+	StratifiedInitialStates(int nodes, int maxStates){
+		double logProbability = -nodes * Math.log(2), cumulative = 0;
+
+		this.nodes = nodes;
+		this.maxGenerated = maxStates > 0 ? maxStates : MAX_GENERATED_STATES;
+		//All the states of a small network
+		if(nodes < Long.SIZE - 1)
+			this.maxGenerated = Math.min(this.maxGenerated, 1L << nodes);
+		this.strata = new ArrayList<Integer>();
+		this.generated = new HashSet<BitState>();
+		this.permutation = new int[nodes];
+		for(int node = 0; node < nodes; node++)
+			this.permutation[node] = node;
+
+		//Binomial(nodes, 0.5) distribution, computed with logarithms in order to avoid the underflow
+		this.weightDistribution = new double[nodes + 1];
+		for(int weight = 0; weight <= nodes; weight++){
+			if(weight > 0)
+				logProbability = logProbability + Math.log(nodes - weight + 1) - Math.log(weight);
+			cumulative = cumulative + Math.exp(logProbability);
+			this.weightDistribution[weight] = cumulative;
+		}
+	}
+
+	/**
+	 * This method returns a new initial state, distinct from the already generated ones
+	 * @return a new initial state
+	 */
+	public BitState next(){
+		BitState state;
+		int weight;
+
+		//Starts a new window of distinct states
+		if(this.generated.size() >= this.maxGenerated)
+			this.generated.clear();
+
+		while(true){
+			weight = this.nextWeight();
+			for(int attempt = 0; attempt < WEIGHT_ATTEMPTS; attempt++){
+				state = this.createState(weight);
+				if(this.generated.add(state))
+					return state.copy();
+			}
+		}
+	}
+
+	/**
+	 * This method draws the weight of the following state.
+	 * A block has a stratum for each possible weight.
+	 * @return the weight
+	 */
+	private int nextWeight(){
+		double quantile;
+		int weight = 0;
+
+		//Starts a new block of strata
+		if(this.strata.isEmpty()){
+			for(int stratum = 0; stratum <= this.nodes; stratum++)
+				this.strata.add(stratum);
+			UtilityRandom.randomPermutation(this.strata);
+		}
+
+		//A random quantile in the stratum
+		quantile = (this.strata.remove(this.strata.size() - 1) + UtilityRandom.randomUniform()) / (this.nodes + 1);
+		while(weight < this.nodes && this.weightDistribution[weight] < quantile)
+			weight++;
+		return weight;
+	}
+
+	/**
+	 * This method returns a random state with the given number of active nodes.
+	 * The active nodes are chosen with a partial Fisher-Yates shuffle.
+	 * @param weight: the number of active nodes
+	 * @return the state
+	 */
+	private BitState createState(int weight){
+		BitState state = new BitState(this.nodes);
+		int index, swap;
+		for(int i = 0; i < weight; i++){
+			index = UtilityRandom.randomUniform(i, this.nodes);
+			swap = this.permutation[i];
+			this.permutation[i] = this.permutation[index];
+			this.permutation[index] = swap;
+			state.set(this.permutation[i], true);
+		}
+		return state;
+	}
+
+	/**
+	 * This method returns the number of the nodes of the generated states
+	 * @return the number of the nodes
+	 */
+	public int getNodesNumber(){
+		return this.nodes;
+	}
+
+}
@@ -0,0 +1,283 @@
+/**
+ * This class implements the symbolic sampling method.
+ * The sets of states are represented as binary decision diagrams, with a variable for each node,
+ * so all the attractors and their exact basins of attraction are found without enumerating the 2^n states.
+ * The basin of each attractor is computed backward, level by level, as the pre-images of the attractor states
+ * (see the BasinCalculator class). A state out of the computed basins reaches a new attractor,
+ * which is found by simulating its trajectory.
+ * The functions of the network must be compiled in truth tables (see the BitSlicedNetwork class).
+ */
+
+package it.unimib.disco.bimib.Sampling;
+
+//System imports
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+//GRNSim imports
+import it.unimib.disco.bimib.Bdd.BddManager;
+import it.unimib.disco.bimib.Exceptions.*;
+import it.unimib.disco.bimib.Networks.BitSlicedNetwork;
+import it.unimib.disco.bimib.Networks.GraphManager;
+import it.unimib.disco.bimib.Utility.BitState;
+
+public class SymbolicSampling extends BinarySamplingMethod {
+
+	//The number of states at each depth of each basin, in order of attractor id
+	private ArrayList<ArrayList<BigInteger>> depthDistributions;
+	private AttractorRegistry oldRegistry;
+
+
+	/**
+	 * Generic constructor
+	 * @param graph: A GraphManager object connected to the network
+	 * @throws NullPointerException
+	 * @throws ParamDefinitionException The network functions can not be compiled in truth tables
+	 * @throws InputTypeException
+	 * @throws NotExistingNodeException
+	 */
+	public SymbolicSampling(GraphManager graph) throws NullPointerException, ParamDefinitionException, NotExistingNodeException, InputTypeException{
+		super(graph);
+		this.depthDistributions = new ArrayList<ArrayList<BigInteger>>();
+		//Calculates all the attractors
+		this.calculatesAttractors();
+		this.storedInformation = null;
+	}
+
+	/**
+	 * This method calculates all the attractors of the graph and their basins of attraction.
+	 * The states that are not in a computed basin are the unexplored ones: one of them is simulated
+	 * until its attractor is reached, then the whole basin of the attractor is removed from the unexplored states.
+	 * @throws ParamDefinitionException The network functions can not be compiled in truth tables
+	 * @throws InputTypeException
+	 * @throws NotExistingNodeException
+	 */
+	private void calculatesAttractors() throws ParamDefinitionException, NotExistingNodeException, InputTypeException {
+		BitSlicedNetwork slicedNetwork = this.graph.getBitSlicedNetwork();
+		if(slicedNetwork == null)
+			throw new ParamDefinitionException("The symbolic sampling requires functions that can be compiled in truth tables");
+
+		BasinCalculator calculator = new BasinCalculator(slicedNetwork);
+		BddManager manager = calculator.getManager();
+		int unexplored, cycleStates, basin, expanded, attractorId;
+		ArrayList<BigInteger> levels;
+		BitState[] cycle;
+
+		super.registry = new AttractorRegistry();
+		this.depthDistributions = new ArrayList<ArrayList<BigInteger>>();
+
+		unexplored = manager.ref(BddManager.TRUE);
+		while(unexplored != BddManager.FALSE){
+
+			//Finds the attractor of an unexplored state
+			cycle = this.simulatesCycle(SymbolicSampling.toBitState(manager.satOne(unexplored)));
+			attractorId = super.registry.register(cycle);
+
+			//Computes the basin backward: the number of levels is the longest transient
+			levels = new ArrayList<BigInteger>();
+			cycleStates = calculator.createStates(cycle);
+			basin = calculator.createBasin(cycleStates, levels);
+			manager.deref(cycleStates);
+			this.depthDistributions.add(levels);
+			super.registry.addToBasin(attractorId, BasinCalculator.toInt(BasinCalculator.sum(levels)));
+			super.registry.updateTransientLength(attractorId, levels.size() - 1);
+
+			expanded = manager.ref(manager.diff(unexplored, basin));
+			manager.deref(unexplored);
+			manager.deref(basin);
+			unexplored = expanded;
+		}
+	}
+
+	/**
+	 * This method simulates the trajectory of a state until a state is repeated
+	 * @param initialState: the initial state
+	 * @return the states of the reached attractor
+	 * @throws ParamDefinitionException
+	 * @throws NotExistingNodeException
+	 * @throws InputTypeException
+	 */
+	private BitState[] simulatesCycle(BitState initialState) throws ParamDefinitionException, NotExistingNodeException, InputTypeException{
+		HashMap<BitState, Integer> trajectory = new HashMap<BitState, Integer>();
+		ArrayList<BitState> states = new ArrayList<BitState>();
+		BitState state = initialState;
+		while(!trajectory.containsKey(state)){
+			trajectory.put(state, states.size());
+			states.add(state);
+			BitState newState = new BitState(state.length());
+			this.graph.step(state, newState);
+			state = newState;
+		}
+		return states.subList(trajectory.get(state), states.size()).toArray(new BitState[0]);
+	}
+
+	/**
+	 * This method converts a variables assignment in a state
+	 * @param values: the value of each variable
+	 * @return the state
+	 */
+	private static BitState toBitState(boolean[] values){
+		BitState state = new BitState(values.length);
+		for(int node = 0; node < values.length; node++)
+			state.set(node, values[node]);
+		return state;
+	}
+
+	/**
+	 * This method returns the exact basin dimension of each attractor.
+	 * The basins returned by the getBasinOfAttraction method are limited to Integer.MAX_VALUE.
+	 * @return the exact basins dimension, in the same order of the attractors
+	 */
+	public ArrayList<BigInteger> getExactBasins(){
+		ArrayList<BigInteger> exactBasins = new ArrayList<BigInteger>();
+		for(ArrayList<BigInteger> levels : this.depthDistributions)
+			exactBasins.add(BasinCalculator.sum(levels));
+		return exactBasins;
+	}
+
+	/**
+	 * This method returns the transients distribution of each basin: the element d of an attractor list
+	 * is the number of states that need d steps to reach the attractor (the element 0 is the period).
+	 * @return the number of states at each depth of each basin, in the same order of the attractors
+	 */
+	public ArrayList<ArrayList<BigInteger>> getDepthDistributions(){
+		return new ArrayList<ArrayList<BigInteger>>(this.depthDistributions);
+	}
+
+	/**
+	 * This method returns the attractor of a given network status.
+	 * The status is simulated until a state of a found attractor is reached.
+	 * @param status: The BitState value representing the network status.
+	 * @ParamDefinitionException: The passed status isn't correct
+	 */
+	@Override
+	public Object getAttractor(Object status) throws ParamDefinitionException, NotExistingNodeException, InputTypeException {
+		BitState state, newState;
+		int id;
+		//Checks if the status is a BitState
+		if(!(status instanceof BitState))
+			throw new ParamDefinitionException("The status must be a BitState value");
+		state = (BitState) status;
+		if(state.length() != this.graph.getNodesNumber())
+			throw new ParamDefinitionException("Invalid status");
+		//The attractors are not available after the clearAndStore method
+		if(super.registry.size() == 0)
+			return null;
+		//All the attractors are registered, so each trajectory reaches one of them
+		id = super.registry.getId(state);
+		while(id == AttractorRegistry.NOT_FOUND){
+			newState = new BitState(state.length());
+			this.graph.step(state, newState);
+			state = newState;
+			id = super.registry.getId(state);
+		}
+		return super.registry.getAttractor(id);
+	}
+
+	/**
+	 * This method rewireds the attractor finder element.
+	 * It is used when the perpetual mutations are introduced
+	 * @throws ParamDefinitionException Something gone wrong
+	 * @throws InputTypeException
+	 * @throws NotExistingNodeException
+	 */
+	public void rewiredAttractorFinder() throws ParamDefinitionException, NotExistingNodeException, InputTypeException {
+
+		this.oldRegistry = super.registry;
+
+		//Calculates the new attractors
+		this.calculatesAttractors();
+
+	}
+
+	/**
+	 * This method saves the old state of the sampling object.
+	 * @throws ParamDefinitionException
+	 * @throws NotExistingNodeException
+	 * @throws InputTypeException
+	 */
+	public void clearAndStore() throws ParamDefinitionException, NotExistingNodeException, InputTypeException{
+
+		this.storedInformation = new HashMap<Object, Object[]>();
+
+		Object[] attractorsSet = this.getAttractors();
+
+		for(Object attractor : attractorsSet){
+			this.storedInformation.put(attractor,
+					this.getStatesInAttractor(attractor));
+		}
+
+		super.registry = new AttractorRegistry();
+		this.depthDistributions = new ArrayList<ArrayList<BigInteger>>();
+	}
+
+	/**
+	 * This method returns the stored attractors.
+	 * The returned HashMap has the attractor id as key an an object array, representing the
+	 * states in the attractor, as value.
+	 * @return The stored attractors
+	 */
+	public HashMap<Object, Object[]> getStoredAttractors(){
+		return this.storedInformation;
+	}
+
+
+	/**
+	 * This method returns all the old attractor when is made a permanent perturbation
+	 * @return all the old attractors
+	 */
+	public Object[] getOldAttractors(){
+		//Returns all the attractors
+		return this.oldRegistry.getAttractors().toArray();
+
+	}
+
+	/**
+	 * This method returns a copy of itself.
+	 * @return a copy of itself.
+	 * @throws InputTypeException
+	 * @throws NotExistingNodeException
+	 * @throws ParamDefinitionException
+	 * @throws NullPointerException
+	 */
+	public AttractorsFinder copy() throws NullPointerException, ParamDefinitionException, NotExistingNodeException, InputTypeException{
+		SymbolicSampling copiedSampling = new SymbolicSampling(this.graph);
+
+		copiedSampling.registry = super.registry.copy();
+		copiedSampling.depthDistributions = new ArrayList<ArrayList<BigInteger>>(this.depthDistributions);
+
+		return copiedSampling;
+
+	}
+
+	@Override
+	/**
+	 * This method returns the couples state-attractor as an HashMap.
+	 * The basins are not enumerated: only the states of the attractors are returned.
+	 */
+	public HashMap<String, String> getStatesAttractorsCouples() {
+		HashMap<String, String> statesAttractors = new HashMap<String, String>();
+		for(int id = 0; id < super.registry.size(); id++){
+			String attractorName = super.registry.getAttractor(id).toString();
+			for(BitState state : super.registry.getCycle(id))
+				statesAttractors.put(state.toString(), attractorName);
+		}
+		return statesAttractors;
+	}
+
+	@Override
+	/**
+	 * This method returns the couples state-position as an HashMap.
+	 * The basins are not enumerated: only the states of the attractors are returned.
+	 */
+	public HashMap<String, Integer> getStatesPositionsCouples() {
+		HashMap<String, Integer> statesPositions = new HashMap<String, Integer>();
+		for(int id = 0; id < super.registry.size(); id++){
+			for(BitState state : super.registry.getCycle(id))
+				statesPositions.put(state.toString(), 0);
+		}
+		return statesPositions;
+	}
+
+}
@@ -0,0 +1,81 @@
+package it.unimib.disco.bimib.Sampling;
+
+import static org.junit.Assert.*;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import it.unimib.disco.bimib.Networks.GraphManager;
+import it.unimib.disco.bimib.Utility.BitState;
+
+public class SymbolicSamplingTest {
+
+	public SymbolicSamplingTest() {
+	}
+
+	/**
+	 * This method asserts that the depth distributions of the basins are the ones of the brute force sampling
+	 * @param finder: the sampling
+	 * @param depthDistributions: the number of states at each depth of each basin, in the same order of the attractors
+	 * @param bruteForce: the brute force sampling of the same network
+	 * @throws Exception
+	 */
+	static void assertDepthDistributions(AttractorsFinder finder, ArrayList<ArrayList<BigInteger>> depthDistributions,
+			BruteForceSampling bruteForce) throws Exception {
+		//The number of states at each position of each brute force basin
+		HashMap<String, ArrayList<BigInteger>> expected = new HashMap<String, ArrayList<BigInteger>>();
+		HashMap<String, Integer> positions = bruteForce.getStatesPositionsCouples();
+		for(Map.Entry<String, String> couple : bruteForce.getStatesAttractorsCouples().entrySet()){
+			if(!expected.containsKey(couple.getValue()))
+				expected.put(couple.getValue(), new ArrayList<BigInteger>());
+			ArrayList<BigInteger> levels = expected.get(couple.getValue());
+			int position = positions.get(couple.getKey());
+			while(levels.size() <= position)
+				levels.add(BigInteger.ZERO);
+			levels.set(position, levels.get(position).add(BigInteger.ONE));
+		}
+
+		Object[] attractors = finder.getAttractors();
+		assertEquals(attractors.length, depthDistributions.size());
+		for(int id = 0; id < attractors.length; id++)
+			assertEquals(expected.get(attractors[id].toString()), depthDistributions.get(id));
+	}
+
+	@Test
+	public void testBruteForceBasins() throws Exception {
+		for(int n = 0; n < 10; n++){
+			GraphManager manager = ModularSamplingTest.createRandomNetwork(12);
+			SymbolicSampling sampling = new SymbolicSampling(manager);
+			BruteForceSampling bruteForce = new BruteForceSampling(manager);
+
+			//All the attractors, with the brute force basins and transients
+			assertEquals(bruteForce.getAttractorsNumber(), sampling.getAttractorsNumber());
+			assertEquals(ModularSamplingTest.byAttractor(bruteForce, bruteForce.getBasinOfAttraction()),
+					ModularSamplingTest.byAttractor(sampling, sampling.getBasinOfAttraction()));
+			assertEquals(ModularSamplingTest.byAttractor(bruteForce, bruteForce.getTransientLength()),
+					ModularSamplingTest.byAttractor(sampling, sampling.getTransientLength()));
+			assertDepthDistributions(sampling, sampling.getDepthDistributions(), bruteForce);
+			BigInteger states = BigInteger.ZERO;
+			for(BigInteger basin : sampling.getExactBasins())
+				states = states.add(basin);
+			assertEquals(BigInteger.valueOf(1 << 12), states);
+			for(long index = 0; index < (1 << 12); index += 7){
+				BitState state = BitState.fromIndex(index, 12);
+				assertEquals(bruteForce.getAttractor(state), sampling.getAttractor(state));
+			}
+
+			//A knocked out node changes the attractors as in a new brute force sampling
+			manager.perpetuallyChangeFunctionValue(n, false);
+			sampling.rewiredAttractorFinder();
+			bruteForce = new BruteForceSampling(manager);
+			assertEquals(ModularSamplingTest.byAttractor(bruteForce, bruteForce.getBasinOfAttraction()),
+					ModularSamplingTest.byAttractor(sampling, sampling.getBasinOfAttraction()));
+			assertDepthDistributions(sampling, sampling.getDepthDistributions(), bruteForce);
+		}
+	}
+
+}
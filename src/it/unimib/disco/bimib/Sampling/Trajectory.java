@@ -0,0 +1,116 @@
+/**
+ * This class stores the trajectory of a network state and detects its cycle
+ * with the Brent's algorithm: the trajectory is compared only with a saved state,
+ * moved at each power of two steps, instead of with all the visited states.
+ * When the cycle is detected its period is known and the first state of the
+ * cycle is the first state equal to the state a period later.
+ */
+
+package it.unimib.disco.bimib.Sampling;
+
+//System imports
+import java.util.ArrayList;
+
+//GRNSim imports
+import it.unimib.disco.bimib.Utility.BitState;
+
+class Trajectory {
+
+	private ArrayList<BitState> states;
+	//Brent's algorithm variables
+	private BitState saved;
+	private int power;
+	private int period;
+	private boolean cycle;
+
+	/**
+	 * Generic constructor. The trajectory is empty.
+	 */
+	Trajectory(){
+		this.states = new ArrayList<BitState>();
+	}
+
+	/**
+	 * This method starts a new trajectory from the given initial state
+	 * @param initialState: the initial state
+	 */
+	void start(BitState initialState){
+		this.states.clear();
+		this.states.add(initialState);
+		this.saved = initialState;
+		this.power = 1;
+		this.period = 0;
+		this.cycle = false;
+	}
+
+	/**
+	 * This method adds the following state of the last state in the trajectory
+	 * @param state: the following state
+	 * @return true if the cycle is detected
+	 */
+	boolean add(BitState state){
+		this.states.add(state);
+		this.period++;
+		if(state.equals(this.saved)){
+			this.cycle = true;
+		}else if(this.power == this.period){
+			//Moves the saved state
+			this.saved = state;
+			this.power *= 2;
+			this.period = 0;
+		}
+		return this.cycle;
+	}
+
+	/**
+	 * This method returns true if the cycle has been detected
+	 * @return true if the cycle is detected
+	 */
+	boolean isCycleDetected(){
+		return this.cycle;
+	}
+
+	/**
+	 * This method returns the cycle period. The cycle must be detected.
+	 * @return the period
+	 */
+	int getPeriod(){
+		return this.period;
+	}
+
+	/**
+	 * This method returns the length of the transient before the cycle. The cycle must be detected.
+	 * @return the transient length, that is the position of the first state of the cycle
+	 */
+	int getTransientLength(){
+		int position = 0;
+		while(!this.states.get(position).equals(this.states.get(position + this.period)))
+			position++;
+		return position;
+	}
+
+	/**
+	 * This method returns the state in the given position
+	 * @param position: the position, 0 is the initial state
+	 * @return the state
+	 */
+	BitState get(int position){
+		return this.states.get(position);
+	}
+
+	/**
+	 * This method returns the last state of the trajectory
+	 * @return the last state
+	 */
+	BitState getLast(){
+		return this.states.get(this.states.size() - 1);
+	}
+
+	/**
+	 * This method returns the number of the performed steps
+	 * @return the number of the steps
+	 */
+	int getSteps(){
+		return this.states.size() - 1;
+	}
+}
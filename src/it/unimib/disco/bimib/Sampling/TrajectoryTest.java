@@ -0,0 +1,35 @@
+package it.unimib.disco.bimib.Sampling;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import it.unimib.disco.bimib.Utility.BitState;
+
+public class TrajectoryTest {
+
+	public TrajectoryTest() {
+	}
+
+	@Test
+	public void testCycleDetection() {
+		Trajectory trajectory = new Trajectory();
+		for(int transientLength = 0; transientLength < 40; transientLength++){
+			for(int period = 1; period < 40; period++){
+				//The states 0, 1, ... reach the cycle transientLength, ..., transientLength + period - 1
+				trajectory.start(BitState.fromIndex(0, 8));
+				long state = 0;
+				while(!trajectory.isCycleDetected()){
+					state = state + 1 < transientLength + period ? state + 1 : transientLength;
+					trajectory.add(BitState.fromIndex(state, 8));
+					//The cycle is detected within a bounded number of steps
+					assertTrue(trajectory.getSteps() <= 2 * (transientLength + 2 * period));
+				}
+				assertEquals(period, trajectory.getPeriod());
+				assertEquals(transientLength, trajectory.getTransientLength());
+				assertEquals(trajectory.getLast(), trajectory.get(trajectory.getSteps() - period));
+			}
+		}
+	}
+
+}
@@ -0,0 +1,633 @@
+/**
+ * This class is a conflict-driven clause learning (CDCL) SAT solver.
+ * The clauses are propagated with two watched literals, the conflicts are analyzed up to the first
+ * unique implication point and the learnt clauses are minimized. The decisions follow the variables activity
+ * (VSIDS) with phase saving, the search is restarted following the Luby sequence and half of the
+ * learnt clauses are periodically deleted.
+ *
+ * The solver is incremental: new clauses can be added after a solution is found, for example
+ * in order to block it and enumerate all the solutions.
+ * The literals are in the DIMACS form: the variable v (starting from 0) is the literal v + 1,
+ * its negation is the literal -(v + 1).
+ */
+
+package it.unimib.disco.bimib.Sat;
+
+//System imports
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+
+public class SatSolver {
+
+	//Results of the solve method
+	public static final int UNSATISFIABLE = 0;
+	public static final int SATISFIABLE = 1;
+	public static final int UNKNOWN = 2;
+
+	//Values of the literals
+	private static final byte TRUE = 1;
+	private static final byte FALSE = -1;
+	private static final byte UNDEFINED = 0;
+
+	private static final double VARIABLE_DECAY = 0.95;
+	private static final double CLAUSE_DECAY = 0.999;
+	private static final double RESCALE_LIMIT = 1e100;
+	//Number of conflicts of the first restart, multiplied by the Luby sequence
+	private static final int RESTART_CONFLICTS = 100;
+	//Minimum number of learnt clauses kept before a reduction, and its growth after each reduction
+	private static final int MIN_LEARNTS = 2000;
+	private static final double LEARNTS_GROWTH = 1.1;
+
+	/**
+	 * This class contains the literals of a clause.
+	 * The first two literals are watched. The first literal of a reason clause is the implied one.
+	 */
+	private static class Clause {
+		private int[] literals;
+		private boolean learnt;
+		private boolean deleted;
+		private double activity;
+
+		private Clause(int[] literals, boolean learnt){
+			this.literals = literals;
+			this.learnt = learnt;
+			this.deleted = false;
+			this.activity = 0;
+		}
+	}
+
+	private int variables;
+	//False if an empty clause has been derived
+	private boolean consistent;
+	private ArrayList<Clause> learnts;
+	private int clausesNumber;
+	//Watched clauses of each literal (2v is the positive literal of v, 2v + 1 the negative one)
+	private Clause[][] watches;
+	private int[] watchesSizes;
+	//Assignment: value of each literal, decision level and reason of each variable
+	private byte[] values;
+	private int[] levels;
+	private Clause[] reasons;
+	private boolean[] phases;
+	//Assigned literals in order of assignment, the first literal of each decision level and the next literal to be propagated
+	private int[] trail;
+	private int trailSize;
+	private int[] trailLimits;
+	private int decisionLevel;
+	private int head;
+	//Variables heap ordered by activity
+	private double[] activities;
+	private double variableIncrement;
+	private double clauseIncrement;
+	private int[] heap;
+	private int heapSize;
+	private int[] heapPositions;
+	//Buffer of the conflict analysis
+	private boolean[] seen;
+	private int[] learntLiterals;
+	private boolean[] model;
+	private long conflicts;
+
+	/**
+	 * Generic constructor. The solver has no variables and no clauses.
+	 */
+	public SatSolver(){
+		this.variables = 0;
+		this.consistent = true;
+		this.learnts = new ArrayList<Clause>();
+		this.clausesNumber = 0;
+		this.watches = new Clause[0][];
+		this.watchesSizes = new int[0];
+		this.values = new byte[0];
+		this.levels = new int[0];
+		this.reasons = new Clause[0];
+		this.phases = new boolean[0];
+		this.trail = new int[0];
+		this.trailSize = 0;
+		this.trailLimits = new int[0];
+		this.decisionLevel = 0;
+		this.head = 0;
+		this.activities = new double[0];
+		this.variableIncrement = 1;
+		this.clauseIncrement = 1;
+		this.heap = new int[0];
+		this.heapSize = 0;
+		this.heapPositions = new int[0];
+		this.seen = new boolean[0];
+		this.learntLiterals = new int[0];
+		this.model = null;
+		this.conflicts = 0;
+	}
+
+	/**
+	 * This method adds a new variable
+	 * @return the new variable index
+	 */
+	public int newVariable(){
+		int variable = this.variables;
+		this.variables++;
+		if(this.variables > this.levels.length){
+			int capacity = Math.max(16, 2 * this.levels.length);
+			this.watches = Arrays.copyOf(this.watches, 2 * capacity);
+			this.watchesSizes = Arrays.copyOf(this.watchesSizes, 2 * capacity);
+			this.values = Arrays.copyOf(this.values, 2 * capacity);
+			this.levels = Arrays.copyOf(this.levels, capacity);
+			this.reasons = Arrays.copyOf(this.reasons, capacity);
+			this.phases = Arrays.copyOf(this.phases, capacity);
+			this.trail = Arrays.copyOf(this.trail, capacity);
+			this.trailLimits = Arrays.copyOf(this.trailLimits, capacity + 1);
+			this.activities = Arrays.copyOf(this.activities, capacity);
+			this.heap = Arrays.copyOf(this.heap, capacity);
+			this.heapPositions = Arrays.copyOf(this.heapPositions, capacity);
+			this.seen = Arrays.copyOf(this.seen, capacity);
+			this.learntLiterals = Arrays.copyOf(this.learntLiterals, capacity);
+		}
+		this.watches[2 * variable] = new Clause[4];
+		this.watches[2 * variable + 1] = new Clause[4];
+		this.heapPositions[variable] = -1;
+		this.insertVariable(variable);
+		return variable;
+	}
+
+	/**
+	 * This method returns the number of the variables
+	 * @return the number of the variables
+	 */
+	public int getVariablesNumber(){
+		return this.variables;
+	}
+
+	/**
+	 * This method returns the number of the problem clauses, without the unit and the satisfied ones
+	 * @return the number of the clauses
+	 */
+	public int getClausesNumber(){
+		return this.clausesNumber;
+	}
+
+	/**
+	 * This method returns the number of the conflicts found since the solver creation
+	 * @return the number of the conflicts
+	 */
+	public long getConflicts(){
+		return this.conflicts;
+	}
+
+	/**
+	 * This method adds a clause. The search is restarted.
+	 * @param literals: the clause literals in DIMACS form
+	 * @return false if the clauses are unsatisfiable
+	 */
+	public boolean addClause(int... literals){
+		this.cancelUntil(0);
+		if(!this.consistent)
+			return false;
+
+		int[] clause = new int[literals.length];
+		for(int i = 0; i < literals.length; i++){
+			int variable = Math.abs(literals[i]) - 1;
+			if(literals[i] == 0 || variable >= this.variables)
+				throw new IllegalArgumentException("Not existing variable: " + literals[i]);
+			clause[i] = 2 * variable + (literals[i] < 0 ? 1 : 0);
+		}
+
+		//Removes the duplicated and the false literals, a true literal satisfies the clause
+		Arrays.sort(clause);
+		int size = 0;
+		for(int i = 0; i < clause.length; i++){
+			if(this.values[clause[i]] == TRUE || (i > 0 && clause[i] == (clause[i - 1] ^ 1)))
+				return true;
+			if(this.values[clause[i]] != FALSE && (size == 0 || clause[size - 1] != clause[i]))
+				clause[size++] = clause[i];
+		}
+
+		if(size == 0){
+			this.consistent = false;
+			return false;
+		}
+		if(size == 1){
+			this.enqueue(clause[0], null);
+			return true;
+		}
+		this.attach(new Clause(Arrays.copyOf(clause, size), false));
+		this.clausesNumber++;
+		return true;
+	}
+
+	/**
+	 * This method searches a solution of the clauses
+	 * @return SATISFIABLE or UNSATISFIABLE
+	 */
+	public int solve(){
+		return this.solve(-1);
+	}
+
+	/**
+	 * This method searches a solution of the clauses, within the given number of conflicts
+	 * @param maxConflicts: the maximum number of conflicts, -1 for no limit
+	 * @return SATISFIABLE, UNSATISFIABLE or UNKNOWN if the conflicts limit is reached
+	 */
+	public int solve(long maxConflicts){
+		long searchConflicts = 0, restartConflicts;
+		int restarts = 0, maxLearnts;
+		Clause conflict;
+
+		this.model = null;
+		this.cancelUntil(0);
+		if(!this.consistent)
+			return UNSATISFIABLE;
+		maxLearnts = Math.max(MIN_LEARNTS, this.clausesNumber / 3);
+
+		restartConflicts = RESTART_CONFLICTS * SatSolver.luby(restarts);
+		while(true){
+			conflict = this.propagate();
+			if(conflict != null){
+				this.conflicts++;
+				searchConflicts++;
+				restartConflicts--;
+				if(this.decisionLevel == 0){
+					this.consistent = false;
+					return UNSATISFIABLE;
+				}
+				this.learn(conflict);
+				this.variableIncrement /= VARIABLE_DECAY;
+				this.clauseIncrement /= CLAUSE_DECAY;
+				continue;
+			}
+
+			//Stops the search
+			if(maxConflicts >= 0 && searchConflicts >= maxConflicts){
+				this.cancelUntil(0);
+				return UNKNOWN;
+			}
+			//Restarts the search
+			if(restartConflicts <= 0){
+				this.cancelUntil(0);
+				restarts++;
+				restartConflicts = RESTART_CONFLICTS * SatSolver.luby(restarts);
+			}
+			//Deletes the least active learnt clauses
+			if(this.learnts.size() - this.trailSize >= maxLearnts){
+				this.reduceLearnts();
+				maxLearnts = (int) (maxLearnts * LEARNTS_GROWTH);
+			}
+
+			//Chooses the next decision
+			int variable = this.nextDecision();
+			if(variable == -1){
+				//All the variables are assigned: the model is stored
+				this.model = new boolean[this.variables];
+				for(int v = 0; v < this.variables; v++)
+					this.model[v] = this.values[2 * v] == TRUE;
+				return SATISFIABLE;
+			}
+			this.trailLimits[this.decisionLevel] = this.trailSize;
+			this.decisionLevel++;
+			this.enqueue(2 * variable + (this.phases[variable] ? 0 : 1), null);
+		}
+	}
+
+	/**
+	 * This method returns the value of a variable in the last found solution
+	 * @param variable: the variable
+	 * @return the variable value
+	 */
+	public boolean getValue(int variable){
+		if(this.model == null)
+			throw new IllegalStateException("No solution has been found");
+		return this.model[variable];
+	}
+
+	/**
+	 * This method returns the i-th value of the Luby sequence (1, 1, 2, 1, 1, 2, 4, ...)
+	 * @param i: the index, starting from 0
+	 * @return the value
+	 */
+	private static long luby(int i){
+		int size = 1, exponent = 0;
+		while(size < i + 1){
+			exponent++;
+			size = 2 * size + 1;
+		}
+		while(size - 1 != i){
+			size = (size - 1) >> 1;
+			exponent--;
+			i = i % size;
+		}
+		return 1L << exponent;
+	}
+
+	/**
+	 * This method adds a clause to the watches of its first two literals
+	 * @param clause: the clause
+	 */
+	private void attach(Clause clause){
+		this.watch(clause.literals[0], clause);
+		this.watch(clause.literals[1], clause);
+	}
+
+	/**
+	 * This method adds a clause to the watches of a literal
+	 * @param literal: the watched literal
+	 * @param clause: the clause
+	 */
+	private void watch(int literal, Clause clause){
+		if(this.watchesSizes[literal] == this.watches[literal].length)
+			this.watches[literal] = Arrays.copyOf(this.watches[literal], 2 * this.watchesSizes[literal]);
+		this.watches[literal][this.watchesSizes[literal]++] = clause;
+	}
+
+	/**
+	 * This method assigns a literal
+	 * @param literal: the true literal
+	 * @param reason: the clause that implies the literal, null for a decision
+	 */
+	private void enqueue(int literal, Clause reason){
+		int variable = literal >> 1;
+		this.values[literal] = TRUE;
+		this.values[literal ^ 1] = FALSE;
+		this.levels[variable] = this.decisionLevel;
+		this.reasons[variable] = reason;
+		this.trail[this.trailSize++] = literal;
+	}
+
+	/**
+	 * This method unassigns the literals of the decision levels greater than the given one
+	 * @param level: the decision level
+	 */
+	private void cancelUntil(int level){
+		if(this.decisionLevel <= level)
+			return;
+		for(int i = this.trailSize - 1; i >= this.trailLimits[level]; i--){
+			int literal = this.trail[i];
+			int variable = literal >> 1;
+			this.values[literal] = UNDEFINED;
+			this.values[literal ^ 1] = UNDEFINED;
+			this.reasons[variable] = null;
+			//Phase saving
+			this.phases[variable] = (literal & 1) == 0;
+			this.insertVariable(variable);
+		}
+		this.trailSize = this.trailLimits[level];
+		this.head = this.trailSize;
+		this.decisionLevel = level;
+	}
+
+	/**
+	 * This method propagates the assigned literals
+	 * @return the conflicting clause, null if there is no conflict
+	 */
+	private Clause propagate(){
+		while(this.head < this.trailSize){
+			int falseLiteral = this.trail[this.head++] ^ 1;
+			Clause[] watchers = this.watches[falseLiteral];
+			int size = this.watchesSizes[falseLiteral];
+			int i = 0, j = 0;
+			Clause conflict = null;
+
+			while(i < size){
+				Clause clause = watchers[i++];
+				//The deleted clauses are removed lazily
+				if(clause.deleted)
+					continue;
+				int[] literals = clause.literals;
+				//The false literal is moved in the second position
+				if(literals[0] == falseLiteral){
+					literals[0] = literals[1];
+					literals[1] = falseLiteral;
+				}
+				if(this.values[literals[0]] == TRUE){
+					watchers[j++] = clause;
+					continue;
+				}
+				//Searches a new literal to be watched
+				boolean moved = false;
+				for(int k = 2; k < literals.length && !moved; k++){
+					if(this.values[literals[k]] != FALSE){
+						literals[1] = literals[k];
+						literals[k] = falseLiteral;
+						this.watch(literals[1], clause);
+						moved = true;
+					}
+				}
+				if(moved)
+					continue;
+				//The clause is unit or conflicting
+				watchers[j++] = clause;
+				if(this.values[literals[0]] == FALSE){
+					conflict = clause;
+					while(i < size)
+						watchers[j++] = watchers[i++];
+				}else
+					this.enqueue(literals[0], clause);
+			}
+			this.watchesSizes[falseLiteral] = j;
+			if(conflict != null){
+				this.head = this.trailSize;
+				return conflict;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * This method analyzes a conflict, learns the first unique implication point clause and backjumps
+	 * @param conflict: the conflicting clause
+	 */
+	private void learn(Clause conflict){
+		int size = 1, pathCount = 0, index = this.trailSize - 1, literal = -1, variable;
+		Clause clause = conflict;
+
+		//Resolves the current level literals until a single one remains
+		do{
+			if(clause.learnt)
+				this.bumpClause(clause);
+			for(int k = (literal == -1 ? 0 : 1); k < clause.literals.length; k++){
+				int other = clause.literals[k];
+				variable = other >> 1;
+				if(!this.seen[variable] && this.levels[variable] > 0){
+					this.bumpVariable(variable);
+					this.seen[variable] = true;
+					if(this.levels[variable] >= this.decisionLevel)
+						pathCount++;
+					else
+						this.learntLiterals[size++] = other;
+				}
+			}
+			while(!this.seen[this.trail[index] >> 1])
+				index--;
+			literal = this.trail[index];
+			index--;
+			clause = this.reasons[literal >> 1];
+			this.seen[literal >> 1] = false;
+			pathCount--;
+		}while(pathCount > 0);
+		this.learntLiterals[0] = literal ^ 1;
+
+		//Removes the literals implied by the other ones
+		int[] literals = Arrays.copyOf(this.learntLiterals, size);
+		int kept = 1;
+		for(int i = 1; i < size; i++){
+			Clause reason = this.reasons[literals[i] >> 1];
+			boolean redundant = reason != null;
+			for(int k = 1; redundant && k < reason.literals.length; k++){
+				variable = reason.literals[k] >> 1;
+				if(!this.seen[variable] && this.levels[variable] > 0)
+					redundant = false;
+			}
+			if(!redundant)
+				this.learntLiterals[kept++] = literals[i];
+		}
+		for(int i = 1; i < size; i++)
+			this.seen[literals[i] >> 1] = false;
+		size = kept;
+
+		//The literal of the highest level is watched, so the clause becomes unit after the backjump
+		int backjumpLevel = 0;
+		for(int i = 1; i < size; i++){
+			if(this.levels[this.learntLiterals[i] >> 1] > backjumpLevel){
+				backjumpLevel = this.levels[this.learntLiterals[i] >> 1];
+				int swap = this.learntLiterals[1];
+				this.learntLiterals[1] = this.learntLiterals[i];
+				this.learntLiterals[i] = swap;
+			}
+		}
+
+		this.cancelUntil(backjumpLevel);
+		if(size == 1){
+			this.enqueue(this.learntLiterals[0], null);
+			return;
+		}
+		Clause learnt = new Clause(Arrays.copyOf(this.learntLiterals, size), true);
+		this.attach(learnt);
+		this.bumpClause(learnt);
+		this.learnts.add(learnt);
+		this.enqueue(learnt.literals[0], learnt);
+	}
+
+	/**
+	 * This method deletes half of the learnt clauses, starting from the least active ones.
+	 * The binary clauses and the reasons of the assigned literals are kept.
+	 */
+	private void reduceLearnts(){
+		Collections.sort(this.learnts, new Comparator<Clause>(){
+			public int compare(Clause first, Clause second){
+				return Double.compare(first.activity, second.activity);
+			}
+		});
+		ArrayList<Clause> kept = new ArrayList<Clause>(this.learnts.size());
+		int deletable = this.learnts.size() / 2;
+		for(Clause clause : this.learnts){
+			boolean locked = this.reasons[clause.literals[0] >> 1] == clause && this.values[clause.literals[0]] == TRUE;
+			if(deletable > 0 && clause.literals.length > 2 && !locked){
+				clause.deleted = true;
+				deletable--;
+			}else
+				kept.add(clause);
+		}
+		this.learnts = kept;
+	}
+
+	/**
+	 * This method increments the activity of a learnt clause
+	 * @param clause: the clause
+	 */
+	private void bumpClause(Clause clause){
+		clause.activity += this.clauseIncrement;
+		if(clause.activity > RESCALE_LIMIT){
+			for(Clause learnt : this.learnts)
+				learnt.activity /= RESCALE_LIMIT;
+			clause.activity /= RESCALE_LIMIT;
+			this.clauseIncrement /= RESCALE_LIMIT;
+		}
+	}
+
+	/**
+	 * This method increments the activity of a variable
+	 * @param variable: the variable
+	 */
+	private void bumpVariable(int variable){
+		this.activities[variable] += this.variableIncrement;
+		if(this.activities[variable] > RESCALE_LIMIT){
+			for(int v = 0; v < this.variables; v++)
+				this.activities[v] /= RESCALE_LIMIT;
+			this.variableIncrement /= RESCALE_LIMIT;
+		}
+		if(this.heapPositions[variable] >= 0)
+			this.moveUp(this.heapPositions[variable]);
+	}
+
+	/**
+	 * This method returns the most active unassigned variable
+	 * @return the variable, -1 if all the variables are assigned
+	 */
+	private int nextDecision(){
+		while(this.heapSize > 0){
+			int variable = this.heap[0];
+			this.heapSize--;
+			this.heapPositions[variable] = -1;
+			if(this.heapSize > 0){
+				this.heap[0] = this.heap[this.heapSize];
+				this.heapPositions[this.heap[0]] = 0;
+				this.moveDown(0);
+			}
+			if(this.values[2 * variable] == UNDEFINED)
+				return variable;
+		}
+		return -1;
+	}
+
+	/**
+	 * This method inserts a variable in the heap, if it is not already in
+	 * @param variable: the variable
+	 */
+	private void insertVariable(int variable){
+		if(this.heapPositions[variable] >= 0)
+			return;
+		this.heap[this.heapSize] = variable;
+		this.heapPositions[variable] = this.heapSize;
+		this.heapSize++;
+		this.moveUp(this.heapSize - 1);
+	}
+
+	/**
+	 * This method moves a heap element up until its parent is more active
+	 * @param position: the element position
+	 */
+	private void moveUp(int position){
+		int variable = this.heap[position];
+		while(position > 0){
+			int parent = (position - 1) >> 1;
+			if(this.activities[this.heap[parent]] >= this.activities[variable])
+				break;
+			this.heap[position] = this.heap[parent];
+			this.heapPositions[this.heap[position]] = position;
+			position = parent;
+		}
+		this.heap[position] = variable;
+		this.heapPositions[variable] = position;
+	}
+
+	/**
+	 * This method moves a heap element down until its children are less active
+	 * @param position: the element position
+	 */
+	private void moveDown(int position){
+		int variable = this.heap[position];
+		while(2 * position + 1 < this.heapSize){
+			int child = 2 * position + 1;
+			if(child + 1 < this.heapSize && this.activities[this.heap[child + 1]] > this.activities[this.heap[child]])
+				child++;
+			if(this.activities[this.heap[child]] <= this.activities[variable])
+				break;
+			this.heap[position] = this.heap[child];
+			this.heapPositions[this.heap[position]] = position;
+			position = child;
+		}
+		this.heap[position] = variable;
+		this.heapPositions[variable] = position;
+	}
+
+}
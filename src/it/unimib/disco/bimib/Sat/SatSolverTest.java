@@ -0,0 +1,87 @@
+package it.unimib.disco.bimib.Sat;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class SatSolverTest {
+
+	public SatSolverTest() {
+	}
+
+	/**
+	 * This method returns true if the last solution satisfies the clause
+	 * @param solver: the solver
+	 * @param clause: the clause literals in DIMACS form
+	 * @return true if a literal is true
+	 */
+	private static boolean satisfies(SatSolver solver, int[] clause) {
+		for(int literal : clause)
+			if(solver.getValue(Math.abs(literal) - 1) == literal > 0)
+				return true;
+		return false;
+	}
+
+	@Test
+	public void testSatisfiable() {
+		SatSolver solver = new SatSolver();
+		for(int i = 0; i < 3; i++)
+			assertEquals(i, solver.newVariable());
+		int[][] clauses = {{1, 2}, {-1, 3}, {-2, -3}, {-1, -2}};
+		for(int[] clause : clauses)
+			assertTrue(solver.addClause(clause));
+		assertEquals(SatSolver.SATISFIABLE, solver.solve());
+		for(int[] clause : clauses)
+			assertTrue(satisfies(solver, clause));
+	}
+
+	@Test
+	public void testUnsatisfiable() {
+		//Three pigeons in two holes: the variable 2 * p + h is true if the pigeon p is in the hole h
+		SatSolver solver = new SatSolver();
+		for(int i = 0; i < 6; i++)
+			solver.newVariable();
+		for(int p = 0; p < 3; p++)
+			solver.addClause(2 * p + 1, 2 * p + 2);
+		for(int h = 0; h < 2; h++)
+			for(int p = 0; p < 3; p++)
+				for(int q = p + 1; q < 3; q++)
+					solver.addClause(-(2 * p + h + 1), -(2 * q + h + 1));
+		assertEquals(SatSolver.UNSATISFIABLE, solver.solve());
+
+		//Contradicting unit clauses
+		solver = new SatSolver();
+		solver.newVariable();
+		assertTrue(solver.addClause(1));
+		assertFalse(solver.addClause(-1));
+		assertEquals(SatSolver.UNSATISFIABLE, solver.solve());
+	}
+
+	@Test
+	public void testBlockingClauses() {
+		//The assignments of four variables with at least one true variable
+		SatSolver solver = new SatSolver();
+		for(int i = 0; i < 4; i++)
+			solver.newVariable();
+		solver.addClause(1, 2, 3, 4);
+		int solutions = 0;
+		boolean[] found = new boolean[16];
+		while(solver.solve() == SatSolver.SATISFIABLE){
+			//Blocks the found solution
+			int[] blocking = new int[4];
+			int assignment = 0;
+			for(int v = 0; v < 4; v++){
+				blocking[v] = solver.getValue(v) ? -(v + 1) : v + 1;
+				assignment |= (solver.getValue(v) ? 1 : 0) << v;
+			}
+			assertFalse(found[assignment]);
+			found[assignment] = true;
+			solutions++;
+			if(!solver.addClause(blocking))
+				break;
+		}
+		assertEquals(15, solutions);
+		assertFalse(found[0]);
+	}
+
+}
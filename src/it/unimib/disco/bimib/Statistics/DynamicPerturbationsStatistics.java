@@ -3,6 +3,8 @@ package it.unimib.disco.bimib.Statistics;
 //System imports
 import java.util.ArrayList;
 import java.util.HashMap;
+//GRNSim imports
+import it.unimib.disco.bimib.Utility.BitState;
 
 
 public class DynamicPerturbationsStatistics {
@@ -29,8 +31,8 @@ public class DynamicPerturbationsStatistics {
 	/**
 	 * This method computes the avalanches and the sensitivity contribution
 	 * performing all the possible state shifts in the two passed attractors. 
-	 * @param oldAttractor : the first attractor. It must be a String array
-	 * @param newAttractor : the second attractor. It must be a String array.
+	 * @param oldAttractor : the first attractor. It must be a BitState array
+	 * @param newAttractor : the second attractor. It must be a BitState array.
 	 */
 	public void avalanchesAndSensitivityComputation(Object[] oldAttractor, Object[] newAttractor){
 
@@ -55,12 +57,12 @@ public class DynamicPerturbationsStatistics {
 			}
 			
 			for(int k = 0; k < lcm(oldAttractor.length, newAttractor.length); k++){
-				String stateInOldAttractor = (String) oldAttractor[i];
-				String stateInNewAttractor = (String) newAttractor[j];
+				BitState stateInOldAttractor = (BitState) oldAttractor[i];
+				BitState stateInNewAttractor = (BitState) newAttractor[j];
 				
 				//Compares gene by gene the two states of the attractors
 				for(int gene = 0; gene < positions.size(); gene++){
-					if(stateInOldAttractor.charAt(positions.get(gene)) != stateInNewAttractor.charAt(positions.get(gene))){
+					if(stateInOldAttractor.get(positions.get(gene)) != stateInNewAttractor.get(positions.get(gene))){
 						localSensitivity[positions.get(gene)] += 1;
 						avalanche ++;
 						positions.remove(gene);
@@ -0,0 +1,165 @@
+package it.unimib.disco.bimib.Threads;
+
+/**
+ * This class is the knockout screening task.
+ * This task reads and samples a given network once, then evaluates all its single mutants
+ * and, if specified, its double mutants (see the MutantsScreening class).
+ * The landscape of each mutant is written in a single screening file as soon as it is evaluated.
+ */
+
+//System imports
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Properties;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.xml.sax.SAXException;
+
+//GRNSim imports
+import it.unimib.disco.bimib.Networks.GraphManager;
+import it.unimib.disco.bimib.Sampling.SamplingManager;
+import it.unimib.disco.bimib.Utility.SimulationFeaturesConstants;
+import it.unimib.disco.bimib.Exceptions.FeaturesException;
+import it.unimib.disco.bimib.Exceptions.NotExistingNodeException;
+import it.unimib.disco.bimib.Exceptions.ParamDefinitionException;
+import it.unimib.disco.bimib.IO.Input;
+import it.unimib.disco.bimib.IO.Output;
+import it.unimib.disco.bimib.Mutations.MutantLandscape;
+import it.unimib.disco.bimib.Mutations.MutantsScreening;
+import it.unimib.disco.bimib.Mutations.ScreeningListener;
+
+public class KnockoutScreeningTask implements Task {
+
+	private Properties simulationFeatures;
+	private HashMap<String, String> outputs;
+	private String outputFolder;
+	private GraphManager originalNetwork;
+	private int threads;
+	//The fixed values of the mutated genes and the double mutants to evaluate
+	private boolean[] values;
+	private String doubleMutants;
+
+	/**
+	 * Generic constructor
+	 * @param simulationFeatures: Properties object with the simulation features
+	 * @param outputs: the outputs folders
+	 * @param outputFolder: the folder where the outputs are stored
+	 * @param originalNetworkFile: the GRNML file of the screened network
+	 * @param threads: the number of the mutants evaluated at the same time
+	 * @throws ParamDefinitionException
+	 * @throws ParserConfigurationException
+	 * @throws SAXException
+	 * @throws IOException
+	 * @throws NotExistingNodeException
+	 * @throws FeaturesException
+	 */
+	public KnockoutScreeningTask(Properties simulationFeatures, HashMap<String, String> outputs, String outputFolder, String originalNetworkFile, int threads) throws ParamDefinitionException, ParserConfigurationException, SAXException, IOException, NotExistingNodeException, FeaturesException{
+
+		//Parameters checking
+		if(simulationFeatures == null)
+			throw new NullPointerException("The simulation features must be not null.");
+		if(outputs == null)
+			throw new NullPointerException("The outputs object must be not null.");
+		if(outputFolder == null)
+			throw new NullPointerException("The output folder object must be not null.");
+		if(threads <= 0)
+			throw new ParamDefinitionException("The number of threads must be greater than 0");
+
+		this.simulationFeatures = simulationFeatures;
+		this.outputFolder = outputFolder;
+		this.outputs = outputs;
+		this.threads = threads;
+
+		//Gets the screened mutations
+		String mutations = simulationFeatures.getProperty(SimulationFeaturesConstants.SCREENING_MUTATIONS,
+				SimulationFeaturesConstants.KNOCK_OUT_SCREENING);
+		if(mutations.equals(SimulationFeaturesConstants.KNOCK_OUT_SCREENING))
+			this.values = new boolean[]{false};
+		else if(mutations.equals(SimulationFeaturesConstants.KNOCK_IN_SCREENING))
+			this.values = new boolean[]{true};
+		else if(mutations.equals(SimulationFeaturesConstants.BOTH_SCREENING))
+			this.values = new boolean[]{false, true};
+		else
+			throw new FeaturesException(SimulationFeaturesConstants.SCREENING_MUTATIONS + " value must be " +
+					SimulationFeaturesConstants.KNOCK_OUT_SCREENING + ", " + SimulationFeaturesConstants.KNOCK_IN_SCREENING +
+					" or " + SimulationFeaturesConstants.BOTH_SCREENING);
+
+		//Gets the double mutants
+		this.doubleMutants = simulationFeatures.getProperty(SimulationFeaturesConstants.DOUBLE_MUTANTS, SimulationFeaturesConstants.NO);
+		if(!this.doubleMutants.equals(SimulationFeaturesConstants.NO) &&
+				!this.doubleMutants.equals(SimulationFeaturesConstants.ALL_DOUBLE_MUTANTS) &&
+				!this.doubleMutants.equals(SimulationFeaturesConstants.EFFECTIVE_DOUBLE_MUTANTS))
+			throw new FeaturesException(SimulationFeaturesConstants.DOUBLE_MUTANTS + " value must be " +
+					SimulationFeaturesConstants.NO + ", " + SimulationFeaturesConstants.ALL_DOUBLE_MUTANTS +
+					" or " + SimulationFeaturesConstants.EFFECTIVE_DOUBLE_MUTANTS);
+
+		//Reads the network from the input file
+		this.originalNetwork = Input.readGRNMLFile(originalNetworkFile);
+
+	}
+
+	@Override
+	public boolean doTask() throws Exception{
+
+		//The network is sampled once, the mutants are views of it
+		GraphManager graphManager = this.originalNetwork;
+		graphManager.setGraphRepresentation(simulationFeatures);
+		graphManager.setCompilation(simulationFeatures);
+
+		//Samples the network in order to find the attractors
+		SamplingManager samplingManager = new SamplingManager(simulationFeatures, graphManager);
+
+		//Saves the results in the correct folder
+		String simulationID = String.valueOf(graphManager.hashCode());
+		String screeningFolderName = "screening_" + simulationID;
+		String attractorsFileName = simulationID + "_attractors.csv";
+		String screeningFileName = simulationID + "_screening.csv";
+
+		//Creates the folder
+		Output.createFolder(this.outputFolder + "/" + screeningFolderName);
+
+		//Stores the wild type attractors
+		Output.saveAttractorsFile(samplingManager.getAttractorFinder(), this.outputFolder + "/" + screeningFolderName + "/" + attractorsFileName);
+
+		//Each mutant is written as soon as it is evaluated
+		final ArrayList<String> genesNames = graphManager.getGraph().getNodesNames();
+		final PrintWriter printer = Output.createScreeningFile(this.outputFolder + "/" + screeningFolderName + "/" + screeningFileName);
+		ScreeningListener listener = new ScreeningListener(){
+			@Override
+			public void mutantEvaluated(MutantLandscape landscape){
+				Output.saveScreeningRow(printer, genesNames, landscape);
+			}
+		};
+
+		try{
+			MutantsScreening screening = new MutantsScreening(graphManager, samplingManager.getAttractorFinder(),
+					this.simulationFeatures, this.threads);
+			listener.mutantEvaluated(screening.getWildTypeLandscape());
+
+			//Single mutants
+			ArrayList<MutantLandscape> singleMutants = screening.screensSingleMutants(this.values, listener);
+
+			//Double mutants, if specified
+			if(this.doubleMutants.equals(SimulationFeaturesConstants.ALL_DOUBLE_MUTANTS))
+				screening.screensDoubleMutants(this.values, null, listener);
+			else if(this.doubleMutants.equals(SimulationFeaturesConstants.EFFECTIVE_DOUBLE_MUTANTS))
+				screening.screensDoubleMutants(this.values, singleMutants, listener);
+		}finally{
+			printer.close();
+		}
+
+		//Stores the outputs folder
+		this.outputs.put(simulationID, this.outputFolder + "/" + screeningFolderName + "/");
+
+		//Output message
+		System.out.println("Screening saved at " + this.outputFolder + "/" + screeningFolderName + "/" + screeningFileName);
+
+		//Always match
+		return true;
+
+	}
+
+}
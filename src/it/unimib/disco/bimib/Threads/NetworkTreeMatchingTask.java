@@ -183,6 +183,17 @@ public class NetworkTreeMatchingTask implements Task {
 				avgLength = avgLength + samplingManager.getAttractorFinder().getAttractorLength(attractor);
 			statistics.put(OutputConstants.ATTRACTORS_LENGTH, avgLength/samplingManager.getAttractorFinder().getAttractorsNumber());
 			statistics.put(OutputConstants.NOT_FOUND_ATTRACTORS, 0);
+			//Marks the memory-bounded sampling
+			if(samplingManager.getMaxStoredStates() > 0)
+				statistics.put(OutputConstants.MAX_STORED_STATES, samplingManager.getMaxStoredStates());
+			//Marks the adaptive sampling
+			if(samplingManager.isAdaptive()){
+				statistics.put(OutputConstants.USED_INITIAL_CONDITIONS, samplingManager.getUsedInitialConditions());
+				statistics.put(OutputConstants.MISSING_MASS, samplingManager.getMissingMass());
+			}
+			//Marks the frozen core
+			if(samplingManager.getFrozenCore() != null)
+				statistics.put(OutputConstants.FROZEN_CORE, samplingManager.getFrozenCore().getFrozenNodesNumber());
 
 			Output.createSynthesisFile(statistics, this.outputFolder + "/" + networkFolderName + "/" + synthesisFileName);
 			
@@ -0,0 +1,247 @@
+/**
+ * This class represents a binary network state.
+ * The node values are packed in an array of long words: the value of the node i
+ * is stored in the bit (i % 64) of the word (i / 64).
+ * A BitState used as key in a hash based collection must not be modified.
+ */
+
+package it.unimib.disco.bimib.Utility;
+
+//System imports
+import java.util.Arrays;
+
+public class BitState {
+
+	//Number of bits in a word
+	public static final int WORD_SIZE = 64;
+
+	private int length;
+	private long[] words;
+
+	/**
+	 * Generic constructor. All the nodes are set to 0.
+	 * @param length: the number of the nodes in the state
+	 */
+	public BitState(int length){
+		if(length < 0)
+			throw new IllegalArgumentException("The state length must be greater or equal than 0");
+		this.length = length;
+		this.words = new long[BitState.wordsNumber(length)];
+	}
+
+	/**
+	 * This method returns the number of long words needed to store the given number of nodes.
+	 * @param length: the number of the nodes
+	 * @return the number of words
+	 */
+	public static int wordsNumber(int length){
+		return (length + WORD_SIZE - 1) / WORD_SIZE;
+	}
+
+	/**
+	 * This method creates a state from a binary string.
+	 * The i-th char of the string is the value of the node i.
+	 * @param state: the binary string
+	 * @return the corresponding state
+	 */
+	public static BitState fromString(String state){
+		if(state == null)
+			throw new NullPointerException("The state string must be not null");
+		BitState converted = new BitState(state.length());
+		for(int i = 0; i < state.length(); i++){
+			if(state.charAt(i) == '1')
+				converted.words[i >>> 6] |= 1L << i;
+		}
+		return converted;
+	}
+
+	/**
+	 * This method creates a state from a Boolean array.
+	 * @param state: the Boolean array, one value for each node
+	 * @return the corresponding state
+	 */
+	public static BitState fromBooleanArray(Boolean[] state){
+		if(state == null)
+			throw new NullPointerException("The state array must be not null");
+		BitState converted = new BitState(state.length);
+		for(int i = 0; i < state.length; i++){
+			if(state[i])
+				converted.words[i >>> 6] |= 1L << i;
+		}
+		return converted;
+	}
+
+	/**
+	 * This method creates a state from its integer index.
+	 * The index is read as a binary number with the node 0 as most significant bit,
+	 * as done by the exhaustive enumeration of the state space.
+	 * @param index: the state index, between 0 and 2^length - 1
+	 * @param length: the number of the nodes
+	 * @return the corresponding state
+	 */
+	public static BitState fromIndex(long index, int length){
+		BitState converted = new BitState(length);
+		converted.setIndex(index);
+		return converted;
+	}
+
+	/**
+	 * This method sets the node values from the integer index of a state,
+	 * as done by the fromIndex method.
+	 * @param index: the state index, between 0 and 2^length - 1
+	 */
+	public void setIndex(long index){
+		if(this.length >= WORD_SIZE || index < 0 || index >= (1L << this.length))
+			throw new IllegalArgumentException("Invalid index " + index + " for a state of " + this.length + " nodes");
+		long word = 0L;
+		for(int i = 0; i < this.length; i++){
+			if(((index >>> (this.length - 1 - i)) & 1L) == 1L)
+				word |= 1L << i;
+		}
+		if(this.words.length > 0)
+			this.words[0] = word;
+	}
+
+	/**
+	 * This method returns the integer index of the state.
+	 * It is the inverse of the fromIndex method.
+	 * @return the state index
+	 */
+	public long toIndex(){
+		if(this.length >= WORD_SIZE)
+			throw new IllegalArgumentException("The state is too long to be converted in an index");
+		long index = 0;
+		for(int i = 0; i < this.length; i++){
+			index = (index << 1) | ((this.words[0] >>> i) & 1L);
+		}
+		return index;
+	}
+
+	/**
+	 * This method returns the number of the nodes in the state
+	 * @return the state length
+	 */
+	public int length(){
+		return this.length;
+	}
+
+	/**
+	 * This method returns the value of the given node
+	 * @param node: the node index
+	 * @return true if the node is active, false otherwise
+	 */
+	public boolean get(int node){
+		if(node < 0 || node >= this.length)
+			throw new IndexOutOfBoundsException("Node " + node + " does not exist");
+		return ((this.words[node >>> 6] >>> node) & 1L) == 1L;
+	}
+
+	/**
+	 * This method sets the value of the given node
+	 * @param node: the node index
+	 * @param value: the new node value
+	 */
+	public void set(int node, boolean value){
+		if(node < 0 || node >= this.length)
+			throw new IndexOutOfBoundsException("Node " + node + " does not exist");
+		if(value)
+			this.words[node >>> 6] |= 1L << node;
+		else
+			this.words[node >>> 6] &= ~(1L << node);
+	}
+
+	/**
+	 * This method flips the value of the given node
+	 * @param node: the node index
+	 */
+	public void flip(int node){
+		if(node < 0 || node >= this.length)
+			throw new IndexOutOfBoundsException("Node " + node + " does not exist");
+		this.words[node >>> 6] ^= 1L << node;
+	}
+
+	/**
+	 * This method returns the internal words array.
+	 * The array is not copied: changes to it modify the state.
+	 * @return the words array
+	 */
+	public long[] getWords(){
+		return this.words;
+	}
+
+	/**
+	 * This method returns the number of active nodes
+	 * @return the number of nodes set to 1
+	 */
+	public int cardinality(){
+		int count = 0;
+		for(long word : this.words)
+			count += Long.bitCount(word);
+		return count;
+	}
+
+	/**
+	 * This method returns the number of nodes with a different value in the two states
+	 * @param other: the other state. It must have the same length.
+	 * @return the Hamming distance between the two states
+	 */
+	public int hammingDistance(BitState other){
+		if(other == null)
+			throw new NullPointerException("The state must be not null");
+		if(other.length != this.length)
+			throw new IllegalArgumentException("The states must have the same length");
+		int distance = 0;
+		for(int w = 0; w < this.words.length; w++)
+			distance += Long.bitCount(this.words[w] ^ other.words[w]);
+		return distance;
+	}
+
+	/**
+	 * This method returns a Boolean array with the node values
+	 * @return the Boolean array
+	 */
+	public Boolean[] toBooleanArray(){
+		Boolean[] converted = new Boolean[this.length];
+		for(int i = 0; i < this.length; i++)
+			converted[i] = ((this.words[i >>> 6] >>> i) & 1L) == 1L ? Boolean.TRUE : Boolean.FALSE;
+		return converted;
+	}
+
+	/**
+	 * This method returns a copy of the state
+	 * @return the copied state
+	 */
+	public BitState copy(){
+		BitState copied = new BitState(this.length);
+		System.arraycopy(this.words, 0, copied.words, 0, this.words.length);
+		return copied;
+	}
+
+	@Override
+	public boolean equals(Object other){
+		if(this == other)
+			return true;
+		if(!(other instanceof BitState))
+			return false;
+		BitState state = (BitState) other;
+		return this.length == state.length && Arrays.equals(this.words, state.words);
+	}
+
+	@Override
+	public int hashCode(){
+		return Arrays.hashCode(this.words);
+	}
+
+	/**
+	 * This method returns the binary string of the state.
+	 * The i-th char of the string is the value of the node i.
+	 */
+	@Override
+	public String toString(){
+		char[] converted = new char[this.length];
+		for(int i = 0; i < this.length; i++)
+			converted[i] = ((this.words[i >>> 6] >>> i) & 1L) == 1L ? '1' : '0';
+		return new String(converted);
+	}
+
+}
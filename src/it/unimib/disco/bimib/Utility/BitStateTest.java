@@ -0,0 +1,80 @@
+package it.unimib.disco.bimib.Utility;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class BitStateTest {
+
+	public BitStateTest() {
+	}
+
+	@Test
+	public void testIndexBitOrder() {
+		//The node 0 is the most significant bit of the index
+		BitState state = BitState.fromIndex(4, 3);
+		assertTrue(state.get(0));
+		assertFalse(state.get(1));
+		assertFalse(state.get(2));
+		assertEquals("100", state.toString());
+
+		state = BitState.fromIndex(1, 3);
+		assertFalse(state.get(0));
+		assertTrue(state.get(2));
+		assertEquals("001", state.toString());
+
+		//The index is the inverse of fromIndex
+		for(long index = 0; index < 32; index++)
+			assertEquals(index, BitState.fromIndex(index, 5).toIndex());
+		assertEquals(BitState.fromString("10110"), BitState.fromIndex(22, 5));
+	}
+
+	@Test
+	public void testSetIndex() {
+		BitState state = new BitState(4);
+		state.set(3, true);
+		state.setIndex(8);
+		assertEquals("1000", state.toString());
+		assertEquals(1, state.cardinality());
+		try{
+			state.setIndex(16);
+			fail();
+		}catch(IllegalArgumentException e){
+		}
+	}
+
+	@Test
+	public void testWords() {
+		BitState state = new BitState(130);
+		assertEquals(3, state.getWords().length);
+		state.set(0, true);
+		state.set(64, true);
+		state.set(129, true);
+		assertEquals(1L, state.getWords()[0]);
+		assertEquals(1L, state.getWords()[1]);
+		assertEquals(2L, state.getWords()[2]);
+		assertEquals(3, state.cardinality());
+		state.flip(129);
+		assertFalse(state.get(129));
+		assertEquals(0L, state.getWords()[2]);
+	}
+
+	@Test
+	public void testEqualsHashCode() {
+		BitState first = BitState.fromString("0110");
+		BitState second = BitState.fromString("0110");
+		assertEquals(first, second);
+		assertEquals(first.hashCode(), second.hashCode());
+
+		//The copy is equal but independent
+		BitState copied = first.copy();
+		assertEquals(first, copied);
+		copied.flip(0);
+		assertNotEquals(first, copied);
+		assertEquals(1, first.hammingDistance(copied));
+
+		//The states with the same words and a different length are different
+		assertNotEquals(new BitState(3), new BitState(4));
+	}
+
+}
@@ -54,6 +54,26 @@ public class OutputConstants {
 	 */
 	public static final String NOT_FOUND_ATTRACTORS = "not-found attractors";
 	
+	/**
+	 * This key is used in order to specifies the maximum number of states stored by a memory-bounded sampling
+	 */
+	public static final String MAX_STORED_STATES = "max-stored-states";
+	
+	/**
+	 * This key is used in order to specifies the number of initial conditions evaluated by an adaptive sampling
+	 */
+	public static final String USED_INITIAL_CONDITIONS = "used-initial-conditions";
+	
+	/**
+	 * This key is used in order to specifies the estimated missing mass of an adaptive sampling
+	 */
+	public static final String MISSING_MASS = "missing-mass";
+	
+	/**
+	 * This key is used in order to specifies the number of the nodes in the frozen core of the network
+	 */
+	public static final String FROZEN_CORE = "frozen-core";
+	
 	
 	
 	
@@ -215,6 +215,23 @@ public class SimulationFeaturesConstants {
 	 */
 	public static final String PARTIAL_SAMPLING = "Partial";
 	
+	/**
+	 * This key is used in order to specify the symbolic sampling method.
+	 * All the attractors and their exact basins are computed with binary decision diagrams.
+	 * Note: the functions of the network must be completely defined and compiled in truth tables with up to 10 inputs
+	 * (the canalizing inputs of the canalized functions), the lazily defined networks are rejected.
+	 */
+	public static final String SYMBOLIC_SAMPLING = "Symbolic";
+	
+	/**
+	 * This key is used in order to specify the modular sampling method.
+	 * All the attractors are computed module by module, following the strongly connected components of the network,
+	 * and their exact basins are computed with binary decision diagrams.
+	 * Note: the functions of the network must be completely defined and compiled in truth tables with up to 10 inputs, 
+	 * and each module should have up to 20 nodes. The lazily defined networks are rejected.
+	 */
+	public static final String MODULAR_SAMPLING = "Modular";
+	
 	/**
 	 * Initial conditions number key. This value, that must be integer and less than 2^nodes_number, 
 	 * indicates the number of random initial conditions to test. 
@@ -378,4 +395,169 @@ public class SimulationFeaturesConstants {
 	 * This key is used in order to specify the names of the nodes to permanently knock-out
 	 */
 	public static final String PERMANENTLY_KNOCK_OUT_NODES = "permanently-knock-out-nodes";
+	
+	/**
+	 * This key is used in order to enable the compilation of the network in a
+	 * specialized step function. Possible values are yes or no.
+	 * Note: this key is optional. The default value is no.
+	 */
+	public static final String NETWORK_COMPILATION = "network-compilation";
+	
+	/**
+	 * This key is used in order to specify the graph representation of the network.
+	 * Possible values are dense (incidence matrix) or sparse (adjacency arrays).
+	 * Note: this key is optional. The default value is dense.
+	 */
+	public static final String GRAPH_REPRESENTATION = "graph-representation";
+	
+	/**
+	 * Dense graph representation value
+	 */
+	public static final String DENSE_REPRESENTATION = "dense";
+	
+	/**
+	 * Sparse graph representation value
+	 */
+	public static final String SPARSE_REPRESENTATION = "sparse";
+	
+	/**
+	 * This key is used in order to specify the number of threads used by the sampling.
+	 * The partial sampling splits the initial conditions between the threads, that share the found attractors;
+	 * the brute force sampling splits the states whose following state is computed.
+	 * The value must be an integer greater than 0. Only the networks that can be bit-sliced
+	 * are sampled in parallel.
+	 * Note: this key is optional. The default value is 1.
+	 */
+	public static final String SAMPLING_THREADS = "sampling-threads";
+	
+	/**
+	 * This key is used in order to specify the directory of the brute force sampling tables.
+	 * The following state, the attractor and the position of each network state are stored in
+	 * memory-mapped files instead of the heap, so networks with up to 32 nodes can be sampled.
+	 * The following states file is named after the network functions and reused by the runs on the same network.
+	 * Note: this key is optional. By default the tables are stored in the heap (up to 30 nodes).
+	 */
+	public static final String BRUTE_FORCE_TABLES_DIRECTORY = "brute-force-tables-directory";
+	
+	/**
+	 * This key is used in order to bound the number of the states stored by the partial sampling.
+	 * When the bound is reached the least recently reached transient states are evicted, while the attractors
+	 * and the basins dimension are always kept: the memory doesn't grow with the transients length,
+	 * but the trajectories merge less often. The basins of attraction count each visited state once: a 64 bit
+	 * fingerprint of each counted state (8-16 bytes) is kept after its eviction.
+	 * The value must be an integer greater than 0.
+	 * Note: this key is optional. By default all the visited states are stored.
+	 */
+	public static final String MAX_STORED_STATES = "max-stored-states";
+	
+	/**
+	 * This key is used in order to stop the partial sampling when the attractors discovery saturates.
+	 * The initial conditions are evaluated in batches and the sampling stops when the Good-Turing estimation
+	 * of the missing mass (the probability that a new initial condition reaches an attractor not yet found)
+	 * is lower than this value. The initial-conditions value becomes the maximum number of initial conditions.
+	 * The value must be a real number between 0 and 1 (excluded).
+	 * Note: this key is optional. By default all the initial conditions are evaluated.
+	 */
+	public static final String MISSING_MASS_THRESHOLD = "missing-mass-threshold";
+	
+	/**
+	 * This key is used in order to specify the generator of the initial conditions of the partial sampling.
+	 * The corresponding value must be Random, LowDiscrepancy or Stratified.
+	 * Note: this key is optional. By default the initial conditions are independent random states.
+	 */
+	public static final String INITIAL_CONDITIONS_GENERATOR = "initial-conditions-generator";
+	
+	/**
+	 * This key is used in order to find the short attractors with a SAT solver before the partial sampling.
+	 * All the attractors with a period up to this value are searched (1 in order to search only the fixed points),
+	 * so the initial conditions have to find only the other ones. At most initial-conditions attractors are searched.
+	 * The value must be an integer greater than 0 and the network functions must be completely defined and compiled in truth tables.
+	 * Note: this key is optional. By default the attractors are found only by sampling.
+	 */
+	public static final String SAT_MAX_PERIOD = "sat-max-period";
+	
+	/**
+	 * This key is used in order to replace the sampled basins of attraction with the exact ones,
+	 * computed backward from the attractors found by the partial sampling. Possible values are yes or no.
+	 * The network functions must be completely defined and compiled in truth tables and the network should have up to 30-40 nodes.
+	 * Note: this key is optional. The default value is no.
+	 */
+	public static final String EXACT_BASINS = "exact-basins";
+	
+	/**
+	 * This key is used in order to sample the reduced network, without the frozen nodes and the nodes that 
+	 * don't regulate any other node. The attractors are found by the specified sampling method on the reduced
+	 * network and lifted to the whole network, while the basins of attraction are the ones of the reduced network.
+	 * Possible values are yes or no. The network functions must be completely defined and compiled in truth tables.
+	 * Note: this key is optional. The default value is no.
+	 */
+	public static final String NETWORK_REDUCTION = "network-reduction";
+	
+	/**
+	 * This key is used in order to find the frozen core of the network, by propagating the values of the constant functions
+	 * through the canalizing inputs. The size of the frozen core is written in the synthesis file. If the network functions
+	 * can be compiled in truth tables, the network without the frozen nodes is sampled by the specified sampling method and
+	 * its attractors are lifted to the whole network (see the network-reduction key, the leaves are kept): the basins of
+	 * attraction and the transients are the ones of the network without the frozen nodes. Otherwise the whole network is
+	 * sampled and the frozen core is only reported. Possible values are yes or no.
+	 * Note: this key is optional. The default value is no.
+	 */
+	public static final String FROZEN_CORE = "frozen-core";
+	
+	/**
+	 * This key is used in order to specify the perpetual mutations of the knockout screening task.
+	 * Possible values are knock-out, knock-in or both.
+	 * Note: this key is optional. The default value is knock-out.
+	 */
+	public static final String SCREENING_MUTATIONS = "screening-mutations";
+	
+	/**
+	 * Knock-out screening mutations value: each mutated gene is always off
+	 */
+	public static final String KNOCK_OUT_SCREENING = "knock-out";
+	
+	/**
+	 * Knock-in screening mutations value: each mutated gene is always on
+	 */
+	public static final String KNOCK_IN_SCREENING = "knock-in";
+	
+	/**
+	 * Knock-in and knock-out screening mutations value: each gene is mutated in both the ways
+	 */
+	public static final String BOTH_SCREENING = "both";
+	
+	/**
+	 * This key is used in order to specify the double mutants evaluated by the knockout screening task.
+	 * Possible values are no, all (every couple of genes) or effective (the couples of single mutations
+	 * that both change the attractors of the network).
+	 * Note: this key is optional. The default value is no.
+	 */
+	public static final String DOUBLE_MUTANTS = "double-mutants";
+	
+	/**
+	 * All the double mutants value
+	 */
+	public static final String ALL_DOUBLE_MUTANTS = "all";
+	
+	/**
+	 * Effective double mutants value: only the couples of single mutations that change the attractors
+	 */
+	public static final String EFFECTIVE_DOUBLE_MUTANTS = "effective";
+	
+	/**
+	 * Random initial conditions generator key: each node is independently active with probability 0.5.
+	 */
+	public static final String RANDOM_GENERATOR = "Random";
+	
+	/**
+	 * Low-discrepancy initial conditions generator key: the states are the points of a scrambled binary digital net,
+	 * so the nodes and the couples of nodes are evenly balanced.
+	 */
+	public static final String LOW_DISCREPANCY_GENERATOR = "LowDiscrepancy";
+	
+	/**
+	 * Stratified initial conditions generator key: the states are stratified by the number of active nodes and distinct
+	 * in each window of 2^18 generated states (max-stored-states states, if the sampling is bounded).
+	 */
+	public static final String STRATIFIED_GENERATOR = "Stratified";
 }
@@ -36,6 +36,13 @@ public class TaskFeaturesConstants {
 	 */
 	public static final String CREATE_AND_MATCH = "create-and-match";
 	
+	/**
+	 * This value specifies the knock-out screening of a given network.
+	 * The network is read and sampled once, then all its single mutants (and, if specified, 
+	 * its double mutants) are evaluated in parallel and summarized in a single file.
+	 */
+	public static final String KNOCKOUT_SCREENING = "knockout-screening";
+	
 	/**
 	 * This key specifies the number of threads to use
 	 */
@@ -53,6 +53,14 @@ public class UtilityRandom {
 	}
 
 
+	/**
+	 * This method returns a random number in [0, 1) with a uniform distribution.
+	 * @return a random double number
+	 */
+	public static double randomUniform(){
+		return Math.random();
+	}
+
 	/**
 	 * This method return a random integer number between min and max - 1.
 	 * @Return a random integer number
@@ -108,12 +116,29 @@ public class UtilityRandom {
 	 * @return: returns a binary n value sequence
 	 */
 	public static String createRandomBinarySequence(int n, double probability){
-		String sequence = "";
+		StringBuilder sequence = new StringBuilder(n);
 		//Generates the Binary sequence. Each value is uniformly distributed
 		for(int i = 0; i < n; i++){
-			sequence += (Math.random() <= probability ? "1" : "0");
+			sequence.append(Math.random() <= probability ? '1' : '0');
+		}
+		return sequence.toString();
+	}
+
+	/**
+	 * This method return a random n nodes network state.
+	 * Each node value is independent and uniformly distributed with probability 'probability'
+	 * @param n: number of nodes
+	 * @param probability: Probability to have an active node
+	 * @return: returns a random n nodes state
+	 */
+	public static BitState createRandomBitState(int n, double probability){
+		BitState state = new BitState(n);
+		//Generates the state. Each node value is uniformly distributed
+		for(int i = 0; i < n; i++){
+			if(Math.random() <= probability)
+				state.set(i, true);
 		}
-		return sequence;
+		return state;
 	}
 
 	/**